@@ -0,0 +1,126 @@
+package nl.NG.Jetfightergame.Benchmarks;
+
+import nl.NG.Jetfightergame.Assets.Entities.FallingCube;
+import nl.NG.Jetfightergame.EntityGeneral.EntityMapping;
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.GameState.EntityList;
+import nl.NG.Jetfightergame.GameState.EntityManagement;
+import nl.NG.Jetfightergame.ServerNetwork.EntitySnapshot;
+import nl.NG.Jetfightergame.ServerNetwork.JetFighterProtocol;
+import nl.NG.Jetfightergame.ServerNetwork.SnapshotDecoder;
+import nl.NG.Jetfightergame.ServerNetwork.SnapshotEncoder;
+import nl.NG.Jetfightergame.Settings.ServerSettings;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * reads the updates of a fixed number of entities into the entity list of a client, as the client does for every
+ * message of the server. The client holds all entities of a {@link SyntheticWorld}, such that the time per update
+ * should not depend on the number of entities in the world.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityUpdateBenchmark {
+    private static final float DELTA_TIME = 1f / ServerSettings.TARGET_TPS;
+    /** number of entities updated per message */
+    private static final int NOF_UPDATED = 100;
+
+    @Param({"100", "1000", "10000"})
+    public int nOfEntities;
+
+    private EntityMapping clientEntities;
+    private ByteArrayInputStream updateMessages;
+    private JetFighterProtocol updateProtocol;
+    private ByteArrayInputStream snapshotMessage;
+    private JetFighterProtocol snapshotProtocol;
+    private SnapshotDecoder decoder;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticWorld world = new SyntheticWorld(nOfEntities, 42);
+        EntityList entities = new EntityList(Collections.emptyList(), EntityManagement.createStaticTree(Collections.emptyList()));
+        for (MovingEntity entity : world.entities) {
+            entities.addEntity(new FallingCube(entity.idNumber(), new PosVector(entity.getPosition())));
+        }
+        clientEntities = new EntityMapping() {
+            @Override
+            public MovingEntity getEntity(int id) {
+                return entities.getEntity(id);
+            }
+
+            @Override
+            public Iterator<MovingEntity> iterator() {
+                return entities.getDynamicEntities().iterator();
+            }
+        };
+
+        // the updated entities are spread over the world
+        Random random = new Random(nOfEntities);
+        boolean[] relevant = new boolean[nOfEntities];
+        for (int n = 0; n < NOF_UPDATED; ) {
+            int i = random.nextInt(nOfEntities);
+            if (!relevant[i]) n++;
+            relevant[i] = true;
+        }
+
+        world.tick(DELTA_TIME);
+        EntitySnapshot baseline = EntitySnapshot.of(1, world.currentTime(), world.entities);
+        world.tick(DELTA_TIME);
+        EntitySnapshot snapshot = EntitySnapshot.of(2, world.currentTime(), world.entities);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JetFighterProtocol server = new JetFighterProtocol(bytes);
+        for (int i = 0; i < nOfEntities; i++) {
+            if (relevant[i]) server.entityUpdateSend(world.entities.get(i), world.currentTime());
+        }
+        server.getOutput().flush();
+        updateMessages = new ByteArrayInputStream(bytes.toByteArray());
+        updateProtocol = new JetFighterProtocol(updateMessages);
+
+        // the client has the baseline, and receives the changes of the relevant entities
+        SnapshotEncoder encoder = new SnapshotEncoder();
+        bytes.reset();
+        server.snapshotSend(encoder, baseline, null);
+        server.getOutput().flush();
+        byte[] baselineMessage = bytes.toByteArray();
+        encoder.acknowledge(baseline.sequence);
+
+        bytes.reset();
+        server.snapshotSend(encoder, snapshot, relevant);
+        server.getOutput().flush();
+        snapshotMessage = new ByteArrayInputStream(bytes.toByteArray());
+        snapshotProtocol = new JetFighterProtocol(snapshotMessage);
+
+        decoder = new SnapshotDecoder();
+        decoder.read(new DataInputStream(new ByteArrayInputStream(baselineMessage)));
+    }
+
+    /** reads one entity update message per updated entity */
+    @Benchmark
+    public float readEntityUpdates() throws IOException {
+        updateMessages.reset();
+        float time = 0;
+        while (updateMessages.available() > 0) {
+            time = updateProtocol.entityUpdateRead(clientEntities);
+        }
+        return time;
+    }
+
+    /** reads one snapshot in which only the updated entities are written */
+    @Benchmark
+    public EntitySnapshot readSnapshot() throws IOException {
+        snapshotMessage.reset();
+        return snapshotProtocol.snapshotRead(decoder, clientEntities);
+    }
+}
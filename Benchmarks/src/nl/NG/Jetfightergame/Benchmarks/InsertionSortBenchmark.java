@@ -0,0 +1,58 @@
+package nl.NG.Jetfightergame.Benchmarks;
+
+import nl.NG.Jetfightergame.Tools.Toolbox;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * sorts an array of which the keys move a little between sorts, as the bounds of moving entities do between ticks
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertionSortBenchmark {
+    /** the maximum distance a key moves between two sorts, relative to the average distance between keys */
+    private static final float JITTER = 2f;
+
+    @Param({"100", "1000", "10000"})
+    public int nOfEntities;
+
+    private Item[] items;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        random = new Random(nOfEntities);
+        items = new Item[nOfEntities];
+        for (int i = 0; i < nOfEntities; i++) {
+            items[i] = new Item(i);
+        }
+    }
+
+    @Benchmark
+    public Item[] sortNearlySorted() {
+        for (Item item : items) {
+            item.key += (random.nextFloat() - 0.5f) * JITTER;
+        }
+        Toolbox.insertionSort(items, Item::key);
+        return items;
+    }
+
+    public static class Item {
+        float key;
+
+        Item(float key) {
+            this.key = key;
+        }
+
+        float key() {
+            return key;
+        }
+    }
+}
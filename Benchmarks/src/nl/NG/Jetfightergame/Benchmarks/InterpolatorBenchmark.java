@@ -0,0 +1,88 @@
+package nl.NG.Jetfightergame.Benchmarks;
+
+import nl.NG.Jetfightergame.Tools.Interpolation.QuaternionInterpolator;
+import nl.NG.Jetfightergame.Tools.Interpolation.VectorInterpolator;
+import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.joml.Quaternionf;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * reads the interpolated state of many entities, as the renderer does each frame, and adds new states, as the client
+ * does each server tick
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpolatorBenchmark {
+    private static final int CAPACITY = 16;
+    private static final float TICK_TIME = 0.05f;
+
+    @Param({"100", "1000", "10000"})
+    public int nOfEntities;
+
+    private VectorInterpolator[] positions;
+    private QuaternionInterpolator[] rotations;
+    private PosVector[] newPositions;
+    private Quaternionf[] newRotations;
+    private final PosVector position = new PosVector();
+    private final DirVector velocity = new DirVector();
+    private final Quaternionf rotation = new Quaternionf();
+
+    private float lastTick;
+    private float renderTime;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(nOfEntities);
+        positions = new VectorInterpolator[nOfEntities];
+        rotations = new QuaternionInterpolator[nOfEntities];
+        newPositions = new PosVector[nOfEntities];
+        newRotations = new Quaternionf[nOfEntities];
+
+        for (int i = 0; i < nOfEntities; i++) {
+            positions[i] = new VectorInterpolator(CAPACITY, new PosVector(), 0);
+            rotations[i] = new QuaternionInterpolator(CAPACITY, new Quaternionf(), 0);
+            newPositions[i] = new PosVector(random.nextFloat(), random.nextFloat(), random.nextFloat());
+            newRotations[i] = new Quaternionf().rotateXYZ(random.nextFloat(), random.nextFloat(), random.nextFloat());
+        }
+
+        for (int t = 0; t < CAPACITY; t++) {
+            addStates();
+        }
+    }
+
+    /** reads the position, rotation and velocity of every entity into reused objects */
+    @Benchmark
+    public float readFrame() {
+        renderTime += TICK_TIME / 3;
+        if (renderTime > lastTick) renderTime -= 2 * TICK_TIME;
+
+        float sum = 0;
+        for (int i = 0; i < nOfEntities; i++) {
+            positions[i].updateTime(renderTime);
+            positions[i].getInterpolated(renderTime, position);
+            positions[i].getDerivative(velocity);
+            rotations[i].getInterpolated(renderTime, rotation);
+            sum += position.x + velocity.y + rotation.w;
+        }
+        return sum;
+    }
+
+    /** adds a new state to every entity */
+    @Benchmark
+    public void addStates() {
+        lastTick += TICK_TIME;
+        for (int i = 0; i < nOfEntities; i++) {
+            positions[i].add(newPositions[i], lastTick);
+            rotations[i].add(newRotations[i], lastTick);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package nl.NG.Jetfightergame.Benchmarks;
+
+import nl.NG.Jetfightergame.Settings.ServerSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * runs the physics of a {@link SyntheticWorld}. The cost of {@code ProximityDetection.analyseCollisions} is the
+ * difference between the two benchmarks.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhysicsBenchmark {
+    private static final float DELTA_TIME = 1f / ServerSettings.TARGET_TPS;
+
+    @Param({"100", "1000"})
+    public int nOfEntities;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private SyntheticWorld world;
+
+    @Setup
+    public void setup() {
+        ServerSettings.PARALLEL_PHYSICS = parallel;
+        world = new SyntheticWorld(nOfEntities, 42);
+        // let the cubes settle into the steady state of the spring force
+        for (int i = 0; i < 20; i++) {
+            world.tick(DELTA_TIME);
+        }
+    }
+
+    /** a full tick: forces, sorting, collisions and the update */
+    @Benchmark
+    public void tick() {
+        world.tick(DELTA_TIME, true);
+    }
+
+    /** a tick that skips the collision analysis */
+    @Benchmark
+    public void tickWithoutCollisions() {
+        world.tick(DELTA_TIME, false);
+    }
+}
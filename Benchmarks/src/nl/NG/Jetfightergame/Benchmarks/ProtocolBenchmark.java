@@ -0,0 +1,132 @@
+package nl.NG.Jetfightergame.Benchmarks;
+
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.ServerNetwork.EntitySnapshot;
+import nl.NG.Jetfightergame.ServerNetwork.JetFighterProtocol;
+import nl.NG.Jetfightergame.ServerNetwork.SnapshotDecoder;
+import nl.NG.Jetfightergame.ServerNetwork.SnapshotEncoder;
+import nl.NG.Jetfightergame.Settings.ServerSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * encodes and decodes the state of the entities of a {@link SyntheticWorld}, as the server sends it to each client
+ * every tick. Snapshots are written either in full, or as the delta of one tick.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtocolBenchmark {
+    private static final float DELTA_TIME = 1f / ServerSettings.TARGET_TPS;
+
+    @Param({"100", "1000"})
+    public int nOfEntities;
+
+    private SyntheticWorld world;
+    private EntitySnapshot baseline;
+    private EntitySnapshot snapshot;
+
+    private ByteArrayOutputStream bytes;
+    private DataOutputStream output;
+    private JetFighterProtocol protocol;
+
+    private SnapshotEncoder deltaEncoder;
+    private SnapshotEncoder fullEncoder;
+    private SnapshotDecoder deltaDecoder;
+    private SnapshotDecoder fullDecoder;
+    private byte[] deltaMessage;
+    private byte[] fullMessage;
+
+    @Setup
+    public void setup() throws IOException {
+        world = new SyntheticWorld(nOfEntities, 42);
+        world.tick(DELTA_TIME);
+        baseline = EntitySnapshot.of(1, world.currentTime(), world.entities);
+        world.tick(DELTA_TIME);
+        snapshot = EntitySnapshot.of(2, world.currentTime(), world.entities);
+
+        bytes = new ByteArrayOutputStream();
+        output = new DataOutputStream(bytes);
+        protocol = new JetFighterProtocol(new ByteArrayInputStream(handshake()), bytes);
+        bytes.reset();
+
+        fullEncoder = new SnapshotEncoder();
+        deltaEncoder = new SnapshotEncoder();
+        deltaEncoder.write(output, baseline);
+        byte[] baselineMessage = message();
+        deltaEncoder.acknowledge(baseline.sequence);
+        deltaEncoder.write(output, snapshot);
+        deltaMessage = message();
+        fullEncoder.write(output, snapshot);
+        fullMessage = message();
+
+        fullDecoder = new SnapshotDecoder();
+        deltaDecoder = new SnapshotDecoder();
+        deltaDecoder.read(new DataInputStream(new ByteArrayInputStream(baselineMessage)));
+    }
+
+    /** captures the state of all entities */
+    @Benchmark
+    public EntitySnapshot captureSnapshot() {
+        return EntitySnapshot.of(2, world.currentTime(), world.entities);
+    }
+
+    @Benchmark
+    public byte[] encodeFullSnapshot() throws IOException {
+        fullEncoder.reset();
+        fullEncoder.write(output, snapshot);
+        return message();
+    }
+
+    @Benchmark
+    public byte[] encodeDeltaSnapshot() throws IOException {
+        deltaEncoder.write(output, snapshot);
+        return message();
+    }
+
+    @Benchmark
+    public EntitySnapshot decodeFullSnapshot() throws IOException {
+        fullDecoder.reset();
+        return fullDecoder.read(new DataInputStream(new ByteArrayInputStream(fullMessage)));
+    }
+
+    @Benchmark
+    public EntitySnapshot decodeDeltaSnapshot() throws IOException {
+        return deltaDecoder.read(new DataInputStream(new ByteArrayInputStream(deltaMessage)));
+    }
+
+    /** writes every entity as a separate update, the format used before snapshots */
+    @Benchmark
+    public byte[] encodeEntityUpdates() throws IOException {
+        float time = world.currentTime();
+        for (MovingEntity entity : world.entities) {
+            protocol.entityUpdateSend(entity, time);
+        }
+        protocol.getOutput().flush();
+        return message();
+    }
+
+    /** @return the bytes written since the last call */
+    private byte[] message() throws IOException {
+        output.flush();
+        byte[] result = bytes.toByteArray();
+        bytes.reset();
+        return result;
+    }
+
+    /** @return the bytes the other side sends when a protocol is created */
+    private static byte[] handshake() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(JetFighterProtocol.versionNumber);
+        data.write(0); // StatusCode.OK
+        data.flush();
+        return out.toByteArray();
+    }
+}
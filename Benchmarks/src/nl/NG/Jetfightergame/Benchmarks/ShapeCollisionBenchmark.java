@@ -0,0 +1,107 @@
+package nl.NG.Jetfightergame.Benchmarks;
+
+import nl.NG.Jetfightergame.Assets.Shapes.GeneralShapes;
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.Collision;
+import nl.NG.Jetfightergame.Primitives.Plane;
+import nl.NG.Jetfightergame.ShapeCreation.Shape;
+import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * casts line segments through the bounding box of a shape using {@link Shape#getCollision(PosVector, DirVector,
+ * PosVector)}. The island is the part of the first map with the most planes.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeCollisionBenchmark {
+    private static final int NOF_SEGMENTS = 1024;
+
+    @Param({"CUBE", "ICOSAHEDRON", "ISLAND"})
+    public String shapeName;
+
+    private Shape shape;
+    private PosVector[] starts;
+    private DirVector[] directions;
+    private PosVector[] ends;
+
+    @Setup
+    public void setup() {
+        GeneralShapes.init(false);
+        switch (shapeName) {
+            case "CUBE":
+                shape = GeneralShapes.CUBE;
+                break;
+            case "ICOSAHEDRON":
+                shape = GeneralShapes.ICOSAHEDRON;
+                break;
+            case "ISLAND":
+                shape = largest(GeneralShapes.ISLAND1);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shapeName);
+        }
+
+        PosVector min = new PosVector(Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE);
+        PosVector max = new PosVector(-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+        for (PosVector point : shape.getPoints()) {
+            min.min(point);
+            max.max(point);
+        }
+        DirVector size = min.to(max, new DirVector());
+
+        Random random = new Random(NOF_SEGMENTS);
+        starts = new PosVector[NOF_SEGMENTS];
+        directions = new DirVector[NOF_SEGMENTS];
+        ends = new PosVector[NOF_SEGMENTS];
+        for (int i = 0; i < NOF_SEGMENTS; i++) {
+            starts[i] = randomPoint(random, min, size);
+            ends[i] = randomPoint(random, min, size);
+            directions[i] = starts[i].to(ends[i], new DirVector());
+        }
+    }
+
+    /** @return the number of segments that hit the shape */
+    @Benchmark
+    public int castSegments() {
+        int hits = 0;
+        for (int i = 0; i < NOF_SEGMENTS; i++) {
+            Collision collision = shape.getCollision(starts[i], directions[i], ends[i]);
+            if (collision != null) hits++;
+        }
+        return hits;
+    }
+
+    /** @return a random point in the box twice the size of the given box, with the same middle */
+    private static PosVector randomPoint(Random random, PosVector min, DirVector size) {
+        return new PosVector(
+                min.x + (random.nextFloat() * 2 - 0.5f) * size.x,
+                min.y + (random.nextFloat() * 2 - 0.5f) * size.y,
+                min.z + (random.nextFloat() * 2 - 0.5f) * size.z
+        );
+    }
+
+    private static Shape largest(Iterable<Shape> shapes) {
+        Shape best = null;
+        int bestPlanes = -1;
+        for (Shape s : shapes) {
+            int nOfPlanes = 0;
+            for (Plane ignored : s.getPlanes()) {
+                nOfPlanes++;
+            }
+            if (nOfPlanes > bestPlanes) {
+                best = s;
+                bestPlanes = nOfPlanes;
+            }
+        }
+        return best;
+    }
+}
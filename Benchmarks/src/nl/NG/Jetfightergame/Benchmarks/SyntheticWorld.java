@@ -0,0 +1,152 @@
+package nl.NG.Jetfightergame.Benchmarks;
+
+import nl.NG.Jetfightergame.Assets.Entities.FallingCube;
+import nl.NG.Jetfightergame.Assets.Entities.FighterJets.AbstractJet;
+import nl.NG.Jetfightergame.Assets.Shapes.GeneralShapes;
+import nl.NG.Jetfightergame.Engine.GameTimer;
+import nl.NG.Jetfightergame.EntityGeneral.Factory.EntityFactory;
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.EntityGeneral.Powerups.PowerupEntity;
+import nl.NG.Jetfightergame.EntityGeneral.Powerups.PowerupType;
+import nl.NG.Jetfightergame.GameState.ProximityDetection;
+import nl.NG.Jetfightergame.GameState.SpawnReceiver;
+import nl.NG.Jetfightergame.Rendering.Material;
+import nl.NG.Jetfightergame.Rendering.Particles.ParticleCloud;
+import nl.NG.Jetfightergame.Sound.AudioSource;
+import nl.NG.Jetfightergame.Tools.Vectors.Color4f;
+import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.joml.Quaternionf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * A headless world of cubes, spread at a fixed density over a region that grows with the number of cubes. A spring
+ * force toward the origin keeps the cubes together, such that the number of collisions per tick stays about the same
+ * over many ticks.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class SyntheticWorld implements SpawnReceiver {
+    /** volume per cube in cubic meters */
+    private static final float VOLUME_PER_ENTITY = 200f;
+    private static final float SPRING_FORCE = 5f;
+    private static final float MAX_SPEED = 10f;
+
+    public final ProximityDetection physics;
+    public final List<MovingEntity> entities;
+    private final GameTimer timer = new GameTimer();
+    private float currentTime = 0;
+
+    /**
+     * @param nOfEntities the number of cubes in the world
+     * @param seed        seed of the placement of the cubes, such that runs are comparable
+     */
+    public SyntheticWorld(int nOfEntities, long seed) {
+        GeneralShapes.init(false);
+
+        Random random = new Random(seed);
+        float size = (float) Math.cbrt(nOfEntities * VOLUME_PER_ENTITY);
+        entities = new ArrayList<>(nOfEntities);
+
+        for (int i = 0; i < nOfEntities; i++) {
+            PosVector position = new PosVector(
+                    (random.nextFloat() - 0.5f) * size,
+                    (random.nextFloat() - 0.5f) * size,
+                    (random.nextFloat() - 0.5f) * size
+            );
+            DirVector velocity = new DirVector(
+                    (random.nextFloat() - 0.5f) * MAX_SPEED,
+                    (random.nextFloat() - 0.5f) * MAX_SPEED,
+                    (random.nextFloat() - 0.5f) * MAX_SPEED
+            );
+            entities.add(new Cube(i + 1, position, velocity, this));
+        }
+
+        physics = new ProximityDetection(Collections.emptyList());
+        physics.addEntities(entities);
+        physics.preUpdateEntities(this::springForce);
+    }
+
+    /**
+     * executes one game tick on the entities, as done by the game state
+     * @param deltaTime the time since the previous tick
+     */
+    public void tick(float deltaTime) {
+        tick(deltaTime, true);
+    }
+
+    /**
+     * executes one game tick on the entities
+     * @param deltaTime  the time since the previous tick
+     * @param collisions if false, entities move through each other
+     */
+    public void tick(float deltaTime, boolean collisions) {
+        currentTime += deltaTime;
+        physics.preUpdateEntities(this::springForce);
+        if (collisions) physics.analyseCollisions(currentTime, deltaTime, collision -> PosVector.zeroVector());
+        physics.updateEntities(currentTime);
+    }
+
+    /** @return the time of the last tick */
+    public float currentTime() {
+        return currentTime;
+    }
+
+    private DirVector springForce(MovingEntity entity, DirVector dest) {
+        dest.set(entity.getPosition());
+        return dest.scale(-SPRING_FORCE * entity.getMass(), dest);
+    }
+
+    @Override
+    public void add(EntityFactory entityFactory) {
+    }
+
+    @Override
+    public void add(ParticleCloud particles) {
+    }
+
+    @Override
+    public void add(AudioSource source) {
+    }
+
+    @Override
+    public GameTimer getTimer() {
+        return timer;
+    }
+
+    @Override
+    public void addExplosion(PosVector position, DirVector direction, Color4f color1, Color4f color2, float power, int density, float lingerTime, float particleSize) {
+    }
+
+    @Override
+    public void powerupCollect(PowerupEntity powerup, float collectionTime, boolean isCollected) {
+    }
+
+    @Override
+    public void playerPowerupState(AbstractJet jet, PowerupType newType) {
+    }
+
+    @Override
+    public void addGravitySource(Supplier<PosVector> position, float magnitude, float duration) {
+    }
+
+    @Override
+    public void boosterColorChange(AbstractJet jet, Color4f color1, Color4f color2, float duration) {
+    }
+
+    @Override
+    public boolean isHeadless() {
+        return true;
+    }
+
+    /** a falling cube that lives in this world */
+    private static class Cube extends FallingCube {
+        Cube(int id, PosVector position, DirVector velocity, SyntheticWorld world) {
+            super(id, Material.SILVER, 100f, 1f, position, velocity, new Quaternionf(), world.timer, world);
+        }
+    }
+}
@@ -30,6 +30,12 @@ public class RocketAI implements Controller {
     protected DirVector zVec;
     protected float explodeDistSq;
     private final boolean doExtrapolate;
+    /** the vectors written by {@link #update()}, reused every update */
+    private final DirVector toTargetBuffer = new DirVector();
+    private final DirVector xBuffer = new DirVector();
+    private final DirVector yBuffer = new DirVector();
+    private final DirVector zBuffer = new DirVector();
+    private final DirVector crossBuffer = new DirVector();
 
     /**
      * a controller that tries to send the projectile in the anticipated direction of target, assuming the given speed
@@ -77,14 +83,17 @@ public class RocketAI implements Controller {
     public void update() {
         if (TemporalEntity.isOverdue(target)) return;
 
-        projectilePos = projectile.getPosition();
+        projectile.getPosition(projectilePos);
         targetPos = getTargetPosition();
 
-        vecToTarget = projectilePos.to(targetPos, new DirVector());
+        vecToTarget = projectilePos.to(targetPos, toTargetBuffer);
         vecToTarget.normalize();
-        xVec = projectile.relativeDirection(DirVector.xVector());
-        yVec = projectile.relativeDirection(DirVector.yVector());
-        zVec = projectile.relativeDirection(DirVector.zVector());
+        xBuffer.set(1, 0, 0);
+        yBuffer.set(0, 1, 0);
+        zBuffer.set(0, 0, 1);
+        xVec = projectile.relativeDirection(xBuffer, xBuffer);
+        yVec = projectile.relativeDirection(yBuffer, yBuffer);
+        zVec = projectile.relativeDirection(zBuffer, zBuffer);
 
         xVec.normalize();
         yVec.normalize();
@@ -165,7 +174,7 @@ public class RocketAI implements Controller {
 
     @Override
     public float roll() {
-        DirVector cross = vecToTarget.cross(xVec, new DirVector());
+        DirVector cross = vecToTarget.cross(xVec, crossBuffer);
         float dot = zVec.dot(cross);
         return bound(dot * rollFactor, -1, 1);
     }
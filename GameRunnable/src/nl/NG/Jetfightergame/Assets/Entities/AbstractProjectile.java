@@ -48,6 +48,10 @@ public abstract class AbstractProjectile extends MovingEntity implements Tempora
     protected final AbstractJet sourceJet;
     protected MovingEntity target = null;
     private float rotationPreserveFactor;
+    /** scratch space of {@link #applyPhysics(DirVector)} */
+    private final DirVector physicsTemp = new DirVector();
+    private final DirVector airResistance = new DirVector();
+    private final Quaternionf turnBack = new Quaternionf();
 
     /**
      * a projectile has no planes (it cannot be hit) and only one hitpoint on (0,0,0). An instance is initially
@@ -109,8 +113,9 @@ public abstract class AbstractProjectile extends MovingEntity implements Tempora
     public void applyPhysics(DirVector netForce) {
         float deltaTime = gameTimer.getGameTime().difference();
 
-        relativeDirection(DirVector.xVector()).normalize(forward);
-        DirVector temp = new DirVector();
+        forward.set(1, 0, 0);
+        relativeDirection(forward, forward).normalize();
+        DirVector temp = physicsTemp;
         controller.update();
 
         // rotation reduction
@@ -138,7 +143,6 @@ public abstract class AbstractProjectile extends MovingEntity implements Tempora
         reduceDriftLinear(extraVelocity, red, red);
 
         // air-resistance
-        DirVector airResistance = new DirVector();
         float speedSq = velocity.lengthSquared();
         velocity.reducedTo(speedSq * airResistCoeff * -1, airResistance);
         netForce.add(airResistance);
@@ -153,7 +157,7 @@ public abstract class AbstractProjectile extends MovingEntity implements Tempora
     }
 
     private void reduceDriftLinear(DirVector ev, float yReduction, float zReduction) {
-        Quaternionf turnBack = rotation.invert(new Quaternionf());
+        rotation.invert(turnBack);
         ev.rotate(turnBack);
         float ny = ev.y - yReduction;
         float nz = ev.z - zReduction;
@@ -184,6 +188,11 @@ public abstract class AbstractProjectile extends MovingEntity implements Tempora
         timeToLive -= deltaTime;
     }
 
+    @Override
+    protected boolean hasIndependentPhysics() {
+        return controller.isIndependent();
+    }
+
     @Override
     public float getRange() {
         return 0;
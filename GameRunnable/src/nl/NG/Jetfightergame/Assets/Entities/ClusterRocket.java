@@ -102,6 +102,12 @@ public class ClusterRocket extends AbstractProjectile {
         ));
     }
 
+    @Override
+    protected boolean hasIndependentPhysics() {
+        // explodes in updateShape
+        return false;
+    }
+
     @Override
     protected void updateShape(float deltaTime) {
         if (!hasExploded && controller.primaryFire()) {
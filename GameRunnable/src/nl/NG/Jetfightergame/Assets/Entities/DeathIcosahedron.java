@@ -109,6 +109,12 @@ public class DeathIcosahedron extends AbstractProjectile {
         );
     }
 
+    @Override
+    protected boolean hasIndependentPhysics() {
+        // spawns seekers in updateShape
+        return false;
+    }
+
     @Override
     protected void updateShape(float deltaTime) {
         super.updateShape(deltaTime);
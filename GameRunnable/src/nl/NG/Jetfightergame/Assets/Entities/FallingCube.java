@@ -28,6 +28,8 @@ public class FallingCube extends MovingEntity {
     private final float range;
     private Material surfaceMaterial;
     private final float scale;
+    /** scratch vector of {@link #applyPhysics(DirVector)} */
+    private final DirVector movement = new DirVector();
 
     /**
      * test entity cube of size 2*2*2 and mass 10.
@@ -68,6 +70,11 @@ public class FallingCube extends MovingEntity {
         rollSpeed += (Toolbox.random.nextFloat() - 0.5f) * factor;
     }
 
+    @Override
+    protected boolean hasIndependentPhysics() {
+        return true;
+    }
+
     @Override
     protected void updateShape(float deltaTime) {
     }
@@ -76,7 +83,7 @@ public class FallingCube extends MovingEntity {
     public void applyPhysics(DirVector netForce) {
         float deltaTime = gameTimer.getGameTime().difference();
         velocity.add(netForce.scale(deltaTime / mass, extraVelocity), extraVelocity);
-        position.add(extraVelocity.scale(deltaTime, new DirVector()), extraPosition);
+        position.add(extraVelocity.scale(deltaTime, movement), extraPosition);
         rotation.rotateXYZ(rollSpeed * deltaTime, pitchSpeed * deltaTime, yawSpeed * deltaTime, extraRotation);
     }
 
@@ -3,6 +3,8 @@ package nl.NG.Jetfightergame.Assets.Entities.FighterJets;
 import nl.NG.Jetfightergame.Assets.Entities.AbstractShield;
 import nl.NG.Jetfightergame.Controllers.Controller;
 import nl.NG.Jetfightergame.Engine.GameTimer;
+import nl.NG.Jetfightergame.Engine.Profiling.TickPhase;
+import nl.NG.Jetfightergame.Engine.Profiling.TickProfiler;
 import nl.NG.Jetfightergame.EntityGeneral.EntityMapping;
 import nl.NG.Jetfightergame.EntityGeneral.EntityState;
 import nl.NG.Jetfightergame.EntityGeneral.Factory.EntityClass;
@@ -75,8 +77,14 @@ public abstract class AbstractJet extends MovingEntity {
     private DirVector forward;
     private VectorInterpolator forwardInterpolator;
     private VectorInterpolator velocityInterpolator;
+    /** scratch space of {@link #gyroPhysics(float, DirVector, DirVector)} */
+    private final DirVector physicsTemp = new DirVector();
+    private final DirVector airResistance = new DirVector();
+    private final Quaternionf turnBack = new Quaternionf();
 
     private PowerupType currentPowerup = PowerupType.NONE;
+    /** whether the current powerup is used in the next call to applyEffects */
+    private boolean firePowerup = false;
     protected Color4f color;
 
     /**
@@ -141,20 +149,36 @@ public abstract class AbstractJet extends MovingEntity {
 
     @Override
     public void applyPhysics(DirVector netForce) {
+        TickProfiler profiler = entityDeposit.getProfiler();
+        long start = profiler.start();
         controller.update();
+        profiler.stop(TickPhase.AI, start);
 
         float time = gameTimer.time();
         float deltaTime = gameTimer.getGameTime().difference();
-        speedModifiers.removeIf(p -> p.right < time);
+        if (!speedModifiers.isEmpty()) speedModifiers.removeIf(p -> p.right < time);
 
         gyroPhysics(deltaTime, netForce, velocity);
 
-        relativeDirection(DirVector.xVector()).normalize(forward);
-        if (currentPowerup != PowerupType.NONE && controller.primaryFire()) {
+        forward.set(1, 0, 0);
+        relativeDirection(forward, forward).normalize();
+        firePowerup = (currentPowerup != PowerupType.NONE) && controller.primaryFire();
+    }
+
+    @Override
+    public void applyEffects() {
+        if (firePowerup) {
+            firePowerup = false;
             usePowerup();
         }
     }
 
+    @Override
+    protected boolean hasIndependentPhysics() {
+        // powerups are used in applyEffects
+        return controller.isIndependent();
+    }
+
     @Override
     public Collision checkCollisionWith(Touchable other, float deltaTime) {
         if (other instanceof AbstractShield) return null;
@@ -176,7 +200,7 @@ public abstract class AbstractJet extends MovingEntity {
      * @param velocity  movement vector with length in (m/s)
      */
     private void gyroPhysics(float deltaTime, DirVector netForce, DirVector velocity) {
-        DirVector temp = new DirVector();
+        DirVector temp = physicsTemp;
 
         // thrust forces
         float throttle = controller.throttle();
@@ -194,7 +218,7 @@ public abstract class AbstractJet extends MovingEntity {
         float zPres = Toolbox.instantPreserveFraction(zPreservation, deltaTime);
 
         // transform velocity to local, reduce drifting, then transform back to global space
-        Quaternionf turnBack = rotation.invert(new Quaternionf());
+        rotation.invert(turnBack);
         extraVelocity.rotate(turnBack);
         extraVelocity.mul(1f, yPres, zPres);
         extraVelocity.rotate(rotation);
@@ -213,7 +237,6 @@ public abstract class AbstractJet extends MovingEntity {
         rollSpeed += controller.roll() * instRollAcc;
 
         // air-resistance
-        DirVector airResistance = new DirVector();
         float speedSq = velocity.lengthSquared();
         float brake = (throttle < 0) ? ((1 - throttle * brakePower) + 1) : 1;
         float resistance = airResistCoeff * brake;
@@ -240,10 +263,12 @@ public abstract class AbstractJet extends MovingEntity {
         super.addStatePoint(currentTime, newPosition, newRotation);
         forward = DirVector.xVector();
         forward.rotate(rotation);
-        forwardInterpolator.add(new DirVector(forward), currentTime);
+        super.velocityAtRenderTime(velocity);
 
-        velocity.set(super.velocityAtRenderTime());
-        velocityInterpolator.add(new DirVector(velocity), currentTime);
+        if (!entityDeposit.isHeadless()) {
+            forwardInterpolator.add(new DirVector(forward), currentTime);
+            velocityInterpolator.add(new DirVector(velocity), currentTime);
+        }
     }
 
     @Override
@@ -255,21 +280,33 @@ public abstract class AbstractJet extends MovingEntity {
      * @return forward in world-space (normalized, safe copy)
      */
     public DirVector getForward() {
+        return getForward(new DirVector());
+    }
+
+    /**
+     * @param dest the vector to write forward in world-space (normalized) into
+     * @return dest
+     */
+    public DirVector getForward(DirVector dest) {
         if (entityDeposit.isHeadless()) {
-            return new DirVector(forward);
+            dest.set(forward);
         } else {
-            forwardInterpolator.updateTime(renderTime());
-            return forwardInterpolator.getInterpolated(renderTime()).toDirVector();
+            float time = renderTime();
+            forwardInterpolator.updateTime(time);
+            forwardInterpolator.getInterpolated(time, dest);
         }
+        return dest;
     }
 
     @Override
-    public DirVector getVelocity() {
+    public DirVector getVelocity(DirVector dest) {
         if (entityDeposit.isHeadless()) {
-            return super.getVelocity();
+            return super.getVelocity(dest);
         } else {
-            velocityInterpolator.updateTime(renderTime());
-            return velocityInterpolator.getInterpolated(renderTime()).toDirVector();
+            float time = renderTime();
+            velocityInterpolator.updateTime(time);
+            velocityInterpolator.getInterpolated(time, dest);
+            return dest;
         }
     }
 
@@ -134,6 +134,12 @@ public class GrapplingHook extends AbstractProjectile {
         }
     }
 
+    @Override
+    protected boolean hasIndependentPhysics() {
+        // follows the hooked jet
+        return false;
+    }
+
     public PosVector interpolatedPosition() {
         if (hookedOther != null) return hookedOther.getPosition();
         return getPosition();
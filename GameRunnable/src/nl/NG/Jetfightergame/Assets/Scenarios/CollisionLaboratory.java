@@ -93,7 +93,7 @@ public class CollisionLaboratory extends GameState {
 
     @SuppressWarnings("ConstantConditions")
     @Override
-    public DirVector entityNetforce(MovingEntity entity) {
+    public DirVector entityNetforce(MovingEntity entity, DirVector dest) {
 
         final int version = 3;
 
@@ -101,17 +101,17 @@ public class CollisionLaboratory extends GameState {
             case 1:
                 // toward middle
                 final DirVector middle = DirVector.random();//.scale(labSize, new DirVector());
-                entity.getPosition().to(middle, middle);
-                return middle;
+                return entity.getPosition().to(middle, dest);
             case 2:
                 // random
-                return DirVector.random().scale(labSize, new DirVector());
+                return DirVector.random().scale(labSize, dest);
             case 3:
                 // gravity
-                final DirVector g = new DirVector(0, 0, -9.81f);
-                return g.scale(entity.getMass(), g);
+                dest.set(0, 0, -9.81f);
+                return dest.scale(entity.getMass(), dest);
         }
-        return DirVector.zeroVector();
+        dest.zero();
+        return dest;
     }
 
     @Override
@@ -64,8 +64,9 @@ public class CubeWorld extends GameState {
     }
 
     @Override
-    public DirVector entityNetforce(MovingEntity entity) {
-        return DirVector.zeroVector();
+    public DirVector entityNetforce(MovingEntity entity, DirVector dest) {
+        dest.zero();
+        return dest;
     }
 
     @Override
@@ -120,7 +120,8 @@ public class IslandMap extends GameState {
     }
 
     @Override
-    public DirVector entityNetforce(MovingEntity entity) {
-        return DirVector.zeroVector();
+    public DirVector entityNetforce(MovingEntity entity, DirVector dest) {
+        dest.zero();
+        return dest;
     }
 }
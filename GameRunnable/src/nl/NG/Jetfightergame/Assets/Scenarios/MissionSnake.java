@@ -48,9 +48,9 @@ public class MissionSnake extends GameState {
     private static final Shape gameFloor = makeFloorTiles();
 
     @Override
-    public DirVector entityNetforce(MovingEntity entity) {
-        final DirVector g = new DirVector(0, 0, -9.81f);
-        return g.scale(entity.getMass(), g);
+    public DirVector entityNetforce(MovingEntity entity, DirVector dest) {
+        dest.set(0, 0, -9.81f);
+        return dest.scale(entity.getMass(), dest);
     }
 
     @Override
@@ -81,8 +81,9 @@ public class PlayerJetLaboratory extends GameState {
     }
 
     @Override
-    public DirVector entityNetforce(MovingEntity entity) {
-        return DirVector.zeroVector();
+    public DirVector entityNetforce(MovingEntity entity, DirVector dest) {
+        dest.zero();
+        return dest;
     }
 
     @Override
@@ -75,7 +75,7 @@ public final class GeneralShapes {
         ROCKET = makeWingedRocket(doLoadMesh);
 
         Path toJet = Directory.meshes.getPath("ConceptBlueprint.obj");
-        CustomJetShapes.BASIC = new BasicShape(new ShapeParameters(PosVector.zeroVector(), 0.5f, toJet, "Basic jet"), doLoadMesh);
+        CustomJetShapes.BASIC = new BasicShape(MeshCache.loadModel(PosVector.zeroVector(), 0.5f, toJet, "Basic jet"), doLoadMesh);
         CustomJetShapes.SPITZ = CustomJetShapes.makeSpitzPlane(doLoadMesh);
         CustomJetShapes.NIGHT_HAWK = CustomJetShapes.makeNightHawk(doLoadMesh);
 
@@ -1,7 +1,9 @@
 package nl.NG.Jetfightergame.Assets.WorldObjects;
 
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.CollisionContext;
 import nl.NG.Jetfightergame.Primitives.Plane;
 import nl.NG.Jetfightergame.Rendering.MatrixStack.GL2;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.InstanceBuffer;
 import nl.NG.Jetfightergame.ShapeCreation.CustomShape;
 import nl.NG.Jetfightergame.ShapeCreation.Mesh;
 import nl.NG.Jetfightergame.ShapeCreation.Shape;
@@ -17,6 +19,8 @@ import java.util.Collections;
 public class CheckpointRing implements Shape {
     private Mesh mesh = null;
     private Plane hitPlane;
+    /** {x, y, z, radius} containing the visible ring */
+    private final float[] boundingSphere;
 
     /**
      * create a torus with 4 sides. Its center is on (0, 0, 0) and lies on the YZ plane.
@@ -27,6 +31,9 @@ public class CheckpointRing implements Shape {
      */
     public CheckpointRing(int radialParts, float ringThiccness, boolean loadMesh) {
         DirVector orthogonal = DirVector.zVector();
+        // the outer edges of the ring are ringThiccness away from the circle, in both the radial and the x direction
+        float outer = 1 + ringThiccness;
+        boundingSphere = new float[]{0, 0, 0, (float) Math.sqrt(outer * outer + ringThiccness * ringThiccness)};
 
         float angle = (float) ((2 * Math.PI) / radialParts);
         AxisAngle4f axis = new AxisAngle4f(angle, 1, 0, 0);
@@ -87,7 +94,7 @@ public class CheckpointRing implements Shape {
 
         hitPlane = new Plane(ring, new DirVector(-1, 0, 0)) {
             @Override
-            protected boolean encapsulates(PosVector hitPos) {
+            protected boolean encapsulates(PosVector hitPos, CollisionContext context) {
                 return hitPos.lengthSquared() < 1;
             }
         };
@@ -98,16 +105,31 @@ public class CheckpointRing implements Shape {
         return Collections.singleton(hitPlane);
     }
 
+    @Override
+    public void checkCollision(PosVector linePosition, DirVector direction, PosVector endPoint, CollisionContext context) {
+        context.check(hitPlane, linePosition, direction, endPoint);
+    }
+
     @Override
     public Iterable<PosVector> getPoints() {
         return Collections.EMPTY_LIST;
     }
 
+    @Override
+    public float[] getBoundingSphere() {
+        return boundingSphere;
+    }
+
     @Override
     public void render(GL2.Painter lock) {
         mesh.render(lock);
     }
 
+    @Override
+    public boolean renderInstanced(GL2.Painter lock, InstanceBuffer instances, int count) {
+        return mesh.renderInstanced(lock, instances, count);
+    }
+
     @Override
     public void dispose() {
         mesh.dispose();
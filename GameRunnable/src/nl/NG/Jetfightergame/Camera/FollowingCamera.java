@@ -55,7 +55,7 @@ public class FollowingCamera implements Camera {
         if (!targetPos.isScalable()) return PosVector.zeroVector();
 
         final DirVector relative = target.relativeDirection(relativePosition);
-        return targetPos.add(relative, new PosVector());
+        return targetPos.add(relative, targetPos);
     }
 
     /**
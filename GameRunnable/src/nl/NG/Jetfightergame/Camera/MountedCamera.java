@@ -39,7 +39,7 @@ public class MountedCamera implements Camera {
 
     @Override
     public PosVector getEye() {
-        final PosVector dest = new PosVector(target.getPosition());
+        final PosVector dest = target.getPosition(new PosVector());
         dest.add(target.getPilotEyePosition(), dest);
         return dest;
     }
@@ -59,7 +59,7 @@ public class SpectatorFollowingCamera implements Camera {
         if (!targetPos.isScalable()) return PosVector.zeroVector();
 
         final DirVector relative = target.relativeDirection(relativePosition);
-        return targetPos.add(relative, new PosVector());
+        return targetPos.add(relative, targetPos);
     }
 
     /**
@@ -82,6 +82,14 @@ public interface Controller {
     /** @return true iff this controller does not need passive synchronisation */
     boolean isActiveController();
 
+    /**
+     * @return true iff {@link #update()} does not read the state of any entity and may be called from any thread. Such
+     *         controllers allow the controlled entity to be updated in parallel with other entities.
+     */
+    default boolean isIndependent() {
+        return false;
+    }
+
     /** return any resources associated with this controller */
     default void cleanUp() {
     }
@@ -128,5 +136,10 @@ public interface Controller {
         public boolean isActiveController() {
             return true;
         }
+
+        @Override
+        public boolean isIndependent() {
+            return true;
+        }
     }
 }
@@ -27,6 +27,8 @@ public abstract class AbstractGameLoop extends Thread {
     private AveragingQueue avgPoss;
     private final Supplier<String> tickCounter;
     private final Supplier<String> possessionCounter;
+    /** measures the iterations when executed by a {@link GameLoopPool}, null until the first iteration */
+    private Timer poolTimer = null;
 
     /**
      * creates a new, paused gameloop
@@ -128,6 +130,71 @@ public abstract class AbstractGameLoop extends Thread {
         Logger.DEBUG.print(this + " is stopped");
     }
 
+    /**
+     * executes a single iteration of the loop, for when this loop is executed by a {@link GameLoopPool} instead of by
+     * its own thread. While paused, nothing is executed.
+     * @return false if the loop has stopped and is cleaned up, after which this may not be called again
+     */
+    boolean runIteration() {
+        if (shouldStop) {
+            cleanup();
+            Logger.DEBUG.print(this + " is stopped");
+            return false;
+        }
+
+        if (pauseBlock.getCount() > 0) {
+            // the paused time does not count as delta time
+            isPaused = true;
+            poolTimer = null;
+            return true;
+        }
+        isPaused = false;
+
+        float deltaTime = 0;
+        if (poolTimer == null) {
+            poolTimer = new Timer();
+
+        } else {
+            poolTimer.updateLoopTime();
+            deltaTime = poolTimer.getElapsedSeconds();
+            avgTPS.add(1000f / Math.max(poolTimer.getElapsedTime(), 1));
+        }
+
+        try {
+            update(deltaTime);
+
+        } catch (Exception ex) {
+            Logger.ERROR.print(this + " has Crashed! Blame Menno.");
+            exceptionHandler(ex);
+            shouldStop = true;
+            cleanup();
+            return false;
+        }
+
+        avgPoss.add(poolTimer.getTimeSinceLastUpdate() / targetDeltaMillis);
+        return true;
+    }
+
+    /** @return the number of nanoseconds between the start of two iterations at the target tps */
+    long getTargetDeltaNanos() {
+        return (long) (targetDeltaMillis * 1_000_000);
+    }
+
+    /** @return the average number of iterations per second of the last half second */
+    public float getTPS() {
+        return avgTPS.average();
+    }
+
+    /** @return the average fraction of the target time of an iteration that the iterations take */
+    public float getPossession() {
+        return avgPoss.average();
+    }
+
+    /** @return true if {@link #stopLoop()} has been called */
+    public boolean isStopping() {
+        return shouldStop;
+    }
+
     /**
      * is executed after printing the stacktrace
      * @param ex the exception that caused the crash
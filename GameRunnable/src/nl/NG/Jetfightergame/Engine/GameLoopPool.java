@@ -0,0 +1,77 @@
+package nl.NG.Jetfightergame.Engine;
+
+import nl.NG.Jetfightergame.Tools.Logger;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * executes many game loops on a fixed number of threads, instead of one thread per loop. Every loop is executed at its
+ * own target tps, and never by two threads at once. The iteration that is furthest behind its schedule is executed
+ * first, such that a loop that takes too long delays all loops equally instead of starving some of them.
+ * <p>
+ * Loops executed by this pool must not be started as thread.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class GameLoopPool {
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<AbstractGameLoop, ScheduledFuture<?>> loops = new ConcurrentHashMap<>();
+
+    /**
+     * @param nOfThreads the number of threads executing the loops
+     */
+    public GameLoopPool(int nOfThreads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(nOfThreads, task -> {
+            Thread thread = new Thread(task, "Tick-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        // stopped loops must still be cleaned up after shutdown
+        executor.setContinueExistingPeriodicTasksAfterShutdownPolicy(true);
+    }
+
+    /**
+     * executes the loop at its target tps until it stops
+     * @param loop      a loop that has not been started
+     * @param onStopped is executed after the loop has stopped and cleaned up
+     */
+    public void execute(AbstractGameLoop loop, Runnable onStopped) {
+        long period = loop.getTargetDeltaNanos();
+        ScheduledFuture<?> future = executor.scheduleAtFixedRate(() -> {
+            if (!loop.runIteration()) {
+                ScheduledFuture<?> self = loops.remove(loop);
+                if (self != null) self.cancel(false);
+                onStopped.run();
+            }
+        }, period, period, TimeUnit.NANOSECONDS);
+
+        loops.put(loop, future);
+        Logger.DEBUG.print("Executing " + loop + " on the shared tick threads");
+    }
+
+    /** @return the loops currently executed */
+    public Collection<AbstractGameLoop> getLoops() {
+        return loops.keySet();
+    }
+
+    /** @return the number of loops currently executed */
+    public int size() {
+        return loops.size();
+    }
+
+    /**
+     * stops all loops, which are cleaned up in their next iteration. The threads terminate after all loops are cleaned
+     * up.
+     */
+    public void shutDown() {
+        loops.keySet().forEach(AbstractGameLoop::stopLoop);
+        executor.shutdown();
+    }
+}
@@ -21,6 +21,8 @@ public class GameTimer {
     protected final TrackedFloat gameTime;
     protected final TrackedFloat renderTime;
     protected boolean isPaused = false;
+    /** the number of game-seconds per real second */
+    protected float speed = 1f;
 
     public GameTimer() {
         this(0f);
@@ -63,7 +65,7 @@ public class GameTimer {
         float deltaTime = (currentTime - lastMark) * MUL_TO_SECONDS;
         lastMark = currentTime;
 
-        if (!isPaused) currentInGameTime += deltaTime;
+        if (!isPaused) currentInGameTime += deltaTime * speed;
     }
 
     /** stops the in-game time */
@@ -78,6 +80,19 @@ public class GameTimer {
         isPaused = false;
     }
 
+    /**
+     * sets how fast the in-game time proceeds relative to real time, without jumping
+     * @param speed the number of game-seconds per real second
+     */
+    public void setSpeed(float speed) {
+        updateTimer();
+        this.speed = speed;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
     /**
      * @param offset the ingame time is offset by the given time
      */
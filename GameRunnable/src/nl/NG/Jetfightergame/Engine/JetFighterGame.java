@@ -17,6 +17,7 @@ import nl.NG.Jetfightergame.ScreenOverlay.HUD.GravityHud;
 import nl.NG.Jetfightergame.ScreenOverlay.HUD.PowerupDisplay;
 import nl.NG.Jetfightergame.ScreenOverlay.HUD.RaceProgressDisplay;
 import nl.NG.Jetfightergame.ScreenOverlay.ScreenOverlay;
+import nl.NG.Jetfightergame.ScreenOverlay.Userinterface.MenuButton;
 import nl.NG.Jetfightergame.ScreenOverlay.Userinterface.MenuToggleMultiple;
 import nl.NG.Jetfightergame.ServerNetwork.*;
 import nl.NG.Jetfightergame.Settings.ClientSettings;
@@ -123,6 +124,7 @@ public class JetFighterGame {
                         Socket client = new Socket(InetAddress.getLocalHost(), ServerSettings.SERVER_PORT);
                         sendChannel = client.getOutputStream();
                         receiveChannel = client.getInputStream();
+                        RoomManager.joinRoom(receiveChannel, sendChannel, RoomManager.ROOM_ANY);
 
                     } else {
                         StreamPipe serverToClient = new StreamPipe(1024);
@@ -156,6 +158,8 @@ public class JetFighterGame {
 
                     sendChannel = socket.getOutputStream();
                     receiveChannel = socket.getInputStream();
+                    int room = RoomManager.joinRoom(receiveChannel, sendChannel, RoomManager.ROOM_ANY);
+                    Logger.INFO.print("Joined room " + room);
                 }
 
                 connection = new ClientConnection(playerName, sendChannel, receiveChannel, ClientSettings.JET_TYPE, JET_COLOR);
@@ -202,6 +206,17 @@ public class JetFighterGame {
                 renderer.getMainMenu().appendToMain(new MenuToggleMultiple("Camera Modus",
                         Toolbox.toStringArray(values), (i) -> reader.setModus(values[i]))
                 );
+
+                float[] speeds = {0.25f, 0.5f, 1f, 2f, 4f};
+                String[] speedNames = {"x0.25", "x0.5", "x1", "x2", "x4"};
+                MenuToggleMultiple speedToggle = new MenuToggleMultiple("Replay Speed", speedNames, (i) -> reader.setSpeed(speeds[i]));
+                speedToggle.setValue(2);
+                renderer.getMainMenu().appendToMain(speedToggle);
+
+                if (reader.isSeekable()) {
+                    renderer.getMainMenu().appendToMain(new MenuButton("Back 10 Seconds", () -> reader.step(-10)));
+                    renderer.getMainMenu().appendToMain(new MenuButton("Forward 30 Seconds", () -> reader.step(30)));
+                }
             }
 
             actionHandler = new ActionButtonHandler(this, connection);
@@ -210,7 +225,9 @@ public class JetFighterGame {
             // set currentGameMode and engine.isPaused
             if (doShow) setMenuMode();
             else setPlayMode();
-            connection.listenInThread(true);
+            ListenerScope listeners = new ListenerScope(false);
+            connection.listenIn(listeners);
+            closeOperations.add(listeners::close);
 
         } catch (Exception anyException) {
             cleanup();
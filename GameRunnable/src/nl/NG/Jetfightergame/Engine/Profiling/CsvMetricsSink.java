@@ -0,0 +1,49 @@
+package nl.NG.Jetfightergame.Engine.Profiling;
+
+import nl.NG.Jetfightergame.Tools.DataStructures.LogHistogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * writes the measurements as comma-separated values, with one row per phase per interval. Durations are in
+ * nanoseconds, except for the {@code COLLISION_ITERATIONS} rows, which count iterations.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class CsvMetricsSink implements MetricsSink {
+    private static final String HEADER = "time,ticks,metric,mean,p50,p90,p99,max,worst_tick";
+    private final PrintWriter out;
+
+    public CsvMetricsSink(OutputStream out) {
+        this.out = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.out.println(HEADER);
+    }
+
+    @Override
+    public void write(TickProfiler profiler, float gameTime) {
+        long nOfTicks = profiler.numberOfTicks();
+        writeRow(gameTime, nOfTicks, "TICK", profiler.getTicks(), profiler.getWorstTick());
+        for (TickPhase phase : TickPhase.values()) {
+            writeRow(gameTime, nOfTicks, phase.name(), profiler.getPhase(phase), profiler.getWorstTick(phase));
+        }
+        writeRow(gameTime, nOfTicks, "COLLISION_ITERATIONS", profiler.getCollisionIterations(), -1);
+        out.flush();
+    }
+
+    private void writeRow(float gameTime, long nOfTicks, String metric, LogHistogram values, long worstTick) {
+        out.printf(Locale.US, "%.3f,%d,%s,%.1f,%d,%d,%d,%d,%s%n",
+                gameTime, nOfTicks, metric, values.mean(),
+                values.percentile(0.5), values.percentile(0.9), values.percentile(0.99), values.max(),
+                (worstTick < 0) ? "" : Long.toString(worstTick)
+        );
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
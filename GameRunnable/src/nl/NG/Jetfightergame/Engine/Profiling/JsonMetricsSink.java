@@ -0,0 +1,68 @@
+package nl.NG.Jetfightergame.Engine.Profiling;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import nl.NG.Jetfightergame.Tools.DataStructures.LogHistogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * writes the measurements as one JSON object per interval, separated by newlines. Durations are in nanoseconds.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class JsonMetricsSink implements MetricsSink {
+    private final JsonGenerator gen;
+
+    public JsonMetricsSink(OutputStream out) throws IOException {
+        gen = new JsonFactory().createGenerator(out);
+        gen.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+    }
+
+    @Override
+    public void write(TickProfiler profiler, float gameTime) throws IOException {
+        gen.writeStartObject();
+        {
+            gen.writeNumberField("time", gameTime);
+            gen.writeNumberField("ticks", profiler.numberOfTicks());
+            writeHistogram("tick", profiler.getTicks());
+
+            gen.writeObjectFieldStart("phases");
+            for (TickPhase phase : TickPhase.values()) {
+                writeHistogram(phase.name(), profiler.getPhase(phase));
+            }
+            gen.writeEndObject();
+
+            gen.writeObjectFieldStart("worstTick");
+            {
+                gen.writeNumberField("total", profiler.getWorstTick());
+                for (TickPhase phase : TickPhase.values()) {
+                    gen.writeNumberField(phase.name(), profiler.getWorstTick(phase));
+                }
+            }
+            gen.writeEndObject();
+
+            writeHistogram("collisionIterations", profiler.getCollisionIterations());
+        }
+        gen.writeEndObject();
+        gen.flush();
+    }
+
+    private void writeHistogram(String name, LogHistogram values) throws IOException {
+        gen.writeObjectFieldStart(name);
+        {
+            gen.writeNumberField("mean", values.mean());
+            gen.writeNumberField("p50", values.percentile(0.5));
+            gen.writeNumberField("p90", values.percentile(0.9));
+            gen.writeNumberField("p99", values.percentile(0.99));
+            gen.writeNumberField("max", values.max());
+        }
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void close() throws IOException {
+        gen.close();
+    }
+}
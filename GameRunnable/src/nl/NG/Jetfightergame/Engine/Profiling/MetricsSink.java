@@ -0,0 +1,20 @@
+package nl.NG.Jetfightergame.Engine.Profiling;
+
+import java.io.IOException;
+
+/**
+ * receives the measurements of a {@link TickProfiler} at regular intervals
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public interface MetricsSink extends AutoCloseable {
+
+    /**
+     * writes the measurements recorded by the profiler since its last reset. The profiler is reset after this call.
+     * @param profiler the profiler to read
+     * @param gameTime the game time of the last recorded tick
+     */
+    void write(TickProfiler profiler, float gameTime) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
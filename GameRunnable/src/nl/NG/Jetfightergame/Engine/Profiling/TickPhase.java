@@ -0,0 +1,24 @@
+package nl.NG.Jetfightergame.Engine.Profiling;
+
+/**
+ * the parts of a server tick that are timed separately by a {@link TickProfiler}
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public enum TickPhase {
+    /** switching worlds and removing closed connections */
+    CONNECTIONS,
+    /** removing overdue gravity sources */
+    GRAVITY,
+    /** applying forces and sorting the entities for collision detection, including {@link #AI} */
+    PRE_UPDATE,
+    /** updating the controllers of the jets. This is summed over all threads, and part of {@link #PRE_UPDATE} */
+    AI,
+    /** finding and resolving collisions */
+    COLLISIONS,
+    /** moving the entities to their new state */
+    UPDATE,
+    /** removing overdue entities and writing the snapshot to each connection */
+    SNAPSHOT,
+    /** flushing the connections */
+    NETWORK
+}
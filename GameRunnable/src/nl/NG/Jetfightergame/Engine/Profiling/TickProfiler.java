@@ -0,0 +1,150 @@
+package nl.NG.Jetfightergame.Engine.Profiling;
+
+import nl.NG.Jetfightergame.Tools.DataStructures.LogHistogram;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records how long each {@link TickPhase} of a tick takes, the duration of whole ticks, the breakdown of the slowest
+ * tick and the number of collision iterations per tick. A phase is timed by passing the result of {@link #start()} to
+ * {@link #stop(TickPhase, long)}, which may happen on any thread. All other methods must be called by the thread
+ * running the ticks.
+ * <p>
+ * A disabled profiler, such as {@link #NONE}, ignores all measurements without reading the clock.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class TickProfiler {
+    private static final TickPhase[] PHASES = TickPhase.values();
+    /** a profiler that records nothing */
+    public static final TickProfiler NONE = new TickProfiler(false);
+
+    private volatile boolean enabled;
+    private final LogHistogram[] phases = new LogHistogram[PHASES.length];
+    private final LogHistogram ticks = new LogHistogram();
+    private final LogHistogram collisionIterations = new LogHistogram();
+    /** the nanoseconds spent per phase in the current tick */
+    private final AtomicLongArray current = new AtomicLongArray(PHASES.length);
+    private final long[] worst = new long[PHASES.length];
+
+    private long tickStart;
+    private long worstTick = 0;
+    private int currentIterations = 0;
+
+    public TickProfiler() {
+        this(true);
+    }
+
+    private TickProfiler(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LogHistogram();
+        }
+    }
+
+    /** @return false if this profiler ignores all measurements */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * enables or disables this profiler, which should happen between two ticks. {@link #NONE} can not be enabled.
+     * @param enabled if false, all measurements are ignored
+     */
+    public void setEnabled(boolean enabled) {
+        if (this == NONE && enabled) throw new UnsupportedOperationException("The NONE profiler can not be enabled");
+        this.enabled = enabled;
+    }
+
+    /** marks the start of a new tick */
+    public void startTick() {
+        if (!enabled) return;
+        tickStart = System.nanoTime();
+    }
+
+    /**
+     * @return a timestamp to pass to {@link #stop(TickPhase, long)}
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * adds the time since the given timestamp to the given phase of the current tick. A phase may be timed multiple
+     * times per tick, and by multiple threads at once.
+     * @param start the result of a call to {@link #start()}
+     */
+    public void stop(TickPhase phase, long start) {
+        if (!enabled) return;
+        current.addAndGet(phase.ordinal(), System.nanoTime() - start);
+    }
+
+    /** adds the given number of collision iterations to the current tick */
+    public void recordCollisionIterations(int iterations) {
+        if (!enabled) return;
+        currentIterations += iterations;
+    }
+
+    /** marks the end of the current tick, and records its measurements */
+    public void endTick() {
+        if (!enabled) return;
+        long duration = System.nanoTime() - tickStart;
+        ticks.record(duration);
+        collisionIterations.record(currentIterations);
+        currentIterations = 0;
+
+        boolean isWorst = duration > worstTick;
+        if (isWorst) worstTick = duration;
+
+        for (int i = 0; i < PHASES.length; i++) {
+            long nanos = current.getAndSet(i, 0);
+            phases[i].record(nanos);
+            if (isWorst) worst[i] = nanos;
+        }
+    }
+
+    /** @return the number of ticks recorded since the last {@link #reset()} */
+    public long numberOfTicks() {
+        return ticks.count();
+    }
+
+    /** @return the nanoseconds spent on the given phase per tick */
+    public LogHistogram getPhase(TickPhase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    /** @return the duration of the ticks in nanoseconds */
+    public LogHistogram getTicks() {
+        return ticks;
+    }
+
+    /** @return the number of collision iterations per tick */
+    public LogHistogram getCollisionIterations() {
+        return collisionIterations;
+    }
+
+    /** @return the nanoseconds spent on the given phase in the slowest tick */
+    public long getWorstTick(TickPhase phase) {
+        return worst[phase.ordinal()];
+    }
+
+    /** @return the duration of the slowest tick in nanoseconds */
+    public long getWorstTick() {
+        return worstTick;
+    }
+
+    /** forgets all recorded ticks, and the measurements of the current tick */
+    public void reset() {
+        for (int i = 0; i < PHASES.length; i++) {
+            current.set(i, 0);
+        }
+        currentIterations = 0;
+        for (LogHistogram phase : phases) {
+            phase.clear();
+        }
+        ticks.clear();
+        collisionIterations.clear();
+        worstTick = 0;
+        Arrays.fill(worst, 0);
+    }
+}
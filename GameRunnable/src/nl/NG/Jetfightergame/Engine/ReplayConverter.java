@@ -0,0 +1,192 @@
+package nl.NG.Jetfightergame.Engine;
+
+import nl.NG.Jetfightergame.Assets.Shapes.GeneralShapes;
+import nl.NG.Jetfightergame.Camera.CameraFocusMovable;
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.ServerNetwork.ClientConnection;
+import nl.NG.Jetfightergame.ServerNetwork.EntitySnapshot;
+import nl.NG.Jetfightergame.ServerNetwork.MessageType;
+import nl.NG.Jetfightergame.Settings.ServerSettings;
+import nl.NG.Jetfightergame.Tools.Directory;
+import nl.NG.Jetfightergame.Tools.Logger;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.joml.Quaternionf;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Converts recordings of version 1 to indexed recordings. The recording is read as a client would, while every message
+ * is copied to the new recording. Every {@link ServerSettings#REPLAY_KEYFRAME_INTERVAL} seconds, a keyframe is added
+ * from the state of the client.
+ * <p>
+ * usage: {@code ReplayConverter <recording> [result]}, where the result defaults to the name of the recording with
+ * {@code -indexed} appended.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class ReplayConverter extends ClientConnection {
+    private final CapturingInput input;
+    private final ReplayOutput output;
+
+    private ReplayConverter(CapturingInput input, ReplayOutput output, GameTimer timer) throws IOException {
+        super("ReplayConverter", input, timer, new CameraFocusMovable.Factory(new PosVector(), new Quaternionf(), false), 1);
+        this.input = input;
+        this.output = output;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            Logger.ERROR.print("usage: ReplayConverter <recording> [result]");
+            return;
+        }
+
+        File source = new File(args[0]);
+        if (!source.exists()) source = Directory.recordings.getFile(args[0]);
+
+        File target;
+        if (args.length > 1) {
+            target = new File(args[1]);
+        } else {
+            String name = source.getName();
+            if (name.endsWith(StateWriter.EXTENSION)) name = name.substring(0, name.length() - StateWriter.EXTENSION.length());
+            target = new File(source.getParentFile(), name + "-indexed" + StateWriter.EXTENSION);
+        }
+
+        GeneralShapes.init(false);
+        int nOfKeyframes = convert(source, target);
+        Logger.INFO.print("Stored recording with " + nOfKeyframes + " keyframes to file " + target);
+    }
+
+    /**
+     * writes an indexed copy of a recording of version 1
+     * @param source a recording of version 1
+     * @param target the file to write the indexed recording to
+     * @return the number of keyframes written
+     * @throws IOException if the source is not a valid recording of the current protocol version
+     */
+    public static int convert(File source, File target) throws IOException {
+        if (ReplayFormat.isIndexed(source)) throw new IOException(source + " is already indexed");
+
+        CapturingInput input = new CapturingInput(ReplayFormat.openVersion1(source));
+        GameTimer timer = new GameTimer();
+        timer.pause();
+
+        ReplayOutput output = new ReplayOutput(target);
+        try {
+            ReplayConverter converter = new ReplayConverter(input, output, timer);
+            converter.copyMessages();
+
+        } finally {
+            output.close();
+            input.close();
+        }
+        return output.getNumberOfKeyframes();
+    }
+
+    private void copyMessages() throws IOException {
+        // the start time of the recording
+        input.moveTo(output);
+
+        float nextKeyframe = Float.NEGATIVE_INFINITY;
+        boolean hasNext;
+        do {
+            hasNext = handleMessage();
+            boolean isSnapshot = input.firstByte() == MessageType.ENTITY_SNAPSHOT.ordinal();
+            input.moveTo(output);
+
+            if (isSnapshot) {
+                EntitySnapshot snapshot = getLastSnapshot();
+                getTimer().set(snapshot.time);
+
+                if (snapshot.time >= nextKeyframe) {
+                    writeKeyframe(snapshot);
+                    nextKeyframe = snapshot.time + ServerSettings.REPLAY_KEYFRAME_INTERVAL;
+                }
+            }
+        } while (hasNext);
+    }
+
+    private void writeKeyframe(EntitySnapshot snapshot) throws IOException {
+        Collection<MovingEntity> entities = new ArrayList<>(getWorld().getEntities());
+        float countDown = Math.max(0, countDownGui().getTime() - snapshot.time);
+
+        ByteArrayOutputStream messages = ReplayFormat.encodeKeyframe(
+                getWorldType(), countDown, getRaceProgress().getNumRounds(), entities, getRaceProgress(), snapshot
+        );
+        output.write(MessageType.REPLAY_KEYFRAME.ordinal());
+        output.writeKeyframe(snapshot.time, messages);
+    }
+
+    @Override
+    public boolean isHeadless() {
+        // no sound nor rendering
+        return true;
+    }
+
+    @Override
+    protected void worldSwitch() {
+        // no background music
+    }
+
+    @Override
+    protected void acknowledgeSnapshot(int sequence) {
+        // the writer of the file assumes all snapshots to be received
+    }
+
+    /** remembers the bytes read since the last call to {@link #moveTo(OutputStream)} */
+    private static class CapturingInput extends FilterInputStream {
+        private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        private int firstByte = -1;
+
+        CapturingInput(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                if (captured.size() == 0) firstByte = b;
+                captured.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                if (captured.size() == 0) firstByte = b[off] & 0xFF;
+                captured.write(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n && read() >= 0) {
+                skipped++;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /** @return the first byte captured, or -1 if nothing is captured */
+        int firstByte() {
+            return firstByte;
+        }
+
+        /** writes the captured bytes to the given stream, and forgets these */
+        void moveTo(OutputStream out) throws IOException {
+            captured.writeTo(out);
+            captured.reset();
+            firstByte = -1;
+        }
+    }
+}
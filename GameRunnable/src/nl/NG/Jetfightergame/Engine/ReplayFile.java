@@ -0,0 +1,242 @@
+package nl.NG.Jetfightergame.Engine;
+
+import nl.NG.Jetfightergame.ServerNetwork.JetFighterProtocol;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * an indexed recording, mapped into memory. The messages are read from {@link #getInput()}, which can be moved to any
+ * keyframe without reading the messages in between. The blocks are decompressed one at a time while reading.
+ * @author Geert van Ieperen created on 17-10-2026.
+ * @see ReplayFormat
+ */
+public class ReplayFile {
+    private final ByteBuffer buffer;
+    private final InputStream input;
+    private final float[] keyframeTimes;
+    private final int[] keyframePositions;
+    private final float startTime;
+
+    private final Inflater inflater = new Inflater();
+    private final CRC32 checksum = new CRC32();
+    private byte[] block = new byte[ReplayFormat.BLOCK_SIZE];
+    private int blockSize = 0;
+    private int blockPosition = 0;
+    private int bytesRead = 0;
+
+    /**
+     * maps the given recording into memory and reads its index
+     * @param file an indexed recording
+     * @throws IOException if the file is not an indexed recording of the current protocol version, or larger than 2 GB,
+     *                     or if the first block is damaged
+     */
+    public ReplayFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Recordings larger than 2 GB are not supported");
+            if (size < ReplayFormat.HEADER_SIZE + ReplayFormat.FOOTER_SIZE) {
+                throw new IOException(file + " is not a complete recording");
+            }
+            // the mapping remains valid after closing the channel
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (buffer.getInt(0) != ReplayFormat.MAGIC) throw new IOException(file + " is not an indexed recording");
+        int version = buffer.getInt(4);
+        if (version != ReplayFormat.VERSION) throw new IOException("Recording has format version " + version);
+        int protocolVersion = buffer.getInt(8);
+        if (protocolVersion != JetFighterProtocol.versionNumber) {
+            throw new IOException("File has version " + protocolVersion + " and we have " + JetFighterProtocol.versionNumber);
+        }
+
+        int footer = buffer.limit() - ReplayFormat.FOOTER_SIZE;
+        if (buffer.getInt(footer + Long.BYTES) != ReplayFormat.MAGIC) {
+            throw new IOException(file + " has no index, the recording may not have been closed properly");
+        }
+        int index = (int) buffer.getLong(footer);
+
+        buffer.position(index);
+        int nOfKeyframes = buffer.getInt();
+        keyframeTimes = new float[nOfKeyframes];
+        keyframePositions = new int[nOfKeyframes];
+        for (int i = 0; i < nOfKeyframes; i++) {
+            keyframeTimes[i] = buffer.getFloat();
+            keyframePositions[i] = (int) buffer.getLong();
+        }
+
+        // the messages end where the index starts
+        buffer.limit(index);
+        buffer.position(ReplayFormat.HEADER_SIZE);
+        input = new BlockInput();
+
+        startTime = new DataInputStream(input).readFloat();
+        moveTo(ReplayFormat.HEADER_SIZE);
+    }
+
+    /**
+     * @return a stream of the decompressed messages of the recording, initially at the start time of the recording.
+     *         The stream ends at the index, and throws an IOException when reading a damaged block.
+     */
+    public InputStream getInput() {
+        return input;
+    }
+
+    /** @return the game time at the start of the recording */
+    public float getStartTime() {
+        return startTime;
+    }
+
+    /** @return the number of keyframes in this recording */
+    public int getNumberOfKeyframes() {
+        return keyframeTimes.length;
+    }
+
+    /** @return the time of the state of the given keyframe */
+    public float getKeyframeTime(int keyframe) {
+        return keyframeTimes[keyframe];
+    }
+
+    /**
+     * @param time a game time
+     * @return the last keyframe with a time not after the given time, or -1 if there is no such keyframe
+     */
+    public int keyframeBefore(float time) {
+        int low = 0;
+        int high = keyframeTimes.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keyframeTimes[mid] <= time) low = mid + 1;
+            else high = mid - 1;
+        }
+        return high;
+    }
+
+    /**
+     * moves the input to the given keyframe. The next bytes read are the length of the keyframe, followed by the
+     * messages of the keyframe.
+     */
+    public void seekKeyframe(int keyframe) {
+        moveTo(keyframePositions[keyframe]);
+    }
+
+    /** moves the input to the first message of the recording */
+    public void seekStart() throws IOException {
+        moveTo(ReplayFormat.HEADER_SIZE);
+        input.skipNBytes(Float.BYTES);
+        bytesRead = 0;
+    }
+
+    private void moveTo(int blockStart) {
+        buffer.position(blockStart);
+        blockSize = 0;
+        blockPosition = 0;
+        bytesRead = 0;
+    }
+
+    /** @return the number of bytes read from the input since the last seek */
+    public int position() {
+        return bytesRead;
+    }
+
+    /**
+     * decompresses the block at the position of the buffer
+     * @return false if there are no more blocks
+     */
+    private boolean nextBlock() throws IOException {
+        if (!buffer.hasRemaining()) return false;
+
+        int blockStart = buffer.position();
+        if (buffer.remaining() < ReplayFormat.BLOCK_HEADER_SIZE) {
+            throw new IOException("Incomplete block at position " + blockStart);
+        }
+        int rawSize = buffer.getInt();
+        int compressedSize = buffer.getInt();
+        int expectedChecksum = buffer.getInt();
+        if (rawSize < 0 || compressedSize < 0 || compressedSize > buffer.remaining()) {
+            throw new IOException("Damaged block at position " + blockStart);
+        }
+
+        if (block.length < rawSize) block = new byte[rawSize];
+        ByteBuffer compressed = buffer.slice().limit(compressedSize);
+        buffer.position(buffer.position() + compressedSize);
+
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int n = 0;
+            while (n < rawSize && !inflater.finished()) {
+                int inflated = inflater.inflate(block, n, rawSize - n);
+                if (inflated == 0 && inflater.needsInput()) break;
+                n += inflated;
+            }
+            if (n != rawSize) throw new IOException("Block at position " + blockStart + " is too short");
+
+        } catch (DataFormatException ex) {
+            throw new IOException("Damaged block at position " + blockStart, ex);
+        }
+
+        checksum.reset();
+        checksum.update(block, 0, rawSize);
+        if ((int) checksum.getValue() != expectedChecksum) {
+            throw new IOException("Checksum mismatch in block at position " + blockStart);
+        }
+
+        blockSize = rawSize;
+        blockPosition = 0;
+        return true;
+    }
+
+    /** reads the decompressed blocks of the buffer. Not thread safe */
+    private class BlockInput extends InputStream {
+        @Override
+        public int read() throws IOException {
+            while (blockPosition == blockSize) {
+                if (!nextBlock()) return -1;
+            }
+            bytesRead++;
+            return block[blockPosition++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (blockPosition == blockSize) {
+                if (!nextBlock()) return -1;
+            }
+
+            int n = Math.min(len, blockSize - blockPosition);
+            System.arraycopy(block, blockPosition, b, off, n);
+            blockPosition += n;
+            bytesRead += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n) {
+                if (blockPosition == blockSize && !nextBlock()) break;
+
+                int step = (int) Math.min(n - skipped, blockSize - blockPosition);
+                blockPosition += step;
+                bytesRead += step;
+                skipped += step;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return blockSize - blockPosition;
+        }
+    }
+}
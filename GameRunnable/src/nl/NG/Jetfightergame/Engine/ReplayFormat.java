@@ -0,0 +1,129 @@
+package nl.NG.Jetfightergame.Engine;
+
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.EntityGeneral.Powerups.PowerupEntity;
+import nl.NG.Jetfightergame.GameState.Player;
+import nl.NG.Jetfightergame.GameState.RaceProgress;
+import nl.NG.Jetfightergame.ServerNetwork.EntitySnapshot;
+import nl.NG.Jetfightergame.ServerNetwork.EnvironmentClass;
+import nl.NG.Jetfightergame.ServerNetwork.JetFighterProtocol;
+import nl.NG.Jetfightergame.ServerNetwork.MessageType;
+import nl.NG.Jetfightergame.ServerNetwork.SnapshotEncoder;
+
+import java.io.*;
+import java.util.Collection;
+
+import static nl.NG.Jetfightergame.ServerNetwork.MessageType.*;
+
+/**
+ * The layout of an indexed recording, as written by {@link ReplayOutput} and read by {@link ReplayFile}:
+ * <ol>
+ * <li>a header of {@link #MAGIC}, {@link #VERSION} and the {@link JetFighterProtocol#versionNumber} as ints</li>
+ * <li>blocks of compressed data, each of the size of the data before compression as int, the size after compression
+ * as int, the {@link java.util.zip.CRC32} of the data before compression as int, and the data compressed with {@link
+ * java.util.zip.Deflater}. The blocks together hold:
+ * <ol>
+ * <li>the game time at the start of the recording as float</li>
+ * <li>the messages as sent to a client. Every {@link nl.NG.Jetfightergame.Settings.ServerSettings#REPLAY_KEYFRAME_INTERVAL}
+ * seconds, a {@link MessageType#REPLAY_KEYFRAME} message holds the messages that rebuild the whole world, preceded by
+ * their length in bytes as int. A reader that plays the messages in order skips these. The length of a keyframe is
+ * always at the start of a block.</li>
+ * </ol></li>
+ * <li>the index, at the end of the file: the number of keyframes as int, per keyframe its time as float and the
+ * position of the block that starts with it as long, followed by the position of the index as long and {@link #MAGIC}
+ * as int</li>
+ * </ol>
+ * Recordings of version 1 lack the header and the index, and start with the protocol version directly.
+ * @author Geert van Ieperen created on 17-10-2026.
+ * @see ReplayConverter
+ */
+public final class ReplayFormat {
+    /** "JFGR" */
+    public static final int MAGIC = 0x4A464752;
+    public static final int VERSION = 3;
+    /** the size of the header in bytes */
+    public static final int HEADER_SIZE = 3 * Integer.BYTES;
+    /** the size of the fields after the index in bytes */
+    public static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES;
+    /** the size of the fields before the compressed data of a block in bytes */
+    public static final int BLOCK_HEADER_SIZE = 3 * Integer.BYTES;
+    /** the number of bytes of messages after which a block is completed */
+    public static final int BLOCK_SIZE = 1 << 16;
+
+    private ReplayFormat() {
+    }
+
+    /**
+     * @param file a recording
+     * @return true if the file is an indexed recording, false if it is a recording of version 1
+     * @throws IOException if the file could not be read
+     */
+    public static boolean isIndexed(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        }
+    }
+
+    /**
+     * opens a recording of version 1
+     * @param file a recording of version 1
+     * @return a stream at the start time of the recording
+     * @throws IOException if the recording is of a different protocol version
+     */
+    public static InputStream openVersion1(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        int fileVersion = in.readInt();
+        if (fileVersion != JetFighterProtocol.versionNumber) {
+            in.close();
+            throw new IOException("File has version " + fileVersion + " and we have " + JetFighterProtocol.versionNumber);
+        }
+        return in;
+    }
+
+    /**
+     * encodes the messages that rebuild the given state of the world on a client that has just started
+     * @param world     the current world
+     * @param countDown the remaining seconds of the count down of the race
+     * @param maxRounds the number of rounds of the race
+     * @param entities  all dynamic entities of the world
+     * @param race      the progress of the players in the race. Their jets must be part of the entities.
+     * @param snapshot  the latest snapshot of the entities
+     * @return the messages of a keyframe
+     */
+    public static ByteArrayOutputStream encodeKeyframe(
+            EnvironmentClass world, float countDown, int maxRounds, Collection<MovingEntity> entities,
+            RaceProgress race, EntitySnapshot snapshot
+    ) throws IOException {
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        JetFighterProtocol protocol = new JetFighterProtocol(messages);
+
+        messages.write(WORLD_SWITCH.ordinal());
+        protocol.worldSwitchSend(world, countDown, maxRounds);
+
+        for (MovingEntity entity : entities) {
+            messages.write(ENTITY_SPAWN.ordinal());
+            protocol.newEntitySend(entity.getFactory());
+        }
+
+        Player[] players = race.players();
+        for (int pInd = 0; pInd < players.length; pInd++) {
+            messages.write(PLAYER_SPAWN.ordinal());
+            protocol.playerSpawnSend(players[pInd], pInd);
+            messages.write(RACE_PROGRESS.ordinal());
+            protocol.raceProgressSend(pInd, race.getCheckpoint(pInd), race.getRound(pInd));
+        }
+
+        for (MovingEntity entity : entities) {
+            if (!(entity instanceof PowerupEntity)) continue;
+            PowerupEntity powerup = (PowerupEntity) entity;
+            messages.write(POWERUP_STATE.ordinal());
+            protocol.powerupUpdateSend(powerup, powerup.getCollectionTime(), powerup.isCollected());
+        }
+
+        // a new encoder has no baseline, thus writes the snapshot in full
+        messages.write(ENTITY_SNAPSHOT.ordinal());
+        protocol.snapshotSend(new SnapshotEncoder(), snapshot, null);
+
+        return messages;
+    }
+}
@@ -0,0 +1,273 @@
+package nl.NG.Jetfightergame.Engine;
+
+import nl.NG.Jetfightergame.ServerNetwork.JetFighterProtocol;
+import nl.NG.Jetfightergame.Settings.ServerSettings;
+import nl.NG.Jetfightergame.Tools.Logger;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * writes an indexed recording to a file. The messages are written as to a client, keyframes are written with {@link
+ * #writeKeyframe(float, ByteArrayOutputStream)} and the index is written upon closing.
+ * <p>
+ * The messages are collected in blocks, which are compressed and written by a separate thread. Writing to this stream
+ * thus never waits for the disk, unless more than {@link ServerSettings#REPLAY_WRITE_QUEUE} blocks are waiting. Use
+ * {@link #isBehind()} to skip messages that are not required.
+ * @author Geert van Ieperen created on 17-10-2026.
+ * @see ReplayFormat
+ */
+public class ReplayOutput extends OutputStream {
+    /** a block that exceeds this size is handed to the writer, even if this means waiting for it */
+    private static final int MAX_PENDING_SIZE = 4 * ReplayFormat.BLOCK_SIZE;
+    private static final Block END_OF_STREAM = new Block(new byte[0], 0, Float.NaN);
+
+    private final BlockingQueue<Block> queue;
+    private final Thread writerThread;
+    private final DataOutputStream out;
+    private volatile IOException writeException = null;
+
+    private byte[] block = new byte[ReplayFormat.BLOCK_SIZE];
+    private int blockSize = 0;
+    private float blockKeyframe = Float.NaN;
+    private boolean isClosed = false;
+
+    // only accessed by the writer thread until it has ended
+    private long position = ReplayFormat.HEADER_SIZE;
+    private float[] keyframeTimes = new float[16];
+    private long[] keyframePositions = new long[16];
+    private int nOfKeyframes = 0;
+    private long rawBytes = 0;
+
+    private int nOfStalls = 0;
+
+    /**
+     * creates the file, writes the header and starts the writer thread
+     * @param file the file to write to
+     */
+    public ReplayOutput(File file) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out.writeInt(ReplayFormat.MAGIC);
+        out.writeInt(ReplayFormat.VERSION);
+        out.writeInt(JetFighterProtocol.versionNumber);
+
+        queue = new ArrayBlockingQueue<>(ServerSettings.REPLAY_WRITE_QUEUE);
+        writerThread = new Thread(this::writeBlocks, "Replay writer - " + file.getName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureCapacity(1);
+        block[blockSize++] = (byte) b;
+        if (blockSize >= ReplayFormat.BLOCK_SIZE) submitBlock(false);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureCapacity(len);
+        System.arraycopy(b, off, block, blockSize, len);
+        blockSize += len;
+        if (blockSize >= ReplayFormat.BLOCK_SIZE) submitBlock(false);
+    }
+
+    private void ensureCapacity(int extra) throws IOException {
+        if (writeException != null) throw writeException;
+        if (isClosed) throw new IOException("Recording has been closed");
+
+        if (blockSize + extra > block.length) {
+            block = Arrays.copyOf(block, Math.max(block.length * 2, blockSize + extra));
+        }
+    }
+
+    /**
+     * hands the current block to the writer thread, and starts a new block
+     * @param force if true, wait for the writer if it is behind. If false, the block is only handed over when the
+     *              writer is not behind or the block exceeds {@link #MAX_PENDING_SIZE}.
+     */
+    private void submitBlock(boolean force) throws IOException {
+        if (blockSize == 0 && Float.isNaN(blockKeyframe)) return;
+        Block b = new Block(block, blockSize, blockKeyframe);
+
+        if (!queue.offer(b)) {
+            // the writer is behind
+            if (!force && blockSize < MAX_PENDING_SIZE) return;
+
+            nOfStalls++;
+            try {
+                queue.put(b);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("Interrupted while waiting for the replay writer");
+            }
+        }
+
+        block = new byte[ReplayFormat.BLOCK_SIZE];
+        blockSize = 0;
+        blockKeyframe = Float.NaN;
+    }
+
+    /**
+     * writes the content of a keyframe, and adds it to the index. This must directly follow the type of a {@link
+     * nl.NG.Jetfightergame.ServerNetwork.MessageType#REPLAY_KEYFRAME} message. The keyframe starts a new block, so
+     * that a reader can start decompressing at the keyframe.
+     * @param time     the game time of the state of the keyframe. Must not be less than the time of earlier keyframes
+     * @param messages the messages that rebuild the world
+     * @see ReplayFormat#encodeKeyframe
+     */
+    public void writeKeyframe(float time, ByteArrayOutputStream messages) throws IOException {
+        submitBlock(true);
+        blockKeyframe = time;
+
+        int length = messages.size();
+        write(length >>> 24);
+        write(length >>> 16);
+        write(length >>> 8);
+        write(length);
+        messages.writeTo(this);
+    }
+
+    /**
+     * @return true if the writer thread has more blocks waiting than allowed, and messages sent now stay in memory
+     *         until it catches up.
+     */
+    public boolean isBehind() {
+        return queue.remainingCapacity() == 0;
+    }
+
+    /** @return the number of keyframes written. Only correct after closing */
+    public int getNumberOfKeyframes() {
+        return nOfKeyframes;
+    }
+
+    /** @return the number of times writing had to wait for the writer thread */
+    public int getNumberOfStalls() {
+        return nOfStalls;
+    }
+
+    /** @return the size of the messages before compression. Only correct after closing */
+    public long getRawSize() {
+        return rawBytes;
+    }
+
+    /** @return the size of the file. Only correct after closing */
+    public long getFileSize() {
+        return position;
+    }
+
+    /**
+     * does not write anything: blocks are written when they are full, and the messages are only read from the file
+     * after closing.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /** writes the remaining messages and the index, and closes the file */
+    @Override
+    public void close() throws IOException {
+        if (isClosed) return;
+
+        submitBlock(true);
+        isClosed = true;
+        try {
+            queue.put(END_OF_STREAM);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted while closing the recording");
+        }
+
+        try {
+            if (writeException != null) throw writeException;
+
+            long indexPosition = position;
+            out.writeInt(nOfKeyframes);
+            for (int i = 0; i < nOfKeyframes; i++) {
+                out.writeFloat(keyframeTimes[i]);
+                out.writeLong(keyframePositions[i]);
+            }
+            out.writeLong(indexPosition);
+            out.writeInt(ReplayFormat.MAGIC);
+            position += Integer.BYTES + nOfKeyframes * (Float.BYTES + Long.BYTES) + ReplayFormat.FOOTER_SIZE;
+
+        } finally {
+            out.close();
+        }
+    }
+
+    /** compresses and writes blocks until {@link #END_OF_STREAM} is received */
+    private void writeBlocks() {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        CRC32 checksum = new CRC32();
+        byte[] compressed = new byte[ReplayFormat.BLOCK_SIZE];
+
+        try {
+            Block b;
+            while ((b = queue.take()) != END_OF_STREAM) {
+                // after an error, keep taking blocks until closed to not block the sender
+                if (writeException != null) continue;
+
+                if (!Float.isNaN(b.keyframe)) addKeyframe(b.keyframe, position);
+
+                deflater.reset();
+                deflater.setInput(b.data, 0, b.size);
+                deflater.finish();
+                int cSize = 0;
+                while (!deflater.finished()) {
+                    if (cSize == compressed.length) compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    cSize += deflater.deflate(compressed, cSize, compressed.length - cSize);
+                }
+
+                checksum.reset();
+                checksum.update(b.data, 0, b.size);
+
+                try {
+                    out.writeInt(b.size);
+                    out.writeInt(cSize);
+                    out.writeInt((int) checksum.getValue());
+                    out.write(compressed, 0, cSize);
+
+                } catch (IOException e) {
+                    Logger.ERROR.print("Could not write recording: " + e);
+                    writeException = e;
+                }
+                position += ReplayFormat.BLOCK_HEADER_SIZE + cSize;
+                rawBytes += b.size;
+            }
+
+        } catch (InterruptedException e) {
+            writeException = new InterruptedIOException("Replay writer was interrupted");
+
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void addKeyframe(float time, long position) {
+        if (nOfKeyframes == keyframeTimes.length) {
+            keyframeTimes = Arrays.copyOf(keyframeTimes, nOfKeyframes * 2);
+            keyframePositions = Arrays.copyOf(keyframePositions, nOfKeyframes * 2);
+        }
+        keyframeTimes[nOfKeyframes] = time;
+        keyframePositions[nOfKeyframes] = position;
+        nOfKeyframes++;
+    }
+
+    /** uncompressed messages, possibly starting with a keyframe */
+    private static class Block {
+        final byte[] data;
+        final int size;
+        /** the time of the keyframe at the start of this block, or NaN if it does not start with a keyframe */
+        final float keyframe;
+
+        Block(byte[] data, int size, float keyframe) {
+            this.data = data;
+            this.size = size;
+            this.keyframe = keyframe;
+        }
+    }
+}
@@ -10,12 +10,14 @@ import nl.NG.Jetfightergame.ServerNetwork.ClientConnection;
 import nl.NG.Jetfightergame.Settings.ClientSettings;
 import nl.NG.Jetfightergame.Sound.AudioSource;
 import nl.NG.Jetfightergame.Tools.DataStructures.Pair;
+import nl.NG.Jetfightergame.Tools.Logger;
 import nl.NG.Jetfightergame.Tools.Toolbox;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
 import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
@@ -41,6 +43,11 @@ public class StateReader extends ClientConnection {
     private int playerFocus = 0;
     private StaticTimer staticTimer = new StaticTimer(READER_TPS);
 
+    /** the indexed recording, or null if the recording has no index */
+    private final ReplayFile replay;
+    /** the time to jump to before reading the next message, or NaN if no jump is requested */
+    private volatile float seekTarget = Float.NaN;
+
     /**
      * @param file       the file to read
      * @param jet
@@ -49,21 +56,42 @@ public class StateReader extends ClientConnection {
      * @throws IOException whenever it feels like
      */
     public StateReader(File file, boolean liveAction, EntityFactory jet, CameraManager camera, Runnable exitGame) throws IOException {
-        super("StateReader", file, liveAction ? new GameTimer() : new StaticTimer(ClientSettings.TARGET_FPS), jet, READER_TPS);
+        this(ReplayFormat.isIndexed(file) ? new ReplayFile(file) : null, file, liveAction, jet, camera, exitGame);
+    }
+
+    private StateReader(
+            ReplayFile replay, File file, boolean liveAction, EntityFactory jet, CameraManager camera, Runnable exitGame
+    ) throws IOException {
+        super("StateReader",
+                (replay != null) ? replay.getInput() : ReplayFormat.openVersion1(file),
+                liveAction ? new GameTimer() : new StaticTimer(ClientSettings.TARGET_FPS), jet, READER_TPS
+        );
+        this.replay = replay;
         this.camera = camera;
         this.exitGame = exitGame;
         focusJet = super.jet();
         staticTimer.unPause();
+
+        if (replay == null) {
+            Logger.WARN.print(file.getName() + " has no index, convert it using " + ReplayConverter.class.getSimpleName() + " to allow jumping");
+        }
     }
 
     @Override
     public void listen() {
         try {
-            while (handleMessage()) {
+            while (true) {
+                if (!Float.isNaN(seekTarget)) {
+                    float target = seekTarget;
+                    seekTarget = Float.NaN;
+                    seekTo(target);
+                }
+                if (!handleMessage()) break;
+
                 float currentTime = getTimer().getRenderTime().current();
                 float dt = maxServerTime - currentTime;
                 if (dt > LOOK_AHEAD) {
-                    int millis = (int) (500 * dt);
+                    int millis = (int) (500 * dt / getTimer().getSpeed());
                     Toolbox.waitFor(millis);
                 }
             }
@@ -78,6 +106,78 @@ public class StateReader extends ClientConnection {
         exitGame.run();
     }
 
+    /**
+     * rebuilds the world from the last keyframe before the given time, and reads the messages up to that time.
+     * @param target the game time to show next
+     */
+    private void seekTo(float target) throws IOException {
+        GameTimer timer = getTimer();
+        int keyframe = replay.keyframeBefore(target);
+
+        if (keyframe < 0) {
+            // the messages before the first keyframe start with a world switch
+            replay.seekStart();
+            timer.set(replay.getStartTime());
+            maxServerTime = replay.getStartTime();
+
+        } else {
+            replay.seekKeyframe(keyframe);
+            timer.set(replay.getKeyframeTime(keyframe));
+            maxServerTime = replay.getKeyframeTime(keyframe);
+
+            int length = new DataInputStream(replay.getInput()).readInt();
+            int end = replay.position() + length;
+            while (replay.position() < end) {
+                handleMessage();
+            }
+        }
+
+        while (maxServerTime < target) {
+            if (!handleMessage()) break;
+        }
+
+        timer.set(Math.min(target, maxServerTime) + RENDER_DELAY);
+        Logger.INFO.printf("Jumped to %.1f seconds using keyframe %d", target - replay.getStartTime(), keyframe);
+
+        if (modus == SpectatorModus.Players_View) {
+            Player[] players = getRaceProgress().players();
+            if (players.length > 0) focusJet = players[Math.floorMod(playerFocus, players.length)].jet();
+        }
+    }
+
+    /** @return true if this replay allows jumping to any moment */
+    public boolean isSeekable() {
+        return replay != null;
+    }
+
+    /**
+     * jumps to the given moment of the replay. The jump is executed by the thread reading the replay, before reading
+     * the next message.
+     * @param time a game time of the recording. Times before the start of the recording jump to the start.
+     */
+    public void seek(float time) {
+        if (replay == null) {
+            Logger.WARN.print("This replay has no index, and does not allow jumping");
+            return;
+        }
+        seekTarget = time;
+    }
+
+    /**
+     * jumps forward or backward in the replay
+     * @param seconds the number of seconds to jump, negative to jump back
+     */
+    public void step(float seconds) {
+        seek(getTimer().getRenderTime().current() + seconds);
+    }
+
+    /**
+     * @param speed the number of seconds of the replay played per real second
+     */
+    public void setSpeed(float speed) {
+        getTimer().setSpeed(speed);
+    }
+
     private float getPercent() {
         RaceProgress race = getRaceProgress();
         int lastPos = race.getNumPlayers() - 1;
@@ -175,8 +275,16 @@ public class StateReader extends ClientConnection {
         super.unPause();
     }
 
+    @Override
+    protected void acknowledgeSnapshot(int sequence) {
+        // the writer of the file assumes all snapshots to be received
+    }
+
     @Override
     protected void worldSwitch() {
+        // jumping in the replay switches the world again
+        AudioSource.disposeAll(soundSources);
+        soundSources.clear();
         soundSources.add(new AudioSource(getWorld().backgroundMusic(), BACKGROUND_MUSIC_GAIN, true));
     }
 
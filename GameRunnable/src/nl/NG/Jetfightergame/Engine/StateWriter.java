@@ -1,14 +1,19 @@
 package nl.NG.Jetfightergame.Engine;
 
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.GameState.RaceProgress;
+import nl.NG.Jetfightergame.ServerNetwork.EntitySnapshot;
 import nl.NG.Jetfightergame.ServerNetwork.EnvironmentClass;
 import nl.NG.Jetfightergame.ServerNetwork.MessageType;
 import nl.NG.Jetfightergame.ServerNetwork.ServerConnection;
+import nl.NG.Jetfightergame.Settings.ServerSettings;
 import nl.NG.Jetfightergame.Tools.Directory;
 import nl.NG.Jetfightergame.Tools.Logger;
 
 import java.io.File;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.Collection;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.Set;
@@ -16,18 +21,33 @@ import java.util.Set;
 import static nl.NG.Jetfightergame.ServerNetwork.MessageType.*;
 
 /**
+ * A connection that records everything sent to it. The recording is compressed and written on a separate thread by
+ * {@link ReplayOutput}. When that thread falls behind, snapshots and keyframes are skipped until it catches up.
  * @author Geert van Ieperen. Created on 20-8-2018.
+ * @see ReplayFormat
  */
 public class StateWriter extends ServerConnection {
     public static final String EXTENSION = ".jfgr";
     private static final Set<MessageType> filteredMessages =
             EnumSet.of(PAUSE_GAME, UNPAUSE_GAME, PING, PONG, SYNC_TIMER);
     private final File file;
+    private final ReplayOutput output;
     private int worldSwitches = 0;
+    private float nextKeyframe = Float.NEGATIVE_INFINITY;
+    private int lastSequence = -1;
 
-    /** @see #StateWriter(float, File) */
-    public StateWriter(float currentTime) throws IOException {
-        this(currentTime, getfile());
+    private int droppedSnapshots = 0;
+    private int droppedKeyframes = 0;
+    private int droppedSinceBehind = 0;
+
+    /**
+     * a connection that writes its state to a new file in the recordings directory
+     * @param currentTime the time of the server when starting
+     * @param serverName  the name of the server, which is part of the file name
+     * @throws IOException if a file exception occurs
+     */
+    public StateWriter(float currentTime, String serverName) throws IOException {
+        this(currentTime, getfile(serverName));
     }
 
     /**
@@ -37,8 +57,13 @@ public class StateWriter extends ServerConnection {
      * @throws IOException if a file exception occurs
      */
     public StateWriter(float currentTime, File file) throws IOException {
-        super("StateWriter", file, currentTime);
+        this(currentTime, file, new ReplayOutput(file));
+    }
+
+    private StateWriter(float currentTime, File file, ReplayOutput output) throws IOException {
+        super("StateWriter", output, currentTime);
         this.file = file;
+        this.output = output;
     }
 
     @Override
@@ -48,9 +73,59 @@ public class StateWriter extends ServerConnection {
         super.send(messageType);
     }
 
-    private static File getfile() {
+    @Override
+    public void sendSnapshot(EntitySnapshot snapshot, boolean[] relevant) {
+        if (output.isBehind()) {
+            // the next snapshot is encoded relative to the last one written
+            if (droppedSinceBehind == 0) Logger.WARN.print("Recording falls behind, skipping snapshots");
+            droppedSinceBehind++;
+            droppedSnapshots++;
+            return;
+
+        } else if (droppedSinceBehind > 0) {
+            Logger.WARN.print("Recording caught up after skipping " + droppedSinceBehind + " snapshots");
+            droppedSinceBehind = 0;
+        }
+
+        // a recording contains all entities
+        super.sendSnapshot(snapshot, null);
+        // a file reader receives everything we write
+        acknowledgeSnapshot(snapshot.sequence);
+        lastSequence = snapshot.sequence;
+    }
+
+    /**
+     * @param currentTime the current game time
+     * @return true if the last keyframe is at least {@link ServerSettings#REPLAY_KEYFRAME_INTERVAL} seconds ago
+     */
+    public boolean isKeyframeDue(float currentTime) {
+        return currentTime >= nextKeyframe;
+    }
+
+    /**
+     * writes a keyframe of the state of the world, which allows a reader to jump to this moment without reading the
+     * messages before it. The snapshot must be the last snapshot sent. If that snapshot has been skipped, the keyframe
+     * is skipped as well, as the snapshots following the keyframe would refer to a snapshot the reader doesn't have.
+     * @see ReplayFormat#encodeKeyframe(EnvironmentClass, float, int, Collection, RaceProgress, EntitySnapshot)
+     */
+    public void sendKeyframe(
+            EnvironmentClass world, float countDown, int maxRounds, Collection<MovingEntity> entities,
+            RaceProgress race, EntitySnapshot snapshot
+    ) {
+        if (snapshot.sequence != lastSequence) {
+            droppedKeyframes++;
+            return;
+        }
+
+        nextKeyframe = snapshot.time + ServerSettings.REPLAY_KEYFRAME_INTERVAL;
+        sendMessage(REPLAY_KEYFRAME, () -> output.writeKeyframe(
+                snapshot.time, ReplayFormat.encodeKeyframe(world, countDown, maxRounds, entities, race, snapshot)
+        ));
+    }
+
+    private static File getfile(String serverName) {
         SimpleDateFormat dateFormat = new SimpleDateFormat("dd-mm"); // day-minute
-        String name = "Replay_" + dateFormat.format(new Date()) + EXTENSION;
+        String name = "Replay_" + serverName + "_" + dateFormat.format(new Date()) + EXTENSION;
         return Directory.recordings.getFile(name);
     }
 
@@ -80,7 +155,14 @@ public class StateWriter extends ServerConnection {
     protected void closeOutputStream() {
         try {
             super.closeOutputStream();
-            Logger.INFO.print("Stored recording to file " + file);
+            Logger.INFO.printf("Stored recording with %d keyframes to file %s (%d kB, %d kB uncompressed)",
+                    output.getNumberOfKeyframes(), file, output.getFileSize() / 1024, output.getRawSize() / 1024
+            );
+            if (droppedSnapshots > 0 || output.getNumberOfStalls() > 0) {
+                Logger.WARN.printf("Recording skipped %d snapshots and %d keyframes, and stalled the server %d times",
+                        droppedSnapshots, droppedKeyframes, output.getNumberOfStalls()
+                );
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
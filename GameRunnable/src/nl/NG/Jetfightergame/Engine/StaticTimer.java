@@ -16,7 +16,7 @@ public class StaticTimer extends GameTimer {
 
     @Override
     public void updateGameTime() {
-        currentInGameTime += deltaTime;
+        currentInGameTime += deltaTime * speed;
         gameTime.update(currentInGameTime);
     }
 
@@ -32,6 +32,27 @@ public class Collision implements Comparable<Collision> {
         this.shapeLocalHitPos = hitPos;
     }
 
+    /**
+     * creates a collision of which both the local-space and the world-space values are known
+     * @param timeScalar       corrected scalar of the direction vector
+     * @param shapeLocalNormal the normal of the hit plane in local space
+     * @param shapeLocalHitPos local-space position of collision
+     * @param hitPos           world-space position of collision
+     * @param normal           the normalized normal of the hit plane in world-space
+     * @param source           the entity causing the collision
+     */
+    public Collision(
+            float timeScalar, DirVector shapeLocalNormal, PosVector shapeLocalHitPos,
+            PosVector hitPos, DirVector normal, MovingEntity source
+    ) {
+        this.timeScalar = timeScalar;
+        this.shapeLocalNormal = shapeLocalNormal;
+        this.shapeLocalHitPos = shapeLocalHitPos;
+        this.hitPos = hitPos;
+        this.normal = normal;
+        this.source = source;
+    }
+
     /**
      * creates a copy of the collision
      * @throws NullPointerException if {@link #convertToGlobal(MatrixStack, MovingEntity)} has not been called on the
@@ -0,0 +1,180 @@
+package nl.NG.Jetfightergame.EntityGeneral.Hitbox;
+
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.EntityGeneral.Touchable;
+import nl.NG.Jetfightergame.Primitives.Plane;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.ShadowMatrix;
+import nl.NG.Jetfightergame.ShapeCreation.Shape;
+import nl.NG.Jetfightergame.Tools.DataStructures.BoundingVolumeHierarchy;
+import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+
+import java.util.function.Consumer;
+
+/**
+ * Reserved space for the narrowphase of the collision detection. Every thread has its own context, holding a matrix
+ * stack, temporary vectors and the first hit found so far. Checking lines against the planes of an entity with a
+ * context does not create any objects; only {@link #getFirst()} creates a {@link Collision} when something was hit.
+ * <p>
+ * A check starts with {@link #begin(MovingEntity)}, after which any number of lines may be checked using {@link
+ * #checkLine(Touchable, PosVector, PosVector, DirVector, float)}. The first hit over all these lines is kept.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class CollisionContext implements BoundingVolumeHierarchy.LineVisitor<Plane> {
+    /** the scalar returned by planes that are not hit */
+    public static final float NO_HIT = Float.POSITIVE_INFINITY;
+
+    private static final ThreadLocal<CollisionContext> CONTEXTS = ThreadLocal.withInitial(CollisionContext::new);
+
+    /** reserved space for the planes, which may be overwritten by any method of a plane */
+    public final PosVector tempAlpha = new PosVector();
+    public final PosVector tempBeta = new PosVector();
+    public final PosVector cross = new PosVector();
+    public final PosVector relativePosition = new PosVector();
+    /** the local position where the last plane was hit, as written by {@link Plane#getCollisionScalar} */
+    public final PosVector hitPosition = new PosVector();
+
+    private final ShadowMatrix matrix = new ShadowMatrix();
+    private final PosVector worldStart = new PosVector();
+    private final PosVector worldEnd = new PosVector();
+    private final PosVector localStart = new PosVector();
+    private final PosVector localEnd = new PosVector();
+    private final DirVector localDirection = new DirVector();
+    private int[] traversalStack = new int[0];
+
+    /** the target and line of the current check, such that no lambdas are needed */
+    private Touchable target;
+    private PosVector lineStart;
+    private DirVector lineDirection;
+    private PosVector lineEnd;
+    private final Consumer<Shape> shapeCheck = this::checkShape;
+    private final Runnable targetCheck = () -> target.create(matrix, shapeCheck);
+
+    /** the first hit since the last call to begin */
+    private MovingEntity source;
+    private float firstScalar = NO_HIT;
+    private DirVector firstLocalNormal;
+    private final PosVector firstLocalHitPos = new PosVector();
+    private final PosVector firstHitPos = new PosVector();
+    private final DirVector firstNormal = new DirVector();
+
+    private CollisionContext() {
+    }
+
+    /** @return the context of the current thread */
+    public static CollisionContext get() {
+        return CONTEXTS.get();
+    }
+
+    /**
+     * forgets the previous hits and starts a new check
+     * @param source the entity causing the collisions, may be null
+     */
+    public void begin(MovingEntity source) {
+        this.source = source;
+        this.firstScalar = NO_HIT;
+        this.firstLocalNormal = null;
+    }
+
+    /**
+     * checks the movement of a point against the planes of target.
+     * @param target         the entity that may be hit
+     * @param startPosition  the position of this point at the last game-loop
+     * @param endPosition    the expected position of this point at the current game loop
+     * @param targetVelocity if target is a {@link MovingEntity}, its velocity. Otherwise, this is ignored
+     * @param deltaTime      time-difference of this loop
+     */
+    public void checkLine(
+            Touchable target, PosVector startPosition, PosVector endPosition, DirVector targetVelocity, float deltaTime
+    ) {
+        worldStart.set(startPosition);
+        worldEnd.set(endPosition);
+        this.target = target;
+
+        if (target instanceof MovingEntity) {
+            // consider the movement of the plane, by assuming relative movement and linear interpolation.
+            if (targetVelocity.isScalable()) worldStart.fma(deltaTime, targetVelocity);
+            ((MovingEntity) target).toLocalSpace(matrix, targetCheck, true);
+
+        } else {
+            target.toLocalSpace(matrix, targetCheck);
+        }
+
+        this.target = null;
+    }
+
+    private void checkShape(Shape shape) {
+        matrix.mapToLocal(worldStart, localStart);
+        matrix.mapToLocal(worldEnd, localEnd);
+        localStart.to(localEnd, localDirection);
+
+        shape.checkCollision(localStart, localDirection, localEnd, this);
+    }
+
+    /**
+     * checks the given line against the given plane, and stores the hit if it is earlier than the first hit so far.
+     * @return the scalar of the hit on the given plane, or {@link #NO_HIT}
+     * @see Plane#getCollisionWith(PosVector, DirVector, PosVector)
+     */
+    public float check(Plane plane, PosVector linePosition, DirVector direction, PosVector endPoint) {
+        float scalar = plane.getCollisionScalar(linePosition, direction, endPoint, this);
+
+        if (scalar < firstScalar) {
+            firstScalar = scalar;
+            firstLocalNormal = plane.getNormal();
+            firstLocalHitPos.set(hitPosition);
+            matrix.getPosition(hitPosition, firstHitPos);
+            matrix.getDirection(firstLocalNormal, firstNormal);
+            firstNormal.normalize();
+        }
+
+        return scalar;
+    }
+
+    /**
+     * checks the given line against the planes of the given tree, in the same way as {@link #check(Plane, PosVector,
+     * DirVector, PosVector)}. Planes that can not be hit before the first hit so far are skipped.
+     */
+    public void check(BoundingVolumeHierarchy<Plane> tree, PosVector linePosition, DirVector direction, PosVector endPoint) {
+        float maxScalar = (endPoint == null) ? NO_HIT : 1;
+        // hits behind the start of the line still compete with hits on other planes the line passes
+        maxScalar = Math.min(maxScalar, Math.max(firstScalar, 0));
+
+        int stackSize = tree.getStackSize();
+        if (traversalStack.length < stackSize) traversalStack = new int[stackSize];
+
+        lineStart = linePosition;
+        lineDirection = direction;
+        lineEnd = endPoint;
+
+        tree.traceLine(linePosition, direction, maxScalar, this, traversalStack);
+
+        lineStart = null;
+        lineDirection = null;
+        lineEnd = null;
+    }
+
+    @Override
+    public float visit(Plane plane, float maxScalar) {
+        float scalar = check(plane, lineStart, lineDirection, lineEnd);
+        return (scalar > maxScalar) ? maxScalar : Math.max(scalar, 0);
+    }
+
+    /** @return true iff any plane has been hit since the last call to {@link #begin(MovingEntity)} */
+    public boolean hasHit() {
+        return firstScalar != NO_HIT;
+    }
+
+    /**
+     * @return a new collision describing the first hit since the last call to {@link #begin(MovingEntity)}, or null if
+     *         there was none
+     */
+    public Collision getFirst() {
+        if (!hasHit()) return null;
+
+        return new Collision(
+                firstScalar, firstLocalNormal, new PosVector(firstLocalHitPos),
+                new PosVector(firstHitPos), new DirVector(firstNormal), source
+        );
+    }
+}
@@ -4,6 +4,7 @@ import nl.NG.Jetfightergame.Assets.Entities.AbstractProjectile;
 import nl.NG.Jetfightergame.Engine.GameTimer;
 import nl.NG.Jetfightergame.EntityGeneral.Factory.EntityFactory;
 import nl.NG.Jetfightergame.EntityGeneral.Hitbox.Collision;
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.CollisionContext;
 import nl.NG.Jetfightergame.EntityGeneral.Powerups.PowerupEntity;
 import nl.NG.Jetfightergame.GameState.SpawnReceiver;
 import nl.NG.Jetfightergame.Rendering.MatrixStack.GL2;
@@ -62,6 +63,13 @@ public abstract class MovingEntity implements Touchable {
     private QuaternionInterpolator rotationInterpolator;
     /** cached positions of the hitpoints */
     private PairList<PosVector, PosVector> hitPoints = null;
+    /** the interpolated state written by {@link #draw(GL2)}, reused each frame */
+    private final PosVector drawPosition = new PosVector();
+    private final Quaternionf drawRotation = new Quaternionf();
+    /** the forces of the current loop, given to {@link #applyPhysics(DirVector)} */
+    private final DirVector totalForce = new DirVector();
+    /** scratch vector of {@link #recalculateMovement(float)} */
+    private final DirVector movement = new DirVector();
 
     /**
      * The render timer. gameTime.getRenderTime().current() will provide the current time for interpolation, and
@@ -113,7 +121,8 @@ public abstract class MovingEntity implements Touchable {
         extraRotation.set(rotation);
         extraVelocity.set(velocity);
 
-        DirVector force = new DirVector(netForce);
+        DirVector force = totalForce;
+        force.set(netForce);
 
         float time = gameTimer.time();
         float deltaTime = gameTimer.getGameTime().difference();
@@ -128,6 +137,34 @@ public abstract class MovingEntity implements Touchable {
         updateShape(deltaTime);
     }
 
+    /**
+     * performs the actions of this loop that influence other entities, such as spawning new entities. This is called
+     * after {@link #preUpdate(DirVector)} has been called on all entities, one entity at a time and in the order in
+     * which the entities were added to the game.
+     */
+    public void applyEffects() {
+    }
+
+    /**
+     * @return true iff {@link #preUpdate(DirVector)} and {@link #update()} of this entity only read the state of other
+     *         entities as it was before the loop, and only change the state of this entity. Such entities may be updated
+     *         in parallel with each other, as the order of updating does not influence the result.
+     * @see #hasIndependentPhysics()
+     */
+    public boolean updatesIndependently() {
+        // temporary forces may depend on any entity
+        return tempForces.isEmpty() && hasIndependentPhysics();
+    }
+
+    /**
+     * @return true iff {@link #applyPhysics(DirVector)} and {@link #updateShape(float)} of this entity do not read the
+     *         expected state of other entities, and change nothing but the state of this entity.
+     * @see #updatesIndependently()
+     */
+    protected boolean hasIndependentPhysics() {
+        return false;
+    }
+
     /**
      * Updates the state of possible animations
      */
@@ -140,10 +177,18 @@ public abstract class MovingEntity implements Touchable {
      * @return a vector in world-space
      */
     public DirVector relativeDirection(DirVector relative) {
-        final DirVector[] axis = new DirVector[1];
-        ShadowMatrix sm = new ShadowMatrix();
-        toLocalSpace(sm, () -> axis[0] = sm.getDirection(relative), position, rotation);
-        return axis[0];
+        return relativeDirection(relative, new DirVector());
+    }
+
+    /**
+     * translates the given relative vector of this object to the object direction in world-space.
+     * @param relative a vector relative to this object
+     * @param dest     the vector to write the result into, which may be relative
+     * @return dest
+     */
+    public DirVector relativeDirection(DirVector relative, DirVector dest) {
+        rotation.transform(relative, dest);
+        return dest;
     }
 
     /**
@@ -190,15 +235,16 @@ public abstract class MovingEntity implements Touchable {
         // projectiles and shields cannot be hit
         if (other instanceof AbstractProjectile) return null;
 
-        Collision best = null;
+        CollisionContext context = CollisionContext.get();
+        context.begin(this);
+
+        DirVector otherVelocity = (other instanceof MovingEntity) ? ((MovingEntity) other).velocity : null;
         PairList<PosVector, PosVector> hitPoints = getHitpoints();
         for (int i = 0; i < hitPoints.size(); i++) {
-            Collision newCollision = getPointCollision(this, other, hitPoints.left(i), hitPoints.right(i), deltaTime);
-            if (newCollision != null && (best == null || newCollision.compareTo(best) < 0)) {
-                best = newCollision;
-            }
+            context.checkLine(other, hitPoints.left(i), hitPoints.right(i), otherVelocity, deltaTime);
         }
 
+        Collision best = context.getFirst();
         if (best == null) return null;
 
         other.acceptCollision(best);
@@ -228,43 +274,13 @@ public abstract class MovingEntity implements Touchable {
             PosVector startPosition, PosVector endPosition,
             float deltaTime
     ) {
-        Collision[] firstHit = new Collision[1];
-
-        // copy, because we may want to change it
-        PosVector startPosCopy = new PosVector(startPosition);
-
-        // collect the collisions
-        final ShadowMatrix sm = new ShadowMatrix();
-        final Consumer<Shape> addCollisions = shape -> {
-            // map point to local space
-            PosVector startPoint = sm.mapToLocal(startPosCopy);
-            PosVector endPoint = sm.mapToLocal(endPosition);
-            DirVector direction = startPoint.to(endPoint, new DirVector());
-
-            // search hitpoint, add it when found
-            Collision newCrash = shape.getCollision(startPoint, direction, endPoint);
-            if (newCrash != null) {
-                newCrash.convertToGlobal(sm, source);
-                Collision min = firstHit[0];
-                if (min == null || newCrash.compareTo(min) < 0) {
-                    firstHit[0] = newCrash;
-                }
-            }
-        };
+        CollisionContext context = CollisionContext.get();
+        context.begin(source);
 
-        if (target instanceof MovingEntity) {
-            final MovingEntity moving = (MovingEntity) target;
+        DirVector velocity = (target instanceof MovingEntity) ? ((MovingEntity) target).velocity : null;
+        context.checkLine(target, startPosition, endPosition, velocity, deltaTime);
 
-            // consider the movement of the plane, by assuming relative movement and linear interpolation.
-            final DirVector velocity = moving.getVelocity();
-            if (velocity.isScalable()) startPosCopy.add(velocity.scale(deltaTime));
-
-            moving.toLocalSpace(sm, () -> moving.create(sm, addCollisions), true);
-        } else {
-            target.toLocalSpace(sm, () -> target.create(sm, addCollisions));
-        }
-
-        return firstHit[0];
+        return context.getFirst();
     }
 
     protected PairList<PosVector, PosVector> calculateHitpointMovement() {
@@ -325,12 +341,22 @@ public abstract class MovingEntity implements Touchable {
      * @return a copy of the position of the center of mass of this object in world-space
      */
     public PosVector getPosition() {
+        return getPosition(new PosVector());
+    }
+
+    /**
+     * @param dest the vector to write the position of the center of mass of this object in world-space into
+     * @return dest
+     */
+    public PosVector getPosition(PosVector dest) {
         if (entityDeposit.isHeadless()) {
-            return new PosVector(position);
+            dest.set(position);
         } else {
-            positionInterpolator.updateTime(renderTime());
-            return positionInterpolator.getInterpolated(renderTime()).toPosVector();
+            float time = renderTime();
+            positionInterpolator.updateTime(time);
+            positionInterpolator.getInterpolated(time, dest);
         }
+        return dest;
     }
 
     /**
@@ -352,7 +378,7 @@ public abstract class MovingEntity implements Touchable {
     }
 
     private void recalculateMovement(float deltaTime) {
-        position.add(extraVelocity.scale(deltaTime, new DirVector()), extraPosition);
+        position.add(extraVelocity.scale(deltaTime, movement), extraPosition);
         hitPoints = calculateHitpointMovement();
     }
 
@@ -360,8 +386,8 @@ public abstract class MovingEntity implements Touchable {
     public void draw(GL2 gl) {
         if (renderTime() < spawnTime) return;
 
-        PosVector pos = getPosition();
-        Quaternionf rot = getRotation();
+        PosVector pos = getPosition(drawPosition);
+        Quaternionf rot = getRotation(drawRotation);
 
         preDraw(gl);
         Consumer<Shape> painter = gl::draw;
@@ -377,7 +403,7 @@ public abstract class MovingEntity implements Touchable {
         rotationInterpolator.add(newRotation, currentTime);
     }
 
-    protected Float renderTime() {
+    protected float renderTime() {
         return gameTimer.getRenderTime().current();
     }
 
@@ -392,7 +418,16 @@ public abstract class MovingEntity implements Touchable {
      * @return a copy of the movement of the center of mass of this object in world-space
      */
     public DirVector getVelocity() {
-        return new DirVector(velocity);
+        return getVelocity(new DirVector());
+    }
+
+    /**
+     * @param dest the vector to write the movement of the center of mass of this object in world-space into
+     * @return dest
+     */
+    public DirVector getVelocity(DirVector dest) {
+        dest.set(velocity);
+        return dest;
     }
 
     public EntityState getState() {
@@ -403,12 +438,22 @@ public abstract class MovingEntity implements Touchable {
      * @return the object's current rotation
      */
     public Quaternionf getRotation() {
+        return getRotation(new Quaternionf());
+    }
+
+    /**
+     * @param dest the quaternion to write the object's current rotation into
+     * @return dest
+     */
+    public Quaternionf getRotation(Quaternionf dest) {
         if (entityDeposit.isHeadless()) {
-            return new Quaternionf(rotation);
+            dest.set(rotation);
         } else {
-            rotationInterpolator.updateTime(renderTime());
-            return rotationInterpolator.getInterpolated(renderTime());
+            float time = renderTime();
+            rotationInterpolator.updateTime(time);
+            rotationInterpolator.getInterpolated(time, dest);
         }
+        return dest;
     }
 
     @Override
@@ -548,8 +593,16 @@ public abstract class MovingEntity implements Touchable {
     public abstract EntityFactory getFactory();
 
     protected DirVector velocityAtRenderTime() {
+        return velocityAtRenderTime(new DirVector());
+    }
+
+    /**
+     * @param dest the vector to write the derivative of the interpolated position into
+     * @return dest
+     */
+    protected DirVector velocityAtRenderTime(DirVector dest) {
         positionInterpolator.updateTime(renderTime());
-        return positionInterpolator.getDerivative();
+        return positionInterpolator.getDerivative(dest);
     }
 
     @Override
@@ -166,6 +166,11 @@ public class PowerupEntity extends MovingEntity implements Spectral {
         return isCollected;
     }
 
+    /** @return the time this powerup was last collected */
+    public float getCollectionTime() {
+        return collectionTime;
+    }
+
     public static class Factory extends EntityFactory {
         private PowerupColor color;
 
@@ -3,8 +3,9 @@ package nl.NG.Jetfightergame.GameState;
 import nl.NG.Jetfightergame.Engine.PathDescription;
 import nl.NG.Jetfightergame.EntityGeneral.Hitbox.Collision;
 import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
-import nl.NG.Jetfightergame.EntityGeneral.Spectral;
 import nl.NG.Jetfightergame.EntityGeneral.Touchable;
+import nl.NG.Jetfightergame.Tools.DataStructures.BoundingVolumeHierarchy;
+import nl.NG.Jetfightergame.Tools.DataStructures.ConcurrentIntMap;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
 import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
 
@@ -17,33 +18,55 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 public class EntityList implements EntityManagement {
     private final Collection<MovingEntity> dynamicEntities;
+    private final ConcurrentIntMap<MovingEntity> entityIds = new ConcurrentIntMap<>();
     private final Collection<Touchable> staticEntities;
+    private final BoundingVolumeHierarchy<Touchable> staticTree;
+    /** the net force of the entity being updated, reused for all entities */
+    private final DirVector netForce = new DirVector();
 
     public EntityList(Collection<Touchable> staticEntities) {
+        this(staticEntities, EntityManagement.createStaticTree(staticEntities));
+    }
+
+    /**
+     * @param staticEntities the entities of the world that do not move
+     * @param staticTree     a tree of exactly the static entities, used for {@link #rayTrace(PosVector, PosVector)}
+     */
+    public EntityList(Collection<Touchable> staticEntities, BoundingVolumeHierarchy<Touchable> staticTree) {
         this.dynamicEntities = new CopyOnWriteArrayList<>();
         this.staticEntities = Collections.unmodifiableCollection(staticEntities);
+        this.staticTree = staticTree;
     }
 
     @Override
     public void preUpdateEntities(NetForceProvider gravity) {
         for (MovingEntity entity : dynamicEntities) {
-            DirVector netForce = gravity.entityNetforce(entity);
+            gravity.entityNetforce(entity, netForce);
             entity.preUpdate(netForce);
         }
+
+        for (MovingEntity entity : dynamicEntities) {
+            entity.applyEffects();
+        }
     }
 
     @Override
-    public void analyseCollisions(float currentTime, float deltaTime, PathDescription path) {
+    public int analyseCollisions(float currentTime, float deltaTime, PathDescription path) {
         // do nothing
+        return 0;
     }
 
     @Override
     public void addEntity(MovingEntity entity) {
+        entityIds.put(entity.idNumber(), entity);
         dynamicEntities.add(entity);
     }
 
     @Override
     public void addEntities(Collection<? extends MovingEntity> newEntities) {
+        for (MovingEntity entity : newEntities) {
+            entityIds.put(entity.idNumber(), entity);
+        }
         dynamicEntities.addAll(newEntities);
     }
 
@@ -67,40 +90,35 @@ public class EntityList implements EntityManagement {
     @Override
     public void cleanUp() {
         dynamicEntities.clear();
+        entityIds.clear();
     }
 
     @Override
     public void removeEntity(MovingEntity entity) {
+        entityIds.remove(entity.idNumber());
         dynamicEntities.remove(entity);
         assert getDynamicEntities().stream().noneMatch(e -> e.idNumber() == entity.idNumber()) : "Could not remove entity " + entity;
     }
 
     @Override
-    public PosVector rayTrace(PosVector from, PosVector to) {
-        float xMin = Math.min(from.x, to.x);
-        float yMin = Math.min(from.y, to.y);
-        float zMin = Math.min(from.z, to.z);
-        float xMax = Math.max(from.x, to.x);
-        float yMax = Math.max(from.y, to.y);
-        float zMax = Math.max(from.z, to.z);
-        Collision minColl = null;
-
-        for (Touchable entity : staticEntities) {
-            if (entity instanceof Spectral) continue;
-            PosVector eMid = entity.getExpectedMiddle();
-            float range = entity.getRange();
-            if (eMid.x + range < xMin || eMid.x - range > xMax) continue;
-            if (eMid.y + range < yMin || eMid.y - range > yMax) continue;
-            if (eMid.z + range < zMin || eMid.z - range > zMax) continue;
-
-            Collision coll = MovingEntity.getPointCollision(null, entity, from, to, 0);
-            if (coll == null) continue;
-
-            if (minColl == null || coll.compareTo(minColl) < 0) {
-                minColl = coll;
-            }
+    public MovingEntity getEntity(int id) {
+        return entityIds.get(id);
+    }
+
+    @Override
+    public void collectEntitiesInRange(PosVector center, float radius, Collection<? super MovingEntity> dest) {
+        for (MovingEntity entity : dynamicEntities) {
+            PosVector pos = entity.getPosition();
+            if (Math.abs(pos.x - center.x) > radius) continue;
+            if (Math.abs(pos.y - center.y) > radius) continue;
+            if (Math.abs(pos.z - center.z) > radius) continue;
+            dest.add(entity);
         }
+    }
 
+    @Override
+    public PosVector rayTrace(PosVector from, PosVector to) {
+        Collision minColl = EntityManagement.rayTraceStatic(staticTree, from, to);
         return minColl == null ? to : minColl.hitPosition();
     }
 }
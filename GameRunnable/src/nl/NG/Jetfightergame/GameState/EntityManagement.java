@@ -1,8 +1,11 @@
 package nl.NG.Jetfightergame.GameState;
 
 import nl.NG.Jetfightergame.Engine.PathDescription;
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.Collision;
 import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.EntityGeneral.Spectral;
 import nl.NG.Jetfightergame.EntityGeneral.Touchable;
+import nl.NG.Jetfightergame.Tools.DataStructures.BoundingVolumeHierarchy;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
 import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
 
@@ -14,7 +17,8 @@ import java.util.Collection;
 public interface EntityManagement {
 
     /**
-     * calls the pre-update on all entities
+     * calls the pre-update on all entities, followed by {@link MovingEntity#applyEffects()} on all entities in order of
+     * addition
      * @param gravity provides the netforce on the objects
      *
      */
@@ -25,8 +29,9 @@ public interface EntityManagement {
      * @param currentTime the current game-loop time
      * @param deltaTime the in-game time difference from the last call to this method
      * @param path the path contained in the static parts of this
+     * @return the number of iterations of collision checks that were executed
      */
-    void analyseCollisions(float currentTime, float deltaTime, PathDescription path);
+    int analyseCollisions(float currentTime, float deltaTime, PathDescription path);
 
     /**
      * adds the new entities to the collision detection
@@ -56,6 +61,14 @@ public interface EntityManagement {
 
     void removeEntity(MovingEntity entity);
 
+    /**
+     * looks up a dynamic entity by its id, in constant time and without locking. Entities can be found from the moment
+     * they are added until they are removed.
+     * @param id the id of an entity, as given by {@link MovingEntity#idNumber()}
+     * @return the entity with the given id, or null if no such entity exists
+     */
+    MovingEntity getEntity(int id);
+
     /**
      * @param from start position
      * @param to   end position
@@ -63,14 +76,68 @@ public interface EntityManagement {
      */
     PosVector rayTrace(PosVector from, PosVector to);
 
+    /**
+     * adds all dynamic entities that may lie in the axis-aligned cube around center to dest. This may include entities
+     * outside the cube, but never misses an entity of which the middle lies inside.
+     * @param center the middle of the cube
+     * @param radius half the size of an edge of the cube
+     * @param dest   the collection to add the entities to
+     */
+    void collectEntitiesInRange(PosVector center, float radius, Collection<? super MovingEntity> dest);
+
+    /**
+     * creates a bounding volume hierarchy of the given entities, using the sphere given by {@link
+     * Touchable#getExpectedMiddle()} and {@link Touchable#getRange()} of each entity
+     * @param staticEntities entities that will not move
+     * @return a tree of the given entities
+     */
+    static BoundingVolumeHierarchy<Touchable> createStaticTree(Collection<Touchable> staticEntities) {
+        return new BoundingVolumeHierarchy<>(staticEntities, (entity, dest, offset) -> {
+            PosVector middle = entity.getExpectedMiddle();
+            float range = entity.getRange();
+            for (int axis = 0; axis < 3; axis++) {
+                dest[offset + axis] = middle.get(axis) - range;
+                dest[offset + 3 + axis] = middle.get(axis) + range;
+            }
+        });
+    }
+
+    /**
+     * finds the first collision of the line from - to with any of the entities in the given tree, except for {@link
+     * Spectral} entities.
+     * @param staticTree a tree as created by {@link #createStaticTree(Collection)}
+     * @param from       start position
+     * @param to         end position
+     * @return the first collision along the line, or null if the line does not hit any entity of the tree
+     */
+    static Collision rayTraceStatic(BoundingVolumeHierarchy<Touchable> staticTree, PosVector from, PosVector to) {
+        Collision[] first = new Collision[1];
+        DirVector direction = from.to(to, new DirVector());
+
+        staticTree.traceLine(from, direction, 1, (entity, max) -> {
+            if (entity instanceof Spectral) return max;
+
+            Collision coll = MovingEntity.getPointCollision(null, entity, from, to, 0);
+            if (coll == null || coll.timeScalar > max) return max;
+
+            if (first[0] == null || coll.compareTo(first[0]) < 0) {
+                first[0] = coll;
+            }
+            return Math.max(coll.timeScalar, 0);
+        });
+
+        return first[0];
+    }
+
     /**
      * @author Geert van Ieperen created on 26-4-2018.
      */
     interface NetForceProvider {
         /**
          * @param entity any dynamic entity in this world
-         * @return the force of gravity (or whatever) that naturally acts on this entity
+         * @param dest   the vector to write the force into
+         * @return the force of gravity (or whatever) that naturally acts on this entity, written in dest
          */
-        DirVector entityNetforce(MovingEntity entity);
+        DirVector entityNetforce(MovingEntity entity, DirVector dest);
     }
 }
@@ -8,6 +8,8 @@ import nl.NG.Jetfightergame.EntityGeneral.Factory.EntityFactory;
 import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
 import nl.NG.Jetfightergame.EntityGeneral.Touchable;
 import nl.NG.Jetfightergame.Rendering.MatrixStack.GL2;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.ViewFrustum;
+import nl.NG.Jetfightergame.Rendering.Particles.ParticleBuffer;
 import nl.NG.Jetfightergame.Rendering.Particles.ParticleCloud;
 import nl.NG.Jetfightergame.Sound.AudioFile;
 import nl.NG.Jetfightergame.Sound.Sounds;
@@ -42,11 +44,13 @@ public interface Environment extends EntityManagement.NetForceProvider, PathDesc
     /** draw all objects of the game */
     void drawObjects(GL2 gl);
 
-    /** draw all particles of the game */
-    void drawParticles(float currentTime);
-
-    /** @return the estimated number of particles at the given time. */
-    int getParticleCount(float currentTime);
+    /**
+     * moves the new particles of the game to the given buffer, and draws the particles of the buffer
+     * @param buffer      the buffer holding all particles
+     * @param currentTime the current render time
+     * @param view        the visible part of the world, or null if particles should not be culled
+     */
+    void drawParticles(ParticleBuffer buffer, float currentTime, ViewFrustum view);
 
     /** all entities added by the constructor or using {@link #addEntity(MovingEntity) */
     Collection<MovingEntity> getEntities();
@@ -90,6 +94,12 @@ public interface Environment extends EntityManagement.NetForceProvider, PathDesc
      */
     PosVector rayTrace(PosVector from, PosVector to);
 
+    /**
+     * adds all entities that may lie in the axis-aligned cube around center to dest
+     * @see EntityManagement#collectEntitiesInRange(PosVector, float, Collection)
+     */
+    void collectEntitiesInRange(PosVector center, float radius, Collection<? super MovingEntity> dest);
+
     default AudioFile backgroundMusic() {
         return Sounds.pulsePower.get();
     }
@@ -132,12 +142,7 @@ public interface Environment extends EntityManagement.NetForceProvider, PathDesc
         }
 
         @Override
-        public void drawParticles(float currentTime) {
-        }
-
-        @Override
-        public int getParticleCount(float currentTime) {
-            return 0;
+        public void drawParticles(ParticleBuffer buffer, float currentTime, ViewFrustum view) {
         }
 
         @Override
@@ -172,8 +177,9 @@ public interface Environment extends EntityManagement.NetForceProvider, PathDesc
         }
 
         @Override
-        public DirVector entityNetforce(MovingEntity entity) {
-            return DirVector.zeroVector();
+        public DirVector entityNetforce(MovingEntity entity, DirVector dest) {
+            dest.zero();
+            return dest;
         }
     }
 }
@@ -4,6 +4,8 @@ import nl.NG.Jetfightergame.EntityGeneral.EntityState;
 import nl.NG.Jetfightergame.EntityGeneral.Hitbox.Collision;
 import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
 import nl.NG.Jetfightergame.Rendering.MatrixStack.GL2;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.ViewFrustum;
+import nl.NG.Jetfightergame.Rendering.Particles.ParticleBuffer;
 import nl.NG.Jetfightergame.Rendering.Particles.ParticleCloud;
 import nl.NG.Jetfightergame.ServerNetwork.EnvironmentClass;
 import nl.NG.Jetfightergame.Sound.AudioFile;
@@ -97,8 +99,8 @@ public class EnvironmentManager implements Environment, Manager<EnvironmentClass
     }
 
     @Override
-    public DirVector entityNetforce(MovingEntity entity) {
-        return instance.entityNetforce(entity);
+    public DirVector entityNetforce(MovingEntity entity, DirVector dest) {
+        return instance.entityNetforce(entity, dest);
     }
 
     @Override
@@ -117,13 +119,8 @@ public class EnvironmentManager implements Environment, Manager<EnvironmentClass
     }
 
     @Override
-    public void drawParticles(float currentTime) {
-        instance.drawParticles(currentTime);
-    }
-
-    @Override
-    public int getParticleCount(float currentTime) {
-        return instance.getParticleCount(currentTime);
+    public void drawParticles(ParticleBuffer buffer, float currentTime, ViewFrustum view) {
+        instance.drawParticles(buffer, currentTime, view);
     }
 
     @Override
@@ -186,6 +183,11 @@ public class EnvironmentManager implements Environment, Manager<EnvironmentClass
         return instance.rayTrace(from, to);
     }
 
+    @Override
+    public void collectEntitiesInRange(PosVector center, float radius, Collection<? super MovingEntity> dest) {
+        instance.collectEntitiesInRange(center, radius, dest);
+    }
+
     @Override
     public AudioFile backgroundMusic() {
         return instance.backgroundMusic();
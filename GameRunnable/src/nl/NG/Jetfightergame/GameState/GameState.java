@@ -3,25 +3,28 @@ package nl.NG.Jetfightergame.GameState;
 import nl.NG.Jetfightergame.Assets.Entities.FighterJets.AbstractJet;
 import nl.NG.Jetfightergame.Assets.Shapes.GeneralShapes;
 import nl.NG.Jetfightergame.Engine.GameTimer;
+import nl.NG.Jetfightergame.Engine.Profiling.TickPhase;
+import nl.NG.Jetfightergame.Engine.Profiling.TickProfiler;
 import nl.NG.Jetfightergame.EntityGeneral.Factory.EntityFactory;
 import nl.NG.Jetfightergame.EntityGeneral.Hitbox.Collision;
 import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
 import nl.NG.Jetfightergame.EntityGeneral.Touchable;
 import nl.NG.Jetfightergame.Rendering.Material;
 import nl.NG.Jetfightergame.Rendering.MatrixStack.GL2;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.ShadowMatrix;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.ViewFrustum;
+import nl.NG.Jetfightergame.Rendering.Particles.ParticleBuffer;
 import nl.NG.Jetfightergame.Rendering.Particles.ParticleCloud;
 import nl.NG.Jetfightergame.Settings.ClientSettings;
 import nl.NG.Jetfightergame.Settings.ServerSettings;
+import nl.NG.Jetfightergame.Tools.DataStructures.BoundingVolumeHierarchy;
 import nl.NG.Jetfightergame.Tools.DataStructures.Pair;
 import nl.NG.Jetfightergame.Tools.Logger;
 import nl.NG.Jetfightergame.Tools.Vectors.Color4f;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
 import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -35,7 +38,9 @@ import static org.lwjgl.opengl.GL11.glDisable;
  */
 public abstract class GameState implements Environment {
 
-    protected final Collection<ParticleCloud> particles = new ArrayList<>();
+    /** the pull of one gravity source, per thread as the net forces may be computed in parallel */
+    private static final ThreadLocal<DirVector> TEMP_GRAVITY = ThreadLocal.withInitial(DirVector::new);
+
     protected final Collection<Pair<PosVector, Color4f>> lights = new CopyOnWriteArrayList<>();
     private ParticleCloud newParticles = new ParticleCloud();
     private Collection<GravitySource> gravitySources = new HashSet<>();
@@ -43,6 +48,13 @@ public abstract class GameState implements Environment {
     private EntityManagement physicsEngine;
     private Lock addParticleLock = new ReentrantLock();
     private GameTimer gameTimer;
+    private TickProfiler profiler = TickProfiler.NONE;
+
+    /** the static entities by their visible bounds, or null if not yet created */
+    private BoundingVolumeHierarchy<Touchable> renderTree;
+    /** static entities of which the visible bounds are unknown */
+    private Collection<Touchable> unboundedEntities;
+    private int[] renderStack;
 
     /**
      * initialize the scene. Make sure to have called Shapes.init() for all shapes you want to initialize
@@ -55,14 +67,19 @@ public abstract class GameState implements Environment {
      */
     public void buildScene(SpawnReceiver deposit, RaceProgress raceProgress, boolean loadDynamic, boolean doCollDet) {
         gameTimer = deposit.getTimer();
+        profiler = deposit.getProfiler();
         final Collection<Touchable> staticEntities = createWorld(raceProgress, gameTimer);
+        final BoundingVolumeHierarchy<Touchable> staticTree = EntityManagement.createStaticTree(staticEntities);
 
         if (doCollDet) {
-            physicsEngine = new ProximityDetection(staticEntities);
+            physicsEngine = ServerSettings.SWEEP_AND_PRUNE ?
+                    new SweepAndPrune(staticEntities, staticTree) :
+                    new ProximityDetection(staticEntities, staticTree);
 
         } else {
-            physicsEngine = new EntityList(staticEntities);
+            physicsEngine = new EntityList(staticEntities, staticTree);
         }
+        renderTree = null;
 
         if (loadDynamic) {
             getInitialEntities().forEach(deposit::add);
@@ -88,16 +105,27 @@ public abstract class GameState implements Environment {
         float deltaTime = gameTimer.getGameTime().difference();
 
         // update positions and apply physics
+        long start = profiler.start();
         gravitySources.removeIf(s -> s.isOverdue(currentTime));
+        profiler.stop(TickPhase.GRAVITY, start);
+
+        start = profiler.start();
         physicsEngine.preUpdateEntities(this::getNetForce);
+        profiler.stop(TickPhase.PRE_UPDATE, start);
 
         if (deltaTime == 0f) return;
 
-        if (ServerSettings.MAX_COLLISION_ITERATIONS != 0)
-            physicsEngine.analyseCollisions(currentTime, deltaTime, this);
+        if (ServerSettings.MAX_COLLISION_ITERATIONS != 0) {
+            start = profiler.start();
+            int iterations = physicsEngine.analyseCollisions(currentTime, deltaTime, this);
+            profiler.stop(TickPhase.COLLISIONS, start);
+            profiler.recordCollisionIterations(iterations);
+        }
 
         // update new state
+        start = profiler.start();
         physicsEngine.updateEntities(currentTime);
+        profiler.stop(TickPhase.UPDATE, start);
     }
 
     @Override
@@ -126,29 +154,92 @@ public abstract class GameState implements Environment {
         if (physicsEngine == null) return;
 
         glDisable(GL_CULL_FACE); // TODO when the meshes are fixed or new meshes are created, this should be removed
-        physicsEngine.getStaticEntities().forEach(d -> d.draw(gl));
+        ViewFrustum view = gl.getViewFrustum();
+        if (view == null) {
+            physicsEngine.getStaticEntities().forEach(d -> d.draw(gl));
+
+        } else {
+            if (renderTree == null) createRenderTree(physicsEngine.getStaticEntities());
+            int nOfVisible = renderTree.forEachIn(view, d -> d.draw(gl), renderStack);
+            view.addCulled(renderTree.size() - nOfVisible);
+            unboundedEntities.forEach(d -> d.draw(gl));
+        }
+
+        // moving entities are culled per shape
         physicsEngine.getDynamicEntities().forEach(d -> d.draw(gl));
     }
 
-    @Override
-    public void drawParticles(float currentTime) {
-        if (newParticles.readyToLoad()) {
-            addParticleLock.lock();
-            newParticles.writeToGL(currentTime);
-            particles.add(newParticles);
-            newParticles = new ParticleCloud();
-            addParticleLock.unlock();
+    /**
+     * creates a tree of the given entities using the bounding spheres of the shapes they draw. This assumes that the
+     * entities do not change the shapes they draw, nor where they draw them.
+     */
+    private void createRenderTree(Collection<Touchable> staticEntities) {
+        ShadowMatrix ms = new ShadowMatrix();
+        Map<Touchable, float[]> bounds = new IdentityHashMap<>();
+        unboundedEntities = new ArrayList<>();
+
+        for (Touchable entity : staticEntities) {
+            float[] box = getVisibleBounds(entity, ms);
+            if (box == null) {
+                unboundedEntities.add(entity);
+            } else {
+                bounds.put(entity, box);
+            }
         }
 
-        particles.removeIf(p -> p.disposeIfFaded(currentTime));
-        particles.forEach(ParticleCloud::render);
+        renderTree = new BoundingVolumeHierarchy<>(bounds.keySet(),
+                (entity, dest, offset) -> System.arraycopy(bounds.get(entity), 0, dest, offset, 6)
+        );
+        renderStack = new int[renderTree.getStackSize()];
+        Logger.DEBUG.printf("Culling %d static entities, %d without bounds", bounds.size(), unboundedEntities.size());
+    }
+
+    /**
+     * @return the box {xMin, yMin, zMin, xMax, yMax, zMax} around all shapes drawn by the given entity, or null if
+     *         this box is unknown
+     */
+    private static float[] getVisibleBounds(Touchable entity, ShadowMatrix ms) {
+        float[] box = {
+                Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY
+        };
+        DirVector axis = new DirVector();
+
+        entity.toLocalSpace(ms, () -> entity.create(ms, shape -> {
+            float[] sphere = shape.getBoundingSphere();
+            PosVector middle = ms.getPosition(new PosVector(sphere[0], sphere[1], sphere[2]));
+
+            float scale = 0;
+            for (int i = 0; i < 3; i++) {
+                axis.zero().setComponent(i, 1);
+                scale = Math.max(scale, ms.getDirection(axis, axis).length());
+            }
+            float radius = sphere[3] * scale;
+
+            for (int i = 0; i < 3; i++) {
+                box[i] = Math.min(box[i], middle.get(i) - radius);
+                box[i + 3] = Math.max(box[i + 3], middle.get(i) + radius);
+            }
+        }));
+
+        // no shapes, or a shape without points
+        if (!(box[0] <= box[3]) || Float.isInfinite(box[0]) || Float.isInfinite(box[3])) return null;
+        return box;
     }
 
     @Override
-    public int getParticleCount(float currentTime) {
-        return particles.parallelStream()
-                .mapToInt(p -> p.estParticlesAt(currentTime))
-                .sum();
+    public void drawParticles(ParticleBuffer buffer, float currentTime, ViewFrustum view) {
+        if (newParticles.readyToLoad()) {
+            addParticleLock.lock();
+            try {
+                buffer.add(newParticles, currentTime);
+                newParticles = new ParticleCloud();
+            } finally {
+                addParticleLock.unlock();
+            }
+        }
+
+        buffer.draw(currentTime, view);
     }
 
     @Override
@@ -167,13 +258,7 @@ public abstract class GameState implements Environment {
      * @return the entity with the given entityID, or null if no such entity exists
      */
     public MovingEntity getEntity(int entityID) {
-        for (MovingEntity entity : physicsEngine.getDynamicEntities()) {
-            if (entity.idNumber() == entityID) {
-                return entity;
-            }
-        }
-
-        return null;
+        return physicsEngine.getEntity(entityID);
     }
 
     @Override
@@ -204,7 +289,7 @@ public abstract class GameState implements Environment {
             }
 
         } else {
-            Logger.ERROR.print("Tried adding a cloud that was either already loaded, or without particles");
+            Logger.ERROR.print("Tried adding a cloud without particles");
         }
     }
 
@@ -235,16 +320,22 @@ public abstract class GameState implements Environment {
         return physicsEngine == null ? to : physicsEngine.rayTrace(from, to);
     }
 
+    @Override
+    public void collectEntitiesInRange(PosVector center, float radius, Collection<? super MovingEntity> dest) {
+        if (physicsEngine != null) physicsEngine.collectEntitiesInRange(center, radius, dest);
+    }
+
     /**
      * a method that returns the net force on entity e, taking all gravtiy forces into account
      * @param e the entity
-     * @return the net gravity forces on this entity
+     * @param dest the vector to write the force into
+     * @return the net gravity forces on this entity, written in dest
      */
-    private DirVector getNetForce(MovingEntity e) {
-        if (e instanceof AbstractJet) return entityNetforce(e);
+    private DirVector getNetForce(MovingEntity e, DirVector dest) {
+        DirVector force = entityNetforce(e, dest);
+        if (e instanceof AbstractJet || gravitySources.isEmpty()) return force;
 
-        DirVector temp = new DirVector();
-        DirVector force = entityNetforce(e);
+        DirVector temp = TEMP_GRAVITY.get();
         PosVector entPos = e.getPosition();
 
         for (GravitySource source : gravitySources) {
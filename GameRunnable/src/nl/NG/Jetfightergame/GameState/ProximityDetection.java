@@ -8,8 +8,11 @@ import nl.NG.Jetfightergame.EntityGeneral.TemporalEntity;
 import nl.NG.Jetfightergame.EntityGeneral.Touchable;
 import nl.NG.Jetfightergame.Settings.ServerSettings;
 import nl.NG.Jetfightergame.Tools.DataStructures.AveragingQueue;
+import nl.NG.Jetfightergame.Tools.DataStructures.BoundingVolumeHierarchy;
 import nl.NG.Jetfightergame.Tools.DataStructures.ConcurrentArrayList;
+import nl.NG.Jetfightergame.Tools.DataStructures.ConcurrentIntMap;
 import nl.NG.Jetfightergame.Tools.DataStructures.PairList;
+import nl.NG.Jetfightergame.Tools.DataStructures.UnionFind;
 import nl.NG.Jetfightergame.Tools.Logger;
 import nl.NG.Jetfightergame.Tools.Toolbox;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
@@ -17,7 +20,10 @@ import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
 
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
@@ -28,51 +34,82 @@ import static nl.NG.Jetfightergame.Settings.ServerSettings.MAX_COLLISION_ITERATI
  * @author Geert van Ieperen created on 10-3-2018.
  */
 public class ProximityDetection implements EntityManagement {
+    /** with fewer entities than this, the overhead of parallel execution outweighs its gain */
+    private static final int MIN_PARALLEL_ENTITIES = 32;
+
     private CollisionEntity[] xLowerSorted;
     private CollisionEntity[] yLowerSorted;
     private CollisionEntity[] zLowerSorted;
+    /** an upper bound of the range of all entities ever added */
+    private float maxRange = 0;
 
-    private AveragingQueue avgCollision = new AveragingQueue(ServerSettings.TARGET_TPS);
+    protected AveragingQueue avgCollision = new AveragingQueue(ServerSettings.TARGET_TPS);
     private final Supplier<String> collisionCounter = () ->
             String.format("Collision pair count average: %1.01f", avgCollision.average());
 
     private final Collection<Touchable> staticEntities;
+    private final BoundingVolumeHierarchy<Touchable> staticTree;
     private Collection<MovingEntity> dynamicEntities;
     private Collection<MovingEntity> newEntities;
     private Collection<MovingEntity> removeEntities;
+    private final ConcurrentIntMap<MovingEntity> entityIds = new ConcurrentIntMap<>();
+    /** buffer for querying the static tree */
+    private final List<Touchable> staticBuffer = new ArrayList<>();
+    /** traversal stack for querying the static tree, as the tree is queried for every dynamic entity every loop */
+    private final int[] staticStack;
+
+    /** the dynamic entities in order of addition, as updated in the last call to preUpdateEntities */
+    private MovingEntity[] updateOrder = new MovingEntity[0];
+    /** per element of updateOrder whether it {@link MovingEntity#updatesIndependently()} */
+    private boolean[] isIndependent = new boolean[0];
+    /** per element of updateOrder the net force of this loop. The vectors are reused every loop */
+    private DirVector[] netForces = new DirVector[0];
+
+    /** collision islands of the current loop: the pairs of island i are islandPairs[islandStart[i] ... islandStart[i+1]) */
+    private int[] islandStart = new int[1];
+    private int[] islandPairs = new int[0];
+    private final UnionFind islandForest = new UnionFind(0);
+    /** open-addressing table from entity id to node of islandForest, reused every loop. Unused keys are {@link ConcurrentIntMap#EMPTY} */
+    private int[] nodeKeys = new int[0];
+    private int[] nodeValues = new int[0];
+    private int nOfNodes = 0;
+    /** buffers of groupIslands, reused every loop */
+    private int[] leftNode = new int[0];
+    private int[] rightNode = new int[0];
+    private int[] pairIsland = new int[0];
+    private int[] islandOfRoot = new int[0];
+    private int[] islandCount = new int[0];
 
     /**
      * Collects the given entities and allows collision and phisics calculations to influence these entities
-     * @param staticEntities a list of fixed entities. Entities in this collection should not move, but if they do,
-     *                       dynamic objects might phase through when moving in opposite direction. Apart from this
-     *                       case, the collision detection still functions.
+     * @param staticEntities a list of fixed entities. Entities in this collection may not move.
+     * @see #ProximityDetection(Collection, BoundingVolumeHierarchy)
      */
     public ProximityDetection(Collection<Touchable> staticEntities) {
+        this(staticEntities, EntityManagement.createStaticTree(staticEntities));
+    }
+
+    /**
+     * Collects the given entities and allows collision and phisics calculations to influence these entities. The
+     * static entities are only queried using the given tree, the sorted arrays contain the dynamic entities only.
+     * @param staticEntities a list of fixed entities. Entities in this collection may not move, as their position is
+     *                       only read upon building the tree
+     * @param staticTree     a tree of exactly the static entities, as created by {@link
+     *                       EntityManagement#createStaticTree(Collection)}
+     */
+    public ProximityDetection(Collection<Touchable> staticEntities, BoundingVolumeHierarchy<Touchable> staticTree) {
         this.staticEntities = Collections.unmodifiableCollection(staticEntities);
+        this.staticTree = staticTree;
+        this.staticStack = new int[staticTree.getStackSize()];
         this.dynamicEntities = new CopyOnWriteArrayList<>();
         this.newEntities = new ConcurrentArrayList<>();
         this.removeEntities = new ConcurrentArrayList<>();
 
         Logger.printOnline(collisionCounter);
 
-        int nOfEntities = staticEntities.size();
-        xLowerSorted = new CollisionEntity[nOfEntities];
-        yLowerSorted = new CollisionEntity[nOfEntities];
-        zLowerSorted = new CollisionEntity[nOfEntities];
-
-        int i = 0;
-        for (Touchable entity : staticEntities) {
-            CollisionEntity asCollisionEntity = new CollisionEntity(entity);
-            xLowerSorted[i] = asCollisionEntity;
-            yLowerSorted[i] = asCollisionEntity;
-            zLowerSorted[i] = asCollisionEntity;
-            i++;
-        }
-
-        Arrays.sort(xLowerSorted, (a, b) -> Float.compare(a.xLower(), b.xLower()));
-        Arrays.sort(yLowerSorted, (a, b) -> Float.compare(a.yLower(), b.yLower()));
-        Arrays.sort(zLowerSorted, (a, b) -> Float.compare(a.zLower(), b.zLower()));
-
+        xLowerSorted = new CollisionEntity[0];
+        yLowerSorted = new CollisionEntity[0];
+        zLowerSorted = new CollisionEntity[0];
     }
 
     @Override
@@ -88,58 +125,238 @@ public class ProximityDetection implements EntityManagement {
             removeEntities.clear();
         }
 
-        for (MovingEntity entity : dynamicEntities) {
-            DirVector netForce = gravity.entityNetforce(entity);
-            entity.preUpdate(netForce);
+        MovingEntity[] entities = dynamicEntities.toArray(new MovingEntity[0]);
+        int nOfEntities = entities.length;
+        if (netForces.length < nOfEntities) {
+            int oldLength = netForces.length;
+            netForces = Arrays.copyOf(netForces, nOfEntities);
+            for (int i = oldLength; i < nOfEntities; i++) {
+                netForces[i] = new DirVector();
+            }
+            isIndependent = new boolean[nOfEntities];
         }
 
-        for (CollisionEntity entity : entityArray()) {
-            entity.update();
+        for (int i = 0; i < nOfEntities; i++) {
+            isIndependent[i] = entities[i].updatesIndependently();
+        }
+        updateOrder = entities;
+
+        // the forces are determined before any entity changes its expected state
+        forEachIndex(nOfEntities, i -> gravity.entityNetforce(entities[i], netForces[i]));
+
+        // entities that only change their own state are updated first, in any order
+        forEachIndex(nOfEntities, i -> {
+            if (isIndependent[i]) entities[i].preUpdate(netForces[i]);
+        });
+        for (int i = 0; i < nOfEntities; i++) {
+            if (!isIndependent[i]) entities[i].preUpdate(netForces[i]);
         }
 
-        Toolbox.insertionSort(xLowerSorted, CollisionEntity::xLower);
-        Toolbox.insertionSort(yLowerSorted, CollisionEntity::yLower);
-        Toolbox.insertionSort(zLowerSorted, CollisionEntity::zLower);
+        for (MovingEntity entity : entities) {
+            entity.applyEffects();
+        }
+
+        CollisionEntity[] entityArray = entityArray();
+        forEachIndex(entityArray.length, i -> entityArray[i].update());
+
+        // each axis is sorted by one task
+        if (ServerSettings.PARALLEL_PHYSICS && (entityArray.length >= MIN_PARALLEL_ENTITIES)) {
+            ForkJoinTask.invokeAll(
+                    ForkJoinTask.adapt(() -> Toolbox.insertionSort(xLowerSorted, CollisionEntity::xLower)),
+                    ForkJoinTask.adapt(() -> Toolbox.insertionSort(yLowerSorted, CollisionEntity::yLower)),
+                    ForkJoinTask.adapt(() -> Toolbox.insertionSort(zLowerSorted, CollisionEntity::zLower))
+            );
+
+        } else {
+            Toolbox.insertionSort(xLowerSorted, CollisionEntity::xLower);
+            Toolbox.insertionSort(yLowerSorted, CollisionEntity::yLower);
+            Toolbox.insertionSort(zLowerSorted, CollisionEntity::zLower);
+        }
+    }
+
+    /**
+     * executes the given action for all indices [0 ... size), in parallel on the common {@link ForkJoinPool} if
+     * {@link ServerSettings#PARALLEL_PHYSICS} is set and there are enough entities. The action must be independent of
+     * the order of execution.
+     */
+    private static void forEachIndex(int size, IntConsumer action) {
+        if (ServerSettings.PARALLEL_PHYSICS && (size >= MIN_PARALLEL_ENTITIES)) {
+            IntStream.range(0, size).parallel().forEach(action);
+
+        } else {
+            for (int i = 0; i < size; i++) {
+                action.accept(i);
+            }
+        }
     }
 
     @Override
-    public void analyseCollisions(float currentTime, float deltaTime, PathDescription path) {
+    public int analyseCollisions(float currentTime, float deltaTime, PathDescription path) {
 //        if (DEBUG) testInvariants();
 
-        int remainingLoops = MAX_COLLISION_ITERATIONS;
-        int nOfCollisions;
-
         /* as a single collision may result in a previously not-intersecting pair to collide,
          * we shouldn't re-use the getIntersectingPairs method nor reduce by non-collisions.
          * On the other hand, we may assume collisions of that magnitude appear seldom
          */
         PairList<Touchable, MovingEntity> pairs = getIntersectingPairs();
+        int nOfPairs = pairs.size();
+        if (nOfPairs == 0) return 0;
+
+        // pairs of different islands share no entities, thus their responses are independent
+        int nOfIslands = groupIslands(pairs);
+        boolean[] isActive = new boolean[nOfIslands];
+        Arrays.fill(isActive, true);
+        int[] activePairs = new int[nOfPairs];
+        Collision[] buffer = new Collision[nOfPairs];
+
+        int remainingLoops = MAX_COLLISION_ITERATIONS;
+        int nOfActiveIslands = nOfIslands;
+        int iterations = 0;
 
         do {
-            nOfCollisions = 0;
+            iterations++;
+            // only islands where a collision occurred in the previous iteration can collide again
+            int nOfActivePairs = 0;
+            for (int island = 0; island < nOfIslands; island++) {
+                if (!isActive[island]) continue;
+                for (int k = islandStart[island]; k < islandStart[island + 1]; k++) {
+                    activePairs[nOfActivePairs++] = islandPairs[k];
+                }
+            }
 
-            Collision[] buffer = new Collision[pairs.size()];
-            IntStream.range(0, pairs.size()).parallel()
-                    .forEach(n -> buffer[n] = checkCollisionPair(pairs.left(n), pairs.right(n), deltaTime));
+            IntStream.range(0, nOfActivePairs).parallel().forEach(k -> {
+                int n = activePairs[k];
+                buffer[n] = checkCollisionPair(pairs.left(n), pairs.right(n), deltaTime);
+            });
 
-            for (int i = 0; i < buffer.length; i++) {
-                if (buffer[i] == null) continue;
+            forEachIndex(nOfIslands, island -> {
+                if (isActive[island]) isActive[island] = resolveIsland(island, pairs, buffer, deltaTime);
+            });
 
-                nOfCollisions++;
+            nOfActiveIslands = 0;
+            for (boolean active : isActive) {
+                if (active) nOfActiveIslands++;
+            }
 
-                Touchable other = pairs.left(i);
-                if (other instanceof MovingEntity) { // if two entities collide
-                    MovingEntity right = pairs.right(i);
-                    MovingEntity left = (MovingEntity) other;
-                    MovingEntity.entityCollision(left, right, deltaTime, buffer[i]);
+        } while ((nOfActiveIslands > 0) && (--remainingLoops > 0) && !Thread.interrupted());
 
-                } else { // if entity collides with terrain
-                    MovingEntity right = pairs.right(i);
-                    right.terrainCollision(deltaTime, buffer[i]);
-                }
+        return iterations;
+    }
+
+    /**
+     * groups the given pairs into islands: sets of pairs that are connected by the dynamic entities they share. Static
+     * entities do not connect pairs, as they are not changed by a collision. The result is stored in {@link
+     * #islandStart} and {@link #islandPairs}.
+     * @return the number of islands
+     */
+    private int groupIslands(PairList<Touchable, MovingEntity> pairs) {
+        int nOfPairs = pairs.size();
+        if (leftNode.length < nOfPairs) {
+            int length = Math.max(nOfPairs, 2 * leftNode.length);
+            leftNode = new int[length];
+            rightNode = new int[length];
+            pairIsland = new int[length];
+            islandPairs = new int[length];
+            // each pair adds at most two nodes
+            islandOfRoot = new int[2 * length];
+            islandCount = new int[length + 1];
+            islandStart = new int[length + 1];
+        }
+
+        // map the entity ids to consecutive nodes
+        clearNodes(2 * nOfPairs);
+        for (int i = 0; i < nOfPairs; i++) {
+            Touchable left = pairs.left(i);
+            leftNode[i] = (left instanceof MovingEntity) ? nodeOf((MovingEntity) left) : -1;
+            rightNode[i] = nodeOf(pairs.right(i));
+        }
+
+        islandForest.reset(nOfNodes);
+        for (int i = 0; i < nOfPairs; i++) {
+            if (leftNode[i] >= 0) islandForest.union(leftNode[i], rightNode[i]);
+        }
+
+        // number the islands, and count the pairs of each island
+        Arrays.fill(islandOfRoot, 0, nOfNodes, -1);
+        int[] count = islandCount;
+        Arrays.fill(count, 0, nOfPairs + 1, 0);
+        int nOfIslands = 0;
+
+        for (int i = 0; i < nOfPairs; i++) {
+            int root = islandForest.find(rightNode[i]);
+            if (islandOfRoot[root] < 0) islandOfRoot[root] = nOfIslands++;
+            pairIsland[i] = islandOfRoot[root];
+            count[pairIsland[i] + 1]++;
+        }
+
+        // counting sort on island, which keeps the order of the pairs within each island
+        islandStart[0] = 0;
+        for (int island = 0; island < nOfIslands; island++) {
+            islandStart[island + 1] = islandStart[island] + count[island + 1];
+        }
+
+        // count is reused as the next free position of each island
+        System.arraycopy(islandStart, 0, count, 0, nOfIslands);
+        for (int i = 0; i < nOfPairs; i++) {
+            islandPairs[count[pairIsland[i]]++] = i;
+        }
+
+        return nOfIslands;
+    }
+
+    /** empties the node table, making room for the given number of entities */
+    private void clearNodes(int maxNodes) {
+        // at most half of the table is used, such that probing stays short
+        int capacity = Integer.highestOneBit(Math.max(2 * maxNodes, 16) - 1) << 1;
+        if (nodeKeys.length < capacity) {
+            nodeKeys = new int[capacity];
+            nodeValues = new int[capacity];
+        }
+        Arrays.fill(nodeKeys, ConcurrentIntMap.EMPTY);
+        nOfNodes = 0;
+    }
+
+    /** @return the node of the entity in islandForest, which is assigned when the entity is first seen */
+    private int nodeOf(MovingEntity entity) {
+        int id = entity.idNumber();
+        int mask = nodeKeys.length - 1;
+
+        for (int i = (id * 0x9E3779B9) & mask; ; i = (i + 1) & mask) {
+            if (nodeKeys[i] == id) return nodeValues[i];
+            if (nodeKeys[i] == ConcurrentIntMap.EMPTY) {
+                nodeKeys[i] = id;
+                nodeValues[i] = nOfNodes;
+                return nOfNodes++;
+            }
+        }
+    }
+
+    /**
+     * applies the collisions of the given island in order of the pairs
+     * @return true iff any collision occurred in this island
+     */
+    private boolean resolveIsland(int island, PairList<Touchable, MovingEntity> pairs, Collision[] buffer, float deltaTime) {
+        boolean hasCollided = false;
+
+        for (int k = islandStart[island]; k < islandStart[island + 1]; k++) {
+            int i = islandPairs[k];
+            if (buffer[i] == null) continue;
+
+            hasCollided = true;
+
+            Touchable other = pairs.left(i);
+            if (other instanceof MovingEntity) { // if two entities collide
+                MovingEntity right = pairs.right(i);
+                MovingEntity left = (MovingEntity) other;
+                MovingEntity.entityCollision(left, right, deltaTime, buffer[i]);
+
+            } else { // if entity collides with terrain
+                MovingEntity right = pairs.right(i);
+                right.terrainCollision(deltaTime, buffer[i]);
             }
+        }
 
-        } while ((nOfCollisions > 0) && (--remainingLoops > 0) && !Thread.interrupted());
+        return hasCollided;
     }
 
     /**
@@ -164,7 +381,7 @@ public class ProximityDetection implements EntityManagement {
      * ground, but not an object with itself. One pair does not occur the other way around.
      * @return a collection of pairs of objects that are close to each other
      */
-    private PairList<Touchable, MovingEntity> getIntersectingPairs() {
+    protected PairList<Touchable, MovingEntity> getIntersectingPairs() {
         CollisionEntity[] entityArray = entityArray();
         int nOfEntities = entityArray.length;
 
@@ -185,16 +402,14 @@ public class ProximityDetection implements EntityManagement {
 
         // select all source pairs that are 'close' in three coordinates
         for (int i = 0; i < nOfEntities; i++) {
-            Touchable entity = entityArray[i].entity;
-            // skip world-on-world
-            if (!(entity instanceof MovingEntity)) continue;
+            MovingEntity entity = (MovingEntity) entityArray[i].entity;
 
             for (int j = 0; j < i; j++) {
                 // count in how many axes i overlaps j.
                 int intervalOverlap = adjacencyMatrix[i][j];
 
                 if (intervalOverlap >= 3) {
-                    allEntityPairs.add(entityArray[j].entity, (MovingEntity) entity);
+                    allEntityPairs.add(entityArray[j].entity, entity);
 
                     if (DEBUG && Objects.equals(entity, entityArray[j].entity)) {
                         Logger.WARN.print("duplicates found in intersecting pairs");
@@ -203,10 +418,33 @@ public class ProximityDetection implements EntityManagement {
             }
         }
 
+        addStaticPairs(allEntityPairs);
+
         avgCollision.add(allEntityPairs.size());
         return allEntityPairs;
     }
 
+    /**
+     * adds all pairs of a static entity and a dynamic entity that are close to each other to the given list, by
+     * querying the tree of static entities for every dynamic entity.
+     * @param pairs the list to add the pairs to, with the static entity on the left
+     */
+    protected void addStaticPairs(PairList<Touchable, MovingEntity> pairs) {
+        for (CollisionEntity entity : entityArray()) {
+            staticTree.collectOverlapping(
+                    entity.xLower(), entity.yLower(), entity.zLower(),
+                    entity.xUpper(), entity.yUpper(), entity.zUpper(),
+                    staticBuffer, staticStack
+            );
+
+            MovingEntity moving = (MovingEntity) entity.entity;
+            for (Touchable other : staticBuffer) {
+                pairs.add(other, moving);
+            }
+            staticBuffer.clear();
+        }
+    }
+
     /**
      * tests whether the invariants holds.
      * Throws an error if any of the arrays is not correctly sorted or any other assumption no longer holds
@@ -322,6 +560,9 @@ public class ProximityDetection implements EntityManagement {
 
     @Override
     public void addEntities(Collection<? extends MovingEntity> entities) {
+        for (MovingEntity entity : entities) {
+            entityIds.put(entity.idNumber(), entity);
+        }
         newEntities.addAll(entities);
     }
 
@@ -330,14 +571,21 @@ public class ProximityDetection implements EntityManagement {
         if (ServerSettings.DEBUG && (dynamicEntities.contains(entity) || newEntities.contains(entity))) {
             throw new IllegalArgumentException(entity.toString());
         }
+        entityIds.put(entity.idNumber(), entity);
         newEntities.add(entity);
     }
 
     @Override
     public void removeEntity(MovingEntity entity) {
+        entityIds.remove(entity.idNumber());
         removeEntities.add(entity);
     }
 
+    @Override
+    public MovingEntity getEntity(int id) {
+        return entityIds.get(id);
+    }
+
     @Override
     public PosVector rayTrace(PosVector from, PosVector to) {
         float xMin = Math.min(from.x, to.x);
@@ -346,23 +594,20 @@ public class ProximityDetection implements EntityManagement {
         float xMax = Math.max(from.x, to.x);
         float yMax = Math.max(from.y, to.y);
         float zMax = Math.max(from.z, to.z);
-        Collision minColl = null;
 
-        int xFrom = Toolbox.binarySearch(xLowerSorted, CollisionEntity::xLower, xMax);
+        Collision minColl = EntityManagement.rayTraceStatic(staticTree, from, to);
 
-        for (int i = xFrom; i < xLowerSorted.length; i++) {
-            CollisionEntity entity = xLowerSorted[i];
+        for (CollisionEntity entity : xLowerSorted) {
+            if (entity.xLower() > xMax) break;
             if (entity.entity instanceof Spectral) continue;
             if (entity.xUpper() < xMin) continue;
             if (entity.yUpper() < yMin || entity.yLower() > yMax) continue;
             if (entity.zUpper() < zMin || entity.zLower() > zMax) continue;
-            Logger.DEBUG.print(entity.x, entity.y, entity.z);
 
             Collision coll = MovingEntity.getPointCollision(null, entity.entity, from, to, 0);
             if (coll == null) continue;
-            Logger.WARN.print(coll.hitPosition());
 
-            if (minColl == null || coll.compareTo(minColl) > 0) {
+            if (minColl == null || coll.compareTo(minColl) < 0) {
                 minColl = coll;
             }
         }
@@ -370,6 +615,33 @@ public class ProximityDetection implements EntityManagement {
         return minColl == null ? to : minColl.hitPosition();
     }
 
+    @Override
+    public void collectEntitiesInRange(PosVector center, float radius, Collection<? super MovingEntity> dest) {
+        CollisionEntity[] sorted = xLowerSorted;
+        float xMin = center.x - radius;
+        float xMax = center.x + radius;
+
+        // entities with a lower bound less than this can not reach xMin
+        float minLower = xMin - 2 * maxRange;
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].xLower() < minLower) low = mid + 1;
+            else high = mid;
+        }
+
+        for (int i = low; i < sorted.length; i++) {
+            CollisionEntity entity = sorted[i];
+            if (entity.xLower() > xMax) break;
+            if (entity.xUpper() < xMin) continue;
+            if (entity.yUpper() < center.y - radius || entity.yLower() > center.y + radius) continue;
+            if (entity.zUpper() < center.z - radius || entity.zLower() > center.z + radius) continue;
+
+            dest.add((MovingEntity) entity.entity);
+        }
+    }
+
     private void mergeNewEntities(Collection<MovingEntity> newEntities) {
         int nOfNewEntities = newEntities.size();
         if (nOfNewEntities <= 0) return;
@@ -381,6 +653,7 @@ public class ProximityDetection implements EntityManagement {
         int i = 0;
         for (MovingEntity newEntity : newEntities) {
             CollisionEntity asCollisionEntity = new CollisionEntity(newEntity);
+            maxRange = Math.max(maxRange, asCollisionEntity.range);
             newXSort[i] = asCollisionEntity;
             newYSort[i] = asCollisionEntity;
             newZSort[i] = asCollisionEntity;
@@ -423,6 +696,23 @@ public class ProximityDetection implements EntityManagement {
         return Arrays.copyOf(array, xi);
     }
 
+    /**
+     * @param axis 0 for x, 1 for y and 2 for z
+     * @return the entities sorted on their lower bound of the given axis. Should only be used for querying
+     */
+    protected CollisionEntity[] sortedOn(int axis) {
+        switch (axis) {
+            case 0:
+                return xLowerSorted;
+            case 1:
+                return yLowerSorted;
+            case 2:
+                return zLowerSorted;
+            default:
+                throw new IllegalArgumentException("Invalid axis " + axis);
+        }
+    }
+
     /**
      * @return an array of the entities, backed by any local representation. Should only be used for querying, otherwise it must be cloned
      */
@@ -445,8 +735,15 @@ public class ProximityDetection implements EntityManagement {
 
     @Override
     public void updateEntities(float currentTime) {
-        for (MovingEntity entity : dynamicEntities) {
-            entity.update();
+        // entities may only be added or removed in preUpdateEntities
+        MovingEntity[] entities = updateOrder;
+        int nOfEntities = entities.length;
+
+        forEachIndex(nOfEntities, i -> {
+            if (isIndependent[i]) entities[i].update();
+        });
+        for (int i = 0; i < nOfEntities; i++) {
+            if (!isIndependent[i]) entities[i].update();
         }
     }
 
@@ -508,6 +805,27 @@ public class ProximityDetection implements EntityManagement {
             return z - range;
         }
 
+        /** @return the lower bound of this entity on the given axis, where 0 is x, 1 is y and 2 is z */
+        public float lower(int axis) {
+            return middle(axis) - range;
+        }
+
+        /** @return the upper bound of this entity on the given axis, where 0 is x, 1 is y and 2 is z */
+        public float upper(int axis) {
+            return middle(axis) + range;
+        }
+
+        private float middle(int axis) {
+            switch (axis) {
+                case 0:
+                    return x;
+                case 1:
+                    return y;
+                default:
+                    return z;
+            }
+        }
+
         @Override
         public String toString() {
             return entity.toString();
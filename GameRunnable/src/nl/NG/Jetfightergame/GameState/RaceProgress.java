@@ -232,6 +232,16 @@ public class RaceProgress {
         }
     }
 
+    /** @return the number of the last checkpoint passed by the given player, or -1 if it has not passed any */
+    public int getCheckpoint(int pInd) {
+        return progressCheckpoint[pInd];
+    }
+
+    /** @return the current round number of the given player, or -1 if it has not started */
+    public int getRound(int pInd) {
+        return progressRound[pInd];
+    }
+
     public Pair<Integer, Integer> getState(int pInd) {
         if (pInd == -1) return null;
         return new Pair<>(Math.max(progressRound[pInd], 0), Math.max(progressCheckpoint[pInd], 0));
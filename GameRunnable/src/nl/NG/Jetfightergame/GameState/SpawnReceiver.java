@@ -2,6 +2,7 @@ package nl.NG.Jetfightergame.GameState;
 
 import nl.NG.Jetfightergame.Assets.Entities.FighterJets.AbstractJet;
 import nl.NG.Jetfightergame.Engine.GameTimer;
+import nl.NG.Jetfightergame.Engine.Profiling.TickProfiler;
 import nl.NG.Jetfightergame.EntityGeneral.Factory.EntityFactory;
 import nl.NG.Jetfightergame.EntityGeneral.Powerups.PowerupEntity;
 import nl.NG.Jetfightergame.EntityGeneral.Powerups.PowerupType;
@@ -85,4 +86,11 @@ public interface SpawnReceiver {
     void boosterColorChange(AbstractJet jet, Color4f color1, Color4f color2, float duration);
 
     boolean isHeadless();
+
+    /**
+     * @return the profiler that times the phases of the game loop of this receiver
+     */
+    default TickProfiler getProfiler() {
+        return TickProfiler.NONE;
+    }
 }
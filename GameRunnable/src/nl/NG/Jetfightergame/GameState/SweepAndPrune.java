@@ -0,0 +1,118 @@
+package nl.NG.Jetfightergame.GameState;
+
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.EntityGeneral.Touchable;
+import nl.NG.Jetfightergame.Tools.DataStructures.BoundingVolumeHierarchy;
+import nl.NG.Jetfightergame.Tools.DataStructures.PairList;
+
+import java.util.Collection;
+
+/**
+ * A broadphase that sweeps over only one of the sorted axes of {@link ProximityDetection}, and filters the candidates
+ * on the other two axes. In contrast to the adjacency matrix of its superclass, the cost of this sweep grows linearly
+ * with the number of dynamic entities plus the number of pairs that overlap on the sweep axis. Static entities are
+ * found using the static tree, such that pairs of two static entities are never visited.
+ * <p>
+ * The sweep axis is the axis on which the dynamic entities are spread the most, as that axis separates the most pairs.
+ * It is chosen again every {@link #AXIS_UPDATE_LOOPS} loops, as the spread of the entities changes while they move.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class SweepAndPrune extends ProximityDetection {
+    /** the number of loops after which the sweep axis is chosen again */
+    private static final int AXIS_UPDATE_LOOPS = 60;
+
+    private int sweepAxis = 0;
+    private int secondAxis = 1;
+    private int thirdAxis = 2;
+    private int loopsUntilAxisUpdate = 0;
+
+    /** reused every loop; the result of {@link #getIntersectingPairs()} */
+    private final PairList<Touchable, MovingEntity> pairs = new PairList<>();
+
+    /**
+     * Collects the given entities and allows collision and phisics calculations to influence these entities. The axis
+     * to sweep along is chosen from the dynamic entities in the first loop that has any.
+     * @see ProximityDetection#ProximityDetection(Collection)
+     */
+    public SweepAndPrune(Collection<Touchable> staticEntities) {
+        this(staticEntities, EntityManagement.createStaticTree(staticEntities));
+    }
+
+    /**
+     * Collects the given entities and allows collision and phisics calculations to influence these entities. The axis
+     * to sweep along is chosen from the dynamic entities in the first loop that has any.
+     * @see ProximityDetection#ProximityDetection(Collection, BoundingVolumeHierarchy)
+     */
+    public SweepAndPrune(Collection<Touchable> staticEntities, BoundingVolumeHierarchy<Touchable> staticTree) {
+        super(staticEntities, staticTree);
+    }
+
+    @Override
+    protected PairList<Touchable, MovingEntity> getIntersectingPairs() {
+        if (--loopsUntilAxisUpdate <= 0) {
+            CollisionEntity[] entities = sortedOn(0);
+            if (entities.length > 1) {
+                sweepAxis = widestAxis(entities);
+                secondAxis = (sweepAxis + 1) % 3;
+                thirdAxis = (sweepAxis + 2) % 3;
+                loopsUntilAxisUpdate = AXIS_UPDATE_LOOPS;
+            }
+        }
+
+        CollisionEntity[] sorted = sortedOn(sweepAxis);
+        int nOfEntities = sorted.length;
+        pairs.clear();
+
+        for (int i = 0; i < nOfEntities; i++) {
+            CollisionEntity subject = sorted[i];
+            float subjectUpper = subject.upper(sweepAxis);
+            MovingEntity moving = (MovingEntity) subject.entity;
+
+            for (int j = i + 1; j < nOfEntities; j++) {
+                CollisionEntity target = sorted[j];
+                if (target.lower(sweepAxis) > subjectUpper) break;
+                if (overlapsOthers(subject, target)) pairs.add(target.entity, moving);
+            }
+        }
+
+        addStaticPairs(pairs);
+
+        avgCollision.add(pairs.size());
+        return pairs;
+    }
+
+    /** @return true iff the intervals of a and b coincide on both axes other than the sweep axis */
+    private boolean overlapsOthers(CollisionEntity a, CollisionEntity b) {
+        return (a.lower(secondAxis) <= b.upper(secondAxis)) && (b.lower(secondAxis) <= a.upper(secondAxis))
+                && (a.lower(thirdAxis) <= b.upper(thirdAxis)) && (b.lower(thirdAxis) <= a.upper(thirdAxis));
+    }
+
+    /**
+     * @param entities a non-empty array of entities
+     * @return the axis (0 = x, 1 = y, 2 = z) on which the middles of the given entities have the greatest variance
+     */
+    private static int widestAxis(CollisionEntity[] entities) {
+        double[] sum = new double[3];
+        double[] squareSum = new double[3];
+        for (CollisionEntity entity : entities) {
+            for (int axis = 0; axis < 3; axis++) {
+                double value = (entity.lower(axis) + entity.upper(axis)) / 2.0;
+                sum[axis] += value;
+                squareSum[axis] += value * value;
+            }
+        }
+
+        int n = entities.length;
+        int best = 0;
+        double bestVariance = -1;
+        for (int axis = 0; axis < 3; axis++) {
+            double mean = sum[axis] / n;
+            double variance = (squareSum[axis] / n) - (mean * mean);
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                best = axis;
+            }
+        }
+        return best;
+    }
+}
@@ -1,6 +1,7 @@
 package nl.NG.Jetfightergame.Primitives;
 
 import nl.NG.Jetfightergame.EntityGeneral.Hitbox.Collision;
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.CollisionContext;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
 import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
 import nl.NG.Jetfightergame.Tools.Vectors.Vector;
@@ -29,8 +30,6 @@ public abstract class Plane {
 
     protected final PosVector[] boundary;
 
-    /** reserved space for collision detection */
-    private PosVector relativePosition = new PosVector();
     private PosVector middle = null;
 
     /**
@@ -62,20 +61,37 @@ public abstract class Plane {
      * @return {@code null} if it does not hit with direction scalar < 1
      */
     public Collision getCollisionWith(PosVector linePosition, DirVector direction, PosVector endPoint) {
+        CollisionContext context = CollisionContext.get();
+
+        float scalar = getCollisionScalar(linePosition, direction, endPoint, context);
+        if (scalar == CollisionContext.NO_HIT) return null;
+
+        return new Collision(scalar, normal, new PosVector(context.hitPosition));
+    }
+
+    /**
+     * performs the same check as {@link #getCollisionWith(PosVector, DirVector, PosVector)}, without creating any
+     * objects.
+     * @param context the reserved space of the current thread. If this plane is hit, the local position of the hit is
+     *                written to {@link CollisionContext#hitPosition}
+     * @return the scalar of direction where this plane is hit, or {@link CollisionContext#NO_HIT} if it does not hit
+     *         with direction scalar < 1
+     */
+    public float getCollisionScalar(PosVector linePosition, DirVector direction, PosVector endPoint, CollisionContext context) {
         final boolean isInfinite = (endPoint == null);
 
-        if (hasWrongDirection(direction)) return null;
+        if (hasWrongDirection(direction)) return CollisionContext.NO_HIT;
 
-        if (!isInfinite && asideHitbox(linePosition, endPoint)) return null;
+        if (!isInfinite && asideHitbox(linePosition, endPoint)) return CollisionContext.NO_HIT;
 
-        float scalar = hitScalar(linePosition, direction);
-        if (!isInfinite && (scalar > 1.0f)) return null;
+        float scalar = hitScalar(linePosition, direction, context.relativePosition);
+        if (!isInfinite && (scalar > 1.0f)) return CollisionContext.NO_HIT;
 
-        DirVector hitDir = direction.scale(scalar, new DirVector());
-        PosVector hitPos = linePosition.add(hitDir, new PosVector());
-        if (!this.encapsulates(hitPos)) return null;
+        PosVector hitPos = context.hitPosition;
+        hitPos.set(linePosition).fma(scalar, direction);
+        if (!this.encapsulates(hitPos, context)) return CollisionContext.NO_HIT;
 
-        return new Collision(scalar, normal, hitPos);
+        return scalar;
     }
 
     /**
@@ -105,22 +121,22 @@ public abstract class Plane {
     /**
      * determines whether the given point lies on or within the boundary, given that it lies on the infinite extension
      * of this plane
-     * @param hitPos a point on this plane
+     * @param hitPos  a point on this plane
+     * @param context reserved space for the calculations
      * @return true if the point is not outside the boundary of this plane
      * @precondition hitPos lies on the plane of the points of {@code boundary}
      */
-    protected abstract boolean encapsulates(PosVector hitPos);
+    protected abstract boolean encapsulates(PosVector hitPos, CollisionContext context);
 
     /**
      * calculates the new {@param direction}, relative to {@param linePosition} where the given line will hit this plane
      * if this plane was infinite
+     * @param temp reserved space for the calculation
      * @return Vector D such that (linePosition.add(D)) will give the position of the hitPoint. D lies in the extend,
      *         but not necessarily on the plane. D is given by ((p0 - l0)*n) \ (l*n)
      */
-    protected float hitScalar(PosVector linePosition, DirVector direction) {
-        relativePosition.set(boundary[0]);
-
-        float upper = relativePosition.sub(linePosition, relativePosition).dot(normal);
+    protected float hitScalar(PosVector linePosition, DirVector direction, PosVector temp) {
+        float upper = boundary[0].sub(linePosition, temp).dot(normal);
         float lower = direction.dot(normal);
         return upper / lower;
     }
@@ -136,6 +152,30 @@ public abstract class Plane {
         return normal;
     }
 
+    /** @return the least coordinate of this plane on the given axis, where 0 is x, 1 is y and 2 is z */
+    public float lower(int axis) {
+        switch (axis) {
+            case 0:
+                return leastX;
+            case 1:
+                return leastY;
+            default:
+                return leastZ;
+        }
+    }
+
+    /** @return the greatest coordinate of this plane on the given axis, where 0 is x, 1 is y and 2 is z */
+    public float upper(int axis) {
+        switch (axis) {
+            case 0:
+                return mostX;
+            case 1:
+                return mostY;
+            default:
+                return mostZ;
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder s = new StringBuilder(this.getClass().getSimpleName());
@@ -154,12 +194,13 @@ public abstract class Plane {
      * @return true if this plane intersects with the line extended toward infinity
      */
     public boolean intersectWithRay(PosVector position, DirVector direction) {
-        DirVector hitDir = direction.scale(hitScalar(position, direction), new DirVector());
+        CollisionContext context = CollisionContext.get();
+        DirVector hitDir = direction.scale(hitScalar(position, direction, context.relativePosition), new DirVector());
 
         if (hitDir.dot(direction) < 0) return false;
 
         PosVector hitPoint = position.add(hitDir, new PosVector());
-        return this.encapsulates(hitPoint);
+        return this.encapsulates(hitPoint, context);
     }
 
     /**
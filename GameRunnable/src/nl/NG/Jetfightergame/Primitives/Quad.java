@@ -1,8 +1,8 @@
 package nl.NG.Jetfightergame.Primitives;
 
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.CollisionContext;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
 import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
-import nl.NG.Jetfightergame.Tools.Vectors.Vector;
 
 /**
  * TODO: allow quads in meshes and optimize CustomShape accordingly
@@ -13,14 +13,13 @@ public class Quad extends Plane {
     /** ABRef, BCRef, CDRef, DARef are four reference vectors for collision detection */
     private PosVector ABRef, BCRef, CDRef, DARef;
 
-    private PosVector tempAlpha = new PosVector();
-    private PosVector tempBeta = new PosVector();
-
     /**
      * the vectors must be supplied in counterclockwise ordering
      */
     public Quad(PosVector A, PosVector B, PosVector C, PosVector D, DirVector normal) {
         super(new PosVector[]{A, B, C, D}, normal);
+        PosVector tempAlpha = new PosVector();
+        PosVector tempBeta = new PosVector();
 
         ABRef = B.sub(A, tempAlpha).cross(D.sub(A, tempBeta), new PosVector());
         BCRef = C.sub(B, tempAlpha).cross(A.sub(B, tempBeta), new PosVector());
@@ -39,13 +38,15 @@ public class Quad extends Plane {
     }
 
     @Override
-    protected boolean encapsulates(PosVector hitPos) {
+    protected boolean encapsulates(PosVector hitPos, CollisionContext context) {
         PosVector A = boundary[0];
         PosVector B = boundary[1];
         PosVector C = boundary[2];
         PosVector D = boundary[3];
+        PosVector tempAlpha = context.tempAlpha;
+        PosVector tempBeta = context.tempBeta;
+        PosVector cross = context.cross;
 
-        Vector cross = new PosVector();
         B.sub(A, tempAlpha).cross(hitPos.sub(A, tempBeta), cross);
 
         if (ABRef.dot(cross) >= 0) {
@@ -1,5 +1,6 @@
 package nl.NG.Jetfightergame.Primitives;
 
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.CollisionContext;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
 import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
 
@@ -11,16 +12,13 @@ public class Triangle extends Plane {
     /** ABRef, BCRef, CARef are three reference vectors for collision detection */
     private PosVector ABRef, BCRef, CARef;
 
-    /** reserved space for collision detection */
-    private PosVector tempAlpha = new PosVector();
-    private PosVector tempBeta = new PosVector();
-    private PosVector cross = new PosVector();
-
     /**
      * the vectors must be supplied in counterclockwise ordering
      */
     public Triangle(PosVector A, PosVector B, PosVector C, DirVector normal) {
         super(new PosVector[]{A, B, C}, normal);
+        PosVector tempAlpha = new PosVector();
+        PosVector tempBeta = new PosVector();
 
         ABRef = B.sub(A, tempAlpha).cross(C.sub(A, tempBeta), new PosVector());
         BCRef = C.sub(B, tempAlpha).cross(A.sub(B, tempBeta), new PosVector());
@@ -40,14 +38,18 @@ public class Triangle extends Plane {
 
     /**
      * computes in optimized fashion whether the given point lies inside the triangle
-     * @param hitPos a point on this plane
+     * @param hitPos  a point on this plane
+     * @param context reserved space for the calculations
      * @return true if the point is within the boundaries
      */
     @Override
-    protected boolean encapsulates(PosVector hitPos) {
+    protected boolean encapsulates(PosVector hitPos, CollisionContext context) {
         PosVector A = boundary[0];
         PosVector B = boundary[1];
         PosVector C = boundary[2];
+        PosVector tempAlpha = context.tempAlpha;
+        PosVector tempBeta = context.tempBeta;
+        PosVector cross = context.cross;
 
         B.sub(A, tempAlpha).cross(hitPos.sub(A, tempBeta), cross);
 
@@ -6,7 +6,11 @@ import nl.NG.Jetfightergame.Engine.AbstractGameLoop;
 import nl.NG.Jetfightergame.Engine.GameTimer;
 import nl.NG.Jetfightergame.Engine.JetFighterGame;
 import nl.NG.Jetfightergame.GameState.Environment;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.InstanceBuffer;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.RenderQueue;
 import nl.NG.Jetfightergame.Rendering.MatrixStack.ShaderUniformGL;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.ViewFrustum;
+import nl.NG.Jetfightergame.Rendering.Particles.ParticleBuffer;
 import nl.NG.Jetfightergame.Rendering.Particles.ParticleShader;
 import nl.NG.Jetfightergame.Rendering.Shaders.ShaderException;
 import nl.NG.Jetfightergame.Rendering.Shaders.ShaderManager;
@@ -44,7 +48,21 @@ public class JetFighterRenderer extends AbstractGameLoop {
     private Environment gameState;
     private ScreenOverlay overlay;
     private ParticleShader particleShader;
+    private final ParticleBuffer particleBuffer;
     private final JetFighterMenu menu;
+    private final RenderQueue renderQueue = new RenderQueue();
+    private final InstanceBuffer instanceBuffer;
+    /** statistics of drawing the objects of the last frame */
+    private int nOfDrawCalls = 0;
+    private int nOfObjects = 0;
+    private float objectDrawMillis = 0;
+    /** the visible part of the world for objects, which is limited by the fog */
+    private final ViewFrustum objectView = new ViewFrustum();
+    /** the visible part of the world for particles, which are not affected by fog */
+    private final ViewFrustum particleView = new ViewFrustum();
+    private int nOfObjectsCulled = 0;
+    private int nOfParticleGroupsDrawn = 0;
+    private int nOfParticleGroupsCulled = 0;
 
     private final String sessionName;
     private long frameNumber = 0;
@@ -70,13 +88,23 @@ public class JetFighterRenderer extends AbstractGameLoop {
         this.displayMode = displayMode;
         this.soundEngine = soundEngine;
 
+        shaderManager = new ShaderManager();
+        particleShader = new ParticleShader();
+        instanceBuffer = new InstanceBuffer();
+        particleBuffer = new ParticleBuffer(ClientSettings.PARTICLE_BUFFER_SIZE);
+
         Logger.printOnline(() -> {
             Float currentTime = engine.getTimer().getRenderTime().current();
-            return "Particles: " + gameState.getParticleCount(currentTime);
+            return String.format("Particles: %d in %d draw calls",
+                    particleBuffer.getParticleCount(currentTime), particleBuffer.getNumberOfDrawCalls()
+            );
         });
-
-        shaderManager = new ShaderManager();
-        particleShader = new ParticleShader();
+        Logger.printOnline(() -> String.format("Objects: %d in %d draw calls, submitted in %1.02f ms at %1.01f fps",
+                nOfObjects, nOfDrawCalls, objectDrawMillis, getTPS()
+        ));
+        Logger.printOnline(() -> String.format("Culled: %d objects, %d of %d particle groups",
+                nOfObjectsCulled, nOfParticleGroupsCulled, nOfParticleGroupsDrawn + nOfParticleGroupsCulled
+        ));
 
         overlay = new ScreenOverlay(() -> engine.getCurrentGameMode() == MENU_MODE);
         overlay.addHudItem((hud) -> {
@@ -120,7 +148,17 @@ public class JetFighterRenderer extends AbstractGameLoop {
         window.setClearColor(ambientLight);
         shaderManager.initShader(activeCamera, ambientLight, fogRange);
 
-        ShaderUniformGL gl = new ShaderUniformGL(shaderManager, window.getWidth(), window.getHeight(), activeCamera);
+        ShaderUniformGL gl = ClientSettings.BATCH_DRAWS ?
+                new ShaderUniformGL(shaderManager, window.getWidth(), window.getHeight(), activeCamera, renderQueue, instanceBuffer) :
+                new ShaderUniformGL(shaderManager, window.getWidth(), window.getHeight(), activeCamera);
+
+        if (ClientSettings.VIEW_CULLING) {
+            gl.setCulling(objectView, activeCamera.getEye(), fogRange);
+            particleView.set(gl.getProjection(), activeCamera.getEye(), Float.POSITIVE_INFINITY);
+        } else {
+            particleView.resetCounts();
+        }
+        ViewFrustum particleCulling = ClientSettings.VIEW_CULLING ? particleView : null;
 
         if (ClientSettings.CULL_FACES) {
             // Cull backfaces
@@ -133,7 +171,14 @@ public class JetFighterRenderer extends AbstractGameLoop {
         gameState.setLights(gl);
 
         // first draw the non-transparent objects
+        long drawStart = System.nanoTime();
         gameState.drawObjects(gl);
+        int nOfQueued = renderQueue.size();
+        gl.flush();
+        objectDrawMillis = (System.nanoTime() - drawStart) / 1e6f;
+        nOfDrawCalls = gl.getNumberOfDrawCalls();
+        nOfObjects = ClientSettings.BATCH_DRAWS ? nOfQueued : nOfDrawCalls;
+        nOfObjectsCulled = ClientSettings.VIEW_CULLING ? objectView.getNumberOfCulled() : 0;
 
         // overlay with transparent objects
         // TODO transparent meshes?
@@ -142,7 +187,7 @@ public class JetFighterRenderer extends AbstractGameLoop {
         if (ClientSettings.HIGHLIGHT_LINE_WIDTH > 0) {
             gl.setFill(false);
             gameState.drawObjects(gl);
-            gl.setFill(true);
+            gl.setFill(true); // draws the queued lines
         }
 
         shaderManager.unbind();
@@ -153,7 +198,9 @@ public class JetFighterRenderer extends AbstractGameLoop {
         particleShader.setTime(currentRenderTime);
         particleShader.setProjection(gl.getProjection());
 
-        gameState.drawParticles(currentRenderTime);
+        gameState.drawParticles(particleBuffer, currentRenderTime, particleCulling);
+        nOfParticleGroupsDrawn = particleView.getNumberOfVisible();
+        nOfParticleGroupsCulled = particleView.getNumberOfCulled();
         particleShader.unbind();
 
         // HUD / menu
@@ -207,6 +254,8 @@ public class JetFighterRenderer extends AbstractGameLoop {
     @Override
     public void cleanup() {
         shaderManager.cleanup();
+        instanceBuffer.cleanup();
+        particleBuffer.cleanup();
         overlay.removeHudItem(HUD);
         overlay.removeMenuItem(menu);
     }
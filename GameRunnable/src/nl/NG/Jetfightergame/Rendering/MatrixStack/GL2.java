@@ -32,6 +32,13 @@ public interface GL2 extends MatrixStack {
      */
     Vector2f getPositionOnScreen(PosVector vertex);
 
+    /**
+     * @return the part of the world that is visible, or null if objects should not be culled
+     */
+    default ViewFrustum getViewFrustum() {
+        return null;
+    }
+
     /**
      * Objects should call GPU calls only in their render method. this render method may only be called by a GL2 object,
      * to prevent drawing calls while the GPU is not initialized. For this reason, the Painter constructor is protected.
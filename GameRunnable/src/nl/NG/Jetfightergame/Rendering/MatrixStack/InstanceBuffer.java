@@ -0,0 +1,95 @@
+package nl.NG.Jetfightergame.Rendering.MatrixStack;
+
+import org.joml.Matrix3f;
+import org.joml.Matrix4fc;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
+
+/**
+ * A vertex buffer of per-instance model and normal matrices, used for instanced drawing of the batches of a {@link
+ * RenderQueue}. The model matrix is read by the shaders at attribute locations 2 to 5, the normal matrix at locations 6
+ * to 8.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class InstanceBuffer {
+    /** a 4x4 model matrix followed by a 3x3 normal matrix */
+    private static final int FLOATS_PER_INSTANCE = 16 + 9;
+    private static final int STRIDE = FLOATS_PER_INSTANCE * Float.BYTES;
+    private static final int MODEL_LOCATION = 2;
+    private static final int NORMAL_LOCATION = 6;
+
+    private final int vboId;
+    private FloatBuffer buffer;
+    private final Matrix3f normalMatrix = new Matrix3f();
+
+    public InstanceBuffer() {
+        vboId = glGenBuffers();
+        buffer = MemoryUtil.memAllocFloat(64 * FLOATS_PER_INSTANCE);
+    }
+
+    /**
+     * writes the matrices of a batch to the GPU
+     * @param queue the sorted queue
+     * @param first the sorted index of the first command of the batch
+     * @param count the number of commands in the batch
+     */
+    public void upload(RenderQueue queue, int first, int count) {
+        int nOfFloats = count * FLOATS_PER_INSTANCE;
+        if (buffer.capacity() < nOfFloats) {
+            buffer = MemoryUtil.memRealloc(buffer, Math.max(nOfFloats, buffer.capacity() * 2));
+        }
+
+        buffer.clear();
+        for (int i = 0; i < count; i++) {
+            Matrix4fc model = queue.getMatrix(first + i);
+            int offset = i * FLOATS_PER_INSTANCE;
+            model.get(offset, buffer);
+            model.normal(normalMatrix).get(offset + 16, buffer);
+        }
+        buffer.limit(nOfFloats);
+
+        glBindBuffer(GL_ARRAY_BUFFER, vboId);
+        glBufferData(GL_ARRAY_BUFFER, buffer, GL_STREAM_DRAW);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * enables the per-instance attributes on the currently bound vertex array
+     */
+    public void enableAttributes() {
+        glBindBuffer(GL_ARRAY_BUFFER, vboId);
+        for (int i = 0; i < 4; i++) {
+            int location = MODEL_LOCATION + i;
+            glVertexAttribPointer(location, 4, GL_FLOAT, false, STRIDE, i * 4 * Float.BYTES);
+            glVertexAttribDivisor(location, 1);
+            glEnableVertexAttribArray(location);
+        }
+        for (int i = 0; i < 3; i++) {
+            int location = NORMAL_LOCATION + i;
+            glVertexAttribPointer(location, 3, GL_FLOAT, false, STRIDE, (16 + i * 3) * Float.BYTES);
+            glVertexAttribDivisor(location, 1);
+            glEnableVertexAttribArray(location);
+        }
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * disables the per-instance attributes on the currently bound vertex array
+     */
+    public void disableAttributes() {
+        for (int i = MODEL_LOCATION; i < NORMAL_LOCATION + 3; i++) {
+            glDisableVertexAttribArray(i);
+        }
+    }
+
+    public void cleanup() {
+        glDeleteBuffers(vboId);
+        MemoryUtil.memFree(buffer);
+    }
+}
@@ -0,0 +1,182 @@
+package nl.NG.Jetfightergame.Rendering.MatrixStack;
+
+import nl.NG.Jetfightergame.Rendering.Material;
+import nl.NG.Jetfightergame.Tools.Vectors.Color4f;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Collects the draw commands of one frame, such that they can be drawn sorted on material and object instead of in
+ * the order of drawing. Commands that draw the same object with the same material and color form one batch, which can
+ * be drawn with a single instanced draw call. Transparent commands are drawn after all opaque commands, in the order
+ * in which they were added, as blending depends on the order of drawing. Hence only consecutive transparent commands
+ * of the same object, material and color form a batch. Within a batch, the commands keep the order in which they were
+ * added.
+ * <p>
+ * This class does not use OpenGL. The matrices are reused over frames, so after {@link #clear()} no matrix returned by
+ * {@link #getMatrix(int)} may be used.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class RenderQueue {
+    private static final int INDEX_BITS = 20;
+    private static final int OBJECT_BITS = 20;
+    private static final int COLOR_BITS = 14;
+    private static final int MATERIAL_BITS = 8;
+    /** the maximum number of commands in one frame */
+    public static final int MAX_COMMANDS = 1 << INDEX_BITS;
+    /** the maximum number of different colors in one frame */
+    public static final int MAX_COLORS = 1 << COLOR_BITS;
+    private static final int NO_MATERIAL = (1 << MATERIAL_BITS) - 1;
+    /** the bit of the sort key that places transparent commands after the opaque commands */
+    private static final long TRANSPARENT_BIT = 1L << (MATERIAL_BITS + COLOR_BITS + OBJECT_BITS + INDEX_BITS);
+
+    private Renderable[] objects = new Renderable[64];
+    private Material[] materials = new Material[64];
+    private Color4f[] colors = new Color4f[64];
+    private Matrix4f[] matrices = new Matrix4f[64];
+    private long[] keys = new long[64];
+    private int size = 0;
+    private boolean isSorted = true;
+
+    /** ids of the objects and colors of this frame, in order of first use */
+    private final Map<Renderable, Integer> objectIds = new IdentityHashMap<>();
+    private final Map<Color4f, Integer> colorIds = new HashMap<>();
+
+    /**
+     * adds a command to draw the given object
+     * @param object   the object to draw
+     * @param model    the model matrix of the object, which is copied
+     * @param material the material of the object, or null if the material set before this frame should be used
+     * @param color    the color of the material
+     * @throws IllegalStateException if more than {@link #MAX_COMMANDS} commands or {@link #MAX_COLORS} colors are
+     *                               added
+     */
+    public void add(Renderable object, Matrix4fc model, Material material, Color4f color) {
+        if (size == MAX_COMMANDS) {
+            throw new IllegalStateException("More than " + MAX_COMMANDS + " draw commands in one frame");
+        } else if (colorIds.size() == MAX_COLORS && !colorIds.containsKey(color)) {
+            throw new IllegalStateException("More than " + MAX_COLORS + " colors in one frame");
+        }
+        if (size == keys.length) grow();
+
+        int index = size++;
+        objects[index] = object;
+        materials[index] = material;
+        colors[index] = color;
+        if (matrices[index] == null) matrices[index] = new Matrix4f(model);
+        else matrices[index].set(model);
+
+        Integer objectId = objectIds.computeIfAbsent(object, o -> objectIds.size());
+        Integer colorId = colorIds.computeIfAbsent(color, c -> colorIds.size());
+        int materialId = (material == null) ? NO_MATERIAL : material.ordinal();
+        boolean isTransparent = (material != null) && (material.diffuse.alpha * color.alpha < 1);
+
+        if (isTransparent) {
+            // transparent commands are only sorted on their order of addition
+            keys[index] = TRANSPARENT_BIT | index;
+
+        } else {
+            long key = materialId;
+            key = (key << COLOR_BITS) | colorId;
+            key = (key << OBJECT_BITS) | objectId;
+            key = (key << INDEX_BITS) | index;
+            keys[index] = key;
+        }
+        isSorted = false;
+    }
+
+    private void grow() {
+        int newSize = keys.length * 2;
+        objects = Arrays.copyOf(objects, newSize);
+        materials = Arrays.copyOf(materials, newSize);
+        colors = Arrays.copyOf(colors, newSize);
+        matrices = Arrays.copyOf(matrices, newSize);
+        keys = Arrays.copyOf(keys, newSize);
+    }
+
+    /**
+     * sorts the opaque commands on material, color and object, in that order, followed by the transparent commands in
+     * order of addition
+     */
+    public void sort() {
+        if (isSorted) return;
+        Arrays.sort(keys, 0, size);
+        isSorted = true;
+    }
+
+    /**
+     * executes the given action for every batch of commands, in sorted order. Sorts the commands if necessary.
+     * @param action receives each batch, with the sorted index of its first command
+     */
+    public void forEachBatch(BatchAction action) {
+        sort();
+
+        int first = 0;
+        while (first < size) {
+            int firstIndex = commandOf(first);
+            int end = first + 1;
+            while (end < size && isSameBatch(firstIndex, commandOf(end))) {
+                end++;
+            }
+
+            action.draw(objects[firstIndex], materials[firstIndex], colors[firstIndex], first, end - first);
+            first = end;
+        }
+    }
+
+    private boolean isSameBatch(int a, int b) {
+        return objects[a] == objects[b] && materials[a] == materials[b] && colors[a].equals(colors[b]);
+    }
+
+    /** @return the index in order of addition of the command on the given position in sorted order */
+    private int commandOf(int sortedIndex) {
+        return (int) (keys[sortedIndex] & (MAX_COMMANDS - 1));
+    }
+
+    /**
+     * @param sortedIndex the position of a command in sorted order, as given by {@link #forEachBatch(BatchAction)}
+     * @return the model matrix of that command
+     */
+    public Matrix4fc getMatrix(int sortedIndex) {
+        return matrices[commandOf(sortedIndex)];
+    }
+
+    /** @return the number of commands */
+    public int size() {
+        return size;
+    }
+
+    /** @return the number of batches the current commands form */
+    public int getNumberOfBatches() {
+        int[] count = {0};
+        forEachBatch((object, material, color, first, n) -> count[0]++);
+        return count[0];
+    }
+
+    /** removes all commands, keeping the allocated matrices */
+    public void clear() {
+        Arrays.fill(objects, 0, size, null);
+        Arrays.fill(colors, 0, size, null);
+        size = 0;
+        isSorted = true;
+        objectIds.clear();
+        colorIds.clear();
+    }
+
+    /** an action executed on a batch of equal commands */
+    public interface BatchAction {
+        /**
+         * @param object   the object drawn by all commands of this batch
+         * @param material the material of the batch, or null if the material should not be changed
+         * @param color    the color of the material
+         * @param first    the sorted index of the first command of this batch
+         * @param count    the number of commands in this batch
+         */
+        void draw(Renderable object, Material material, Color4f color, int first, int count);
+    }
+}
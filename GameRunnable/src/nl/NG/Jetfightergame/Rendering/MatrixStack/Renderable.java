@@ -11,5 +11,17 @@ public interface Renderable {
      */
     void render(GL2.Painter lock);
 
+    /**
+     * draws the object once for every instance in the given buffer, in a single draw call. This method may only be
+     * called by a class that implements GL2
+     * @param lock      a non-null object that can only be generated by a GL2 object.
+     * @param instances the uploaded matrices of the instances
+     * @param count     the number of instances
+     * @return false if this object can not be drawn instanced, in which case nothing is drawn
+     */
+    default boolean renderInstanced(GL2.Painter lock, InstanceBuffer instances, int count) {
+        return false;
+    }
+
     void dispose();
 }
@@ -4,6 +4,7 @@ import nl.NG.Jetfightergame.Camera.Camera;
 import nl.NG.Jetfightergame.Rendering.Material;
 import nl.NG.Jetfightergame.Rendering.Shaders.ShaderProgram;
 import nl.NG.Jetfightergame.Settings.ClientSettings;
+import nl.NG.Jetfightergame.ShapeCreation.Shape;
 import nl.NG.Jetfightergame.Tools.Toolbox;
 import nl.NG.Jetfightergame.Tools.Vectors.Color4f;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
@@ -20,6 +21,8 @@ import static org.lwjgl.opengl.GL11.*;
  *         created on 16-11-2017.
  */
 public class ShaderUniformGL implements GL2 {
+    /** objects may not keep the painter, so one instance is shared by all draws */
+    private static final Painter PAINTER = new Painter();
 
     private Stack<Matrix4f> matrixStack;
 
@@ -31,15 +34,42 @@ public class ShaderUniformGL implements GL2 {
     private int nextLightIndex = 0;
     private boolean wireframeRendering = false;
 
+    /** collects the draws until {@link #flush()}, or null to draw immediately */
+    private final RenderQueue queue;
+    private final InstanceBuffer instances;
+    private Material currentMaterial = null;
+    private Color4f currentColor = Color4f.WHITE;
+    /** the material last written to the shader by {@link #flush()} */
+    private Material flushedMaterial;
+    private Color4f flushedColor;
+    private int nOfDrawCalls = 0;
+    /** shapes outside this frustum are not drawn, or null to draw everything */
+    private ViewFrustum frustum = null;
+
     /**
-     *
+     * creates a gl object that draws every object immediately
      * @param shader
      * @param windowWidth
      * @param windowHeight
      * @param camera
      */
     public ShaderUniformGL(ShaderProgram shader, int windowWidth, int windowHeight, Camera camera) {
+        this(shader, windowWidth, windowHeight, camera, null, null);
+    }
+
+    /**
+     * creates a gl object that collects the draws in the given queue, and draws them sorted and batched on {@link
+     * #flush()}.
+     * @param queue     an empty queue, or null to draw immediately
+     * @param instances the buffer used for drawing batches instanced, or null to draw every instance separately
+     */
+    public ShaderUniformGL(
+            ShaderProgram shader, int windowWidth, int windowHeight, Camera camera,
+            RenderQueue queue, InstanceBuffer instances
+    ) {
         currentShader = shader;
+        this.queue = queue;
+        this.instances = instances;
 
         matrixStack = new Stack<>();
         glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
@@ -82,11 +112,85 @@ public class ShaderUniformGL implements GL2 {
 
     @Override
     public void draw(Renderable object) {
+        if (frustum != null && (object instanceof Shape) && !frustum.isVisible((Shape) object, modelMatrix)) return;
+
+        if (queue != null) {
+            queue.add(object, modelMatrix, currentMaterial, currentColor);
+        } else {
+            drawSingle(object, modelMatrix);
+        }
+    }
+
+    private void drawSingle(Renderable object, Matrix4fc model) {
         currentShader.setProjectionMatrix(viewProjectionMatrix);
-        currentShader.setModelMatrix(modelMatrix);
+        currentShader.setModelMatrix(modelMatrix.set(model));
         modelMatrix.normal(normalMatrix);
         currentShader.setNormalMatrix(normalMatrix);
-        object.render(new Painter());
+        object.render(PAINTER);
+        nOfDrawCalls++;
+    }
+
+    /**
+     * draws all queued objects sorted on material and object, and draws repeated objects with one instanced draw call.
+     * Must be called before changing the fill mode or the shader, and at the end of the frame. Has no effect when
+     * drawing immediately.
+     */
+    public void flush() {
+        if (queue == null || queue.size() == 0) return;
+
+        pushMatrix();
+        currentShader.setProjectionMatrix(viewProjectionMatrix);
+        flushedMaterial = null;
+        flushedColor = null;
+        queue.forEachBatch(this::drawBatch);
+        popMatrix();
+
+        queue.clear();
+    }
+
+    private void drawBatch(Renderable object, Material material, Color4f color, int first, int count) {
+        if (material != null && (material != flushedMaterial || !color.equals(flushedColor))) {
+            applyMaterial(material, color);
+            flushedMaterial = material;
+            flushedColor = color;
+        }
+
+        if (count > 1 && instances != null) {
+            instances.upload(queue, first, count);
+            currentShader.setInstanced(true);
+            boolean isDrawn = object.renderInstanced(PAINTER, instances, count);
+            currentShader.setInstanced(false);
+
+            if (isDrawn) {
+                nOfDrawCalls++;
+                return;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            drawSingle(object, queue.getMatrix(first + i));
+        }
+    }
+
+    /**
+     * sets the frustum used for culling to the view of this object. Shapes that are not visible are not drawn from now
+     * on.
+     * @param frustum     the frustum to write the view to
+     * @param eye         the position of the camera
+     * @param maxDistance the distance from the eye beyond which nothing is visible
+     */
+    public void setCulling(ViewFrustum frustum, Vector3fc eye, float maxDistance) {
+        this.frustum = frustum.set(viewProjectionMatrix, eye, maxDistance);
+    }
+
+    @Override
+    public ViewFrustum getViewFrustum() {
+        return frustum;
+    }
+
+    /** @return the number of draw calls executed by this object */
+    public int getNumberOfDrawCalls() {
+        return nOfDrawCalls;
     }
 
     @Override
@@ -102,6 +206,7 @@ public class ShaderUniformGL implements GL2 {
     }
 
     public void setFill(boolean doFill){
+        flush();
         if (doFill) {
             glPolygonMode(GL_FRONT_AND_BACK, GL_FILL);
             wireframeRendering = false;
@@ -113,6 +218,15 @@ public class ShaderUniformGL implements GL2 {
 
     @Override
     public void setMaterial(Material material, Color4f color){
+        if (queue != null) {
+            currentMaterial = material;
+            currentColor = color;
+        } else {
+            applyMaterial(material, color);
+        }
+    }
+
+    private void applyMaterial(Material material, Color4f color) {
         Color4f diffuse;
         Color4f specular = material.specular.overlay(color);
         float reflectance = material.shininess;
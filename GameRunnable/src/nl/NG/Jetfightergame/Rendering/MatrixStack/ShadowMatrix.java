@@ -7,111 +7,161 @@ import org.joml.AxisAngle4f;
 import org.joml.Matrix4f;
 import org.joml.Quaternionf;
 
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.EmptyStackException;
 
 /**
  * @author Geert van Ieperen
  * created on 27-12-2017.
  */
 public class ShadowMatrix implements MatrixStack {
+    private static final int INITIAL_STACK_SIZE = 8;
 
-    private Stack<Matrix4f> matrixStack;
-    private Matrix4f matrix;
-    private Matrix4f inverseMatrix;
+    /** the pushed matrices, of which the first stackSize are in use. Matrices are reused after popping */
+    private Matrix4f[] matrixStack;
+    private int stackSize;
+    private final Matrix4f matrix;
+    private final Matrix4f inverseMatrix;
+    private boolean inverseIsValid;
 
     public ShadowMatrix() {
-        matrixStack = new Stack<>();
+        matrixStack = new Matrix4f[INITIAL_STACK_SIZE];
+        stackSize = 0;
         matrix = new Matrix4f();
-        inverseMatrix = null;
+        inverseMatrix = new Matrix4f();
+        inverseIsValid = false;
     }
 
     @Override
     public void rotate(float angle, float x, float y, float z) {
-        rotate(new AxisAngle4f(angle, x, y, z));
+        matrix.rotate(angle, x, y, z);
+        inverseIsValid = false;
     }
 
     public void rotate(AxisAngle4f rotation){
         matrix.rotate(rotation);
-        inverseMatrix = null;
+        inverseIsValid = false;
     }
 
     @Override
     public void translate(float x, float y, float z) {
         matrix.translate(x, y, z);
-        inverseMatrix = null;
+        inverseIsValid = false;
     }
 
     @Override
     public void scale(float x, float y, float z) {
         matrix.scale(x, y, z);
-        inverseMatrix = null;
+        inverseIsValid = false;
     }
 
     @Override
     public PosVector getPosition(PosVector p) {
-        PosVector result = new PosVector();
-        p.mulPosition(matrix, result);
-        return result;
+        return getPosition(p, new PosVector());
+    }
+
+    /**
+     * maps the given local position to world-space
+     * @param p    a position in local space
+     * @param dest will hold the result
+     * @return dest
+     */
+    public PosVector getPosition(PosVector p, PosVector dest) {
+        p.mulPosition(matrix, dest);
+        return dest;
     }
 
     @Override
     public DirVector getDirection(DirVector v) {
-        DirVector result = new DirVector();
-        v.mulDirection(matrix, result);
-        return result;
+        return getDirection(v, new DirVector());
+    }
+
+    /**
+     * maps the given local direction to world-space
+     * @param v    a direction in local space
+     * @param dest will hold the result
+     * @return dest
+     */
+    public DirVector getDirection(DirVector v, DirVector dest) {
+        v.mulDirection(matrix, dest);
+        return dest;
     }
 
     @Override
     public void pushMatrix() {
-        matrixStack.push(new Matrix4f(matrix));
-        inverseMatrix = null;
+        if (stackSize == matrixStack.length) {
+            matrixStack = Arrays.copyOf(matrixStack, stackSize * 2);
+        }
+
+        Matrix4f target = matrixStack[stackSize];
+        if (target == null) {
+            target = new Matrix4f();
+            matrixStack[stackSize] = target;
+        }
+
+        target.set(matrix);
+        stackSize++;
     }
 
     @Override
     public void popMatrix() {
-        matrix = matrixStack.pop();
-        inverseMatrix = null;
+        if (stackSize == 0) throw new EmptyStackException();
+
+        matrix.set(matrixStack[--stackSize]);
+        inverseIsValid = false;
     }
 
     @Override
     public void rotate(Quaternionf rotation) {
         matrix.rotate(rotation);
-        inverseMatrix = null;
+        inverseIsValid = false;
     }
 
     @Override
     public void translate(Vector v) {
         matrix.translate(v);
-        inverseMatrix = null;
+        inverseIsValid = false;
     }
 
     @Override
     public void multiplyAffine(Matrix4f postTransformation) {
         // first apply combinedTransformation, then the viewTransformation
         postTransformation.mul(matrix, matrix);
-        inverseMatrix = null;
+        inverseIsValid = false;
     }
 
     @Override
     public void popAll() {
-        matrix = new Matrix4f();
-        matrixStack = new Stack<>();
-        inverseMatrix = null;
+        matrix.identity();
+        stackSize = 0;
+        inverseIsValid = false;
     }
 
     @Override
     public String toString() {
         return "ShadowMatrix{\n" +
                 "matrix=" + matrix +
-                ", stackSize=" + matrixStack.size() +
+                ", stackSize=" + stackSize +
                 "\n}";
     }
 
     public PosVector mapToLocal(PosVector p) {
-        if (inverseMatrix == null) inverseMatrix = matrix.invertAffine(new Matrix4f());
+        return mapToLocal(p, new PosVector());
+    }
 
-        PosVector result = new PosVector();
-        p.mulPosition(inverseMatrix, result);
-        return result;
+    /**
+     * maps the given world-space position to the local space of this matrix
+     * @param p    a position in world-space
+     * @param dest will hold the result
+     * @return dest
+     */
+    public PosVector mapToLocal(PosVector p, PosVector dest) {
+        if (!inverseIsValid) {
+            matrix.invertAffine(inverseMatrix);
+            inverseIsValid = true;
+        }
+
+        p.mulPosition(inverseMatrix, dest);
+        return dest;
     }
 }
@@ -0,0 +1,138 @@
+package nl.NG.Jetfightergame.Rendering.MatrixStack;
+
+import nl.NG.Jetfightergame.ShapeCreation.Shape;
+import nl.NG.Jetfightergame.Tools.DataStructures.BoundingVolumeHierarchy;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+/**
+ * The part of the world that is visible in one frame: the space inside the view-projection matrix and within a maximum
+ * distance of the eye. Objects are tested by their bounding sphere, as given by {@link Shape#getBoundingSphere()}.
+ * Tests are counted until {@link #set(Matrix4fc, Vector3fc, float)} is called again.
+ * <p>
+ * This class does not use OpenGL.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class ViewFrustum implements BoundingVolumeHierarchy.Region {
+    private final FrustumIntersection planes = new FrustumIntersection();
+    private final Vector3f eye = new Vector3f();
+    private final Vector3f center = new Vector3f();
+    private float maxDistance = Float.POSITIVE_INFINITY;
+
+    private int nOfVisible = 0;
+    private int nOfCulled = 0;
+
+    /**
+     * sets this frustum to the given view, and resets the counts
+     * @param viewProjection the view-projection matrix of the frame
+     * @param eye            the position of the camera
+     * @param maxDistance    the distance from the eye beyond which nothing is visible, or {@link
+     *                       Float#POSITIVE_INFINITY} to only use the far plane of the projection
+     * @return this
+     */
+    public ViewFrustum set(Matrix4fc viewProjection, Vector3fc eye, float maxDistance) {
+        this.planes.set(viewProjection);
+        this.eye.set(eye);
+        this.maxDistance = maxDistance;
+        resetCounts();
+        return this;
+    }
+
+    /**
+     * tests whether the sphere is at least partially visible. Does not count the test.
+     * @return false if no point of the given sphere is visible
+     */
+    public boolean testSphere(float x, float y, float z, float radius) {
+        if (!planes.testSphere(x, y, z, radius)) return false;
+        if (maxDistance == Float.POSITIVE_INFINITY) return true;
+
+        float reach = maxDistance + radius;
+        return eye.distanceSquared(x, y, z) <= reach * reach;
+    }
+
+    /**
+     * tests whether the given shape, drawn with the given model matrix, is at least partially visible, and counts the
+     * result.
+     * @param shape the shape to test
+     * @param model the transformation from the local space of the shape to world space
+     * @return false if the shape is certainly not visible
+     */
+    public boolean isVisible(Shape shape, Matrix4fc model) {
+        float[] sphere = shape.getBoundingSphere();
+        model.transformPosition(sphere[0], sphere[1], sphere[2], center);
+
+        // the largest scaling of any axis
+        float scaleSq = Math.max(
+                model.m00() * model.m00() + model.m01() * model.m01() + model.m02() * model.m02(), Math.max(
+                        model.m10() * model.m10() + model.m11() * model.m11() + model.m12() * model.m12(),
+                        model.m20() * model.m20() + model.m21() * model.m21() + model.m22() * model.m22()
+                ));
+        float radius = sphere[3] * (float) Math.sqrt(scaleSq);
+
+        return count(testSphere(center.x, center.y, center.z, radius));
+    }
+
+    /**
+     * tests whether the given box is at least partially visible, and counts the result
+     * @param bounds an array containing the box
+     * @param offset the index in bounds of the {xMin, yMin, zMin, xMax, yMax, zMax} of the box
+     * @return false if the box is certainly not visible
+     */
+    public boolean isVisible(float[] bounds, int offset) {
+        return count(classify(bounds, offset) != OUTSIDE);
+    }
+
+    @Override
+    public int classify(float[] bounds, int offset) {
+        float xMin = bounds[offset], yMin = bounds[offset + 1], zMin = bounds[offset + 2];
+        float xMax = bounds[offset + 3], yMax = bounds[offset + 4], zMax = bounds[offset + 5];
+
+        int relation = planes.intersectAab(xMin, yMin, zMin, xMax, yMax, zMax);
+        if (relation >= 0) return OUTSIDE;
+        if (maxDistance == Float.POSITIVE_INFINITY) {
+            return (relation == FrustumIntersection.INSIDE) ? INSIDE : INTERSECTS;
+        }
+
+        // the nearest and farthest point of the box to the eye
+        float dx = Math.max(Math.max(xMin - eye.x, eye.x - xMax), 0);
+        float dy = Math.max(Math.max(yMin - eye.y, eye.y - yMax), 0);
+        float dz = Math.max(Math.max(zMin - eye.z, eye.z - zMax), 0);
+        float maxSq = maxDistance * maxDistance;
+        if (dx * dx + dy * dy + dz * dz > maxSq) return OUTSIDE;
+
+        float fx = Math.max(eye.x - xMin, xMax - eye.x);
+        float fy = Math.max(eye.y - yMin, yMax - eye.y);
+        float fz = Math.max(eye.z - zMin, zMax - eye.z);
+        boolean isNear = (fx * fx + fy * fy + fz * fz) <= maxSq;
+
+        return (isNear && relation == FrustumIntersection.INSIDE) ? INSIDE : INTERSECTS;
+    }
+
+    private boolean count(boolean isVisible) {
+        if (isVisible) nOfVisible++;
+        else nOfCulled++;
+        return isVisible;
+    }
+
+    /** adds the given number of objects that were culled without testing them individually */
+    public void addCulled(int number) {
+        nOfCulled += number;
+    }
+
+    /** @return the number of counted objects that were visible */
+    public int getNumberOfVisible() {
+        return nOfVisible;
+    }
+
+    /** @return the number of counted objects that were not visible */
+    public int getNumberOfCulled() {
+        return nOfCulled;
+    }
+
+    public void resetCounts() {
+        nOfVisible = 0;
+        nOfCulled = 0;
+    }
+}
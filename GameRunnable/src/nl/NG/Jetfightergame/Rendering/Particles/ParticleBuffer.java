@@ -0,0 +1,283 @@
+package nl.NG.Jetfightergame.Rendering.Particles;
+
+import nl.NG.Jetfightergame.Rendering.GLException;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.ViewFrustum;
+import nl.NG.Jetfightergame.Tools.Logger;
+import nl.NG.Jetfightergame.Tools.Toolbox;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static nl.NG.Jetfightergame.Settings.ClientSettings.PARTICLECLOUD_MIN_TIME;
+import static nl.NG.Jetfightergame.Settings.ClientSettings.PARTICLECLOUD_SPLIT_SIZE;
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.glDrawArraysInstanced;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
+
+/**
+ * One vertex buffer holding all particles on the GPU, allocated once. New particles are written into the free part of
+ * the buffer as given by a {@link ParticleRing}, and the space of particles is reused after they expired. Every particle
+ * is one instance of three vertices, such that all particles are drawn in a few instanced draw calls.
+ * <p>
+ * The GPU may still draw expired particles of earlier frames when new particles are written. A fence is placed after
+ * the draw calls of every frame, and the slots of expired particles are only reused after the fence of the frame in
+ * which they expired has signalled. If the buffer is full of particles that have not expired, the buffer is orphaned
+ * and all particles in it are dropped.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class ParticleBuffer {
+    /** the number of floats per attribute, in order of attribute location */
+    private static final int[] ATTRIBUTE_SIZES = {
+            3, 3, 3, // positions of the three vertices relative to the middle
+            3, // initial position of the middle
+            4, // rotation as (x, y, z, angle)
+            3, // movement
+            4, // color
+            2 // begin and end time
+    };
+    private static final int FLOATS_PER_PARTICLE = Arrays.stream(ATTRIBUTE_SIZES).sum();
+    private static final int STRIDE = FLOATS_PER_PARTICLE * Float.BYTES;
+    /** the maximum time in nanoseconds to wait for the GPU when the buffer is full, before dropping all particles */
+    private static final long FENCE_TIMEOUT = 50_000_000L;
+    /** writes are not synchronized, as only slots are written that the GPU has finished reading, or fresh storage */
+    private static final int MAP_ACCESS = GL_MAP_WRITE_BIT | GL_MAP_INVALIDATE_RANGE_BIT | GL_MAP_UNSYNCHRONIZED_BIT;
+
+    private final ParticleRing ring;
+    private final int vaoId;
+    private final int vboId;
+    private final float[] bounds = new float[6];
+    private int nOfDrawCalls = 0;
+    /** the fences of the frames that may not be finished by the GPU, oldest first */
+    private final ArrayDeque<FrameFence> fences = new ArrayDeque<>();
+
+    /**
+     * allocates the buffer on the GPU
+     * @param capacity the maximum number of particles at one time
+     */
+    public ParticleBuffer(int capacity) {
+        ring = new ParticleRing(capacity);
+
+        vaoId = glGenVertexArrays();
+        glBindVertexArray(vaoId);
+
+        vboId = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, vboId);
+        glBufferData(GL_ARRAY_BUFFER, (long) capacity * STRIDE, GL_STREAM_DRAW);
+
+        for (int i = 0; i < ATTRIBUTE_SIZES.length; i++) {
+            glEnableVertexAttribArray(i);
+            glVertexAttribDivisor(i, 1);
+        }
+        setAttributes(0);
+
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(0);
+        Toolbox.checkGLError();
+    }
+
+    /**
+     * moves the particles of the given cloud to this buffer. If the cloud has particles with varying lifetimes, it is
+     * split in groups of similar lifetime, such that the space of the short-lived particles is reused earlier. If the
+     * buffer is full, this waits for the GPU to release the space of expired particles, or drops all particles.
+     * @param cloud       the new particles
+     * @param currentTime the time at which the particles start moving
+     */
+    public void add(ParticleCloud cloud, float currentTime) {
+        List<ParticleCloud.Particle> particles = cloud.getParticles();
+        int nOfParticles = particles.size();
+        if (nOfParticles > ring.getCapacity()) {
+            Logger.WARN.printSpamless("ParticleBuffer#add", "Dropping " + (nOfParticles - ring.getCapacity()) +
+                    " particles, as the particle buffer is full");
+            nOfParticles = ring.getCapacity();
+        }
+
+        glBindBuffer(GL_ARRAY_BUFFER, vboId);
+
+        float spread = cloud.getMaxTimeToLive() - cloud.getMinTimeToLive();
+        if ((nOfParticles > PARTICLECLOUD_SPLIT_SIZE) && (spread > PARTICLECLOUD_MIN_TIME)) {
+            particles = new ArrayList<>(particles.subList(0, nOfParticles));
+            particles.sort(Comparator.comparingDouble(p -> p.timeToLive));
+
+            for (int i = 0; i < nOfParticles; i += PARTICLECLOUD_SPLIT_SIZE) {
+                addGroup(particles, i, Math.min(nOfParticles, i + PARTICLECLOUD_SPLIT_SIZE), currentTime);
+            }
+
+        } else {
+            addGroup(particles, 0, nOfParticles, currentTime);
+        }
+
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        Toolbox.checkGLError();
+    }
+
+    /** allocates and writes the particles in the range [from, to) of the given list */
+    private void addGroup(List<ParticleCloud.Particle> particles, int from, int to, float currentTime) {
+        Arrays.fill(bounds, 0, 3, Float.POSITIVE_INFINITY);
+        Arrays.fill(bounds, 3, 6, Float.NEGATIVE_INFINITY);
+        float maxTTL = 0;
+        for (int i = from; i < to; i++) {
+            ParticleCloud.Particle p = particles.get(i);
+            p.addToBounds(bounds);
+            maxTTL = Math.max(maxTTL, p.timeToLive);
+        }
+
+        int count = to - from;
+        if (ring.getNumberOfFree() < count) {
+            releaseSlots(count);
+            if (ring.getNumberOfFree() < count) orphan();
+        }
+        int first = ring.allocate(count, currentTime + maxTTL, bounds);
+
+        // the group may wrap around the end of the buffer
+        int untilEnd = ring.getCapacity() - first;
+        write(particles, from, Math.min(count, untilEnd), first, currentTime);
+        if (count > untilEnd) {
+            write(particles, from + untilEnd, count - untilEnd, 0, currentTime);
+        }
+    }
+
+    /** waits for the fences of earlier frames until at least the given number of slots is free */
+    private void releaseSlots(int nOfSlots) {
+        while (!fences.isEmpty() && ring.getNumberOfFree() < nOfSlots) {
+            FrameFence fence = fences.peek();
+            int status = glClientWaitSync(fence.sync, GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_TIMEOUT);
+            if (status == GL_TIMEOUT_EXPIRED) return;
+            if (status == GL_WAIT_FAILED) throw new GLException("Could not wait for the particle buffer");
+
+            ring.release(fence.nOfRetired);
+            glDeleteSync(fence.sync);
+            fences.remove();
+        }
+    }
+
+    /** releases the slots of all frames that the GPU has finished, without waiting */
+    private void releaseFinishedFrames() {
+        while (!fences.isEmpty()) {
+            FrameFence fence = fences.peek();
+            int status = glClientWaitSync(fence.sync, 0, 0);
+            if (status != GL_ALREADY_SIGNALED && status != GL_CONDITION_SATISFIED) return;
+
+            ring.release(fence.nOfRetired);
+            glDeleteSync(fence.sync);
+            fences.remove();
+        }
+    }
+
+    /**
+     * replaces the storage of the buffer by new storage, such that the GPU can finish drawing from the old storage.
+     * All particles that were in the buffer are dropped.
+     */
+    private void orphan() {
+        Logger.WARN.printSpamless("ParticleBuffer#orphan", "Dropping " + ring.size() +
+                " particles, as the particle buffer is full");
+        glBufferData(GL_ARRAY_BUFFER, (long) ring.getCapacity() * STRIDE, GL_STREAM_DRAW);
+        deleteFences();
+        ring.clear();
+    }
+
+    private void deleteFences() {
+        for (FrameFence fence : fences) {
+            glDeleteSync(fence.sync);
+        }
+        fences.clear();
+    }
+
+    /** writes the given number of particles, starting with the particle at index from, to the slots starting at slot */
+    private void write(List<ParticleCloud.Particle> particles, int from, int count, int slot, float currentTime) {
+        ByteBuffer mapped = glMapBufferRange(GL_ARRAY_BUFFER, (long) slot * STRIDE, (long) count * STRIDE, MAP_ACCESS);
+        if (mapped == null) throw new GLException("Could not map the particle buffer");
+        FloatBuffer data = mapped.asFloatBuffer();
+
+        for (int i = from; i < from + count; i++) {
+            ParticleCloud.Particle p = particles.get(i);
+            for (PosVector side : p.sides) {
+                data.put(side.x).put(side.y).put(side.z);
+            }
+            data.put(p.position.x).put(p.position.y).put(p.position.z);
+            data.put(p.rotation.x).put(p.rotation.y).put(p.rotation.z).put(p.rotation.angle);
+            data.put(p.movement.x).put(p.movement.y).put(p.movement.z);
+            data.put(p.color.red).put(p.color.green).put(p.color.blue).put(p.color.alpha);
+            data.put(currentTime).put(currentTime + p.timeToLive);
+        }
+
+        glUnmapBuffer(GL_ARRAY_BUFFER);
+    }
+
+    /**
+     * retires the space of expired particles, and draws all other particles. The particle shader must be bound.
+     * @param currentTime the current render time
+     * @param view        the visible part of the world, or null if particles should not be culled
+     */
+    public void draw(float currentTime, ViewFrustum view) {
+        releaseFinishedFrames();
+        // particles that expire now were last drawn in the previous frame, thus the fence of this frame covers them
+        ring.retire(currentTime);
+        nOfDrawCalls = 0;
+
+        if (ring.size() > 0) {
+            glBindVertexArray(vaoId);
+            glBindBuffer(GL_ARRAY_BUFFER, vboId);
+
+            ParticleRing.GroupFilter filter = (view == null) ? null : view::isVisible;
+            nOfDrawCalls = ring.forEachRange(filter, this::drawRange);
+
+            glBindBuffer(GL_ARRAY_BUFFER, 0);
+            glBindVertexArray(0);
+        }
+
+        fences.add(new FrameFence(glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0), ring.getNumberOfRetired()));
+    }
+
+    private void drawRange(int firstSlot, int count) {
+        setAttributes(firstSlot);
+        glDrawArraysInstanced(GL_TRIANGLES, 0, 3, count);
+    }
+
+    /** points the attributes to the particle in the given slot, as instanced drawing starts at the first instance */
+    private void setAttributes(int slot) {
+        long offset = (long) slot * STRIDE;
+        for (int i = 0; i < ATTRIBUTE_SIZES.length; i++) {
+            glVertexAttribPointer(i, ATTRIBUTE_SIZES[i], GL_FLOAT, false, STRIDE, offset);
+            offset += ATTRIBUTE_SIZES[i] * Float.BYTES;
+        }
+    }
+
+    /** @return the number of particles that have not expired at the given time */
+    public int getParticleCount(float currentTime) {
+        return ring.getNumberOfParticles(currentTime);
+    }
+
+    /** @return the number of draw calls of the last call to {@link #draw(float, ViewFrustum)} */
+    public int getNumberOfDrawCalls() {
+        return nOfDrawCalls;
+    }
+
+    public void cleanup() {
+        deleteFences();
+        glDeleteBuffers(vboId);
+        glDeleteVertexArrays(vaoId);
+    }
+
+    /** a fence after the draw calls of one frame, and the slots retired before that frame */
+    private static class FrameFence {
+        final long sync;
+        final long nOfRetired;
+
+        FrameFence(long sync, long nOfRetired) {
+            this.sync = sync;
+            this.nOfRetired = nOfRetired;
+        }
+    }
+}
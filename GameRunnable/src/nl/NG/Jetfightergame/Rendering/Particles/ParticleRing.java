@@ -0,0 +1,271 @@
+package nl.NG.Jetfightergame.Rendering.Particles;
+
+/**
+ * Assigns the slots of a ring of fixed size to groups of particles. A new group is placed directly after the previous
+ * group, wrapping around at the end of the ring, and the slots of a group are reclaimed once all its particles have
+ * expired. Groups are reclaimed in order of allocation, such that the slots in use always form one range of the ring
+ * starting at {@link #getFirstSlot()}. When a new group does not fit, the oldest groups are dropped.
+ * <p>
+ * Slots may still be read after their group expired, for example by draw calls that the GPU has not finished yet. For
+ * this, {@link #retire(float)} removes the expired groups without freeing their slots, and {@link #release(long)}
+ * frees them once they are no longer read. The retired slots always directly precede the first slot in use.
+ * <p>
+ * This class does not use OpenGL, and is not thread-safe.
+ * @author Geert van Ieperen created on 17-10-2026.
+ * @see ParticleBuffer
+ */
+public class ParticleRing {
+    private final int capacity;
+    private int firstSlot = 0;
+    private int nOfSlotsUsed = 0;
+
+    /** the groups in order of allocation, as a circular array starting at firstGroup */
+    private int[] groupSizes = new int[16];
+    private float[] groupEndTimes = new float[16];
+    /** per group the bounds as {xMin, yMin, zMin, xMax, yMax, zMax} */
+    private float[] groupBounds = new float[16 * 6];
+    private int firstGroup = 0;
+    private int nOfGroups = 0;
+
+    private int nOfDropped = 0;
+    /** the total number of slots retired, and the total number of retired slots that were released since */
+    private long nOfRetired = 0;
+    private long nOfReleased = 0;
+
+    /**
+     * @param capacity the number of particles that fit in the ring
+     */
+    public ParticleRing(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive, but was " + capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * reserves consecutive slots for a new group of particles. If there are not enough free slots, all retired slots
+     * are released and the oldest groups are dropped, regardless of whether their slots are still read.
+     * @param nOfParticles the number of particles in the group, at most {@link #getCapacity()}
+     * @param endTime      the time at which all particles of the group have expired
+     * @param bounds       the box {xMin, yMin, zMin, xMax, yMax, zMax} containing all particles during their lifetime,
+     *                     which is copied
+     * @return the first slot of the group. Particle {@code i} of the group uses slot {@code (first + i) % capacity}
+     * @throws IllegalArgumentException if the group is larger than the ring
+     */
+    public int allocate(int nOfParticles, float endTime, float[] bounds) {
+        if (nOfParticles > capacity) {
+            throw new IllegalArgumentException("Group of " + nOfParticles + " particles exceeds capacity " + capacity);
+        }
+
+        if (getNumberOfFree() < nOfParticles) {
+            nOfReleased = nOfRetired;
+            while (capacity - nOfSlotsUsed < nOfParticles) {
+                nOfDropped += removeFirstGroup();
+            }
+        }
+
+        int first = (firstSlot + nOfSlotsUsed) % capacity;
+        if (nOfParticles == 0) return first;
+        if (nOfGroups == groupSizes.length) grow();
+
+        int group = (firstGroup + nOfGroups) % groupSizes.length;
+        groupSizes[group] = nOfParticles;
+        groupEndTimes[group] = endTime;
+        System.arraycopy(bounds, 0, groupBounds, 6 * group, 6);
+        nOfGroups++;
+        nOfSlotsUsed += nOfParticles;
+
+        return first;
+    }
+
+    private void grow() {
+        int oldLength = groupSizes.length;
+        int newLength = oldLength * 2;
+        // unroll the circular array, such that the first group is at index 0
+        groupSizes = unroll(groupSizes, newLength);
+        groupEndTimes = unroll(groupEndTimes, newLength);
+
+        float[] bounds = new float[6 * newLength];
+        int nOfFirstPart = oldLength - firstGroup;
+        System.arraycopy(groupBounds, 6 * firstGroup, bounds, 0, 6 * nOfFirstPart);
+        System.arraycopy(groupBounds, 0, bounds, 6 * nOfFirstPart, 6 * firstGroup);
+        groupBounds = bounds;
+
+        firstGroup = 0;
+    }
+
+    private int[] unroll(int[] array, int newLength) {
+        int[] result = new int[newLength];
+        System.arraycopy(array, firstGroup, result, 0, array.length - firstGroup);
+        System.arraycopy(array, 0, result, array.length - firstGroup, firstGroup);
+        return result;
+    }
+
+    private float[] unroll(float[] array, int newLength) {
+        float[] result = new float[newLength];
+        System.arraycopy(array, firstGroup, result, 0, array.length - firstGroup);
+        System.arraycopy(array, 0, result, array.length - firstGroup, firstGroup);
+        return result;
+    }
+
+    /** @return the number of slots of the removed group */
+    private int removeFirstGroup() {
+        int size = groupSizes[firstGroup];
+        firstSlot = (firstSlot + size) % capacity;
+        nOfSlotsUsed -= size;
+        firstGroup = (firstGroup + 1) % groupSizes.length;
+        nOfGroups--;
+        return size;
+    }
+
+    /**
+     * reclaims the slots of the oldest groups that have expired, such that they can be allocated immediately. A group
+     * that has expired stays in use as long as an older group has not expired.
+     * @param currentTime the current time
+     */
+    public void reclaim(float currentTime) {
+        retire(currentTime);
+        release(nOfRetired);
+    }
+
+    /**
+     * removes the oldest groups that have expired, like {@link #reclaim(float)}, but their slots can not be allocated
+     * until they are released.
+     * @param currentTime the current time
+     * @see #release(long)
+     */
+    public void retire(float currentTime) {
+        while (nOfGroups > 0 && groupEndTimes[firstGroup] <= currentTime) {
+            nOfRetired += removeFirstGroup();
+        }
+    }
+
+    /**
+     * frees the slots that were retired before {@link #getNumberOfRetired()} returned the given value. Slots that were
+     * already released are ignored.
+     * @param nOfRetired a value returned by {@link #getNumberOfRetired()}
+     */
+    public void release(long nOfRetired) {
+        nOfReleased = Math.max(nOfReleased, Math.min(nOfRetired, this.nOfRetired));
+    }
+
+    /** removes all groups and releases all retired slots, as if all particles were dropped */
+    public void clear() {
+        nOfDropped += nOfSlotsUsed;
+        nOfReleased = nOfRetired;
+        firstSlot = 0;
+        nOfSlotsUsed = 0;
+        firstGroup = 0;
+        nOfGroups = 0;
+    }
+
+    /**
+     * executes the given action on the ranges of consecutive slots of groups that are accepted by the filter. Ranges
+     * never wrap around the end of the ring, thus each range is a contiguous part of the ring.
+     * @param filter decides per group whether it should be included, or null to include all groups
+     * @param action is called with every range
+     * @return the number of calls to the action
+     */
+    public int forEachRange(GroupFilter filter, RangeAction action) {
+        int nOfRanges = 0;
+        int rangeStart = firstSlot;
+        int rangeSize = 0;
+        int slot = firstSlot;
+
+        for (int i = 0; i < nOfGroups; i++) {
+            int group = (firstGroup + i) % groupSizes.length;
+            int size = groupSizes[group];
+
+            if (filter == null || filter.accept(groupBounds, 6 * group)) {
+                if (rangeSize == 0) rangeStart = slot;
+                rangeSize += size;
+
+            } else if (rangeSize > 0) {
+                nOfRanges += execute(action, rangeStart, rangeSize);
+                rangeSize = 0;
+            }
+
+            slot = (slot + size) % capacity;
+        }
+
+        if (rangeSize > 0) {
+            nOfRanges += execute(action, rangeStart, rangeSize);
+        }
+        return nOfRanges;
+    }
+
+    /** executes the action on the given range, split in two if it wraps around the end of the ring */
+    private int execute(RangeAction action, int start, int size) {
+        int untilEnd = capacity - start;
+        if (size <= untilEnd) {
+            action.accept(start, size);
+            return 1;
+        }
+
+        action.accept(start, untilEnd);
+        action.accept(0, size - untilEnd);
+        return 2;
+    }
+
+    /** @return the number of particles in groups that have not expired at the given time */
+    public int getNumberOfParticles(float currentTime) {
+        int count = 0;
+        for (int i = 0; i < nOfGroups; i++) {
+            int group = (firstGroup + i) % groupSizes.length;
+            if (groupEndTimes[group] > currentTime) count += groupSizes[group];
+        }
+        return count;
+    }
+
+    /** @return the number of particles that fit in the ring */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** @return the slot of the first particle of the oldest group */
+    public int getFirstSlot() {
+        return firstSlot;
+    }
+
+    /** @return the number of slots in use */
+    public int size() {
+        return nOfSlotsUsed;
+    }
+
+    /** @return the number of slots that can be allocated without dropping groups */
+    public int getNumberOfFree() {
+        return capacity - nOfSlotsUsed - (int) (nOfRetired - nOfReleased);
+    }
+
+    /** @return the total number of slots retired since the creation of this ring, for use in {@link #release(long)} */
+    public long getNumberOfRetired() {
+        return nOfRetired;
+    }
+
+    /** @return the number of groups in use */
+    public int getNumberOfGroups() {
+        return nOfGroups;
+    }
+
+    /** @return the number of particles that were dropped before they expired, because the ring was full */
+    public int getNumberOfDropped() {
+        return nOfDropped;
+    }
+
+    /** decides which groups are used by {@link #forEachRange(GroupFilter, RangeAction)} */
+    public interface GroupFilter {
+        /**
+         * @param bounds an array containing the bounds of the group
+         * @param offset the index in bounds of the {xMin, yMin, zMin, xMax, yMax, zMax} of the group
+         * @return true if the group should be included
+         */
+        boolean accept(float[] bounds, int offset);
+    }
+
+    /** an action on a contiguous range of slots */
+    public interface RangeAction {
+        /**
+         * @param firstSlot the first slot of the range
+         * @param count     the number of slots in the range
+         */
+        void accept(int firstSlot, int count);
+    }
+}
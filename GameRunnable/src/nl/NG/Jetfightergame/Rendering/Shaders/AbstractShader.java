@@ -60,6 +60,7 @@ public abstract class AbstractShader implements ShaderProgram {
         createUniform("viewProjectionMatrix");
         createUniform("modelMatrix");
         createUniform("normalMatrix");
+        createUniform("instanced");
     }
 
     @Override
@@ -252,4 +253,9 @@ public abstract class AbstractShader implements ShaderProgram {
         setUniform("normalMatrix", normalMatrix);
     }
 
+    @Override
+    public void setInstanced(boolean doInstanced) {
+        setUniform("instanced", doInstanced);
+    }
+
 }
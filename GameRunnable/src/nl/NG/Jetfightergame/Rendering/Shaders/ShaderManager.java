@@ -138,6 +138,11 @@ public class ShaderManager implements Manager<ShaderManager.ShaderImpl>, ShaderP
         instance.setNormalMatrix(normalMatrix);
     }
 
+    @Override
+    public void setInstanced(boolean doInstanced) {
+        instance.setInstanced(doInstanced);
+    }
+
     @Override
     public void setMaterial(Color4f diffuse, Color4f specular, float reflectance) {
         instance.setMaterial(diffuse, specular, reflectance);
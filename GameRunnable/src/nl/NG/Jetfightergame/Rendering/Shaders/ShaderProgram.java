@@ -47,5 +47,11 @@ public interface ShaderProgram {
 
     void setNormalMatrix(Matrix3f normalMatrix);
 
+    /**
+     * @param doInstanced if true, the model and normal matrices are read per instance from the vertex attributes instead
+     *                    of from the uniforms
+     */
+    void setInstanced(boolean doInstanced);
+
     void setMaterial(Color4f diffuse, Color4f specular, float reflectance);
 }
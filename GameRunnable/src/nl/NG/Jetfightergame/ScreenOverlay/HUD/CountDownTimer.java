@@ -66,4 +66,9 @@ public class CountDownTimer implements Consumer<ScreenOverlay.Painter> {
     public void setTime(float timeOfZero) {
         this.timeOfZero = timeOfZero;
     }
+
+    /** @return the game time at which the count down reaches zero */
+    public float getTime() {
+        return timeOfZero;
+    }
 }
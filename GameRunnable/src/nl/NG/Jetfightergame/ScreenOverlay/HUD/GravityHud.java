@@ -5,6 +5,7 @@ import nl.NG.Jetfightergame.Camera.Camera;
 import nl.NG.Jetfightergame.ScreenOverlay.ScreenOverlay;
 import nl.NG.Jetfightergame.Tools.Vectors.Color4f;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
 
 import java.util.function.Consumer;
 
@@ -22,6 +23,7 @@ public class GravityHud implements Consumer<ScreenOverlay.Painter> {
     private static final float BS_SENSITIVITY = 2500f;
     private final AbstractJet target;
     private final Camera camera;
+    private final PosVector targetPosition = new PosVector();
 
     public GravityHud(AbstractJet target, Camera camera) {
         this.target = target;
@@ -81,7 +83,7 @@ public class GravityHud implements Consumer<ScreenOverlay.Painter> {
                     xPosAltitudeBar, (int) (height * barMargin),
                     xPosAltitudeBar, (int) (height * inverseBarMargin)
             );
-            final float currentAltitude = target.getPosition().z(); // TODO determine altitude
+            final float currentAltitude = target.getPosition(targetPosition).z(); // TODO determine altitude
 
             float[] heightTicks = ticks(currentAltitude, 25, 100);
             for (float tick : heightTicks) {
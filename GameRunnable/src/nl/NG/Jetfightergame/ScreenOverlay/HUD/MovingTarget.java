@@ -4,9 +4,7 @@ import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
 import nl.NG.Jetfightergame.ScreenOverlay.HUDStyleSettings;
 import nl.NG.Jetfightergame.ScreenOverlay.HeadsUpDisplay;
 import nl.NG.Jetfightergame.ScreenOverlay.ScreenOverlay;
-import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
 import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
-import nl.NG.Jetfightergame.Tools.Vectors.Vector;
 import org.joml.Vector2i;
 
 import java.util.function.Consumer;
@@ -19,6 +17,8 @@ public abstract class MovingTarget implements HUDTargetable {
     protected final MovingEntity subject;
     private final HeadsUpDisplay hud;
     private Consumer<ScreenOverlay.Painter> visual;
+    /** the position of the subject, overwritten on each query */
+    private final PosVector subjectPosition = new PosVector();
 
     /**
      * create a targeting wrapper for the HUD to target entities.
@@ -37,7 +37,7 @@ public abstract class MovingTarget implements HUDTargetable {
      * @return the coordinate of this vertex on the screen, or null if this vertex is behind the player
      */
     protected Vector2i entityPosition(ScreenOverlay.Painter hud){
-        return hud.positionOnScreen(subject.getPosition());
+        return hud.positionOnScreen(subject.getPosition(subjectPosition));
     }
 
     protected int iconSize(PosVector cameraPos){
@@ -48,8 +48,7 @@ public abstract class MovingTarget implements HUDTargetable {
     }
 
     protected float distance(PosVector cameraPos){
-        Vector distance = cameraPos.to(subject.getPosition(), new DirVector());
-        return distance.length();
+        return cameraPos.distance(subject.getPosition(subjectPosition));
     }
 
     protected String targetName(){
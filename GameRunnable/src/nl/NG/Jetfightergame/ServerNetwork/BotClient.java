@@ -0,0 +1,172 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Controllers.ControllerManager.ControllerImpl;
+import nl.NG.Jetfightergame.EntityGeneral.Factory.EntityClass;
+import nl.NG.Jetfightergame.Tools.DataStructures.LogHistogram;
+import nl.NG.Jetfightergame.Tools.Logger;
+import nl.NG.Jetfightergame.Tools.Vectors.Color4f;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A client without rendering or sound, flown by a {@link nl.NG.Jetfightergame.ArtificalIntelligence.RaceAI}. It measures
+ * the bytes it sends and receives, and the time between the server taking a snapshot and this client reading it.
+ * @author Geert van Ieperen created on 17-10-2026.
+ * @see LoadTest
+ */
+public class BotClient extends ClientConnection {
+    private final Socket socket;
+    private final CountingInput input;
+    private final CountingOutput output;
+    /** microseconds between the time of a snapshot and reading it, guarded by this */
+    private final LogHistogram latency = new LogHistogram();
+    private EntitySnapshot lastSnapshot = null;
+
+    private BotClient(String name, Socket socket, CountingInput in, CountingOutput out) throws IOException {
+        super(name, out, in, EntityClass.JET_SPITZ, Color4f.WHITE);
+        this.socket = socket;
+        this.input = in;
+        this.output = out;
+        getInputControl().switchTo(ControllerImpl.AIController);
+    }
+
+    /**
+     * connects a bot to any room of the given server, and starts flying
+     * @param host the address of the server
+     * @param port the port of the server
+     * @param name the name of the bot, which must be unique on the server
+     * @param listeners the scope that runs the listener of the bot, which disconnects the bot when closed
+     * @return the connected bot
+     * @throws IOException if the server could not be reached, or denied the connection
+     */
+    public static BotClient connect(String host, int port, String name, ListenerScope listeners) throws IOException {
+        Socket socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+
+        try {
+            CountingInput in = new CountingInput(socket.getInputStream());
+            CountingOutput out = new CountingOutput(socket.getOutputStream());
+            RoomManager.joinRoom(in, out, RoomManager.ROOM_ANY);
+
+            BotClient bot = new BotClient(name, socket, in, out);
+            listeners.start(bot, bot::close);
+            bot.setDaemon(true);
+            bot.start();
+            return bot;
+
+        } catch (IOException ex) {
+            socket.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean handleMessage() throws IOException {
+        boolean hasNext = super.handleMessage();
+
+        EntitySnapshot snapshot = getLastSnapshot();
+        if (snapshot != lastSnapshot) {
+            lastSnapshot = snapshot;
+            long micros = (long) ((getTimer().time() - snapshot.time) * 1_000_000);
+            synchronized (this) {
+                latency.record(micros);
+            }
+        }
+
+        if (!hasNext && !isStopping()) {
+            Logger.WARN.print(playerName() + " lost its connection");
+            stopLoop();
+        }
+        return hasNext;
+    }
+
+    /**
+     * adds the latencies measured since the last call to the given histogram
+     * @param target receives the time between the server taking a snapshot and this client reading it, in microseconds
+     */
+    public synchronized void takeLatencies(LogHistogram target) {
+        target.add(latency);
+        latency.clear();
+    }
+
+    /** @return the total number of bytes received from the server */
+    public long getBytesReceived() {
+        return input.count.get();
+    }
+
+    /** @return the total number of bytes sent to the server */
+    public long getBytesSent() {
+        return output.count.get();
+    }
+
+    /** @return true if the connection to the server is closed */
+    public boolean isDisconnected() {
+        return socket.isClosed() || isStopping();
+    }
+
+    @Override
+    public boolean isHeadless() {
+        return true;
+    }
+
+    /** disconnects from the server */
+    public void close() {
+        stopLoop();
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            Logger.ERROR.print(ex);
+        }
+    }
+
+    private static class CountingInput extends FilterInputStream {
+        final AtomicLong count = new AtomicLong();
+
+        CountingInput(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) count.incrementAndGet();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) count.addAndGet(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count.addAndGet(skipped);
+            return skipped;
+        }
+    }
+
+    private static class CountingOutput extends FilterOutputStream {
+        final AtomicLong count = new AtomicLong();
+
+        CountingOutput(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count.addAndGet(len);
+        }
+    }
+}
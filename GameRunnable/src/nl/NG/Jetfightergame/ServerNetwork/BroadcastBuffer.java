@@ -0,0 +1,209 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Messages that are sent to all connections. Each message is encoded only once into a buffer that is reused every tick,
+ * after which every subscribed connection copies the same bytes to its own stream. Bytes are kept until all
+ * subscriptions have written them. Subscriptions write to their stream without holding the lock of the broadcast, such
+ * that a slow connection does not block the other connections, nor the sending of new messages.
+ * <p>
+ * A connection must write the pending bytes of its subscription before writing a message of its own, such that all
+ * messages arrive in the order they were sent.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class BroadcastBuffer {
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    private final Lock lock = new ReentrantLock();
+    private final JetFighterProtocol protocol;
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+    /** the position of the first byte in the buffer, counted from the creation of this broadcast */
+    private long base = 0;
+    /** the number of subscriptions writing bytes of the buffer, which may then not be moved */
+    private int nOfWriting = 0;
+
+    public BroadcastBuffer() {
+        this.protocol = new JetFighterProtocol(new OutputStream() {
+            @Override
+            public void write(int b) {
+                ensureCapacity(1);
+                buffer.put((byte) b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                ensureCapacity(length);
+                buffer.put(bytes, offset, length);
+            }
+        });
+    }
+
+    /**
+     * encodes a message for all connections
+     * @param type   the type of the message
+     * @param action writes the content of the message, using the given protocol
+     */
+    public void send(MessageType type, ProtocolAction action) {
+        lock.lock();
+        try {
+            protocol.getOutput().write(type.ordinal());
+            action.write(protocol);
+
+        } catch (IOException ex) {
+            // writing to a buffer does not throw
+            throw new IllegalStateException(ex);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return a subscription that receives all messages sent from now on, until {@link Subscription#cancel()} is
+     *         called
+     */
+    public Subscription subscribe() {
+        lock.lock();
+        try {
+            Subscription subscription = new Subscription(base + buffer.position());
+            subscriptions.add(subscription);
+            return subscription;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * releases the bytes that have been written by all subscriptions, allowing their space to be reused
+     */
+    public void compact() {
+        lock.lock();
+        try {
+            long position = base + buffer.position();
+            for (Subscription subscription : subscriptions) {
+                position = Math.min(position, subscription.position);
+            }
+
+            int count = (int) (position - base);
+            if (count <= 0) return;
+
+            int remaining = buffer.position() - count;
+            if (nOfWriting == 0) {
+                System.arraycopy(buffer.array(), count, buffer.array(), 0, remaining);
+                buffer.position(remaining);
+
+            } else {
+                // a subscription may still be writing from the array
+                ByteBuffer compacted = ByteBuffer.allocate(buffer.capacity());
+                compacted.put(buffer.array(), count, remaining);
+                buffer = compacted;
+            }
+            base = position;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the number of bytes that are not yet written by all subscriptions */
+    public int size() {
+        lock.lock();
+        try {
+            return buffer.position();
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** grows the buffer by replacing it, such that subscriptions can keep writing from the old array */
+    private void ensureCapacity(int extra) {
+        if (buffer.remaining() >= extra) return;
+
+        int capacity = buffer.capacity();
+        while (capacity - buffer.position() < extra) capacity *= 2;
+
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+
+    /**
+     * the progress of one connection through the messages of the broadcast
+     * @author Geert van Ieperen created on 17-10-2026.
+     */
+    public class Subscription {
+        private long position;
+
+        private Subscription(long position) {
+            this.position = position;
+        }
+
+        /**
+         * writes the messages that were sent since the last call to this method to the given stream. Messages sent
+         * while writing are not written.
+         * @param out the stream to write to
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            byte[] bytes;
+            int start;
+            int end;
+
+            lock.lock();
+            try {
+                start = (int) (position - base);
+                end = buffer.position();
+                if (end <= start) return;
+
+                // new messages are written after end, and compact() does not move the array while we are writing
+                bytes = buffer.array();
+                position = base + end;
+                nOfWriting++;
+
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                out.write(bytes, start, end - start);
+
+            } finally {
+                lock.lock();
+                try {
+                    nOfWriting--;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        /** stops receiving messages, such that the broadcast no longer keeps them for this subscription */
+        public void cancel() {
+            lock.lock();
+            try {
+                subscriptions.remove(this);
+
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @author Geert van Ieperen created on 17-10-2026.
+     */
+    public interface ProtocolAction {
+        /** writes a message using the given protocol, which may throw an IOException */
+        void write(JetFighterProtocol protocol) throws IOException;
+    }
+}
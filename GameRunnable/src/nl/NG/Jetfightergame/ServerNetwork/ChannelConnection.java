@@ -0,0 +1,333 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Settings.ServerSettings;
+import nl.NG.Jetfightergame.Tools.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A non-blocking socket connection, handled by a {@link SelectorTransport}, which is presented as a pair of streams.
+ * Writing to the output stream never blocks: bytes are collected in a buffer and written by the selector thread when
+ * the socket accepts them. If a client falls more than {@link ServerSettings#SEND_BUFFER_LIMIT} bytes behind, writing
+ * fails and the connection is considered closed.
+ * <p>
+ * Until {@link #dispatchTo(BlockingListener)} is called, reading from the input stream blocks until data arrives,
+ * such that a handshake can be done as usual. After that, the selector thread calls {@link
+ * BlockingListener#handleMessage()} whenever data arrives. When a message has not been fully received, reading throws
+ * an {@link IncompleteMessageException}, after which the message is read again when more data has arrived. Bytes
+ * written by the listener while handling a message are only sent once the message is handled, such that a message that
+ * is read again does not send its reply twice. A listener must read a message completely before replying, as the reply
+ * to an incomplete message is discarded.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class ChannelConnection {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final SocketChannel channel;
+    private final SelectorTransport transport;
+    private final Lock lock = new ReentrantLock();
+    private final Condition dataArrived = lock.newCondition();
+    private SelectionKey key;
+
+    /** received bytes, of which [{@code start}, {@code end}) are not yet handled */
+    private byte[] received = new byte[INITIAL_CAPACITY];
+    private int start = 0;
+    private int readPos = 0;
+    private int end = 0;
+    private boolean endOfStream = false;
+
+    /** bytes to send, in read mode */
+    private ByteBuffer sending = ByteBuffer.allocate(INITIAL_CAPACITY).flip();
+    /** bytes written by the listener while handling the current message, in write mode */
+    private ByteBuffer reply = ByteBuffer.allocate(INITIAL_CAPACITY);
+    /** the thread calling the listener, while it handles a message */
+    private Thread dispatchThread = null;
+    private volatile boolean isClosed = false;
+
+    private BlockingListener listener;
+
+    private final InputStream input = new InputStream() {
+        @Override
+        public int read() throws IOException {
+            lock.lock();
+            try {
+                while (readPos == end) {
+                    if (endOfStream || isClosed) return -1;
+                    if (listener != null) throw new IncompleteMessageException();
+                    dataArrived.awaitUninterruptibly();
+                }
+
+                int value = received[readPos++] & 0xFF;
+                // during the handshake, bytes are handled when read
+                if (listener == null) start = readPos;
+                return value;
+
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int available() {
+            lock.lock();
+            try {
+                return end - readPos;
+
+            } finally {
+                lock.unlock();
+            }
+        }
+    };
+
+    private final OutputStream output = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            lock.lock();
+            try {
+                if (isClosed) throw new IOException("Connection is closed");
+                int pending = sending.remaining() + reply.position();
+                if (pending + length > ServerSettings.SEND_BUFFER_LIMIT) {
+                    throw new IOException("Client does not keep up, " + pending + " bytes are pending");
+                }
+
+                if (Thread.currentThread() == dispatchThread) {
+                    reply = reserve(reply, length);
+                    reply.put(bytes, offset, length);
+
+                } else {
+                    send(bytes, offset, length);
+                }
+
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (isClosed) throw new IOException("Connection is closed");
+            transport.requestWrite(ChannelConnection.this);
+        }
+
+        @Override
+        public void close() {
+            ChannelConnection.this.close();
+        }
+    };
+
+    /** adds the given bytes to the bytes to send. Must be called while holding the lock */
+    private void send(byte[] bytes, int offset, int length) {
+        sending.compact();
+        sending = reserve(sending, length);
+        sending.put(bytes, offset, length);
+        sending.flip();
+    }
+
+    /** @return the given buffer in write mode, or a larger copy if it can not hold the given number of bytes more */
+    private static ByteBuffer reserve(ByteBuffer buffer, int length) {
+        if (buffer.remaining() >= length) return buffer;
+
+        int capacity = buffer.capacity();
+        while (capacity - buffer.position() < length) capacity *= 2;
+
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    ChannelConnection(SocketChannel channel, SelectorTransport transport) {
+        this.channel = channel;
+        this.transport = transport;
+    }
+
+    /** @return the stream of bytes received from the client */
+    public InputStream getInput() {
+        return input;
+    }
+
+    /** @return the stream of bytes to the client. Flushing this stream does not wait for the bytes to be sent. */
+    public OutputStream getOutput() {
+        return output;
+    }
+
+    /**
+     * stops blocking reads, and lets the selector thread call {@link BlockingListener#handleMessage()} of the given
+     * listener whenever a message may be complete. The connection is closed when the listener returns false.
+     * @param listener the reader of the input of this connection
+     */
+    public void dispatchTo(BlockingListener listener) {
+        lock.lock();
+        try {
+            this.listener = listener;
+            dataArrived.signalAll();
+
+        } finally {
+            lock.unlock();
+        }
+
+        // handle the messages that arrived during the handshake
+        transport.requestDispatch(this);
+    }
+
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    SelectionKey getKey() {
+        return key;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    /** reads the available bytes from the channel. Must be called by the selector thread */
+    void readFromChannel() throws IOException {
+        lock.lock();
+        try {
+            if (start > 0) {
+                System.arraycopy(received, start, received, 0, end - start);
+                readPos -= start;
+                end -= start;
+                start = 0;
+            }
+            if (end == received.length) {
+                byte[] larger = new byte[received.length * 2];
+                System.arraycopy(received, 0, larger, 0, end);
+                received = larger;
+            }
+
+            int count = channel.read(ByteBuffer.wrap(received, end, received.length - end));
+            if (count < 0) {
+                endOfStream = true;
+                // stop selecting this channel, the listener reads the end of the stream
+                key.interestOps(0);
+
+            } else {
+                end += count;
+            }
+
+            dataArrived.signalAll();
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * writes as much of the pending bytes as the channel accepts. Must be called by the selector thread
+     * @return true if all pending bytes are written
+     */
+    boolean writeToChannel() throws IOException {
+        lock.lock();
+        try {
+            channel.write(sending);
+            return !sending.hasRemaining();
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * lets the listener handle all complete messages that were received. Must be called by the selector thread
+     */
+    void dispatch() {
+        if (listener == null) return;
+
+        while (!isClosed) {
+            lock.lock();
+            try {
+                if (readPos == end && !endOfStream) return;
+                dispatchThread = Thread.currentThread();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                boolean isOpen = listener.handleMessage();
+
+                lock.lock();
+                try {
+                    start = readPos;
+                    dispatchThread = null;
+                    // the write of the reply was requested when the listener flushed
+                    reply.flip();
+                    send(reply.array(), 0, reply.limit());
+                    reply.clear();
+                } finally {
+                    lock.unlock();
+                }
+
+                if (!isOpen) close();
+
+            } catch (IncompleteMessageException ex) {
+                // read the message again when the rest has arrived, and reply again then
+                lock.lock();
+                try {
+                    readPos = start;
+                    dispatchThread = null;
+                    reply.clear();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+
+            } catch (IOException ex) {
+                Logger.ERROR.print(ex);
+                close();
+            }
+        }
+    }
+
+    /** closes the channel. Pending bytes are not sent */
+    public void close() {
+        lock.lock();
+        try {
+            if (isClosed) return;
+            isClosed = true;
+            dataArrived.signalAll();
+
+        } finally {
+            lock.unlock();
+        }
+
+        transport.remove(this);
+        if (key != null) key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            Logger.ERROR.print(ex);
+        }
+    }
+
+    /**
+     * thrown when reading a message that has not completely arrived
+     * @author Geert van Ieperen created on 17-10-2026.
+     */
+    static class IncompleteMessageException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        IncompleteMessageException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -48,6 +48,7 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
     private final InputStream serverIn;
     private final EnvironmentManager game;
     private final JetFighterProtocol protocol;
+    private final SnapshotDecoder snapshots = new SnapshotDecoder();
     private final boolean isAdmin;
     private final AbstractJet jet;
     private final GameTimer gameTimer;
@@ -61,6 +62,7 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
     private RaceProgress raceProgress;
     protected boolean controlTeardown = false;
     protected float maxServerTime = 0;
+    private EntitySnapshot lastSnapshot = null;
 
     public ClientConnection(
             String name, OutputStream sendChannel, InputStream receiveChannel, EntityClass jetType, Color4f jetColor
@@ -84,19 +86,29 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
         this.jet = pair.left;
         game.addEntity(jet);
 
-        soundSources.add(new AudioSource(game.backgroundMusic(), BACKGROUND_MUSIC_GAIN, true));
-
-        Logger.printOnline(() -> jet.getPosition() + " | " + jet.getForward());
+        if (!isHeadless()) {
+            soundSources.add(new AudioSource(game.backgroundMusic(), BACKGROUND_MUSIC_GAIN, true));
+            Logger.printOnline(() -> jet.getPosition() + " | " + jet.getForward());
+        }
     }
 
-    protected ClientConnection(String name, File readFile, GameTimer timer, EntityFactory jetReplacement, int tps)
+    /**
+     * a connection that reads all messages from the given stream, without sending anything
+     * @param name           the name of this connection
+     * @param recording      the messages to read, starting with the game time of the first message
+     * @param timer          the timer of this connection, which is set to the time read from the stream
+     * @param jetReplacement the entity taking the place of the jet of this player
+     * @param tps            the number of updates per second
+     * @throws IOException if the stream could not be read
+     */
+    protected ClientConnection(String name, InputStream recording, GameTimer timer, EntityFactory jetReplacement, int tps)
             throws IOException {
         super(name, tps, false);
 
         this.raceProgress = new RaceProgress();
         this.game = new EnvironmentManager(null, this, raceProgress, false, false);
         this.game.switchTo(EnvironmentClass.LOBBY);
-        this.protocol = new JetFighterProtocol(readFile, false);
+        this.protocol = new JetFighterProtocol(recording);
         this.input = new SubControl(EmptyController, raceProgress);
         this.gameTimer = timer;
         this.counter = new CountDownTimer(0, gameTimer);
@@ -114,6 +126,14 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
         input.disable();
     }
 
+    /**
+     * runs {@link #listen()} in the given scope, which stops it by closing the stream from the server
+     * @param scope the scope of the listeners of this client
+     */
+    public void listenIn(ListenerScope scope) {
+        scope.start(this, serverIn::close);
+    }
+
     @Override
     public boolean handleMessage() throws IOException {
         MessageType type;
@@ -161,9 +181,18 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
                 maxServerTime = Math.max(maxServerTime, t);
                 break;
 
+            case ENTITY_SNAPSHOT:
+                EntitySnapshot snapshot = protocol.snapshotRead(snapshots, game);
+                maxServerTime = Math.max(maxServerTime, snapshot.time);
+                lastSnapshot = snapshot;
+                acknowledgeSnapshot(snapshot.sequence);
+                break;
+
             case ENTITY_REMOVE:
                 MovingEntity entity = protocol.entityRemoveRead(game);
+                if (entity == null) break;
                 game.removeEntity(entity);
+                snapshots.remove(entity.idNumber());
 
                 if (entity instanceof TemporalEntity) {
                     ParticleCloud explosion = ((TemporalEntity) entity).explode();
@@ -202,6 +231,7 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
                 break;
 
             case WORLD_SWITCH:
+                snapshots.reset();
                 protocol.worldSwitchRead(game, counter, gameTimer.time(), raceProgress);
                 worldSwitch();
                 break;
@@ -210,6 +240,11 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
                 stopLoop();
                 return false;
 
+            case REPLAY_KEYFRAME:
+                // the state of the keyframe is already known when reading in order
+                protocol.keyframeSkip();
+                break;
+
             default:
                 Logger.WARN.print("Inappropriate message: " + type);
         }
@@ -220,7 +255,7 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
     protected void worldSwitch() {
         AudioSource.disposeAll(soundSources);
         soundSources.clear();
-        soundSources.add(new AudioSource(game.backgroundMusic(), BACKGROUND_MUSIC_GAIN, true));
+        if (!isHeadless()) soundSources.add(new AudioSource(game.backgroundMusic(), BACKGROUND_MUSIC_GAIN, true));
 
         game.addEntity(jet);
         controlTeardown = false;
@@ -252,6 +287,21 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
         }
     }
 
+    /**
+     * confirms to the server that the snapshot with the given sequence number has been received
+     */
+    protected void acknowledgeSnapshot(int sequence) throws IOException {
+        sendLock.lock();
+        try {
+            serverOut.write(SNAPSHOT_ACK.ordinal());
+            protocol.snapshotAckSend(sequence);
+            serverOut.flush();
+
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
     @Override
     public void add(EntityFactory entityFactory) {
         Logger.ERROR.print("Client added an entity to its own world (" + entityFactory + ")");
@@ -318,7 +368,8 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
 
     @Override
     protected void cleanup() {
-        AudioSource.disposeAll(soundSources);
+        // a headless client has no sound device
+        if (!isHeadless()) AudioSource.disposeAll(soundSources);
     }
 
     @Override
@@ -409,6 +460,16 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
         return game;
     }
 
+    /** @return the last snapshot received, or null if none is received */
+    protected EntitySnapshot getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    /** @return the type of the current world */
+    public EnvironmentClass getWorldType() {
+        return game.getCurrentType();
+    }
+
     @Override
     public void pause() {
         if (isAdmin) {
@@ -437,7 +498,9 @@ public class ClientConnection extends AbstractGameLoop implements BlockingListen
 
         public SubControl(ControllerImpl secondary, RaceProgress raceProgress) {
             super(null, ClientConnection.this, raceProgress);
-            switchTo(0);
+            // without a window there is no player input
+            if (isHeadless()) switchTo(EmptyController);
+            else switchTo(0);
             this.secondary = secondary;
         }
 
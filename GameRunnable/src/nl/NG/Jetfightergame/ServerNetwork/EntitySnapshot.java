@@ -0,0 +1,216 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.joml.Quaternionf;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * The quantized state of a set of entities at one moment. Positions are stored as integer multiples of {@link
+ * #POSITION_RESOLUTION}, rotations are packed using the smallest-three method. Hence, a snapshot reconstructed by a
+ * client is exactly equal to the snapshot of the server, which allows both sides to use it as a baseline for deltas.
+ * <p>
+ * Snapshots are immutable, and the entities are ordered on id.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class EntitySnapshot {
+    /** the distance between two representable positions, in world units */
+    public static final float POSITION_RESOLUTION = 1f / 512f;
+    private static final int ROTATION_BITS = 10;
+    private static final int ROTATION_MASK = (1 << ROTATION_BITS) - 1;
+    private static final float SQRT_2 = (float) Math.sqrt(2);
+
+    /** the number of this snapshot. Sequence numbers are positive and increasing, 0 is no snapshot */
+    public final int sequence;
+    /** the game time of this snapshot */
+    public final float time;
+
+    final int[] ids;
+    /** for every entity the x, y and z coordinate */
+    final int[] positions;
+    final int[] rotations;
+
+    EntitySnapshot(int sequence, float time, int[] ids, int[] positions, int[] rotations) {
+        this.sequence = sequence;
+        this.time = time;
+        this.ids = ids;
+        this.positions = positions;
+        this.rotations = rotations;
+    }
+
+    /**
+     * captures the current state of the given entities
+     * @param sequence the sequence number of the new snapshot
+     * @param time     the current game time
+     * @param entities the entities to include. Their ids must be unique
+     */
+    public static EntitySnapshot of(int sequence, float time, Collection<MovingEntity> entities) {
+        MovingEntity[] sorted = entities.toArray(new MovingEntity[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(MovingEntity::idNumber));
+
+        int size = sorted.length;
+        int[] ids = new int[size];
+        int[] positions = new int[3 * size];
+        int[] rotations = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            MovingEntity entity = sorted[i];
+            PosVector pos = entity.getPosition();
+            ids[i] = entity.idNumber();
+            positions[3 * i] = quantize(pos.x);
+            positions[3 * i + 1] = quantize(pos.y);
+            positions[3 * i + 2] = quantize(pos.z);
+            rotations[i] = packRotation(entity.getRotation());
+        }
+
+        return new EntitySnapshot(sequence, time, ids, positions, rotations);
+    }
+
+    /** @return the number of entities in this snapshot */
+    public int size() {
+        return ids.length;
+    }
+
+    /** @return the id of the entity at the given index */
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /** @return the index of the entity with the given id, or a negative number if it is not part of this snapshot */
+    public int indexOf(int id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    /** @return the position of the entity at the given index, stored in dest */
+    public PosVector getPosition(int index, PosVector dest) {
+        dest.set(
+                positions[3 * index] * POSITION_RESOLUTION,
+                positions[3 * index + 1] * POSITION_RESOLUTION,
+                positions[3 * index + 2] * POSITION_RESOLUTION
+        );
+        return dest;
+    }
+
+    /** @return the rotation of the entity at the given index, stored in dest */
+    public Quaternionf getRotation(int index, Quaternionf dest) {
+        return unpackRotation(rotations[index], dest);
+    }
+
+    /**
+     * @return this snapshot without the entity of the given id, or this snapshot itself if it does not contain the
+     *         entity
+     */
+    public EntitySnapshot without(int id) {
+        int index = indexOf(id);
+        if (index < 0) return this;
+
+        int size = ids.length - 1;
+        int[] newIds = new int[size];
+        int[] newPositions = new int[3 * size];
+        int[] newRotations = new int[size];
+
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, size - index);
+        System.arraycopy(positions, 0, newPositions, 0, 3 * index);
+        System.arraycopy(positions, 3 * (index + 1), newPositions, 3 * index, 3 * (size - index));
+        System.arraycopy(rotations, 0, newRotations, 0, index);
+        System.arraycopy(rotations, index + 1, newRotations, index, size - index);
+
+        return new EntitySnapshot(sequence, time, newIds, newPositions, newRotations);
+    }
+
+    static int quantize(float coordinate) {
+        return Math.round(coordinate / POSITION_RESOLUTION);
+    }
+
+    /**
+     * packs a rotation in 32 bits: the index of the largest component in 2 bits, and the other three components in
+     * {@value #ROTATION_BITS} bits each. The largest component follows from the others as the quaternion is normalized.
+     * @param rotation any non-zero quaternion
+     * @return the packed rotation
+     */
+    public static int packRotation(Quaternionf rotation) {
+        float x = rotation.x;
+        float y = rotation.y;
+        float z = rotation.z;
+        float w = rotation.w;
+
+        float norm = (float) Math.sqrt(x * x + y * y + z * z + w * w);
+        if (norm == 0) return packRotation(new Quaternionf());
+
+        int largest = 0;
+        float max = Math.abs(x);
+        if (Math.abs(y) > max) {
+            largest = 1;
+            max = Math.abs(y);
+        }
+        if (Math.abs(z) > max) {
+            largest = 2;
+            max = Math.abs(z);
+        }
+        if (Math.abs(w) > max) {
+            largest = 3;
+        }
+
+        float a, b, c, l;
+        switch (largest) {
+            case 0:
+                l = x; a = y; b = z; c = w;
+                break;
+            case 1:
+                l = y; a = x; b = z; c = w;
+                break;
+            case 2:
+                l = z; a = x; b = y; c = w;
+                break;
+            default:
+                l = w; a = x; b = y; c = z;
+        }
+
+        // q and -q are the same rotation, thus we make the dropped component positive
+        if (l < 0) norm = -norm;
+
+        return (largest << (3 * ROTATION_BITS))
+                | (packComponent(a / norm) << (2 * ROTATION_BITS))
+                | (packComponent(b / norm) << ROTATION_BITS)
+                | packComponent(c / norm);
+    }
+
+    /**
+     * @param packed a rotation as returned by {@link #packRotation(Quaternionf)}
+     * @param dest   the quaternion to store the result in
+     * @return dest
+     */
+    public static Quaternionf unpackRotation(int packed, Quaternionf dest) {
+        int largest = packed >>> (3 * ROTATION_BITS);
+        float a = unpackComponent(packed >>> (2 * ROTATION_BITS));
+        float b = unpackComponent(packed >>> ROTATION_BITS);
+        float c = unpackComponent(packed);
+        float l = (float) Math.sqrt(Math.max(0, 1 - a * a - b * b - c * c));
+
+        switch (largest) {
+            case 0:
+                return dest.set(l, a, b, c);
+            case 1:
+                return dest.set(a, l, b, c);
+            case 2:
+                return dest.set(a, b, l, c);
+            default:
+                return dest.set(a, b, c, l);
+        }
+    }
+
+    /** maps a component in [-1/sqrt(2), 1/sqrt(2)] to [0, 2^ROTATION_BITS) */
+    private static int packComponent(float value) {
+        int packed = Math.round((value * SQRT_2 + 1) * 0.5f * ROTATION_MASK);
+        return Math.max(0, Math.min(ROTATION_MASK, packed));
+    }
+
+    private static float unpackComponent(int packed) {
+        float unit = (packed & ROTATION_MASK) / (float) ROTATION_MASK;
+        return (unit * 2 - 1) / SQRT_2;
+    }
+}
@@ -0,0 +1,66 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Assets.Entities.FighterJets.AbstractJet;
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.GameState.Environment;
+import nl.NG.Jetfightergame.GameState.Player;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static nl.NG.Jetfightergame.Settings.ServerSettings.FULL_RATE_RADIUS;
+import static nl.NG.Jetfightergame.Settings.ServerSettings.INTEREST_RADIUS;
+
+/**
+ * Decides per player which entities of a snapshot are updated. Entities within {@link
+ * nl.NG.Jetfightergame.Settings.ServerSettings#FULL_RATE_RADIUS} of the jet of the player are updated every tick,
+ * entities further away once every few ticks, and entities outside {@link
+ * nl.NG.Jetfightergame.Settings.ServerSettings#INTEREST_RADIUS} are not updated at all. The entities near the player
+ * are found using the spatial index of the collision detection. Spawns and removals are not affected.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class InterestManager {
+    private final Environment world;
+    private final List<MovingEntity> inRange = new ArrayList<>();
+
+    /**
+     * @param world the world containing the entities of the snapshots
+     */
+    public InterestManager(Environment world) {
+        this.world = world;
+    }
+
+    /**
+     * @param player   the player receiving the snapshot
+     * @param snapshot the current state of the world
+     * @return per index of the snapshot whether the entity should be sent to the given player, or null if all entities
+     *         should be sent
+     */
+    public boolean[] relevantEntities(Player player, EntitySnapshot snapshot) {
+        AbstractJet jet = player.jet();
+        if (jet == null) return null;
+
+        boolean[] relevant = new boolean[snapshot.size()];
+        PosVector eye = jet.getPosition();
+        world.collectEntitiesInRange(eye, INTEREST_RADIUS, inRange);
+
+        for (MovingEntity entity : inRange) {
+            int index = snapshot.indexOf(entity.idNumber());
+            if (index < 0) continue;
+
+            float distance = entity.getPosition().distance(eye);
+            if (distance > INTEREST_RADIUS) continue;
+
+            // spread the updates of entities with the same interval over the ticks
+            int interval = 1 + (int) (distance / FULL_RATE_RADIUS);
+            relevant[index] = ((snapshot.sequence + entity.idNumber()) % interval) == 0;
+        }
+        inRange.clear();
+
+        int own = snapshot.indexOf(jet.idNumber());
+        if (own >= 0) relevant[own] = true;
+
+        return relevant;
+    }
+}
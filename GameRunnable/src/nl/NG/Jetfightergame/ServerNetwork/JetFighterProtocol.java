@@ -31,8 +31,8 @@ import static nl.NG.Jetfightergame.Settings.ClientSettings.PARTICLE_MODIFIER;
  * @author Geert van Ieperen created on 9-5-2018.
  */
 public class JetFighterProtocol {
-    public static final int versionNumber = 8;
-    private static final byte TIMER_SYNC_PINGS = 10;
+    public static final int versionNumber = 10;
+    static final byte TIMER_SYNC_PINGS = 10;
 
     private final DataInputStream input;
     private final DataOutputStream output;
@@ -59,24 +59,23 @@ public class JetFighterProtocol {
     }
 
     /**
-     * creates a protocol for reading from / writing to a file
-     * @param file  the file to write to
-     * @param write if true, allow writing, if false, allow reading
-     * @throws FileNotFoundException if the file does not exist
+     * creates a protocol that only encodes messages to the given output, without any handshake. Reading is not
+     * supported.
+     * @param out the stream to write to
      */
-    public JetFighterProtocol(File file, boolean write) throws IOException {
-        if (write) {
-            output = new DataOutputStream(new FileOutputStream(file));
-            input = new DataInputStream(System.in);
-            output.writeInt(versionNumber);
-
-        } else {
-            output = new DataOutputStream(System.out);
-            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
-            int fileVersion = input.readInt();
-            if (fileVersion != versionNumber)
-                throw new IOException("File has version " + fileVersion + " and we have " + versionNumber);
-        }
+    public JetFighterProtocol(OutputStream out) {
+        this.output = new DataOutputStream(out);
+        this.input = null;
+    }
+
+    /**
+     * creates a protocol that only decodes messages of the given input, without any handshake, for example to read a
+     * recording. Anything written is discarded.
+     * @param in the stream to read from
+     */
+    public JetFighterProtocol(InputStream in) {
+        this.output = new DataOutputStream(OutputStream.nullOutputStream());
+        this.input = new DataInputStream(in);
     }
 
     /**
@@ -91,7 +90,7 @@ public class JetFighterProtocol {
 
     /**
      * writes the given entity to the DataOutputStream.
-     * @see #entityUpdateRead(Environment)
+     * @see #entityUpdateRead(EntityMapping)
      */
     public void entityUpdateSend(MovingEntity thing, float currentTime) throws IOException {
         // identity and time
@@ -108,7 +107,7 @@ public class JetFighterProtocol {
      * @return the associated time, or 0 if the entity is not found
      * @throws IOException if anything goes wrong with the connection
      */
-    public float entityUpdateRead(Environment entities) throws IOException {
+    public float entityUpdateRead(EntityMapping entities) throws IOException {
         // identity and time
         int id = input.readInt();
         float time = input.readFloat();
@@ -126,6 +125,51 @@ public class JetFighterProtocol {
         return time;
     }
 
+    /**
+     * writes the state of the relevant entities in the snapshot, as far as they changed since the last snapshot
+     * acknowledged by the receiver.
+     * @param relevant per index of the snapshot whether the entity should be written, or null to write all entities
+     * @see #snapshotRead(SnapshotDecoder, EntityMapping)
+     */
+    public void snapshotSend(SnapshotEncoder encoder, EntitySnapshot snapshot, boolean[] relevant) throws IOException {
+        encoder.write(output, snapshot, relevant);
+    }
+
+    /**
+     * reads a snapshot off the DataInputStream, and adds the states of the snapshot to their entity at the time of the
+     * snapshot, including the entities that did not change. Entities that the server skipped for not being relevant do
+     * not receive a new state.
+     * @param decoder  the decoder holding the previous snapshots of this connection
+     * @param entities a mapping containing the entities of the snapshot
+     * @return the snapshot read
+     * @throws IOException if anything goes wrong with the connection
+     */
+    public EntitySnapshot snapshotRead(SnapshotDecoder decoder, EntityMapping entities) throws IOException {
+        EntitySnapshot snapshot = decoder.read(input);
+
+        for (int n = 0; n < decoder.getNumberUpdated(); n++) {
+            int i = decoder.getUpdated(n);
+            MovingEntity target = entities.getEntity(snapshot.getId(i));
+            if (target == null) continue;
+
+            PosVector pos = snapshot.getPosition(i, new PosVector());
+            Quaternionf rot = snapshot.getRotation(i, new Quaternionf());
+            target.addStatePoint(snapshot.time, pos, rot);
+        }
+
+        return snapshot;
+    }
+
+    /** confirms the receival of the snapshot with the given sequence number */
+    public void snapshotAckSend(int sequence) throws IOException {
+        DataIO.writeVarInt(output, sequence);
+    }
+
+    /** @see #snapshotAckSend(int) */
+    public int snapshotAckRead() throws IOException {
+        return DataIO.readVarInt(input);
+    }
+
     /** server sending a new entity */
     public void newEntitySend(EntityFactory entity) throws IOException {
         entity.writeFactory(output);
@@ -247,6 +291,25 @@ public class JetFighterProtocol {
 
         output.writeFloat(serverTime.time() + avgRTT / 2);
         output.flush();
+        logPing(avgRTT);
+    }
+
+    /**
+     * sends the time of the source, after the round-trip time has been measured with separate {@link MessageType#PING}
+     * messages. Unlike {@link #syncTimerSource(GameTimer)}, this does not wait for replies of the other side.
+     * @param serverTime current time according to the source
+     * @param avgRTT     the average round-trip time in seconds
+     * @see #syncTimerTarget(GameTimer)
+     */
+    public void syncTimerSend(GameTimer serverTime, float avgRTT) throws IOException {
+        // the pings have already been answered
+        output.writeInt(0);
+        output.writeFloat(serverTime.time() + avgRTT / 2);
+        output.flush();
+        logPing(avgRTT);
+    }
+
+    private static void logPing(float avgRTT) {
         float ping = avgRTT * 500;
         String pingString = avgRTT < 5 ? String.format("%.03f ms", ping) : (int) (ping) + " ms";
         Logger.DEBUG.print("Ping: " + pingString);
@@ -401,6 +464,15 @@ public class JetFighterProtocol {
         jet.setBoosterColor(color1, color2, duration);
     }
 
+    /**
+     * skips the content of a keyframe of a recording, which is only read when jumping to that keyframe
+     * @see nl.NG.Jetfightergame.Engine.ReplayOutput#writeKeyframe
+     */
+    public void keyframeSkip() throws IOException {
+        int length = input.readInt();
+        input.skipNBytes(length);
+    }
+
     public void sendText(String message) throws IOException {
         output.writeUTF(message);
     }
@@ -1,27 +1,38 @@
 package nl.NG.Jetfightergame.ServerNetwork;
 
 import nl.NG.Jetfightergame.Assets.Shapes.GeneralShapes;
-import nl.NG.Jetfightergame.Engine.AbstractGameLoop;
 import nl.NG.Jetfightergame.Settings.ServerSettings;
 import nl.NG.Jetfightergame.Tools.Logger;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.ServerSocketChannel;
 
 import static nl.NG.Jetfightergame.Settings.ServerSettings.SERVER_PORT;
 
 /**
+ * Accepts connections on a single port. A server either runs a single room executed by the caller, or hosts multiple
+ * rooms on shared threads. Either way, a client first selects a room as described in {@link RoomManager}.
  * @author Geert van Ieperen created on 26-4-2018.
  */
 public class JetFighterServer implements BlockingListener {
     private ServerSocket socket;
+    /** the single room of this server, or null if this server hosts multiple rooms */
     private ServerLoop game;
+    private final RoomManager rooms;
+    /** handles all connections if {@link ServerSettings#NON_BLOCKING_NETWORK} is true, otherwise null */
+    private SelectorTransport transport;
 
-    public AbstractGameLoop getRunnable() {
+    /**
+     * @return the loop of the single room of this server, which must be started by the caller, or null if this server
+     *         hosts multiple rooms
+     */
+    public ServerLoop getRunnable() {
         return game;
     }
 
@@ -32,18 +43,96 @@ public class JetFighterServer implements BlockingListener {
      * @throws IOException if a serversocket could not be created
      */
     public JetFighterServer(EnvironmentClass world, boolean makeRecording) throws IOException {
-        this.socket = new ServerSocket(SERVER_PORT);
-        this.game = new ServerLoop(EnvironmentClass.LOBBY, world, makeRecording);
+        this(world, makeRecording, SERVER_PORT, ServerSettings.NON_BLOCKING_NETWORK);
+    }
+
+    /**
+     * starts a single environment to run exactly once.
+     * @param world         the world to simulate in.
+     * @param makeRecording if true, the gamestate is written to a file
+     * @param port          the port to listen to, or 0 to use any free port
+     * @param nonBlocking   if true, all connections are handled by a single {@link SelectorTransport}. If false,
+     *                      every connection has its own thread.
+     * @throws IOException if a serversocket could not be created
+     */
+    public JetFighterServer(EnvironmentClass world, boolean makeRecording, int port, boolean nonBlocking) throws IOException {
+        this(null, port, nonBlocking, new ServerLoop(EnvironmentClass.LOBBY, world, makeRecording));
+    }
+
+    /**
+     * starts a server hosting multiple rooms, initially without rooms. Rooms are opened with {@link #openRoom(EnvironmentClass,
+     * boolean)}, or when a client requests any room and none accepts players.
+     * @param defaultWorld the race world of rooms opened for clients
+     * @param port         the port to listen to, or 0 to use any free port
+     * @param nonBlocking  if true, all connections are handled by a single {@link SelectorTransport}. If false,
+     *                     every connection has its own thread.
+     * @throws IOException if a serversocket could not be created
+     */
+    public JetFighterServer(EnvironmentClass defaultWorld, int port, boolean nonBlocking) throws IOException {
+        this(defaultWorld, port, nonBlocking, null);
+    }
+
+    private JetFighterServer(EnvironmentClass defaultWorld, int port, boolean nonBlocking, ServerLoop game) throws IOException {
+        this.game = game;
+        this.rooms = new RoomManager(defaultWorld);
+
+        if (nonBlocking) {
+            ServerSocketChannel channel = ServerSocketChannel.open();
+            channel.bind(new InetSocketAddress(port));
+            this.socket = channel.socket();
+            this.transport = new SelectorTransport();
+
+        } else {
+            this.socket = new ServerSocket(port);
+        }
+
+        if (game != null) {
+            rooms.add(game);
+            if (transport != null) game.getListeners().start(transport, transport::close);
+
+        } else if (transport != null) {
+            transport.listenInThread(true);
+        }
+    }
+
+    /**
+     * opens a new room on this server, which is executed on the shared threads of the rooms
+     * @param world         the world of the race of the room
+     * @param makeRecording if true, the races of the room are recorded
+     * @return the id of the room
+     */
+    public int openRoom(EnvironmentClass world, boolean makeRecording) {
+        return rooms.open(world, makeRecording);
+    }
+
+    /**
+     * listens for new connections. On a server with a single room, this happens in the listener scope of that room,
+     * such that it stops when the room stops.
+     * @param setDaemon ignored on a server with a single room, where the listener never keeps the application alive
+     */
+    @Override
+    public void listenInThread(boolean setDaemon) {
+        if (game != null) {
+            game.getListeners().start(this, this::close);
+        } else {
+            BlockingListener.super.listenInThread(setDaemon);
+        }
+    }
+
+    /** @return the port this server listens to */
+    public int getPort() {
+        return socket.getLocalPort();
     }
 
     /**
-     * connects a new player on the given input and output streams
+     * connects a new player to the single room on the given input and output streams, without selecting a room
      * @param asHost if true, player is considered to host the server
      */
     public void shortConnect(InputStream receive, OutputStream send, boolean asHost) {
         try {
             Logger.DEBUG.print("Creating internal connection" + (asHost ? " with host privileges" : ""));
-            game.connectToPlayer(receive, send, asHost);
+            ServerConnection player = game.connectToPlayer(receive, send, asHost);
+            game.getListeners().start(player, player::close);
 
         } catch (IOException e) {
             e.printStackTrace();
@@ -75,13 +164,49 @@ public class JetFighterServer implements BlockingListener {
         return true;
     }
 
+    /**
+     * accepts one connection, and connects it to the room it selects
+     * @param asAdmin if true, the connection has admin capabilities in its room. Otherwise, only the first connection
+     *                to a room opened by this server has these.
+     */
     public void acceptConnection(boolean asAdmin) throws IOException {
         Socket client = socket.accept();
 
         Logger.DEBUG.print("Connection made with " + client + (asAdmin ? " with host privileges" : ""));
-        InputStream in = client.getInputStream();
-        OutputStream out = client.getOutputStream();
-        game.connectToPlayer(in, out, asAdmin);
+
+        ChannelConnection streams = null;
+        InputStream in;
+        OutputStream out;
+        if (transport == null) {
+            in = client.getInputStream();
+            out = client.getOutputStream();
+
+        } else {
+            streams = transport.register(client.getChannel());
+            in = streams.getInput();
+            out = streams.getOutput();
+        }
+
+        try {
+            int roomId = rooms.selectRoom(in, out);
+            ServerLoop room = rooms.get(roomId);
+            if (room == null) {
+                if (streams != null) streams.close();
+                client.close();
+                return;
+            }
+
+            ServerConnection player = room.connectToPlayer(in, out, asAdmin || rooms.claimHost(roomId));
+            if (streams == null) {
+                room.getListeners().start(player, player::close);
+            } else {
+                streams.dispatchTo(player);
+            }
+
+        } catch (IOException ex) {
+            if (streams != null) streams.close();
+            throw ex;
+        }
     }
 
     public void close() {
@@ -90,12 +215,30 @@ public class JetFighterServer implements BlockingListener {
         } catch (IOException e) {
             Logger.ERROR.print(e);
         }
+        if (transport != null) transport.close();
+        rooms.close();
     }
 
-    /** starts a server */
+    /**
+     * starts a server. usage: {@code JetFighterServer [rooms]}. Without arguments, a server with a single room is
+     * started, which starts when its host connects. Otherwise, a server is started with the given number of rooms.
+     */
     public static void main(String[] args) throws IOException {
         GeneralShapes.init(false);
         GeneralShapes.init(false);
+
+        if (args.length > 0) {
+            int nOfRooms = Integer.parseInt(args[0]);
+            JetFighterServer server = new JetFighterServer(EnvironmentClass.ISLAND_MAP, SERVER_PORT, ServerSettings.NON_BLOCKING_NETWORK);
+            for (int i = 0; i < nOfRooms; i++) {
+                server.openRoom(EnvironmentClass.ISLAND_MAP, ServerSettings.SERVER_MAKE_REPLAY);
+            }
+
+            Logger.DEBUG.print("Listening to port " + server.socket.getLocalPort() + " on address " + server.socket.getInetAddress());
+            server.listen();
+            return;
+        }
+
         JetFighterServer server = new JetFighterServer(EnvironmentClass.ISLAND_MAP, ServerSettings.SERVER_MAKE_REPLAY);
         server.listenForHost();
 
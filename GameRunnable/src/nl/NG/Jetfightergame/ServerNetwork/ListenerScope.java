@@ -0,0 +1,129 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Tools.Logger;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs the {@link BlockingListener}s of a server, such that all of them can be stopped at once. Each listener is
+ * started together with an action that makes it stop, usually by closing the stream it reads from. When {@link
+ * #close()} is called, all these actions are executed and the listener threads are awaited.
+ * <p>
+ * If virtual threads are requested and the runtime supports them, each listener runs on a virtual thread, which costs
+ * only a small amount of heap instead of a platform thread with its own stack. Otherwise, each listener gets its own
+ * daemon thread, like {@link BlockingListener#listenInThread(boolean)}.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class ListenerScope {
+    /** the maximum time to wait for all listeners to stop when closing */
+    private static final long SHUTDOWN_TIMEOUT_MS = 2000;
+
+    private final ThreadFactory virtualThreads;
+    private final Map<Thread, AutoCloseable> listeners = new ConcurrentHashMap<>();
+    private volatile boolean isClosed = false;
+
+    /**
+     * @param useVirtualThreads if true, listeners run on virtual threads if the runtime supports these
+     */
+    public ListenerScope(boolean useVirtualThreads) {
+        this.virtualThreads = useVirtualThreads ? virtualThreadFactory() : null;
+    }
+
+    /**
+     * runs {@link BlockingListener#listen()} of the given listener in a new thread
+     * @param listener the listener to run
+     * @param stopper  an action that lets the listener return from {@link BlockingListener#listen()}, executed when
+     *                 this scope is closed
+     * @throws IllegalStateException if this scope is already closed
+     */
+    public void start(BlockingListener listener, AutoCloseable stopper) {
+        if (isClosed) throw new IllegalStateException("Listener scope is closed");
+
+        Runnable task = () -> {
+            try {
+                listener.listen();
+            } finally {
+                listeners.remove(Thread.currentThread());
+            }
+        };
+
+        Thread thread;
+        if (virtualThreads != null) {
+            thread = virtualThreads.newThread(task);
+
+        } else {
+            thread = new Thread(task);
+            thread.setDaemon(true);
+        }
+        thread.setName("Listener-" + listener.getClass().getSimpleName());
+
+        listeners.put(thread, stopper);
+        thread.start();
+    }
+
+    /** @return the number of listeners that are still running */
+    public int size() {
+        return listeners.size();
+    }
+
+    /** @return true iff the listeners of this scope run on virtual threads */
+    public boolean isVirtual() {
+        return virtualThreads != null;
+    }
+
+    /**
+     * stops all listeners started in this scope, and waits for them to finish. No more listeners can be started
+     * afterwards.
+     */
+    public void close() {
+        isClosed = true;
+
+        for (AutoCloseable stopper : listeners.values()) {
+            try {
+                stopper.close();
+            } catch (Exception ex) {
+                Logger.ERROR.print(ex);
+            }
+        }
+        // a StreamPipe does not unblock when closed, but does when interrupted
+        for (Thread thread : listeners.keySet()) {
+            thread.interrupt();
+        }
+
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        for (Thread thread : listeners.keySet()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) break;
+
+            try {
+                thread.join(remaining);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (!listeners.isEmpty()) {
+            Logger.WARN.print(listeners.size() + " listeners did not stop: " + listeners.keySet());
+        }
+    }
+
+    /**
+     * virtual threads are only available from Java 21 onwards, hence these are looked up at runtime
+     * @return a factory of virtual threads, or null if these are not supported
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+
+        } catch (ReflectiveOperationException ex) {
+            Logger.WARN.print("Virtual threads are not supported by this runtime, using platform threads");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Assets.Shapes.GeneralShapes;
+import nl.NG.Jetfightergame.Engine.Profiling.MetricsSink;
+import nl.NG.Jetfightergame.Engine.Profiling.TickProfiler;
+import nl.NG.Jetfightergame.Settings.ServerSettings;
+import nl.NG.Jetfightergame.Tools.DataStructures.LogHistogram;
+import nl.NG.Jetfightergame.Tools.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connects an increasing number of {@link BotClient}s to a server, and reports per step the duration of the ticks of the
+ * server, the bandwidth per client and the time between the server taking a snapshot and a client reading it. Unless a
+ * host is given, a server is started in this process, which is the only case where tick durations are reported. Needs
+ * neither a graphics card nor a sound device.
+ * <p>
+ * usage: {@code LoadTest [maxBots [botsPerStep [secondsPerStep [host[:port]]]]]}
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class LoadTest {
+    private final String host;
+    private final int port;
+    /** receives the tick durations of the server, or null if the server runs elsewhere */
+    private final TickCollector ticks;
+    private final List<BotClient> bots = new ArrayList<>();
+    /** the threads reading from the bots, which are platform threads unless virtual threads are enabled */
+    private final ListenerScope listeners = new ListenerScope(ServerSettings.VIRTUAL_THREAD_LISTENERS);
+
+    /**
+     * @param host  the address of the server
+     * @param port  the port of the server
+     * @param ticks the tick durations of the server, or null if these are unknown
+     */
+    public LoadTest(String host, int port, TickCollector ticks) {
+        this.host = host;
+        this.port = port;
+        this.ticks = ticks;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int maxBots = (args.length > 0) ? Integer.parseInt(args[0]) : 16;
+        int botsPerStep = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        float secondsPerStep = (args.length > 2) ? Float.parseFloat(args[2]) : 10f;
+
+        GeneralShapes.init(false);
+
+        LoadTest test;
+        JetFighterServer server = null;
+        if (args.length > 3) {
+            String[] address = args[3].split(":");
+            int port = (address.length > 1) ? Integer.parseInt(address[1]) : ServerSettings.SERVER_PORT;
+            test = new LoadTest(address[0], port, null);
+
+        } else {
+            server = new JetFighterServer(EnvironmentClass.ISLAND_MAP, false, 0, ServerSettings.NON_BLOCKING_NETWORK);
+            ServerLoop loop = server.getRunnable();
+            TickCollector ticks = new TickCollector();
+            // reports every second
+            loop.setMetricsSink(ticks, 1);
+
+            server.listenInThread(true);
+            loop.setDaemon(true);
+            loop.start();
+            test = new LoadTest("localhost", server.getPort(), ticks);
+        }
+
+        List<Step> results = test.run(maxBots, botsPerStep, secondsPerStep);
+        test.close();
+        if (server != null) {
+            server.getRunnable().stopLoop();
+            server.close();
+        }
+
+        Logger.INFO.print(Step.HEADER);
+        results.forEach(Logger.INFO::print);
+    }
+
+    /**
+     * adds bots in steps until the given number of bots is reached, or a bot loses its connection
+     * @param maxBots        the number of bots of the last step
+     * @param botsPerStep    the number of bots added each step
+     * @param secondsPerStep the number of seconds measured each step
+     * @return the measurements of each step
+     */
+    public List<Step> run(int maxBots, int botsPerStep, float secondsPerStep) throws IOException, InterruptedException {
+        List<Step> results = new ArrayList<>();
+
+        for (int target = botsPerStep; target <= maxBots; target += botsPerStep) {
+            while (bots.size() < target) {
+                bots.add(BotClient.connect(host, port, "Bot-" + bots.size(), listeners));
+            }
+
+            Step step = measure(secondsPerStep);
+            Logger.INFO.print(Step.HEADER);
+            Logger.INFO.print(step);
+            results.add(step);
+
+            if (bots.stream().anyMatch(BotClient::isDisconnected)) {
+                Logger.WARN.print("A bot lost its connection, stopping the load test");
+                break;
+            }
+        }
+
+        return results;
+    }
+
+    /** measures the current bots for the given number of seconds */
+    private Step measure(float seconds) throws InterruptedException {
+        long received = 0;
+        long sent = 0;
+        for (BotClient bot : bots) {
+            received -= bot.getBytesReceived();
+            sent -= bot.getBytesSent();
+            bot.takeLatencies(new LogHistogram());
+        }
+        if (ticks != null) ticks.take();
+
+        long start = System.nanoTime();
+        Thread.sleep((long) (seconds * 1000));
+        float elapsed = (System.nanoTime() - start) / 1e9f;
+
+        LogHistogram latency = new LogHistogram();
+        for (BotClient bot : bots) {
+            received += bot.getBytesReceived();
+            sent += bot.getBytesSent();
+            bot.takeLatencies(latency);
+        }
+
+        LogHistogram tickTimes = (ticks != null) ? ticks.take() : null;
+        float perClient = elapsed * bots.size() * 1024;
+        return new Step(bots.size(), tickTimes, received / perClient, sent / perClient, latency);
+    }
+
+    /** disconnects all bots, and waits for their listeners to stop. No bots can be added afterwards. */
+    public void close() {
+        listeners.close();
+        bots.clear();
+    }
+
+    /** the measurements of one step */
+    public static class Step {
+        static final String HEADER = String.format("%5s | %25s | %21s | %22s",
+                "bots", "tick mean/p99/max (ms)", "per client in/out kB/s", "latency mean/p99 (ms)"
+        );
+
+        public final int nOfBots;
+        /** tick durations in nanoseconds, or null if unknown */
+        public final LogHistogram ticks;
+        public final float kbReceivedPerClient;
+        public final float kbSentPerClient;
+        /** latencies in microseconds */
+        public final LogHistogram latency;
+
+        Step(int nOfBots, LogHistogram ticks, float kbReceived, float kbSent, LogHistogram latency) {
+            this.nOfBots = nOfBots;
+            this.ticks = ticks;
+            this.kbReceivedPerClient = kbReceived;
+            this.kbSentPerClient = kbSent;
+            this.latency = latency;
+        }
+
+        @Override
+        public String toString() {
+            String tickString = (ticks == null) ? "-" : String.format("%.2f / %.2f / %.2f",
+                    ticks.mean() / 1e6, ticks.percentile(0.99) / 1e6, ticks.max() / 1e6
+            );
+            return String.format("%5d | %25s | %10.1f / %8.2f | %10.2f / %9.2f",
+                    nOfBots, tickString, kbReceivedPerClient, kbSentPerClient,
+                    latency.mean() / 1e3, latency.percentile(0.99) / 1e3
+            );
+        }
+    }
+
+    /** collects the durations of the ticks of a server in this process */
+    public static class TickCollector implements MetricsSink {
+        private LogHistogram ticks = new LogHistogram();
+
+        @Override
+        public synchronized void write(TickProfiler profiler, float gameTime) {
+            ticks.add(profiler.getTicks());
+        }
+
+        /** @return the durations of the ticks in nanoseconds since the last call */
+        public synchronized LogHistogram take() {
+            LogHistogram result = ticks;
+            ticks = new LogHistogram();
+            return result;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
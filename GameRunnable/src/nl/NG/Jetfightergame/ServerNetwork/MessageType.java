@@ -15,7 +15,9 @@ public enum MessageType {
     PAUSE_GAME, UNPAUSE_GAME, START_GAME, SHUTDOWN_GAME, WORLD_SWITCH,
     THROTTLE, PITCH, YAW, ROLL, PRIMARY_FIRE, SECONDARY_FIRE,
     ENTITY_UPDATE, ENTITY_SPAWN, ENTITY_REMOVE, EXPLOSION_SPAWN, BOOSTER_COLOR_CHANGE,
-    PLAYER_SPAWN, PLAYER_UPDATE, RACE_PROGRESS, POWERUP_STATE, POWERUP_COLLECT;
+    PLAYER_SPAWN, PLAYER_UPDATE, RACE_PROGRESS, POWERUP_STATE, POWERUP_COLLECT,
+    ENTITY_SNAPSHOT, SNAPSHOT_ACK,
+    REPLAY_KEYFRAME; // only in recordings
 
     private static final MessageType[] VALUES = values();
     public static EnumSet<MessageType> controls = EnumSet.of(THROTTLE, PITCH, YAW, ROLL, PRIMARY_FIRE, SECONDARY_FIRE);
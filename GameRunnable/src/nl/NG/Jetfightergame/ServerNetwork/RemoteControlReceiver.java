@@ -64,6 +64,12 @@ public class RemoteControlReceiver implements Controller {
     public void update() {
     }
 
+    @Override
+    public boolean isIndependent() {
+        // the values are only written by the connection
+        return true;
+    }
+
     @Override
     public float throttle() {
         return throttle;
@@ -0,0 +1,190 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Engine.GameLoopPool;
+import nl.NG.Jetfightergame.Settings.ServerSettings;
+import nl.NG.Jetfightergame.Tools.Logger;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The rooms of a server, each being an independent {@link ServerLoop} with its own world and race. Rooms opened with
+ * {@link #open(EnvironmentClass, boolean)} are executed on a {@link GameLoopPool} of {@link
+ * ServerSettings#ROOM_TICK_THREADS} threads, and are removed when they stop.
+ * <p>
+ * Before the protocol starts, a client selects a room: the client sends the id of a room, or {@link #ROOM_ANY} as int.
+ * The server replies with the id of the room joined, or {@link #ROOM_DENIED} if the room does not exist or no room is
+ * available.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class RoomManager {
+    /** requests any room that accepts players */
+    public static final int ROOM_ANY = -1;
+    /** reply when the requested room is not available */
+    public static final int ROOM_DENIED = -2;
+
+    private final Map<Integer, Room> rooms = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Supplier<String> roomCounter;
+    private final EnvironmentClass defaultWorld;
+    private GameLoopPool pool = null;
+
+    /**
+     * @param defaultWorld the race world of rooms opened when a client requests any room and none accepts players, or
+     *                     null to never open rooms for clients
+     */
+    public RoomManager(EnvironmentClass defaultWorld) {
+        this.defaultWorld = defaultWorld;
+        roomCounter = () -> {
+            StringJoiner result = new StringJoiner(" | ", "Rooms: " + rooms.size() + " | ", "");
+            for (Room room : rooms.values()) {
+                result.add(String.format("%s %1.01f TPS %3d%%",
+                        room.loop, room.loop.getTPS(), (int) (100 * room.loop.getPossession())
+                ));
+            }
+            return result.toString();
+        };
+    }
+
+    /**
+     * adds a room that is executed by the caller, which is selected like any other room
+     * @param loop the room. The first connection is not given host privileges by this manager
+     * @return the id of the room
+     */
+    public int add(ServerLoop loop) {
+        int id = nextId.getAndIncrement();
+        rooms.put(id, new Room(loop, true));
+        return id;
+    }
+
+    /**
+     * opens a new room and starts executing it on the shared threads. The first player joining the room is its host.
+     * @param raceWorld     the world of the race of this room
+     * @param makeRecording if true, the races of this room are recorded
+     * @return the id of the new room
+     */
+    public synchronized int open(EnvironmentClass raceWorld, boolean makeRecording) {
+        if (pool == null) {
+            pool = new GameLoopPool(ServerSettings.ROOM_TICK_THREADS);
+            Logger.printOnline(roomCounter);
+        }
+
+        int id = nextId.getAndIncrement();
+        ServerLoop loop = new ServerLoop("Room-" + id, EnvironmentClass.LOBBY, raceWorld, makeRecording);
+        rooms.put(id, new Room(loop, false));
+
+        pool.execute(loop, () -> {
+            rooms.remove(id);
+            Logger.INFO.print("Closed room " + id);
+        });
+
+        Logger.INFO.print("Opened room " + id + " with race world " + raceWorld);
+        return id;
+    }
+
+    /**
+     * executes the server side of the room selection. If no room is selected, the denial has been sent.
+     * @param in  the incoming communication of the client
+     * @param out the outgoing communication to the client
+     * @return the id of the selected room, or {@link #ROOM_DENIED} if no room is available
+     * @throws IOException if the communication fails
+     */
+    public int selectRoom(InputStream in, OutputStream out) throws IOException {
+        int requested = new DataInputStream(in).readInt();
+        int id = (requested == ROOM_ANY) ? findOpenRoom() : requested;
+
+        Room room = rooms.get(id);
+        if (room == null || room.loop.isStopping()) {
+            Logger.WARN.print("Client requested room " + requested + ", which is not available");
+            id = ROOM_DENIED;
+        }
+
+        DataOutputStream output = new DataOutputStream(out);
+        output.writeInt(id);
+        output.flush();
+        return id;
+    }
+
+    /**
+     * @return the id of the first room that accepts players. If there is none, a new room is opened if there are less
+     *         than {@link ServerSettings#MAX_ROOMS} rooms and a default world is given.
+     */
+    private synchronized int findOpenRoom() {
+        for (Map.Entry<Integer, Room> entry : rooms.entrySet()) {
+            ServerLoop loop = entry.getValue().loop;
+            if (loop.acceptsPlayers() && !loop.isStopping()) return entry.getKey();
+        }
+
+        if (defaultWorld == null || rooms.size() >= ServerSettings.MAX_ROOMS) return ROOM_DENIED;
+        return open(defaultWorld, ServerSettings.SERVER_MAKE_REPLAY);
+    }
+
+    /**
+     * executes the client side of the room selection
+     * @param in   the incoming communication from the server
+     * @param out  the outgoing communication to the server
+     * @param room the id of the room to join, or {@link #ROOM_ANY}
+     * @return the id of the room joined
+     * @throws IOException if the room is not available, or the communication fails
+     */
+    public static int joinRoom(InputStream in, OutputStream out, int room) throws IOException {
+        DataOutputStream output = new DataOutputStream(out);
+        output.writeInt(room);
+        output.flush();
+
+        int reply = new DataInputStream(in).readInt();
+        if (reply == ROOM_DENIED) {
+            throw new IOException("Server denied joining " + (room == ROOM_ANY ? "any room" : "room " + room));
+        }
+        return reply;
+    }
+
+    /**
+     * @param id the id of a room
+     * @return the room with the given id, or null if it has been closed
+     */
+    public ServerLoop get(int id) {
+        Room room = rooms.get(id);
+        return room == null ? null : room.loop;
+    }
+
+    /**
+     * @param id the id of a room
+     * @return true if the next player of the given room should become its host. Returns true at most once per room.
+     */
+    public boolean claimHost(int id) {
+        Room room = rooms.get(id);
+        return room != null && room.hostClaimed.compareAndSet(false, true);
+    }
+
+    /** @return the number of rooms */
+    public int size() {
+        return rooms.size();
+    }
+
+    /** stops all rooms on the shared threads */
+    public synchronized void close() {
+        if (pool == null) return;
+        Logger.removeOnlineUpdate(roomCounter);
+        pool.shutDown();
+    }
+
+    private static class Room {
+        final ServerLoop loop;
+        final AtomicBoolean hostClaimed;
+
+        Room(ServerLoop loop, boolean hostClaimed) {
+            this.loop = loop;
+            this.hostClaimed = new AtomicBoolean(hostClaimed);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Tools.Logger;
+
+import java.io.IOException;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Handles the reading and writing of any number of {@link ChannelConnection}s on a single thread, using a {@link
+ * Selector}. The selector thread is started with {@link #listenInThread(boolean)}. Bytes are only written when the
+ * socket of a client is ready to accept them, such that a slow client never stalls the thread that sends to it.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class SelectorTransport implements BlockingListener {
+    private final Selector selector;
+    private final Set<ChannelConnection> connections = ConcurrentHashMap.newKeySet();
+    private final Queue<ChannelConnection> toRegister = new ConcurrentLinkedQueue<>();
+    private final Queue<ChannelConnection> toWrite = new ConcurrentLinkedQueue<>();
+    private final Queue<ChannelConnection> toDispatch = new ConcurrentLinkedQueue<>();
+
+    public SelectorTransport() throws IOException {
+        this.selector = Selector.open();
+    }
+
+    /**
+     * adds a connected socket to this transport.
+     * @param channel a newly accepted socket
+     * @return the streams of the connection, of which reading blocks until {@link ChannelConnection#dispatchTo(BlockingListener)}
+     *         is called.
+     */
+    public ChannelConnection register(SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        ChannelConnection connection = new ChannelConnection(channel, this);
+        connections.add(connection);
+        toRegister.add(connection);
+        selector.wakeup();
+        return connection;
+    }
+
+    /** lets the selector thread write the pending bytes of the given connection */
+    void requestWrite(ChannelConnection connection) {
+        toWrite.add(connection);
+        selector.wakeup();
+    }
+
+    /** forgets the given connection, which has been closed */
+    void remove(ChannelConnection connection) {
+        connections.remove(connection);
+    }
+
+    /** @return the number of connections that are not closed */
+    public int size() {
+        return connections.size();
+    }
+
+    /** lets the selector thread handle the received messages of the given connection */
+    void requestDispatch(ChannelConnection connection) {
+        toDispatch.add(connection);
+        selector.wakeup();
+    }
+
+    /**
+     * waits for any of the connections to be ready, and reads and writes all connections that are.
+     * @return false iff this transport is closed
+     */
+    @Override
+    public boolean handleMessage() throws IOException {
+        try {
+            selector.select();
+        } catch (ClosedSelectorException ex) {
+            return false;
+        }
+        if (!selector.isOpen()) return false;
+
+        ChannelConnection conn;
+        while ((conn = toRegister.poll()) != null) {
+            try {
+                conn.setKey(conn.getChannel().register(selector, SelectionKey.OP_READ, conn));
+                // the handshake may have been written before registering
+                write(conn);
+            } catch (ClosedChannelException ex) {
+                conn.close();
+            }
+        }
+
+        while ((conn = toWrite.poll()) != null) {
+            write(conn);
+        }
+
+        while ((conn = toDispatch.poll()) != null) {
+            conn.dispatch();
+        }
+
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            conn = (ChannelConnection) key.attachment();
+
+            try {
+                if (key.isValid() && key.isReadable()) {
+                    conn.readFromChannel();
+                    conn.dispatch();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    write(conn);
+                }
+
+            } catch (IOException | CancelledKeyException ex) {
+                Logger.WARN.print("Connection lost: " + ex.getMessage());
+                conn.close();
+            }
+        }
+
+        return true;
+    }
+
+    /** writes what the socket accepts, and waits for the socket to become writable if anything remains */
+    private void write(ChannelConnection conn) {
+        SelectionKey key = conn.getKey();
+        if (key == null || !key.isValid()) return;
+
+        try {
+            boolean isDone = conn.writeToChannel();
+            int interest = isDone ? SelectionKey.OP_READ : (SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            if (key.interestOps() != interest) key.interestOps(interest);
+
+        } catch (IOException | CancelledKeyException ex) {
+            Logger.WARN.print("Connection lost: " + ex.getMessage());
+            conn.close();
+        }
+    }
+
+    /** closes all connections and stops the selector thread */
+    public void close() {
+        for (ChannelConnection conn : connections) {
+            conn.close();
+        }
+
+        try {
+            selector.close();
+
+        } catch (IOException ex) {
+            Logger.ERROR.print(ex);
+        }
+    }
+}
@@ -34,10 +34,18 @@ public class ServerConnection implements BlockingListener, Player {
     private final AbstractJet playerJet;
     private final RemoteControlReceiver controls;
     private final JetFighterProtocol protocol;
+    private final SnapshotEncoder snapshots = new SnapshotEncoder();
 
     private Lock sendLock = new ReentrantLock();
     protected volatile boolean isClosed;
 
+    private BroadcastBuffer.Subscription broadcast;
+
+    /** the number of pings of the running timer synchronisation that are not yet answered, or 0 if none is running */
+    private int nOfSyncPings = 0;
+    private long pingSendTime;
+    private float totalRTT;
+
     /**
      * construct a server-side connection to a player
      * @param inputStream  the incoming communication from the player
@@ -70,10 +78,17 @@ public class ServerConnection implements BlockingListener, Player {
         playerJet = p.right;
     }
 
-    protected ServerConnection(String name, File outputFile, float currentTime) throws IOException {
-        this.protocol = new JetFighterProtocol(outputFile, true);
-        clientOut = protocol.getOutput();
-        clientIn = protocol.getInput();
+    /**
+     * a connection that writes everything sent to it to the given stream, without receiving anything
+     * @param name        the name of this connection
+     * @param output      the stream to write to, for example a recording
+     * @param currentTime the time of the server when starting, which is written first
+     * @throws IOException if the stream could not be written to
+     */
+    protected ServerConnection(String name, OutputStream output, float currentTime) throws IOException {
+        this.protocol = new JetFighterProtocol(output);
+        clientOut = output;
+        clientIn = InputStream.nullInputStream();
         new DataOutputStream(clientOut).writeFloat(currentTime);
 
         clientName = name;
@@ -106,6 +121,9 @@ public class ServerConnection implements BlockingListener, Player {
         } else if (type.isOf(MessageType.controls)) {
             protocol.controlRead(controls, type);
 
+        } else if (type == SNAPSHOT_ACK) {
+            acknowledgeSnapshot(protocol.snapshotAckRead());
+
         } else {
             // type is allowed and not a control message
             Logger.DEBUG.printf("[%s @ %.2f] %s", clientName, server.getTimer().time(), type);
@@ -126,8 +144,15 @@ public class ServerConnection implements BlockingListener, Player {
                     server.unPause();
                     break;
 
+                case PONG:
+                    timerSyncPong();
+                    break;
+
                 case SYNC_TIMER:
-                    sendMessage(SYNC_TIMER, () -> protocol.syncTimerSource(server.getTimer()));
+                    // the client answers the pings as separate messages, such that no message waits for a reply
+                    nOfSyncPings = JetFighterProtocol.TIMER_SYNC_PINGS;
+                    totalRTT = 0;
+                    sendSyncPing();
                     break;
 
                 case START_GAME:
@@ -150,6 +175,63 @@ public class ServerConnection implements BlockingListener, Player {
         return isClosed;
     }
 
+    private void sendSyncPing() {
+        sendMessage(PING, () -> {
+            clientOut.flush();
+            pingSendTime = System.nanoTime();
+        });
+    }
+
+    /** handles the reply on a ping of the timer synchronisation, and sends the time when all pings are answered */
+    private void timerSyncPong() {
+        if (nOfSyncPings == 0) {
+            Logger.WARN.print(this + " sent a " + PONG + " without a " + PING);
+            return;
+        }
+
+        totalRTT += (System.nanoTime() - pingSendTime) * 1E-9f;
+        nOfSyncPings--;
+
+        if (nOfSyncPings > 0) {
+            sendSyncPing();
+        } else {
+            float avgRTT = totalRTT / JetFighterProtocol.TIMER_SYNC_PINGS;
+            sendMessage(SYNC_TIMER, () -> protocol.syncTimerSend(server.getTimer(), avgRTT));
+        }
+    }
+
+    /**
+     * lets this client receive all messages sent to the given broadcast from now on
+     * @param broadcast the messages shared by all connections
+     */
+    public void subscribe(BroadcastBuffer broadcast) {
+        sendLock.lock();
+        try {
+            if (this.broadcast != null) this.broadcast.cancel();
+            this.broadcast = broadcast.subscribe();
+
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /** stops receiving the messages of the broadcast, which should happen when this connection is removed */
+    public void unsubscribe() {
+        sendLock.lock();
+        try {
+            if (broadcast != null) broadcast.cancel();
+            broadcast = null;
+
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /** writes the pending messages of the broadcast. Must be called while holding the send lock */
+    private void writeBroadcast() throws IOException {
+        if (broadcast != null) broadcast.writeTo(clientOut);
+    }
+
     /**
      * sends an update to the client of the given entity's position, rotation and velocity
      * @param entity      the entity to be updated
@@ -161,6 +243,26 @@ public class ServerConnection implements BlockingListener, Player {
         );
     }
 
+    /**
+     * sends the state of the relevant entities in the snapshot that changed since the last snapshot acknowledged by the
+     * client
+     * @param snapshot the current state of the entities
+     * @param relevant per index of the snapshot whether the entity should be sent, or null to send all entities
+     */
+    public void sendSnapshot(EntitySnapshot snapshot, boolean[] relevant) {
+        sendMessage(ENTITY_SNAPSHOT, () ->
+                protocol.snapshotSend(snapshots, snapshot, relevant)
+        );
+    }
+
+    /**
+     * allows the snapshot with the given sequence number to be used as baseline for following snapshots
+     * @param sequence a sequence number of a snapshot previously sent
+     */
+    protected void acknowledgeSnapshot(int sequence) {
+        snapshots.acknowledge(sequence);
+    }
+
     /**
      * sends the event of a newly spawned entity
      * @param entity the entity to be sent
@@ -197,9 +299,11 @@ public class ServerConnection implements BlockingListener, Player {
     }
 
     public void sendWorldSwitch(EnvironmentClass world, float countDown, int maxRounds) {
-        sendMessage(WORLD_SWITCH, () ->
-                protocol.worldSwitchSend(world, countDown, maxRounds)
-        );
+        sendMessage(WORLD_SWITCH, () -> {
+            // the client discards its snapshots when switching worlds
+            snapshots.reset();
+            protocol.worldSwitchSend(world, countDown, maxRounds);
+        });
     }
 
     public void sendPowerupUpdate(PowerupEntity powerup, float collectionTime, boolean isCollected) {
@@ -214,9 +318,15 @@ public class ServerConnection implements BlockingListener, Player {
         );
     }
 
-    private void sendMessage(MessageType type, IOAction action) {
+    /**
+     * writes the pending messages of the broadcast, followed by a message of the given type
+     * @param type   the type of the message
+     * @param action writes the content of the message
+     */
+    protected void sendMessage(MessageType type, IOAction action) {
         sendLock.lock();
         try {
+            writeBroadcast();
             clientOut.write(type.ordinal());
             action.run();
 
@@ -229,10 +339,11 @@ public class ServerConnection implements BlockingListener, Player {
         }
     }
 
-    /** send the previously collected data to the clients */
+    /** send the previously collected data to the clients, including the messages of the broadcast */
     public void flush() {
         sendLock.lock();
         try {
+            writeBroadcast();
             clientOut.flush();
 
         } catch (IOException e) {
@@ -284,6 +395,20 @@ public class ServerConnection implements BlockingListener, Player {
         sendMessage(messageType, clientOut::flush);
     }
 
+    /**
+     * closes both streams of this connection, which stops the listener of this connection
+     */
+    public void close() {
+        isClosed = true;
+        try {
+            clientIn.close();
+            clientOut.close();
+
+        } catch (IOException ex) {
+            Logger.ERROR.print(ex);
+        }
+    }
+
     /**
      * closes the output stream, which won't happen by default
      * @throws IOException
@@ -293,7 +418,7 @@ public class ServerConnection implements BlockingListener, Player {
     }
 
     /** executes the action, which may throw an IOException */
-    private interface IOAction {
+    protected interface IOAction {
         void run() throws IOException;
     }
 }
@@ -6,6 +6,11 @@ import nl.NG.Jetfightergame.Assets.Entities.FighterJets.JetSpitsy;
 import nl.NG.Jetfightergame.Controllers.Controller;
 import nl.NG.Jetfightergame.Engine.AbstractGameLoop;
 import nl.NG.Jetfightergame.Engine.GameTimer;
+import nl.NG.Jetfightergame.Engine.Profiling.CsvMetricsSink;
+import nl.NG.Jetfightergame.Engine.Profiling.JsonMetricsSink;
+import nl.NG.Jetfightergame.Engine.Profiling.MetricsSink;
+import nl.NG.Jetfightergame.Engine.Profiling.TickPhase;
+import nl.NG.Jetfightergame.Engine.Profiling.TickProfiler;
 import nl.NG.Jetfightergame.Engine.StateWriter;
 import nl.NG.Jetfightergame.EntityGeneral.EntityState;
 import nl.NG.Jetfightergame.EntityGeneral.Factory.EntityFactory;
@@ -21,17 +26,25 @@ import nl.NG.Jetfightergame.Rendering.Particles.ParticleCloud;
 import nl.NG.Jetfightergame.Settings.ClientSettings;
 import nl.NG.Jetfightergame.Settings.ServerSettings;
 import nl.NG.Jetfightergame.Sound.AudioSource;
+import nl.NG.Jetfightergame.Tools.Directory;
 import nl.NG.Jetfightergame.Tools.Logger;
 import nl.NG.Jetfightergame.Tools.Vectors.Color4f;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
 import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 /**
@@ -41,33 +54,108 @@ import java.util.function.Supplier;
  */
 public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChangeListener {
 
+    /** players join on the threads of the listeners, while the loop iterates over the connections */
     private final List<ServerConnection> connections;
+    /** guards the simulation of gameWorld, which is also advanced when a player joins */
+    private final Lock worldLock = new ReentrantLock();
+    /** messages that are sent to all connections */
+    private final BroadcastBuffer broadcast = new BroadcastBuffer();
+    /** the threads reading from the connections, which are stopped on cleanup */
+    private final ListenerScope listeners = new ListenerScope(ServerSettings.VIRTUAL_THREAD_LISTENERS);
+    /** times the phases of each tick */
+    private final TickProfiler profiler = new TickProfiler();
+    /** receives the measurements of the profiler, or null if these are discarded */
+    private MetricsSink metricsSink = null;
+    /** every this many seconds of ticks the measurements are written to the sink. 0 disables profiling */
+    private int reportInterval = ServerSettings.TICK_PROFILE_INTERVAL;
     private final List<Player> npcPlayers;
     private final RaceProgress raceProgress;
     private final boolean makeRecording;
+    /** the connection writing the recording of the current race, or null if no recording is made */
+    private StateWriter recorder = null;
 
     private GameTimer globalTime;
     private EnvironmentManager gameWorld;
+    private final InterestManager interest;
     private EnvironmentClass raceWorld;
     private final EnvironmentClass lobby;
 
     private boolean worldShouldSwitch = false;
     private volatile boolean allowPlayerJoin = true;
     private int maxRounds = 1;
+    private int snapshotSequence = 0;
+    private float countDownEnd = 0;
 
     public ServerLoop(EnvironmentClass lobby, EnvironmentClass raceWorld, boolean makeRecording) {
-        super("Server", ServerSettings.TARGET_TPS, true);
+        this("Server", lobby, raceWorld, makeRecording);
+    }
+
+    /**
+     * @param name          the name of this server, which distinguishes its files from those of other servers
+     * @param lobby         the world where players wait for the race
+     * @param raceWorld     the world of the race
+     * @param makeRecording if true, every race is recorded
+     */
+    public ServerLoop(String name, EnvironmentClass lobby, EnvironmentClass raceWorld, boolean makeRecording) {
+        super(name, ServerSettings.TARGET_TPS, true);
         this.raceProgress = new RaceProgress(8, this);
         this.gameWorld = new EnvironmentManager(lobby, this, raceProgress, true, true);
         this.raceWorld = raceWorld;
         this.lobby = lobby;
         this.globalTime = new GameTimer(ClientSettings.RENDER_DELAY);
-        this.connections = new ArrayList<>();
+        this.connections = new CopyOnWriteArrayList<>();
 
         npcPlayers = getNPCPlayers(ServerSettings.NOF_FUN);
 
         gameWorld.build();
+        this.interest = new InterestManager(gameWorld);
         this.makeRecording = makeRecording;
+
+        if (ServerSettings.TICK_PROFILE_INTERVAL > 0) {
+            try {
+                setMetricsSink(createProfileFile(name));
+            } catch (IOException ex) {
+                Logger.ERROR.print("Could not create tick profile: " + ex);
+            }
+        }
+    }
+
+    /** @return a sink writing to a new file in the recordings directory, in the format of the settings */
+    private static MetricsSink createProfileFile(String name) throws IOException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM_HH-mm-ss");
+        String extension = ServerSettings.TICK_PROFILE_JSON ? ".json" : ".csv";
+        File file = Directory.recordings.getFile("TickProfile_" + name + "_" + dateFormat.format(new Date()) + extension);
+        file.getParentFile().mkdirs();
+        Logger.INFO.print("Writing tick profile to " + file);
+
+        OutputStream out = new FileOutputStream(file);
+        return ServerSettings.TICK_PROFILE_JSON ? new JsonMetricsSink(out) : new CsvMetricsSink(out);
+    }
+
+    /**
+     * sets where the timings of the ticks are written to, every {@link ServerSettings#TICK_PROFILE_INTERVAL} seconds
+     * of ticks at the target rate, and when the server stops. The sink is closed when the server stops.
+     * @param sink the new sink, or null to discard the timings
+     */
+    public void setMetricsSink(MetricsSink sink) {
+        metricsSink = sink;
+    }
+
+    /**
+     * sets where the timings of the ticks are written to, as {@link #setMetricsSink(MetricsSink)}, with an interval
+     * for this server only
+     * @param sink           the new sink, or null to discard the timings
+     * @param reportInterval every this many seconds of ticks at the target rate the timings are written. 0 disables
+     *                       profiling
+     */
+    public void setMetricsSink(MetricsSink sink, int reportInterval) {
+        this.reportInterval = reportInterval;
+        metricsSink = sink;
+    }
+
+    @Override
+    public TickProfiler getProfiler() {
+        return profiler;
     }
 
     /**
@@ -109,7 +197,7 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
      * @param asAdmin if true, the connection has admin capabilities
      * @throws IOException if the connection could not be established
      */
-    public void connectToPlayer(InputStream receive, OutputStream send, boolean asAdmin) throws IOException {
+    public ServerConnection connectToPlayer(InputStream receive, OutputStream send, boolean asAdmin) throws IOException {
         if (!allowPlayerJoin) {
             Logger.WARN.print("New player tried connecting, but this is disabled");
             JetFighterProtocol.denyConnect(send);
@@ -122,7 +210,7 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
         );
 
         EntityFactory factory = player.jet().getFactory();
-        connections.forEach(conn -> conn.sendEntitySpawn(factory));
+        broadcast.send(MessageType.ENTITY_SPAWN, p -> p.newEntitySend(factory));
 
         if (connections.contains(player)) {
             Logger.ERROR.print("Player " + player + " already exists on the server");
@@ -135,8 +223,13 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
         }
 
         AbstractJet playerJet = player.jet();
-        gameWorld.addEntity(playerJet);
-        gameWorld.updateGameLoop();
+        worldLock.lock();
+        try {
+            gameWorld.addEntity(playerJet);
+            gameWorld.updateGameLoop();
+        } finally {
+            worldLock.unlock();
+        }
         int pInd = raceProgress.addPlayer(player);
         player.sendPlayerSpawn(player, pInd);
 
@@ -147,17 +240,28 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
             conn.flush();
         }
 
+        player.subscribe(broadcast);
         connections.add(player);
         player.flush();
 
-        player.listenInThread(true);
+        return player;
     }
 
     @Override
     public void add(EntityFactory entityFactory) {
         MovingEntity entity = entityFactory.construct(this, gameWorld);
         gameWorld.addEntity(entity);
-        connections.forEach(conn -> conn.sendEntitySpawn(entityFactory));
+        broadcast.send(MessageType.ENTITY_SPAWN, p -> p.newEntitySend(entityFactory));
+    }
+
+    /** @return true if new players are allowed to join, which is only the case while in the lobby */
+    public boolean acceptsPlayers() {
+        return allowPlayerJoin;
+    }
+
+    /** @return the scope in which all listeners of this server should run */
+    public ListenerScope getListeners() {
+        return listeners;
     }
 
     @Override
@@ -167,12 +271,14 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
 
     @Override
     public void addExplosion(PosVector position, DirVector direction, Color4f color1, Color4f color2, float power, int density, float lingerTime, float particleSize) {
-        connections.forEach(conn -> conn.sendExplosionSpawn(position, direction, power, density, color1, color2, lingerTime, particleSize));
+        broadcast.send(MessageType.EXPLOSION_SPAWN, p ->
+                p.explosionSend(position, direction, power, density, color1, color2, lingerTime, particleSize)
+        );
     }
 
     @Override
     public void powerupCollect(PowerupEntity powerup, float collectionTime, boolean isCollected) {
-        connections.forEach(conn -> conn.sendPowerupUpdate(powerup, collectionTime, isCollected));
+        broadcast.send(MessageType.POWERUP_STATE, p -> p.powerupUpdateSend(powerup, collectionTime, isCollected));
     }
 
     @Override
@@ -204,7 +310,7 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
 
     @Override
     public void boosterColorChange(AbstractJet jet, Color4f color1, Color4f color2, float duration) {
-        connections.forEach(c -> c.sendBoosterColorChange(jet, color1, color2, duration));
+        broadcast.send(MessageType.BOOSTER_COLOR_CHANGE, p -> p.sendBoosterColor(jet, color1, color2, duration));
     }
 
     @Override
@@ -214,6 +320,16 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
 
     @Override
     protected void update(float deltaTime) {
+        // the clock is only read when the timings are written somewhere
+        boolean doProfile = (metricsSink != null) && (reportInterval > 0);
+        if (doProfile != profiler.isEnabled()) {
+            profiler.setEnabled(doProfile);
+            profiler.reset();
+        }
+
+        profiler.startTick();
+        long start = profiler.start();
+
         if (worldShouldSwitch) {
             if (gameWorld.getCurrentType() == lobby) {
                 if (makeRecording) startStateWriter();
@@ -235,16 +351,27 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
                 AbstractJet jet = conn.jet();
                 if (jet != null) removeEntity(conn.jet());
 
+                conn.unsubscribe();
                 connections.remove(i--);
                 if (connections.isEmpty()) stopLoop();
             }
         }
 
+        profiler.stop(TickPhase.CONNECTIONS, start);
+
         globalTime.updateGameTime();
         Float currentTime = globalTime.getGameTime().current();
-        gameWorld.updateGameLoop();
+        worldLock.lock();
+        try {
+            gameWorld.updateGameLoop();
+        } finally {
+            worldLock.unlock();
+        }
+
+        start = profiler.start();
 
         Collection<MovingEntity> entities = gameWorld.getEntities();
+        List<MovingEntity> updated = new ArrayList<>(entities.size());
 
         for (MovingEntity ety : entities) {
             if (ety instanceof PowerupEntity) continue;
@@ -253,24 +380,73 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
                 removeEntity(ety);
 
             } else {
-                connections.forEach(conn -> conn.sendEntityUpdate(ety, currentTime));
+                updated.add(ety);
             }
         }
 
+        // the snapshot is shared among connections, each connection only sends the changes to its own baseline
+        EntitySnapshot snapshot = EntitySnapshot.of(++snapshotSequence, currentTime, updated);
+        for (ServerConnection conn : connections) {
+            conn.sendSnapshot(snapshot, interest.relevantEntities(conn, snapshot));
+        }
+
+        if (recorder != null && recorder.isClosed()) recorder = null;
+        if (recorder != null && recorder.isKeyframeDue(currentTime)) {
+            float countDown = Math.max(0, countDownEnd - currentTime);
+            recorder.sendKeyframe(
+                    gameWorld.getCurrentType(), countDown, raceProgress.getNumRounds(),
+                    gameWorld.getEntities(), raceProgress, snapshot
+            );
+        }
+        profiler.stop(TickPhase.SNAPSHOT, start);
+
+        start = profiler.start();
         connections.forEach(ServerConnection::flush);
+        broadcast.compact();
+        profiler.stop(TickPhase.NETWORK, start);
+        profiler.endTick();
+
+        int ticksPerReport = reportInterval * ServerSettings.TARGET_TPS;
+        if (profiler.isEnabled() && profiler.numberOfTicks() >= ticksPerReport) writeProfile(currentTime);
+    }
+
+    /**
+     * writes the timings of the ticks since the last report to the metrics sink, and forgets these timings. If writing
+     * fails, the sink is discarded, which stops profiling from the next tick.
+     */
+    private void writeProfile(float currentTime) {
+        try {
+            metricsSink.write(profiler, currentTime);
+
+        } catch (IOException ex) {
+            Logger.ERROR.print("Could not write tick profile: " + ex);
+            closeMetricsSink();
+        }
+        profiler.reset();
+    }
+
+    private void closeMetricsSink() {
+        try {
+            metricsSink.close();
+        } catch (IOException ex) {
+            Logger.ERROR.print(ex);
+        }
+        metricsSink = null;
     }
 
     private void startStateWriter() {
         try {
-            StateWriter st = new StateWriter(globalTime.time());
+            StateWriter st = new StateWriter(globalTime.time(), getName());
+            st.subscribe(broadcast);
             connections.add(st);
+            recorder = st;
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     private void removeEntity(MovingEntity ety) {
-        connections.forEach(conn -> conn.sendEntityRemove(ety));
+        broadcast.send(MessageType.ENTITY_REMOVE, p -> p.entityRemoveSend(ety));
         gameWorld.removeEntity(ety);
     }
 
@@ -311,7 +487,14 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
             }
         }
 
+        // stores the index of a recording that was not finished
+        if (recorder != null) recorder.close();
+
+        listeners.close();
         gameWorld.cleanUp();
+
+        if (metricsSink != null && profiler.numberOfTicks() > 0) writeProfile(globalTime.time());
+        if (metricsSink != null) closeMetricsSink();
     }
 
     private void setWorld(EnvironmentClass world, int maxRounds) {
@@ -319,8 +502,12 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
 
         worldShouldSwitch = false;
         float countDown = maxRounds > 0 ? ServerSettings.COUNT_DOWN : 0;
+        countDownEnd = globalTime.time() + countDown;
 
         connections.forEach(conn -> conn.sendWorldSwitch(world, countDown, maxRounds));
+        for (ServerConnection conn : connections) {
+            if (conn.isClosed()) conn.unsubscribe();
+        }
         connections.removeIf(ServerConnection::isClosed);
         raceProgress.setMaxRounds(maxRounds);
         // startup new world
@@ -355,14 +542,12 @@ public class ServerLoop extends AbstractGameLoop implements GameServer, RaceChan
             jet.addSpeedModifier(0, countDown);
             gameWorld.addEntity(jet);
 
-            for (ServerConnection conn : connections) {
-                conn.sendEntitySpawn(jet.getFactory());
-                conn.sendPlayerSpawn(npc, pInd);
-            }
+            broadcast.send(MessageType.ENTITY_SPAWN, p -> p.newEntitySend(jet.getFactory()));
+            broadcast.send(MessageType.PLAYER_SPAWN, p -> p.playerSpawnSend(npc, pInd));
         }
     }
 
     public void playerCheckpointUpdate(int pInd, int checkpointProgress, int roundProgress) {
-        connections.forEach(conn -> conn.sendProgress(pInd, checkpointProgress, roundProgress));
+        broadcast.send(MessageType.RACE_PROGRESS, p -> p.raceProgressSend(pInd, checkpointProgress, roundProgress));
     }
 }
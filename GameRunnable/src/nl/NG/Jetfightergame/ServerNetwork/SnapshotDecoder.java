@@ -0,0 +1,148 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Tools.DataIO;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads snapshots written by a {@link SnapshotEncoder}, and remembers the last {@link SnapshotEncoder#HISTORY_SIZE}
+ * snapshots to resolve the deltas of later snapshots.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class SnapshotDecoder {
+    private final EntitySnapshot[] received = new EntitySnapshot[SnapshotEncoder.HISTORY_SIZE];
+    /** the indices in the last snapshot of the entities of which the server sent the current state */
+    private int[] updated = new int[0];
+    private int nOfUpdated = 0;
+
+    /**
+     * reads a snapshot off the stream. The result contains all entities of the snapshot, including the ones that were
+     * skipped for being equal to the baseline.
+     * @throws IOException if the baseline of the snapshot is not known
+     */
+    public EntitySnapshot read(DataInput in) throws IOException {
+        int sequence = DataIO.readVarInt(in);
+        int baselineOffset = DataIO.readVarInt(in);
+        float time = in.readFloat();
+        int count = DataIO.readVarInt(in);
+        int nOfWritten = count >>> 1;
+        boolean skipsIrrelevant = (count & SnapshotEncoder.SKIPPED_IRRELEVANT) != 0;
+        if (updated.length < nOfWritten) updated = new int[nOfWritten];
+
+        EntitySnapshot baseline = null;
+        if (baselineOffset > 0) {
+            int baseSequence = sequence - baselineOffset;
+            baseline = received[baseSequence % received.length];
+
+            if (baseline == null || baseline.sequence != baseSequence) {
+                throw new IOException("Snapshot " + sequence + " refers to unknown baseline " + baseSequence);
+            }
+        }
+
+        int maxSize = nOfWritten + ((baseline == null) ? 0 : baseline.size());
+        int[] ids = new int[maxSize];
+        int[] positions = new int[3 * maxSize];
+        int[] rotations = new int[maxSize];
+        int size = 0;
+        int b = 0; // next index in the baseline
+
+        int id = 0;
+        for (int n = 0; n < nOfWritten; n++) {
+            int header = DataIO.readVarInt(in);
+            id += header >>> 2;
+
+            // copy the skipped entities of the baseline
+            if (baseline != null) {
+                while (b < baseline.size() && baseline.ids[b] < id) {
+                    copy(baseline, b++, ids, positions, rotations, size++);
+                }
+            }
+
+            boolean inBaseline = (baseline != null) && (b < baseline.size()) && (baseline.ids[b] == id);
+            ids[size] = id;
+
+            if ((header & SnapshotEncoder.POSITION_CHANGED) != 0) {
+                for (int c = 0; c < 3; c++) {
+                    int base = inBaseline ? baseline.positions[3 * b + c] : 0;
+                    positions[3 * size + c] = base + DataIO.readSignedVarInt(in);
+                }
+            } else if (inBaseline) {
+                System.arraycopy(baseline.positions, 3 * b, positions, 3 * size, 3);
+            }
+
+            if ((header & SnapshotEncoder.ROTATION_CHANGED) != 0) {
+                rotations[size] = in.readInt();
+            } else if (inBaseline) {
+                rotations[size] = baseline.rotations[b];
+            }
+
+            if (inBaseline) b++;
+            updated[n] = size++;
+        }
+
+        if (baseline != null) {
+            while (b < baseline.size()) {
+                copy(baseline, b++, ids, positions, rotations, size++);
+            }
+        }
+
+        EntitySnapshot snapshot = new EntitySnapshot(
+                sequence, time,
+                Arrays.copyOf(ids, size), Arrays.copyOf(positions, 3 * size), Arrays.copyOf(rotations, size)
+        );
+
+        if (skipsIrrelevant) {
+            nOfUpdated = nOfWritten;
+
+        } else {
+            // the skipped entities did not change, thus all states are current
+            if (updated.length < size) updated = new int[size];
+            for (int i = 0; i < size; i++) {
+                updated[i] = i;
+            }
+            nOfUpdated = size;
+        }
+
+        received[sequence % received.length] = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * @return the number of entities of which the last snapshot read holds the current state. This excludes the entities
+     *         that the server skipped for not being relevant, which keep an older state.
+     */
+    public int getNumberUpdated() {
+        return nOfUpdated;
+    }
+
+    /**
+     * @param n a number in [0, {@link #getNumberUpdated()})
+     * @return the index in the last snapshot read of the n-th entity of which the snapshot holds the current state
+     */
+    public int getUpdated(int n) {
+        return updated[n];
+    }
+
+    private static void copy(EntitySnapshot source, int index, int[] ids, int[] positions, int[] rotations, int target) {
+        ids[target] = source.ids[index];
+        System.arraycopy(source.positions, 3 * index, positions, 3 * target, 3);
+        rotations[target] = source.rotations[index];
+    }
+
+    /**
+     * removes the given entity from all remembered snapshots. This must be called when the server removes an entity, as
+     * the server does not include removed entities in its baselines.
+     */
+    public void remove(int id) {
+        for (int i = 0; i < received.length; i++) {
+            if (received[i] != null) received[i] = received[i].without(id);
+        }
+    }
+
+    /** forgets all snapshots received */
+    public void reset() {
+        Arrays.fill(received, null);
+    }
+}
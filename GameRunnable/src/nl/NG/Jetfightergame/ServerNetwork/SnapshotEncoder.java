@@ -0,0 +1,189 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Tools.DataIO;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes snapshots to a single client, as a delta to the last snapshot this client acknowledged. Entities that are not
+ * relevant to the client are skipped, as are entities that did not change since that baseline if all entities are
+ * relevant. The client keeps the baseline state of skipped entities, which the encoder mirrors to use the result as
+ * later baseline. If some entities are not relevant, the unchanged relevant entities are written without state, such
+ * that the client knows which entities have a current state. The message format is:
+ * <ol>
+ * <li>the sequence number of the snapshot as var-int</li>
+ * <li>the sequence number of the snapshot minus the sequence number of the baseline as var-int, or 0 if there is no
+ * baseline</li>
+ * <li>the time of the snapshot as float</li>
+ * <li>the number of written entities shifted left by 1, combined with {@link #SKIPPED_IRRELEVANT} if entities were
+ * skipped for not being relevant, as var-int</li>
+ * <li>per written entity, in order of id: the difference in id with the previous written entity shifted left by 2,
+ * combined with the flags {@link #POSITION_CHANGED} and {@link #ROTATION_CHANGED} as var-int. If the position
+ * changed, the differences of the quantized coordinates with the baseline as signed var-ints. If the rotation changed,
+ * the packed rotation as int.</li>
+ * </ol>
+ * @author Geert van Ieperen created on 17-10-2026.
+ * @see SnapshotDecoder
+ */
+public class SnapshotEncoder {
+    /** the number of snapshots both sides remember as possible baseline */
+    public static final int HISTORY_SIZE = 32;
+    static final int POSITION_CHANGED = 1;
+    static final int ROTATION_CHANGED = 2;
+    static final int SKIPPED_IRRELEVANT = 1;
+
+    private final EntitySnapshot[] sent = new EntitySnapshot[HISTORY_SIZE];
+    private final AtomicInteger acknowledged = new AtomicInteger(0);
+
+    /**
+     * registers that the client has received the snapshot with the given sequence number, allowing it to be used as
+     * baseline. This method may be called from another thread than the one writing.
+     * @param sequence the sequence number of a snapshot written by this encoder
+     */
+    public void acknowledge(int sequence) {
+        acknowledged.accumulateAndGet(sequence, Math::max);
+    }
+
+    /**
+     * forgets all snapshots sent, such that the next snapshot is written in full. This must happen whenever the client
+     * discards its snapshots, for example at a world switch.
+     */
+    public void reset() {
+        Arrays.fill(sent, null);
+    }
+
+    /**
+     * writes the given snapshot to the output, relative to the latest acknowledged snapshot.
+     * @param out      the stream to write to
+     * @param snapshot a snapshot with a sequence number larger than any previous snapshot written by this encoder
+     */
+    public void write(DataOutput out, EntitySnapshot snapshot) throws IOException {
+        write(out, snapshot, null);
+    }
+
+    /**
+     * writes the given snapshot to the output, relative to the latest acknowledged snapshot, skipping the entities that
+     * are not relevant.
+     * @param out      the stream to write to
+     * @param snapshot a snapshot with a sequence number larger than any previous snapshot written by this encoder
+     * @param relevant per index of the snapshot whether the entity should be written, or null to write all entities
+     */
+    public void write(DataOutput out, EntitySnapshot snapshot, boolean[] relevant) throws IOException {
+        EntitySnapshot baseline = getBaseline(snapshot.sequence);
+
+        boolean skipsIrrelevant = false;
+        if (relevant != null) {
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (!relevant[i]) skipsIrrelevant = true;
+            }
+        }
+
+        int nOfWritten = 0;
+        boolean isPartial = false;
+        for (int i = 0; i < snapshot.size(); i++) {
+            boolean isChanged = changesOf(snapshot, i, baseline) != 0;
+
+            if (relevant != null && !relevant[i]) {
+                if (isChanged) isPartial = true;
+            } else if (isChanged || skipsIrrelevant) {
+                nOfWritten++;
+            }
+        }
+
+        DataIO.writeVarInt(out, snapshot.sequence);
+        DataIO.writeVarInt(out, (baseline == null) ? 0 : (snapshot.sequence - baseline.sequence));
+        out.writeFloat(snapshot.time);
+        DataIO.writeVarInt(out, (nOfWritten << 1) | (skipsIrrelevant ? SKIPPED_IRRELEVANT : 0));
+
+        int previousId = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (relevant != null && !relevant[i]) continue;
+            int changes = changesOf(snapshot, i, baseline);
+            if (changes == 0 && !skipsIrrelevant) continue;
+
+            int id = snapshot.ids[i];
+            DataIO.writeVarInt(out, ((id - previousId) << 2) | changes);
+            previousId = id;
+
+            if ((changes & POSITION_CHANGED) != 0) {
+                int b = (baseline == null) ? -1 : baseline.indexOf(id);
+                for (int c = 0; c < 3; c++) {
+                    int base = (b < 0) ? 0 : baseline.positions[3 * b + c];
+                    DataIO.writeSignedVarInt(out, snapshot.positions[3 * i + c] - base);
+                }
+            }
+
+            if ((changes & ROTATION_CHANGED) != 0) {
+                out.writeInt(snapshot.rotations[i]);
+            }
+        }
+
+        sent[snapshot.sequence % HISTORY_SIZE] = isPartial ? clientView(snapshot, baseline, relevant) : snapshot;
+    }
+
+    /**
+     * @return the snapshot as reconstructed by the client: skipped entities keep the state of the baseline, or are
+     *         absent if the baseline does not contain them either
+     */
+    private static EntitySnapshot clientView(EntitySnapshot snapshot, EntitySnapshot baseline, boolean[] relevant) {
+        int maxSize = snapshot.size();
+        int[] ids = new int[maxSize];
+        int[] positions = new int[3 * maxSize];
+        int[] rotations = new int[maxSize];
+        int size = 0;
+
+        for (int i = 0; i < maxSize; i++) {
+            EntitySnapshot source = snapshot;
+            int index = i;
+
+            if (!relevant[i]) {
+                index = (baseline == null) ? -1 : baseline.indexOf(snapshot.ids[i]);
+                if (index < 0) continue;
+                source = baseline;
+            }
+
+            ids[size] = source.ids[index];
+            System.arraycopy(source.positions, 3 * index, positions, 3 * size, 3);
+            rotations[size] = source.rotations[index];
+            size++;
+        }
+
+        return new EntitySnapshot(
+                snapshot.sequence, snapshot.time,
+                Arrays.copyOf(ids, size), Arrays.copyOf(positions, 3 * size), Arrays.copyOf(rotations, size)
+        );
+    }
+
+    /**
+     * @return the latest acknowledged snapshot, or null if the client may not have it anymore
+     */
+    private EntitySnapshot getBaseline(int sequence) {
+        int ack = acknowledged.get();
+        // the client only remembers the last HISTORY_SIZE snapshots it received
+        if (ack <= 0 || (sequence - ack) >= HISTORY_SIZE) return null;
+
+        EntitySnapshot baseline = sent[ack % HISTORY_SIZE];
+        if (baseline == null || baseline.sequence != ack) return null;
+        return baseline;
+    }
+
+    /** @return the flags of the entity at index i of the snapshot, relative to the baseline */
+    private static int changesOf(EntitySnapshot snapshot, int i, EntitySnapshot baseline) {
+        int b = (baseline == null) ? -1 : baseline.indexOf(snapshot.ids[i]);
+        if (b < 0) return POSITION_CHANGED | ROTATION_CHANGED;
+
+        int changes = 0;
+        if (snapshot.positions[3 * i] != baseline.positions[3 * b]
+                || snapshot.positions[3 * i + 1] != baseline.positions[3 * b + 1]
+                || snapshot.positions[3 * i + 2] != baseline.positions[3 * b + 2]) {
+            changes |= POSITION_CHANGED;
+        }
+        if (snapshot.rotations[i] != baseline.rotations[b]) {
+            changes |= ROTATION_CHANGED;
+        }
+        return changes;
+    }
+}
@@ -38,6 +38,12 @@ public final class ClientSettings {
     public static int ANTIALIAS = 1;
     public static boolean SHOW_LIGHT_POSITIONS = false;
     public static float HIGHLIGHT_LINE_WIDTH = 1f;
+    // collect the draws of a frame, sort them on material and draw repeated meshes instanced
+    public static boolean BATCH_DRAWS = true;
+    // skip objects and particles that are outside the view or beyond the fog
+    public static boolean VIEW_CULLING = true;
+    // reorder the triangles of meshes to reuse vertices in the vertex cache of the GPU, at the cost of loading time
+    public static boolean OPTIMIZE_VERTEX_CACHE = true;
     public static Color4f CHECKPOINT_ACTIVE_COLOR = Color4f.YELLOW;
     public static final int MAX_POINT_LIGHTS = 10;
 
@@ -57,6 +63,9 @@ public final class ClientSettings {
     public static Color4f EXPLOSION_COLOR_1 = Color4f.RED;
     public static Color4f EXPLOSION_COLOR_2 = Color4f.YELLOW;
     public static int PARTICLE_SPLITS = 2;
+    // the maximum number of particles at one time
+    public static int PARTICLE_BUFFER_SIZE = 1 << 16;
+    // clouds with more particles and a spread in lifetime are stored in groups of this size, sorted on lifetime
     public static int PARTICLECLOUD_SPLIT_SIZE = 2000;
     public static float PARTICLECLOUD_MIN_TIME = 0.5f;
     public static float FIRE_PARTICLE_SIZE = 0.8f;
@@ -97,6 +106,23 @@ public final class ClientSettings {
             gen.writeStringField("JET_TYPE", JET_TYPE.toString());
             gen.writeBooleanField("LOGGER_PRINT_CALLSITES", Logger.doPrintCallsites);
             gen.writeNumberField("NUMBER_OF_NPCS", ServerSettings.NOF_FUN);
+            gen.writeBooleanField("SWEEP_AND_PRUNE", ServerSettings.SWEEP_AND_PRUNE);
+            gen.writeBooleanField("PARALLEL_PHYSICS", ServerSettings.PARALLEL_PHYSICS);
+            gen.writeNumberField("INTEREST_RADIUS", ServerSettings.INTEREST_RADIUS);
+            gen.writeNumberField("FULL_RATE_RADIUS", ServerSettings.FULL_RATE_RADIUS);
+            gen.writeBooleanField("NON_BLOCKING_NETWORK", ServerSettings.NON_BLOCKING_NETWORK);
+            gen.writeNumberField("SEND_BUFFER_LIMIT", ServerSettings.SEND_BUFFER_LIMIT);
+            gen.writeBooleanField("VIRTUAL_THREAD_LISTENERS", ServerSettings.VIRTUAL_THREAD_LISTENERS);
+            gen.writeNumberField("ROOM_TICK_THREADS", ServerSettings.ROOM_TICK_THREADS);
+            gen.writeNumberField("MAX_ROOMS", ServerSettings.MAX_ROOMS);
+            gen.writeNumberField("TICK_PROFILE_INTERVAL", ServerSettings.TICK_PROFILE_INTERVAL);
+            gen.writeBooleanField("TICK_PROFILE_JSON", ServerSettings.TICK_PROFILE_JSON);
+            gen.writeBooleanField("MESH_CACHE", ServerSettings.MESH_CACHE);
+            gen.writeNumberField("REPLAY_KEYFRAME_INTERVAL", ServerSettings.REPLAY_KEYFRAME_INTERVAL);
+            gen.writeNumberField("REPLAY_WRITE_QUEUE", ServerSettings.REPLAY_WRITE_QUEUE);
+            gen.writeBooleanField("BATCH_DRAWS", BATCH_DRAWS);
+            gen.writeBooleanField("VIEW_CULLING", VIEW_CULLING);
+            gen.writeBooleanField("OPTIMIZE_VERTEX_CACHE", OPTIMIZE_VERTEX_CACHE);
             gen.writeArrayFieldStart("JET_COLOR");
             {
                 gen.writeNumber((int) (JET_COLOR.red * 255));
@@ -171,6 +197,57 @@ public final class ClientSettings {
                 case "NUMBER_OF_NPCS":
                     ServerSettings.NOF_FUN = result.intValue();
                     break;
+                case "SWEEP_AND_PRUNE":
+                    ServerSettings.SWEEP_AND_PRUNE = result.booleanValue();
+                    break;
+                case "PARALLEL_PHYSICS":
+                    ServerSettings.PARALLEL_PHYSICS = result.booleanValue();
+                    break;
+                case "INTEREST_RADIUS":
+                    ServerSettings.INTEREST_RADIUS = result.floatValue();
+                    break;
+                case "FULL_RATE_RADIUS":
+                    ServerSettings.FULL_RATE_RADIUS = result.floatValue();
+                    break;
+                case "NON_BLOCKING_NETWORK":
+                    ServerSettings.NON_BLOCKING_NETWORK = result.booleanValue();
+                    break;
+                case "SEND_BUFFER_LIMIT":
+                    ServerSettings.SEND_BUFFER_LIMIT = result.intValue();
+                    break;
+                case "VIRTUAL_THREAD_LISTENERS":
+                    ServerSettings.VIRTUAL_THREAD_LISTENERS = result.booleanValue();
+                    break;
+                case "ROOM_TICK_THREADS":
+                    ServerSettings.ROOM_TICK_THREADS = result.intValue();
+                    break;
+                case "MAX_ROOMS":
+                    ServerSettings.MAX_ROOMS = result.intValue();
+                    break;
+                case "TICK_PROFILE_INTERVAL":
+                    ServerSettings.TICK_PROFILE_INTERVAL = result.intValue();
+                    break;
+                case "TICK_PROFILE_JSON":
+                    ServerSettings.TICK_PROFILE_JSON = result.booleanValue();
+                    break;
+                case "MESH_CACHE":
+                    ServerSettings.MESH_CACHE = result.booleanValue();
+                    break;
+                case "REPLAY_KEYFRAME_INTERVAL":
+                    ServerSettings.REPLAY_KEYFRAME_INTERVAL = result.floatValue();
+                    break;
+                case "REPLAY_WRITE_QUEUE":
+                    ServerSettings.REPLAY_WRITE_QUEUE = result.intValue();
+                    break;
+                case "BATCH_DRAWS":
+                    BATCH_DRAWS = result.booleanValue();
+                    break;
+                case "VIEW_CULLING":
+                    VIEW_CULLING = result.booleanValue();
+                    break;
+                case "OPTIMIZE_VERTEX_CACHE":
+                    OPTIMIZE_VERTEX_CACHE = result.booleanValue();
+                    break;
                 case "JET_COLOR":
                     assert result.isArray();
                     Iterator<JsonNode> values = result.elements();
@@ -13,16 +13,46 @@ import nl.NG.Jetfightergame.Assets.Entities.FighterJets.JetBasic;
 public final class ServerSettings {
     public static boolean DEBUG = false;
     public static boolean SERVER_MAKE_REPLAY = true;
+    // a replay stores the whole state of the world every this many seconds, to allow jumping to any moment
+    public static float REPLAY_KEYFRAME_INTERVAL = 10f;
+    // the number of blocks of a replay that may wait to be written before the server skips snapshots of the recording
+    public static int REPLAY_WRITE_QUEUE = 16;
 
     /** general settings */
     public static final String GAME_NAME = "Jet Fighter Game"; // laaaame
     public static int TARGET_TPS = 20;
+    // if true, models are loaded from binary files in the cache folder, which are rebuilt when the .obj file changes
+    public static boolean MESH_CACHE = true;
 
     /** connection settings */
     public static int SERVER_PORT = 3039;
+    // entities further from a player than this are not updated to that player
+    public static float INTEREST_RADIUS = 4000f;
+    // entities within this distance of a player are updated every tick, the rate falls off linearly with distance
+    public static float FULL_RATE_RADIUS = 500f;
+    // if true, all connections are read and written by a single selector thread instead of one thread per connection
+    public static boolean NON_BLOCKING_NETWORK = false;
+    // the number of bytes a client may fall behind before its connection is closed, if NON_BLOCKING_NETWORK is true
+    public static int SEND_BUFFER_LIMIT = 1 << 20;
+    // if true, the listeners of the server run on virtual threads, if the runtime supports these
+    public static boolean VIRTUAL_THREAD_LISTENERS = false;
+    // the number of threads executing the rooms of a server hosting multiple rooms
+    public static int ROOM_TICK_THREADS = 2;
+    // the maximum number of rooms a server opens for clients that request any room
+    public static int MAX_ROOMS = 10;
+
+    /** profiling */
+    // every this many seconds, the server writes the timings of its ticks to the Recordings folder. 0 disables profiling
+    public static int TICK_PROFILE_INTERVAL = 0;
+    // if true, tick profiles are written as JSON lines, otherwise as CSV
+    public static boolean TICK_PROFILE_JSON = false;
 
     /** collision detection */
     public static final int MAX_COLLISION_ITERATIONS = 100 / TARGET_TPS;
+    // if false, the adjacency-matrix broadphase of ProximityDetection is used instead
+    public static boolean SWEEP_AND_PRUNE = true;
+    // if true, entities that update independently are updated in parallel, with results equal to sequential updating
+    public static boolean PARALLEL_PHYSICS = true;
     public static final float BUMPOFF_SPEED = 15f;
     public static final float BUMPOFF_ENERGY = (0.5f * JetBasic.MASS * BUMPOFF_SPEED * BUMPOFF_SPEED); // e = 0.5*m*v*v in joule
 
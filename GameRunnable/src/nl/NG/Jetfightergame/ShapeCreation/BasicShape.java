@@ -1,10 +1,15 @@
 package nl.NG.Jetfightergame.ShapeCreation;
 
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.Collision;
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.CollisionContext;
 import nl.NG.Jetfightergame.Primitives.Plane;
 import nl.NG.Jetfightergame.Primitives.Quad;
 import nl.NG.Jetfightergame.Primitives.Triangle;
 import nl.NG.Jetfightergame.Rendering.MatrixStack.GL2;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.InstanceBuffer;
 import nl.NG.Jetfightergame.Settings.ServerSettings;
+import nl.NG.Jetfightergame.Tools.DataStructures.BoundingVolumeHierarchy;
+import nl.NG.Jetfightergame.Tools.Directory;
 import nl.NG.Jetfightergame.Tools.Logger;
 import nl.NG.Jetfightergame.Tools.Resource;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
@@ -22,19 +27,30 @@ import java.util.stream.Stream;
  */
 @SuppressWarnings("unchecked")
 public class BasicShape implements Shape {
+    /** shapes with fewer planes than this are checked plane by plane */
+    private static final int MIN_PLANES_FOR_TREE = 16;
+    /** relative enlargement of the boxes of the planes, such that rounding errors do not exclude grazing lines */
+    private static final float TREE_PADDING = 1e-5f;
 
     private List<PosVector> vertices = Collections.EMPTY_LIST;
     private List<Plane> triangles = Collections.EMPTY_LIST;
     private Mesh mesh;
+    /** the planes of this shape for collision detection, or null if this shape has too few planes */
+    private BoundingVolumeHierarchy<Plane> planeTree;
+    /** {x, y, z, radius} containing all vertices, as read from the mesh cache or computed when first requested */
+    private volatile float[] boundingSphere = null;
 
-    /** @see ShapeParameters#ShapeParameters(String[]) */
+    /** loads the model in the given file of the meshes directory, using the mesh cache */
     public BasicShape(boolean loadMesh, String... fileName) {
-        this(new ShapeParameters(fileName), loadMesh);
+        this(MeshCache.loadModel(
+                PosVector.zeroVector(), 1f, Directory.meshes.getPath(fileName), fileName[fileName.length - 1]
+        ), loadMesh);
     }
 
     /** calls {@link #BasicShape(List, List, List, boolean, int)} with drawMethod GL_TRIANGLES */
     public BasicShape(ShapeParameters model, boolean loadMesh) {
         this(model.vertices, model.normals, model.faces, loadMesh, GL11.GL_TRIANGLES);
+        this.boundingSphere = model.boundingSphere;
 
         if (ServerSettings.DEBUG)
             Logger.DEBUG.print("loaded model " + model.name + ": [Faces: " + model.faces.size() + ", vertices: " + model.vertices.size() + "]");
@@ -52,12 +68,14 @@ public class BasicShape implements Shape {
                 .map(f -> BasicShape.toPlanes(f, this.vertices, normals))
                 .collect(Collectors.toList());
         this.mesh = (loadMesh && !faces.isEmpty()) ? new Mesh(this.vertices, normals, faces, drawMethod) : null;
+        this.planeTree = createPlaneTree(triangles);
     }
 
     private BasicShape(List<Plane> triangles, Mesh mesh) {
         vertices = new ArrayList<>();
         this.triangles = triangles;
         this.mesh = mesh;
+        this.planeTree = createPlaneTree(triangles);
 
         for (Plane t : triangles) {
             for (PosVector posVector : t.getBorder()) {
@@ -67,7 +85,7 @@ public class BasicShape implements Shape {
     }
 
     /**
-     * loads a mesh, splitting it into sections of size containersize.
+     * loads a mesh, splitting it into sections of size containersize. The sections are stored in the mesh cache.
      * @param loadMesh      if true, the resulting mesh is written to GPU
      * @param containerSize size of splitted container, which is applied in 3 dimensions
      * @param scale         possible scaling factor upon loading
@@ -75,7 +93,26 @@ public class BasicShape implements Shape {
      * @return a list of shapes, each being roughly containersize in size
      */
     public static List<Shape> loadSplit(boolean loadMesh, float containerSize, float scale, Resource fileName) {
-        ShapeParameters file = new ShapeParameters(PosVector.zeroVector(), scale, fileName);
+        List<ShapeParameters> parts = MeshCache.load(
+                fileName.getPathAs(".obj"), fileName.name(), new float[]{containerSize, scale},
+                () -> split(new ShapeParameters(PosVector.zeroVector(), scale, fileName), containerSize)
+        );
+        Logger.DEBUG.print("Loaded model " + fileName.name() + " in " + parts.size() + " parts");
+
+        List<Shape> shapes = new ArrayList<>(parts.size());
+        for (ShapeParameters part : parts) {
+            BasicShape shape = new BasicShape(part.vertices, part.normals, part.faces, loadMesh, GL11.GL_TRIANGLES);
+            shape.boundingSphere = part.boundingSphere;
+            shapes.add(shape);
+        }
+        return shapes;
+    }
+
+    /**
+     * splits the faces of the given model into sections of size containersize
+     * @return the sections, in no particular order
+     */
+    private static List<ShapeParameters> split(ShapeParameters file, float containerSize) {
         HashMap<Vector3i, CustomShape> world = new HashMap<>();
 
         for (Mesh.Face f : file.faces) {
@@ -115,14 +152,11 @@ public class BasicShape implements Shape {
             container.addPlane(normal, edges);
         }
 
-        Collection<CustomShape> containers = world.values();
-        Logger.DEBUG.print("Loaded model " + file.name + " in " + containers.size() + " parts");
-
-        List<Shape> shapes = new ArrayList<>();
-        for (CustomShape frame : containers) {
-            shapes.add(frame.wrapUp(loadMesh));
+        List<ShapeParameters> parts = new ArrayList<>(world.size());
+        for (CustomShape frame : world.values()) {
+            parts.add(frame.toParameters(file.name));
         }
-        return shapes;
+        return parts;
     }
 
     @Override
@@ -135,6 +169,12 @@ public class BasicShape implements Shape {
         return Collections.unmodifiableList(vertices);
     }
 
+    @Override
+    public float[] getBoundingSphere() {
+        if (boundingSphere == null) boundingSphere = Shape.computeBoundingSphere(vertices);
+        return boundingSphere;
+    }
+
     @Override
     public Stream<? extends Plane> getPlaneStream() {
         return triangles.stream();
@@ -145,11 +185,67 @@ public class BasicShape implements Shape {
         return vertices.stream();
     }
 
+    /**
+     * uses a bounding volume hierarchy of the planes of this shape, such that only the planes near the line are checked
+     * @see Shape#getCollision(PosVector, DirVector, PosVector)
+     */
+    @Override
+    public Collision getCollision(PosVector linePosition, DirVector direction, PosVector endPoint) {
+        if (planeTree == null) return Shape.super.getCollision(linePosition, direction, endPoint);
+
+        Collision[] first = new Collision[1];
+        float maxScalar = (endPoint == null) ? Float.POSITIVE_INFINITY : 1;
+
+        planeTree.traceLine(linePosition, direction, maxScalar, (plane, max) -> {
+            Collision newCrash = plane.getCollisionWith(linePosition, direction, endPoint);
+            if (newCrash == null || newCrash.timeScalar > max) return max;
+
+            if (first[0] == null || newCrash.compareTo(first[0]) < 0) {
+                first[0] = newCrash;
+            }
+            // hits behind the start of the line still compete with hits on other planes the line passes
+            return Math.max(newCrash.timeScalar, 0);
+        });
+
+        return first[0];
+    }
+
+    @Override
+    public void checkCollision(PosVector linePosition, DirVector direction, PosVector endPoint, CollisionContext context) {
+        if (planeTree != null) {
+            context.check(planeTree, linePosition, direction, endPoint);
+
+        } else {
+            // indexed loop, as the iterator of the list would be garbage
+            for (int i = 0; i < triangles.size(); i++) {
+                context.check(triangles.get(i), linePosition, direction, endPoint);
+            }
+        }
+    }
+
+    private static BoundingVolumeHierarchy<Plane> createPlaneTree(List<Plane> planes) {
+        if (planes.size() < MIN_PLANES_FOR_TREE) return null;
+
+        return new BoundingVolumeHierarchy<>(planes, (plane, dest, offset) -> {
+            for (int axis = 0; axis < 3; axis++) {
+                float lower = plane.lower(axis);
+                float upper = plane.upper(axis);
+                dest[offset + axis] = lower - TREE_PADDING * (1 + Math.abs(lower));
+                dest[offset + 3 + axis] = upper + TREE_PADDING * (1 + Math.abs(upper));
+            }
+        });
+    }
+
     @Override
     public void render(GL2.Painter lock) {
         mesh.render(lock);
     }
 
+    @Override
+    public boolean renderInstanced(GL2.Painter lock, InstanceBuffer instances, int count) {
+        return mesh.renderInstanced(lock, instances, count);
+    }
+
     @Override
     public void dispose() {
         mesh.dispose();
@@ -308,6 +308,14 @@ public class CustomShape {
         return new Mesh(getSortedVertices(), normals, faces, GL_TRIANGLES);
     }
 
+    /**
+     * convert this object into the parameters of a shape, which can be used to create a {@link BasicShape} later
+     * @param name name of the result
+     */
+    public ShapeParameters toParameters(String name) {
+        return new ShapeParameters(name, getSortedVertices(), normals, faces);
+    }
+
     private List<PosVector> getSortedVertices() {
         // this is the most clear, structured way of the duplicate-vector problem. maybe not the most efficient.
         PosVector[] sortedVertices = new PosVector[points.size()];
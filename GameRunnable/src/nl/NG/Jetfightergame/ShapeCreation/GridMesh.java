@@ -1,9 +1,11 @@
 package nl.NG.Jetfightergame.ShapeCreation;
 
 import nl.NG.Jetfightergame.EntityGeneral.Hitbox.Collision;
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.CollisionContext;
 import nl.NG.Jetfightergame.Primitives.Plane;
 import nl.NG.Jetfightergame.Primitives.Quad;
 import nl.NG.Jetfightergame.Rendering.MatrixStack.GL2;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.InstanceBuffer;
 import nl.NG.Jetfightergame.Tools.Extreme;
 import nl.NG.Jetfightergame.Tools.Logger;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
@@ -11,8 +13,7 @@ import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
 import org.joml.Vector3f;
 import org.joml.Vector3fc;
 
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.*;
 
 import static java.lang.Math.max;
 import static java.lang.Math.min;
@@ -25,6 +26,8 @@ public class GridMesh implements Shape {
 
     private final Quad[][] planeGrid;
     private final Mesh graphicalGrid;
+    /** {x, y, z, radius} containing all points of the grid */
+    private final float[] boundingSphere;
 
     private final int xSize;
     private final int ySize;
@@ -49,6 +52,12 @@ public class GridMesh implements Shape {
         final Vector3f maxVector = new Vector3f(grid[xSize][ySize]).add(1f, 1f, 0);
         normalizingScalar = new Vector3f(1, 1, 1).div(maxVector.mul(xSize, ySize, 0));
 
+        List<PosVector> points = new ArrayList<>();
+        for (PosVector[] column : grid) {
+            points.addAll(Arrays.asList(column));
+        }
+        boundingSphere = Shape.computeBoundingSphere(points);
+
         planeGrid = new Quad[xSize][ySize];
         CustomShape frame = new CustomShape(new PosVector(0, 0, Float.NEGATIVE_INFINITY));
 
@@ -97,6 +106,11 @@ public class GridMesh implements Shape {
         return Collections.EMPTY_LIST;
     }
 
+    @Override
+    public float[] getBoundingSphere() {
+        return boundingSphere;
+    }
+
     /**
      * much more efficient implementation than the default. should be used for all grid-based environments
      * @param linePosition a position vector on the line in local space
@@ -134,11 +148,35 @@ public class GridMesh implements Shape {
         return firstCrash.get();
     }
 
+    @Override
+    public void checkCollision(PosVector linePosition, DirVector direction, PosVector endPoint, CollisionContext context) {
+        float sourceX = (linePosition.x() - minimumTranspose.x()) * normalizingScalar.x();
+        float sourceY = (linePosition.y() - minimumTranspose.y()) * normalizingScalar.y();
+        float destX = (endPoint.x() - minimumTranspose.x()) * normalizingScalar.x();
+        float destY = (endPoint.y() - minimumTranspose.y()) * normalizingScalar.y();
+
+        int leastX = max(0, (int) Math.floor(min(sourceX, destX)) - 1);
+        int mostX = min(xSize, (int) Math.ceil(max(sourceX, destX)) + 1);
+        int leastY = max(0, (int) Math.floor(min(sourceY, destY)) - 1);
+        int mostY = min(ySize, (int) Math.ceil(max(sourceY, destY)) + 1);
+
+        for (int x = leastX; x < mostX; x++) {
+            for (int y = leastY; y < mostY; y++) {
+                context.check(planeGrid[x][y], linePosition, direction, endPoint);
+            }
+        }
+    }
+
     @Override
     public void render(GL2.Painter lock) {
         graphicalGrid.render(lock);
     }
 
+    @Override
+    public boolean renderInstanced(GL2.Painter lock, InstanceBuffer instances, int count) {
+        return graphicalGrid.renderInstanced(lock, instances, count);
+    }
+
     @Override
     public void dispose() {
         graphicalGrid.dispose();
@@ -1,14 +1,15 @@
 package nl.NG.Jetfightergame.ShapeCreation;
 
 import nl.NG.Jetfightergame.Rendering.MatrixStack.GL2;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.InstanceBuffer;
 import nl.NG.Jetfightergame.Rendering.MatrixStack.Renderable;
-import nl.NG.Jetfightergame.Tools.Logger;
+import nl.NG.Jetfightergame.Settings.ClientSettings;
 import nl.NG.Jetfightergame.Tools.Toolbox;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
 import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
-import nl.NG.Jetfightergame.Tools.Vectors.Vector;
 import org.lwjgl.system.MemoryUtil;
 
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.util.ArrayDeque;
 import java.util.List;
@@ -18,8 +19,11 @@ import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL15.*;
 import static org.lwjgl.opengl.GL20.*;
 import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.glDrawElementsInstanced;
 
 /**
+ * A mesh on the GPU, stored as one interleaved vertex buffer of distinct vertices and an index buffer, as given by
+ * {@link MeshData}.
  * @author Geert van Ieperen
  *         created on 17-11-2017.
  */
@@ -29,110 +33,81 @@ public class Mesh implements Renderable {
 
     private final int drawMethod;
     private int vaoId;
-    private int vertexCount;
-    private int posVboID;
-    private int normVboID;
+    private int indexCount;
+    private int indexType;
+    private int vertexVboID;
+    private int indexVboID;
 
     /**
      * VERY IMPORTANT that you have first called GLFW windowhints (or similar) for openGL 3 or higher.
      */
     public Mesh(List<PosVector> posList, List<DirVector> normList, List<Face> facesList, int drawMethod) {
-        final int nOfEdges = nOfEdges(drawMethod);
         this.drawMethod = drawMethod;
 
-        // Create position array in the order it has been declared. faces have 3 vertices of 3 indices
-        float[] posArr = new float[facesList.size() * 3 * nOfEdges];
-        float[] normArr = new float[facesList.size() * 3 * nOfEdges];
-
-        for (int i = 0; i < facesList.size(); i++) {
-            Face face = facesList.get(i);
-            readFaceVertex(face, posList, i, posArr);
-            readFaceNormals(face, normList, i, normArr);
+        MeshData data = MeshData.index(posList, normList, facesList);
+        if (ClientSettings.OPTIMIZE_VERTEX_CACHE && drawMethod == GL_TRIANGLES) {
+            data.optimizeVertexCache();
         }
 
-        writeToGL(posArr, normArr);
+        writeToGL(data);
         loadedMeshes.add(this);
     }
 
-    private static int nOfEdges(int drawMethod) {
-        switch (drawMethod) {
-            case GL_TRIANGLES:
-                return 3;
-            case GL_QUADS:
-                return 4;
-        }
-        Logger.ERROR.print("Could not determine number of edges of draw method " + glGetString(drawMethod));
-        return 3;
-    }
-
-    private void readFaceVertex(Face face, List<PosVector> posList, int faceNumber, float[] posArr) {
-        int indices = faceNumber * face.size();
-        for (int i = 0; i < face.size(); i++) {
-            readVector(indices + i, posList, posArr, face.vert[i]);
-        }
-    }
-
-    private void readFaceNormals(Face face, List<DirVector> normList, int faceNumber, float[] normArr) {
-        int indices = faceNumber * face.size();
-        for (int i = 0; i < face.size(); i++) {
-
-            readVector(indices + i, normList, normArr, face.norm[i]);
-        }
-    }
-
-    private static void readVector(int vectorNumber, List<? extends Vector> sourceList, float[] targetArray, int index) {
-        Vector vertex = sourceList.get(index);
-        int arrayPosition = vectorNumber * 3;
-        targetArray[arrayPosition] = vertex.x();
-        targetArray[arrayPosition + 1] = vertex.y();
-        targetArray[arrayPosition + 2] = vertex.z();
-    }
-
-
     /**
-     * create a mesh and store it to the GL. For both lists it holds that the ith vertex has the ith normal vector
-     * @param positions the vertices, concatenated in groups of 3
-     * @param normals the normals, concatenated in groups of 3
-     * @throws IllegalArgumentException if any of the arrays has length not divisible by 3
-     * @throws IllegalArgumentException if the arrays are of unequal length
+     * stores the interleaved vertices and the indices of the given mesh in the GL
+     * @param data the mesh
+     * @throws IllegalArgumentException if the mesh has no indices
      */
-    private void writeToGL(float[] positions, float[] normals) {
-        if (((positions.length % 3) != 0) || (positions.length == 0)) {
-            throw new IllegalArgumentException("received invalid position array of length " + positions.length + ".");
-        } else if (normals.length != positions.length) {
-            throw new IllegalArgumentException("received a normals array that is not as long as positions: " +
-                    positions.length + " position values and " + normals.length + "normal values");
+    private void writeToGL(MeshData data) {
+        if (data.getIndexCount() == 0) {
+            throw new IllegalArgumentException("received a mesh without faces");
         }
 
-        vertexCount = positions.length;
-        FloatBuffer posBuffer = MemoryUtil.memAllocFloat(vertexCount);
-        FloatBuffer normBuffer = MemoryUtil.memAllocFloat(vertexCount);
+        indexCount = data.getIndexCount();
+        int[] indices = data.getIndices();
+        FloatBuffer vertexBuffer = MemoryUtil.memAllocFloat(data.getVertices().length);
+        ByteBuffer indexBuffer;
+
+        if (data.hasShortIndices()) {
+            indexType = GL_UNSIGNED_SHORT;
+            indexBuffer = MemoryUtil.memAlloc(indexCount * Short.BYTES);
+            for (int index : indices) {
+                indexBuffer.putShort((short) index);
+            }
+        } else {
+            indexType = GL_UNSIGNED_INT;
+            indexBuffer = MemoryUtil.memAlloc(indexCount * Integer.BYTES);
+            indexBuffer.asIntBuffer().put(indices);
+            indexBuffer.position(indexBuffer.capacity());
+        }
 
         try {
-            posBuffer.put(positions).flip();
-            normBuffer.put(normals).flip();
+            vertexBuffer.put(data.getVertices()).flip();
+            indexBuffer.flip();
 
             vaoId = glGenVertexArrays();
             glBindVertexArray(vaoId);
 
-            // Position VBO
-            posVboID = glGenBuffers();
-            glBindBuffer(GL_ARRAY_BUFFER, posVboID);
-            glBufferData(GL_ARRAY_BUFFER, posBuffer, GL_STATIC_DRAW);
-            glVertexAttribPointer(0, 3, GL_FLOAT, false, 0, 0);
+            // interleaved position and normal VBO
+            int stride = MeshData.FLOATS_PER_VERTEX * Float.BYTES;
+            vertexVboID = glGenBuffers();
+            glBindBuffer(GL_ARRAY_BUFFER, vertexVboID);
+            glBufferData(GL_ARRAY_BUFFER, vertexBuffer, GL_STATIC_DRAW);
+            glVertexAttribPointer(0, 3, GL_FLOAT, false, stride, 0);
+            glVertexAttribPointer(1, 3, GL_FLOAT, false, stride, 3 * Float.BYTES);
 
-            // Vertex normals VBO
-            normVboID = glGenBuffers();
-            glBindBuffer(GL_ARRAY_BUFFER, normVboID);
-            glBufferData(GL_ARRAY_BUFFER, normBuffer, GL_STATIC_DRAW);
-            glVertexAttribPointer(1, 3, GL_FLOAT, false, 0, 0);
+            // index buffer, which is part of the state of the VAO
+            indexVboID = glGenBuffers();
+            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexVboID);
+            glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL_STATIC_DRAW);
 
             glBindBuffer(GL_ARRAY_BUFFER, 0);
             glBindVertexArray(0);
-            
+            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+
         } finally {
-            MemoryUtil.memFree(posBuffer);
-            MemoryUtil.memFree(normBuffer);
+            MemoryUtil.memFree(vertexBuffer);
+            MemoryUtil.memFree(indexBuffer);
         }
     }
 
@@ -142,11 +117,27 @@ public class Mesh implements Renderable {
         glEnableVertexAttribArray(0);
         glEnableVertexAttribArray(1);
 
-        glDrawArrays(drawMethod, 0, vertexCount);
+        glDrawElements(drawMethod, indexCount, indexType, 0);
+
+        glDisableVertexAttribArray(0);
+        glDisableVertexAttribArray(1);
+        glBindVertexArray(0);
+    }
+
+    @Override
+    public boolean renderInstanced(GL2.Painter lock, InstanceBuffer instances, int count) {
+        glBindVertexArray(vaoId);
+        glEnableVertexAttribArray(0);
+        glEnableVertexAttribArray(1);
+        instances.enableAttributes();
+
+        glDrawElementsInstanced(drawMethod, indexCount, indexType, 0, count);
 
+        instances.disableAttributes();
         glDisableVertexAttribArray(0);
         glDisableVertexAttribArray(1);
         glBindVertexArray(0);
+        return true;
     }
 
     /**
@@ -164,8 +155,8 @@ public class Mesh implements Renderable {
     public void dispose() {
         glDisableVertexAttribArray(0);
 
-        glDeleteBuffers(posVboID);
-        glDeleteBuffers(normVboID);
+        glDeleteBuffers(vertexVboID);
+        glDeleteBuffers(indexVboID);
 
         // Delete the VAO
         glBindVertexArray(0);
@@ -215,6 +206,10 @@ public class Mesh implements Renderable {
         @Override
         public void render(GL2.Painter lock) {}
         @Override
+        public boolean renderInstanced(GL2.Painter lock, InstanceBuffer instances, int count) {
+            return true;
+        }
+        @Override
         public void dispose() {}
     }
 }
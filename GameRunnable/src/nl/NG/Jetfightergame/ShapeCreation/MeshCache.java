@@ -0,0 +1,280 @@
+package nl.NG.Jetfightergame.ShapeCreation;
+
+import nl.NG.Jetfightergame.Settings.ServerSettings;
+import nl.NG.Jetfightergame.Tools.Directory;
+import nl.NG.Jetfightergame.Tools.Logger;
+import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Stores models that are loaded from .obj files in a binary file, such that the text of the model is not parsed and
+ * split again at the next start. A cache file holds:
+ * <ol>
+ * <li>{@link #MAGIC} and {@link #VERSION} as int</li>
+ * <li>the size and the last-modified time in milliseconds of the source file as long</li>
+ * <li>the number of loading parameters as int, followed by the parameters as float</li>
+ * <li>the number of parts as int, followed per part by
+ * <ol>
+ * <li>the number of vertices as int, followed by x, y, z of each vertex as float</li>
+ * <li>the number of normals as int, followed by x, y, z of each normal as float</li>
+ * <li>the number of faces as int, followed per face by the number of vertex indices as int, the vertex indices as
+ * int, the number of normal indices as int and the normal indices as int</li>
+ * <li>the bounding sphere of the vertices as 4 floats, as given by {@link Shape#computeBoundingSphere(List)}</li>
+ * </ol></li>
+ * </ol>
+ * A cache file that does not match the version, the source file or the parameters is rebuilt.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public final class MeshCache {
+    /** "JFMC" */
+    public static final int MAGIC = 0x4A464D43;
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".jfm";
+
+    private MeshCache() {
+    }
+
+    /**
+     * loads the model from its cache file in {@link Directory#meshCache}, or parses and caches the model if the cache
+     * file is missing or outdated.
+     * @see #load(Path, Path, String, float[], Supplier)
+     */
+    public static List<ShapeParameters> load(Path source, String name, float[] parameters, Supplier<List<ShapeParameters>> parser) {
+        if (!ServerSettings.MESH_CACHE) return parser.get();
+        return load(Directory.meshCache.getPath(), source, name, parameters, parser);
+    }
+
+    /**
+     * loads a single model without splitting
+     * @see ShapeParameters#ShapeParameters(PosVector, float, Path, String)
+     */
+    public static ShapeParameters loadModel(PosVector offSet, float scale, Path path, String name) {
+        float[] parameters = {offSet.x, offSet.y, offSet.z, scale};
+        List<ShapeParameters> parts = load(path, name, parameters, () -> {
+            ShapeParameters model = new ShapeParameters(offSet, scale, path, name);
+            List<ShapeParameters> list = new ArrayList<>(1);
+            list.add(model);
+            return list;
+        });
+        return parts.get(0);
+    }
+
+    /**
+     * loads the parts of a model from the cache, or parses and caches the model if the cache file is missing or does
+     * not match the source and the parameters. If the source file does not exist, the parser is used without caching.
+     * @param directory  the directory of the cache files
+     * @param source     the .obj file of the model
+     * @param name       the name given to the loaded parts
+     * @param parameters the values that change the result of the parser, such as scaling
+     * @param parser     creates the parts of the model from the source file
+     * @return the parts of the model. The parts read from the cache have a bounding sphere.
+     */
+    public static List<ShapeParameters> load(
+            Path directory, Path source, String name, float[] parameters, Supplier<List<ShapeParameters>> parser
+    ) {
+        if (!Files.isRegularFile(source)) return parser.get();
+        Path cacheFile = directory.resolve(getCacheName(source, parameters));
+
+        try {
+            long size = Files.size(source);
+            long modified = Files.getLastModifiedTime(source).toMillis();
+
+            if (Files.isRegularFile(cacheFile)) {
+                List<ShapeParameters> parts = read(cacheFile, name, size, modified, parameters);
+                if (parts != null) return parts;
+            }
+
+            List<ShapeParameters> parts = parser.get();
+            for (ShapeParameters part : parts) {
+                part.boundingSphere = Shape.computeBoundingSphere(part.vertices);
+            }
+
+            Files.createDirectories(directory);
+            write(cacheFile, size, modified, parameters, parts);
+            Logger.DEBUG.print("Cached model " + source.getFileName() + " in " + cacheFile);
+            return parts;
+
+        } catch (IOException ex) {
+            Logger.WARN.print("Could not use mesh cache of " + source + ": " + ex);
+            return parser.get();
+        }
+    }
+
+    /** @return a file name that is unique for the source and parameters */
+    private static String getCacheName(Path source, float[] parameters) {
+        String file = source.getFileName().toString();
+        if (file.endsWith(".obj")) file = file.substring(0, file.length() - 4);
+
+        int hash = source.toAbsolutePath().normalize().hashCode() * 31 + Arrays.hashCode(parameters);
+        return file + "-" + Integer.toHexString(hash) + EXTENSION;
+    }
+
+    /**
+     * reads the parts from the cache file
+     * @return the parts, or null if the file does not match the source or the parameters
+     */
+    private static List<ShapeParameters> read(
+            Path cacheFile, String name, long sourceSize, long sourceModified, float[] parameters
+    ) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Cache files larger than 2 GB are not supported");
+            // the mapping remains valid after closing the channel
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+            if (buffer.getLong() != sourceSize || buffer.getLong() != sourceModified) return null;
+
+            int nOfParameters = buffer.getInt();
+            if (nOfParameters != parameters.length) return null;
+            for (float p : parameters) {
+                if (Float.compare(buffer.getFloat(), p) != 0) return null;
+            }
+
+            int nOfParts = readCount(buffer, Integer.BYTES);
+            List<ShapeParameters> parts = new ArrayList<>(nOfParts);
+            for (int i = 0; i < nOfParts; i++) {
+                parts.add(readPart(buffer, name));
+            }
+            return parts;
+
+        } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+            Logger.WARN.print("Mesh cache " + cacheFile + " is damaged, and is rebuilt");
+            return null;
+        }
+    }
+
+    private static ShapeParameters readPart(ByteBuffer buffer, String name) {
+        int nOfVertices = readCount(buffer, 3 * Float.BYTES);
+        List<PosVector> vertices = new ArrayList<>(nOfVertices);
+        for (int i = 0; i < nOfVertices; i++) {
+            vertices.add(new PosVector(buffer.getFloat(), buffer.getFloat(), buffer.getFloat()));
+        }
+
+        int nOfNormals = readCount(buffer, 3 * Float.BYTES);
+        List<DirVector> normals = new ArrayList<>(nOfNormals);
+        for (int i = 0; i < nOfNormals; i++) {
+            normals.add(new DirVector(buffer.getFloat(), buffer.getFloat(), buffer.getFloat()));
+        }
+
+        int nOfFaces = readCount(buffer, Integer.BYTES);
+        List<Mesh.Face> faces = new ArrayList<>(nOfFaces);
+        for (int i = 0; i < nOfFaces; i++) {
+            int[] vert = new int[readCount(buffer, Integer.BYTES)];
+            for (int j = 0; j < vert.length; j++) {
+                vert[j] = checkIndex(buffer.getInt(), nOfVertices);
+            }
+            int[] norm = new int[readCount(buffer, Integer.BYTES)];
+            for (int j = 0; j < norm.length; j++) {
+                // faces in .obj files may lack normals
+                int index = buffer.getInt();
+                norm[j] = (index < 0) ? index : checkIndex(index, nOfNormals);
+            }
+            faces.add(new Mesh.Face(vert, norm));
+        }
+
+        ShapeParameters part = new ShapeParameters(name, vertices, normals, faces);
+        part.boundingSphere = new float[]{buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat()};
+        return part;
+    }
+
+    /**
+     * reads the number of elements that follow
+     * @param elementSize the minimum number of bytes of one element
+     * @throws BufferUnderflowException if the elements can not fit in the rest of the buffer
+     */
+    private static int readCount(ByteBuffer buffer, int elementSize) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / elementSize) throw new BufferUnderflowException();
+        return count;
+    }
+
+    private static int checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for " + size + " elements");
+        }
+        return index;
+    }
+
+    /** writes the parts to a temporary file, which then replaces the cache file */
+    private static void write(
+            Path cacheFile, long sourceSize, long sourceModified, float[] parameters, List<ShapeParameters> parts
+    ) throws IOException {
+        Path temp = cacheFile.resolveSibling(cacheFile.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+
+            out.writeInt(parameters.length);
+            for (float p : parameters) {
+                out.writeFloat(p);
+            }
+
+            out.writeInt(parts.size());
+            for (ShapeParameters part : parts) {
+                writePart(out, part);
+            }
+
+        } catch (IOException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+
+        // a process loading the same model at the same time either sees the old file or the complete new file
+        try {
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writePart(DataOutputStream out, ShapeParameters part) throws IOException {
+        out.writeInt(part.vertices.size());
+        for (PosVector v : part.vertices) {
+            out.writeFloat(v.x);
+            out.writeFloat(v.y);
+            out.writeFloat(v.z);
+        }
+
+        out.writeInt(part.normals.size());
+        for (DirVector n : part.normals) {
+            out.writeFloat(n.x);
+            out.writeFloat(n.y);
+            out.writeFloat(n.z);
+        }
+
+        out.writeInt(part.faces.size());
+        for (Mesh.Face face : part.faces) {
+            out.writeInt(face.vert.length);
+            for (int index : face.vert) {
+                out.writeInt(index);
+            }
+            out.writeInt(face.norm.length);
+            for (int index : face.norm) {
+                out.writeInt(index);
+            }
+        }
+
+        for (float f : part.boundingSphere) {
+            out.writeFloat(f);
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package nl.NG.Jetfightergame.ShapeCreation;
+
+import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import nl.NG.Jetfightergame.Tools.Vectors.Vector;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The vertices and indices of a mesh as they are written to the GPU. Every vertex is stored once as an interleaved
+ * (position, normal) pair, and the faces refer to the vertices by index. Vertices with equal position and normal are
+ * shared by all faces that use them, also if the source lists contain duplicates.
+ * <p>
+ * This class does not use OpenGL.
+ * @author Geert van Ieperen created on 17-10-2026.
+ * @see Mesh
+ */
+public class MeshData {
+    /** x, y, z of the position, followed by x, y, z of the normal */
+    public static final int FLOATS_PER_VERTEX = 6;
+    /** the number of vertices the vertex cache optimization assumes to be cached */
+    public static final int CACHE_SIZE = 32;
+
+    /** scores of the vertex cache optimization, as described by Tom Forsyth in "Linear-Speed Vertex Cache Optimisation" */
+    private static final float CACHE_DECAY_POWER = 1.5f;
+    private static final float LAST_TRIANGLE_SCORE = 0.75f;
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+    private static final float VALENCE_BOOST_POWER = 0.5f;
+
+    private float[] vertices;
+    private int[] indices;
+
+    /**
+     * @param vertices the interleaved vertices, {@link #FLOATS_PER_VERTEX} floats per vertex
+     * @param indices  indices in the vertices, in groups of the number of edges of a face
+     */
+    public MeshData(float[] vertices, int[] indices) {
+        if (vertices.length % FLOATS_PER_VERTEX != 0) {
+            throw new IllegalArgumentException("received invalid vertex array of length " + vertices.length + ".");
+        }
+        this.vertices = vertices;
+        this.indices = indices;
+    }
+
+    /**
+     * collects the vertices of the given faces, where every distinct combination of position and normal becomes one
+     * vertex. Vertices are numbered in order of first use.
+     * @param posList  the positions referred to by the faces
+     * @param normList the normals referred to by the faces
+     * @param faces    the faces, with the vertices of each face in drawing order
+     * @return the indexed mesh of the faces
+     */
+    public static MeshData index(List<PosVector> posList, List<DirVector> normList, List<Mesh.Face> faces) {
+        int nOfIndices = 0;
+        for (Mesh.Face face : faces) {
+            nOfIndices += face.size();
+        }
+
+        Map<VertexKey, Integer> vertexIndices = new HashMap<>();
+        float[] vertices = new float[nOfIndices * FLOATS_PER_VERTEX];
+        int[] indices = new int[nOfIndices];
+        int nOfVertices = 0;
+        int i = 0;
+
+        for (Mesh.Face face : faces) {
+            for (int j = 0; j < face.size(); j++) {
+                VertexKey key = new VertexKey(posList.get(face.vert[j]), normList.get(face.norm[j]));
+                Integer index = vertexIndices.putIfAbsent(key, nOfVertices);
+
+                if (index == null) {
+                    System.arraycopy(key.values, 0, vertices, nOfVertices * FLOATS_PER_VERTEX, FLOATS_PER_VERTEX);
+                    index = nOfVertices++;
+                }
+                indices[i++] = index;
+            }
+        }
+
+        return new MeshData(Arrays.copyOf(vertices, nOfVertices * FLOATS_PER_VERTEX), indices);
+    }
+
+    /**
+     * reorders the triangles such that vertices are reused while they are still in the vertex cache of the GPU, and
+     * then renumbers the vertices in order of first use. The set of triangles and their winding stays the same. The
+     * greedy ordering is not always better than the given order, in which case the given order is kept.
+     * @return this
+     * @throws IllegalStateException if the indices are not a list of triangles
+     */
+    public MeshData optimizeVertexCache() {
+        if (indices.length % 3 != 0) {
+            throw new IllegalStateException("Vertex cache optimization requires triangles, but got " + indices.length + " indices");
+        }
+        int[] original = indices;
+        float originalRatio = getCacheMissRatio(CACHE_SIZE);
+
+        indices = new CacheOptimizer(indices, getVertexCount()).run();
+        if (getCacheMissRatio(CACHE_SIZE) > originalRatio) indices = original;
+
+        reorderVertices();
+        return this;
+    }
+
+    /** renumbers the vertices in order of first use in the indices, dropping unused vertices */
+    private void reorderVertices() {
+        int[] newIndex = new int[getVertexCount()];
+        Arrays.fill(newIndex, -1);
+        float[] newVertices = new float[vertices.length];
+        int nOfVertices = 0;
+
+        for (int i = 0; i < indices.length; i++) {
+            int old = indices[i];
+            if (newIndex[old] < 0) {
+                System.arraycopy(vertices, old * FLOATS_PER_VERTEX, newVertices, nOfVertices * FLOATS_PER_VERTEX, FLOATS_PER_VERTEX);
+                newIndex[old] = nOfVertices++;
+            }
+            indices[i] = newIndex[old];
+        }
+
+        vertices = Arrays.copyOf(newVertices, nOfVertices * FLOATS_PER_VERTEX);
+    }
+
+    /**
+     * simulates a FIFO vertex cache of the given size while drawing the indices
+     * @param cacheSize the number of vertices in the cache
+     * @return the number of vertex shader invocations per triangle, between 0.5 and 3 for triangle meshes
+     */
+    public float getCacheMissRatio(int cacheSize) {
+        int nOfTriangles = indices.length / 3;
+        if (nOfTriangles == 0) return 0;
+
+        int[] cache = new int[cacheSize];
+        Arrays.fill(cache, -1);
+        int cacheEnd = 0;
+        int nOfMisses = 0;
+
+        for (int index : indices) {
+            boolean isCached = false;
+            for (int c : cache) {
+                if (c == index) {
+                    isCached = true;
+                    break;
+                }
+            }
+
+            if (!isCached) {
+                cache[cacheEnd] = index;
+                cacheEnd = (cacheEnd + 1) % cacheSize;
+                nOfMisses++;
+            }
+        }
+
+        return (float) nOfMisses / nOfTriangles;
+    }
+
+    /** @return the interleaved vertices, {@link #FLOATS_PER_VERTEX} floats per vertex. This array is not copied */
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    /** @return the indices in the vertices, in drawing order. This array is not copied */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int getVertexCount() {
+        return vertices.length / FLOATS_PER_VERTEX;
+    }
+
+    public int getIndexCount() {
+        return indices.length;
+    }
+
+    /** @return true if the indices fit in an unsigned short */
+    public boolean hasShortIndices() {
+        return getVertexCount() <= (1 << 16);
+    }
+
+    /** @return the number of bytes of the vertex buffer and index buffer of this mesh */
+    public long getByteSize() {
+        int indexBytes = hasShortIndices() ? Short.BYTES : Integer.BYTES;
+        return (long) vertices.length * Float.BYTES + (long) indices.length * indexBytes;
+    }
+
+    /** @return the number of bytes of this mesh if every index was expanded to a separate vertex */
+    public long getExpandedByteSize() {
+        return (long) indices.length * FLOATS_PER_VERTEX * Float.BYTES;
+    }
+
+    /** a position and normal pair, compared by value */
+    private static class VertexKey {
+        final float[] values;
+        private final int hash;
+
+        VertexKey(Vector position, Vector normal) {
+            values = new float[]{position.x(), position.y(), position.z(), normal.x(), normal.y(), normal.z()};
+            hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return (other instanceof VertexKey) && Arrays.equals(values, ((VertexKey) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Greedily picks the triangle with the highest score, where the score of a triangle is the sum of the scores of its
+     * vertices. Vertices score higher when they were recently used, and when few of their triangles remain.
+     */
+    private static class CacheOptimizer {
+        private final int[] indices;
+        private final int nOfTriangles;
+
+        /** per vertex the triangles that use it, as a range in vertexTriangles */
+        private final int[] triangleStart;
+        private final int[] vertexTriangles;
+        private final int[] nOfRemaining;
+        private final int[] cachePosition;
+        private final float[] vertexScore;
+
+        private final float[] triangleScore;
+        private final boolean[] isAdded;
+
+        /** the vertices in the cache, most recently used first, with room for the vertices of one new triangle */
+        private final int[] cache = new int[CACHE_SIZE + 3];
+        private int cacheCount = 0;
+
+        CacheOptimizer(int[] indices, int nOfVertices) {
+            this.indices = indices;
+            this.nOfTriangles = indices.length / 3;
+
+            triangleStart = new int[nOfVertices + 1];
+            for (int index : indices) {
+                triangleStart[index + 1]++;
+            }
+            for (int v = 0; v < nOfVertices; v++) {
+                triangleStart[v + 1] += triangleStart[v];
+            }
+
+            vertexTriangles = new int[indices.length];
+            nOfRemaining = new int[nOfVertices];
+            for (int i = 0; i < indices.length; i++) {
+                int v = indices[i];
+                vertexTriangles[triangleStart[v] + nOfRemaining[v]++] = i / 3;
+            }
+
+            cachePosition = new int[nOfVertices];
+            Arrays.fill(cachePosition, -1);
+            vertexScore = new float[nOfVertices];
+            for (int v = 0; v < nOfVertices; v++) {
+                vertexScore[v] = score(v);
+            }
+
+            triangleScore = new float[nOfTriangles];
+            isAdded = new boolean[nOfTriangles];
+            for (int t = 0; t < nOfTriangles; t++) {
+                triangleScore[t] = vertexScore[indices[3 * t]] + vertexScore[indices[3 * t + 1]] + vertexScore[indices[3 * t + 2]];
+            }
+        }
+
+        int[] run() {
+            int[] result = new int[indices.length];
+            int scanStart = 0;
+            int best = -1;
+
+            for (int n = 0; n < nOfTriangles; n++) {
+                if (best < 0) {
+                    // no triangle in the cache remains: take the best of all triangles
+                    float bestScore = -1;
+                    while (isAdded[scanStart]) scanStart++;
+                    for (int t = scanStart; t < nOfTriangles; t++) {
+                        if (!isAdded[t] && triangleScore[t] > bestScore) {
+                            bestScore = triangleScore[t];
+                            best = t;
+                        }
+                    }
+                }
+
+                isAdded[best] = true;
+                System.arraycopy(indices, 3 * best, result, 3 * n, 3);
+                for (int i = 0; i < 3; i++) {
+                    removeTriangle(indices[3 * best + i], best);
+                }
+
+                best = addToCache(best);
+            }
+
+            return result;
+        }
+
+        /** removes the triangle from the remaining triangles of the vertex */
+        private void removeTriangle(int vertex, int triangle) {
+            int start = triangleStart[vertex];
+            int last = start + --nOfRemaining[vertex];
+            for (int i = start; i <= last; i++) {
+                if (vertexTriangles[i] == triangle) {
+                    vertexTriangles[i] = vertexTriangles[last];
+                    vertexTriangles[last] = triangle;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * moves the vertices of the given triangle to the front of the cache, and updates the scores of all vertices
+         * that were in the cache
+         * @return the best remaining triangle using a vertex in the cache, or -1 if there is none
+         */
+        private int addToCache(int triangle) {
+            int[] old = Arrays.copyOf(cache, cacheCount);
+            int oldCount = cacheCount;
+
+            // the vertices of the triangle, followed by the old cache without these vertices
+            cacheCount = 0;
+            for (int i = 0; i < 3; i++) {
+                cache[cacheCount++] = indices[3 * triangle + i];
+            }
+            for (int i = 0; i < oldCount; i++) {
+                int v = old[i];
+                if (v != cache[0] && v != cache[1] && v != cache[2]) {
+                    cache[cacheCount++] = v;
+                }
+            }
+
+            for (int i = 0; i < cacheCount; i++) {
+                int v = cache[i];
+                cachePosition[v] = (i < CACHE_SIZE) ? i : -1;
+                updateScore(v);
+            }
+            cacheCount = Math.min(cacheCount, CACHE_SIZE);
+
+            int best = -1;
+            float bestScore = -1;
+            for (int i = 0; i < cacheCount; i++) {
+                int v = cache[i];
+                for (int j = triangleStart[v]; j < triangleStart[v] + nOfRemaining[v]; j++) {
+                    int t = vertexTriangles[j];
+                    if (triangleScore[t] > bestScore) {
+                        bestScore = triangleScore[t];
+                        best = t;
+                    }
+                }
+            }
+            return best;
+        }
+
+        private void updateScore(int vertex) {
+            float newScore = score(vertex);
+            float diff = newScore - vertexScore[vertex];
+            vertexScore[vertex] = newScore;
+
+            for (int j = triangleStart[vertex]; j < triangleStart[vertex] + nOfRemaining[vertex]; j++) {
+                triangleScore[vertexTriangles[j]] += diff;
+            }
+        }
+
+        private float score(int vertex) {
+            int remaining = nOfRemaining[vertex];
+            if (remaining == 0) return -1;
+
+            float score = 0;
+            int position = cachePosition[vertex];
+            if (position >= 0) {
+                if (position < 3) {
+                    // the vertices of the last triangle are penalized, to avoid thin strips
+                    score = LAST_TRIANGLE_SCORE;
+                } else {
+                    float scaler = 1f / (CACHE_SIZE - 3);
+                    score = (float) Math.pow(1 - (position - 3) * scaler, CACHE_DECAY_POWER);
+                }
+            }
+
+            // vertices with few remaining triangles are finished first
+            score += VALENCE_BOOST_SCALE * (float) Math.pow(remaining, -VALENCE_BOOST_POWER);
+            return score;
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package nl.NG.Jetfightergame.ShapeCreation;
 
 import nl.NG.Jetfightergame.EntityGeneral.Hitbox.Collision;
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.CollisionContext;
 import nl.NG.Jetfightergame.Primitives.Plane;
 import nl.NG.Jetfightergame.Rendering.MatrixStack.Renderable;
 import nl.NG.Jetfightergame.Tools.DataStructures.Pair;
 import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
 import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.joml.Vector3f;
 
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -23,6 +26,18 @@ public interface Shape extends Renderable {
     /** @return the points of this plane in no specific order */
     Iterable<PosVector> getPoints();
 
+    /**
+     * returns a sphere containing all points of this shape, which is used to test whether the shape is visible. This
+     * implementation computes the sphere on every call; shapes that are drawn should store their sphere when built.
+     * @return {x, y, z, radius} in the local space of this shape. The radius is infinite if the shape does not give its
+     *         points. The returned array should not be modified.
+     */
+    default float[] getBoundingSphere() {
+        List<PosVector> points = new ArrayList<>();
+        getPoints().forEach(points::add);
+        return computeBoundingSphere(points);
+    }
+
     /**
      * given a point on position {@code linePosition} moving in the direction of {@code direction},
      * calculates the movement it is allowed to do before hitting this shape
@@ -34,14 +49,27 @@ public interface Shape extends Renderable {
      * otherwise, it provides a collision object about the first collision with this shape
      */
     default Collision getCollision(PosVector linePosition, DirVector direction, PosVector endPoint){
-        return getPlaneStream()
-                // find the vector that hits the planes
-                .map((plane) -> plane.getCollisionWith(linePosition, direction, endPoint))
-                // exclude the vectors that did not hit
-                .filter(Objects::nonNull)
-                // return the shortest vector
-                .min(Collision::compareTo)
-                .orElse(null);
+        Collision first = null;
+        for (Plane plane : getPlanes()) {
+            Collision newCrash = plane.getCollisionWith(linePosition, direction, endPoint);
+            // keep the shortest vector
+            if (newCrash != null && (first == null || newCrash.compareTo(first) < 0)) {
+                first = newCrash;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * performs the same check as {@link #getCollision(PosVector, DirVector, PosVector)}, but instead of returning the
+     * first collision, every plane that is hit is offered to the given context. Implementations should not create any
+     * objects.
+     * @param context the collision context of the current thread
+     */
+    default void checkCollision(PosVector linePosition, DirVector direction, PosVector endPoint, CollisionContext context) {
+        for (Plane plane : getPlanes()) {
+            context.check(plane, linePosition, direction, endPoint);
+        }
     }
 
     /** @see #getPlanes() */
@@ -112,4 +140,39 @@ public interface Shape extends Renderable {
 
         return new Pair<>(mid, mid.to(aMax, temp).length());
     }
+
+    /**
+     * computes a sphere containing all given points. Up to 1024 points, the sphere is based on the minimal circle,
+     * which takes quadratic time. Otherwise, the sphere is centered on the bounding box of the points.
+     * @param points the points of a shape
+     * @return {x, y, z, radius} of a sphere containing all given points. The radius is infinite if there are no points.
+     */
+    static float[] computeBoundingSphere(List<PosVector> points) {
+        if (points.isEmpty()) return new float[]{0, 0, 0, Float.POSITIVE_INFINITY};
+
+        Vector3f middle = new Vector3f();
+        if (points.size() == 1) {
+            middle.set(points.get(0));
+
+        } else if (points.size() <= 1024) {
+            middle.set(getMinimalCircle(points).left);
+
+        } else {
+            Vector3f min = new Vector3f(Float.POSITIVE_INFINITY);
+            Vector3f max = new Vector3f(Float.NEGATIVE_INFINITY);
+            for (PosVector p : points) {
+                min.min(p);
+                max.max(p);
+            }
+            min.add(max, middle).mul(0.5f);
+        }
+
+        // the minimal circle is an approximation, thus the radius is based on the farthest point
+        float radiusSq = 0;
+        for (PosVector p : points) {
+            radiusSq = Math.max(radiusSq, middle.distanceSquared(p));
+        }
+
+        return new float[]{middle.x, middle.y, middle.z, (float) Math.sqrt(radiusSq)};
+    }
 }
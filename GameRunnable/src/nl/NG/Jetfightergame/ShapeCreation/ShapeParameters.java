@@ -22,6 +22,19 @@ public class ShapeParameters {
     public List<DirVector> normals;
     public List<Mesh.Face> faces;
     public final String name;
+    /** {x, y, z, radius} of a sphere around the vertices, or null if it has not been computed */
+    public float[] boundingSphere = null;
+
+    /**
+     * a model of the given vertices, normals and faces
+     * @param name name of the model, for debugging
+     */
+    public ShapeParameters(String name, List<PosVector> vertices, List<DirVector> normals, List<Mesh.Face> faces) {
+        this.name = name;
+        this.vertices = vertices;
+        this.normals = normals;
+        this.faces = faces;
+    }
 
     /**
      * calls {@link #ShapeParameters(PosVector, float, Path, String)} on the file of the given path without offset and
@@ -2,6 +2,8 @@ package nl.NG.Jetfightergame.Sound;
 
 import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
 import nl.NG.Jetfightergame.EntityGeneral.TemporalEntity;
+import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
 import org.lwjgl.openal.AL10;
 
 /**
@@ -11,6 +13,8 @@ import org.lwjgl.openal.AL10;
 public class MovingAudioSource extends AudioSource {
 
     private final MovingEntity source;
+    private final PosVector position = new PosVector();
+    private final DirVector velocity = new DirVector();
 
     public MovingAudioSource(Sounds data, MovingEntity source, float pitch, float gain, boolean repeat) {
         super(data, source.getPosition(), source.getVelocity(), pitch, gain, repeat);
@@ -23,8 +27,8 @@ public class MovingAudioSource extends AudioSource {
 
     @Override
     public void update() {
-        set(AL10.AL_POSITION, source.getPosition());
-        set(AL10.AL_VELOCITY, source.getVelocity());
+        set(AL10.AL_POSITION, source.getPosition(position));
+        set(AL10.AL_VELOCITY, source.getVelocity(velocity));
 
         if (TemporalEntity.isOverdue(source)) {
             dispose();
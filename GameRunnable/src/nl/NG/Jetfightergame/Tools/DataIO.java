@@ -57,4 +57,38 @@ public class DataIO {
     public static Color4f readColor(DataInput in) throws IOException {
         return new Color4f(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
     }
+
+    /**
+     * writes a non-negative integer using 7 bits per byte, where the highest bit of each byte indicates whether more
+     * bytes follow. Small numbers thus take a single byte.
+     */
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /** @see #writeVarInt(DataOutput, int) */
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    /** writes an integer as a var-int, mapping numbers close to zero to small var-ints regardless of their sign */
+    public static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    /** @see #writeSignedVarInt(DataOutput, int) */
+    public static int readSignedVarInt(DataInput in) throws IOException {
+        int zigzag = readVarInt(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
 }
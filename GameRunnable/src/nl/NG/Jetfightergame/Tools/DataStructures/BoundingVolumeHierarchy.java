@@ -0,0 +1,407 @@
+package nl.NG.Jetfightergame.Tools.DataStructures;
+
+import org.joml.Vector3fc;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * An immutable tree of axis-aligned bounding boxes over a set of items that do not move. The tree is built once using
+ * median splits on the longest axis, after which both box queries and line queries only visit the nodes they touch.
+ * Queries do not modify the tree, and may thus be executed concurrently.
+ * @param <T> the type of the elements in this tree
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class BoundingVolumeHierarchy<T> {
+    private static final int LEAF_SIZE = 4;
+
+    /** the items, ordered such that each leaf refers to a consecutive range */
+    private final Object[] items;
+    /** per item the bounds as {xMin, yMin, zMin, xMax, yMax, zMax}, in the same order as items */
+    private final float[] itemBounds;
+    /** per node the bounds as {xMin, yMin, zMin, xMax, yMax, zMax} */
+    private final float[] nodeBounds;
+    /** for leaves the index of the first item, for other nodes the index of the second child */
+    private final int[] nodeIndex;
+    /** for leaves the number of items, for other nodes 0. The first child of a node is always the next node */
+    private final int[] nodeCount;
+    private final int depth;
+
+    // build state
+    private int nOfNodes = 0;
+    private float[] sourceBounds;
+    private int[] order;
+
+    /**
+     * builds a tree over the given elements
+     * @param elements the elements to store
+     * @param mapping  maps each element to its bounding box
+     */
+    @SuppressWarnings("unchecked")
+    public BoundingVolumeHierarchy(Collection<? extends T> elements, BoxMapping<? super T> mapping) {
+        int nOfItems = elements.size();
+        Object[] source = elements.toArray();
+        sourceBounds = new float[6 * nOfItems];
+        order = new int[nOfItems];
+
+        for (int i = 0; i < nOfItems; i++) {
+            mapping.getBounds((T) source[i], sourceBounds, 6 * i);
+            order[i] = i;
+        }
+
+        int maxNodes = Math.max(1, 2 * nOfItems);
+        nodeBounds = new float[6 * maxNodes];
+        nodeIndex = new int[maxNodes];
+        nodeCount = new int[maxNodes];
+
+        depth = (nOfItems == 0) ? 0 : build(0, nOfItems);
+
+        items = new Object[nOfItems];
+        itemBounds = new float[6 * nOfItems];
+        for (int i = 0; i < nOfItems; i++) {
+            items[i] = source[order[i]];
+            System.arraycopy(sourceBounds, 6 * order[i], itemBounds, 6 * i, 6);
+        }
+
+        sourceBounds = null;
+        order = null;
+    }
+
+    /** @return the depth of the subtree of the items in the range [start, end) */
+    private int build(int start, int end) {
+        int node = nOfNodes++;
+        int nb = 6 * node;
+
+        // compute bounds of this node and of the centroids
+        float[] cMin = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] cMax = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int a = 0; a < 3; a++) {
+            nodeBounds[nb + a] = Float.MAX_VALUE;
+            nodeBounds[nb + 3 + a] = -Float.MAX_VALUE;
+        }
+
+        for (int i = start; i < end; i++) {
+            int ib = 6 * order[i];
+            for (int a = 0; a < 3; a++) {
+                float lower = sourceBounds[ib + a];
+                float upper = sourceBounds[ib + 3 + a];
+                float centroid = (lower + upper) / 2;
+                nodeBounds[nb + a] = Math.min(nodeBounds[nb + a], lower);
+                nodeBounds[nb + 3 + a] = Math.max(nodeBounds[nb + 3 + a], upper);
+                cMin[a] = Math.min(cMin[a], centroid);
+                cMax[a] = Math.max(cMax[a], centroid);
+            }
+        }
+
+        if ((end - start) <= LEAF_SIZE) {
+            nodeIndex[node] = start;
+            nodeCount[node] = end - start;
+            return 1;
+        }
+
+        int axis = 0;
+        for (int a = 1; a < 3; a++) {
+            if ((cMax[a] - cMin[a]) > (cMax[axis] - cMin[axis])) axis = a;
+        }
+
+        int mid = (start + end) >>> 1;
+        select(start, end - 1, mid, axis);
+
+        int leftDepth = build(start, mid);
+        nodeIndex[node] = nOfNodes;
+        nodeCount[node] = 0;
+        int rightDepth = build(mid, end);
+
+        return Math.max(leftDepth, rightDepth) + 1;
+    }
+
+    /**
+     * partially sorts order[low ... high] on the centroid of the given axis, such that the element at index k is at
+     * its sorted position
+     */
+    private void select(int low, int high, int k, int axis) {
+        while (high > low) {
+            float pivot = centroid(order[(low + high) >>> 1], axis);
+            int i = low;
+            int j = high;
+
+            while (i <= j) {
+                while (centroid(order[i], axis) < pivot) i++;
+                while (centroid(order[j], axis) > pivot) j--;
+                if (i <= j) {
+                    int temp = order[i];
+                    order[i] = order[j];
+                    order[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+
+            if (k <= j) high = j;
+            else if (k >= i) low = i;
+            else return;
+        }
+    }
+
+    private float centroid(int item, int axis) {
+        return (sourceBounds[6 * item + axis] + sourceBounds[6 * item + 3 + axis]) / 2;
+    }
+
+    /** @return the number of elements required for the stack of a traversal over this tree */
+    public int getStackSize() {
+        return depth + 1;
+    }
+
+    /** @return the number of elements in this tree */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * adds all elements whose bounding box intersects the given box to dest
+     * @param dest the collection to add the results to
+     * @return the number of elements added to dest
+     */
+    public int collectOverlapping(
+            float xMin, float yMin, float zMin, float xMax, float yMax, float zMax, Collection<? super T> dest
+    ) {
+        return collectOverlapping(xMin, yMin, zMin, xMax, yMax, zMax, dest, new int[getStackSize()]);
+    }
+
+    /**
+     * performs {@link #collectOverlapping(float, float, float, float, float, float, Collection)} using the given array
+     * for the traversal, such that no objects are created by this method other than by dest
+     * @param stack an array of at least {@link #getStackSize()} elements, of which the contents are overwritten
+     */
+    @SuppressWarnings("unchecked")
+    public int collectOverlapping(
+            float xMin, float yMin, float zMin, float xMax, float yMax, float zMax, Collection<? super T> dest,
+            int[] stack
+    ) {
+        if (items.length == 0) return 0;
+
+        int stackSize = 0;
+        int found = 0;
+        stack[stackSize++] = 0;
+
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            if (!overlaps(nodeBounds, 6 * node, xMin, yMin, zMin, xMax, yMax, zMax)) continue;
+
+            int count = nodeCount[node];
+            if (count > 0) {
+                int first = nodeIndex[node];
+                for (int i = first; i < first + count; i++) {
+                    if (!overlaps(itemBounds, 6 * i, xMin, yMin, zMin, xMax, yMax, zMax)) continue;
+                    dest.add((T) items[i]);
+                    found++;
+                }
+
+            } else {
+                stack[stackSize++] = nodeIndex[node];
+                stack[stackSize++] = node + 1;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * executes the given action on every element whose bounding box is not outside the given region. The elements of a
+     * node that lies entirely inside the region are accepted without testing them.
+     * @param region the region to query
+     * @param action is called for every element that may lie in the region
+     * @param stack  an array of at least {@link #getStackSize()} elements, of which the contents are overwritten
+     * @return the number of elements passed to the action
+     */
+    @SuppressWarnings("unchecked")
+    public int forEachIn(Region region, Consumer<? super T> action, int[] stack) {
+        if (items.length == 0) return 0;
+
+        int stackSize = 0;
+        int found = 0;
+        stack[stackSize++] = 0;
+
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            // nodes known to be inside are stored as their complement
+            boolean isInside = node < 0;
+            if (isInside) {
+                node = ~node;
+
+            } else {
+                int relation = region.classify(nodeBounds, 6 * node);
+                if (relation == Region.OUTSIDE) continue;
+                isInside = (relation == Region.INSIDE);
+            }
+
+            int count = nodeCount[node];
+            if (count > 0) {
+                int first = nodeIndex[node];
+                for (int i = first; i < first + count; i++) {
+                    if (!isInside && region.classify(itemBounds, 6 * i) == Region.OUTSIDE) continue;
+                    action.accept((T) items[i]);
+                    found++;
+                }
+
+            } else if (isInside) {
+                stack[stackSize++] = ~nodeIndex[node];
+                stack[stackSize++] = ~(node + 1);
+
+            } else {
+                stack[stackSize++] = nodeIndex[node];
+                stack[stackSize++] = node + 1;
+            }
+        }
+
+        return found;
+    }
+
+    private static boolean overlaps(
+            float[] bounds, int offset, float xMin, float yMin, float zMin, float xMax, float yMax, float zMax
+    ) {
+        return (bounds[offset] <= xMax) && (bounds[offset + 3] >= xMin)
+                && (bounds[offset + 1] <= yMax) && (bounds[offset + 4] >= yMin)
+                && (bounds[offset + 2] <= zMax) && (bounds[offset + 5] >= zMin);
+    }
+
+    /**
+     * visits the elements whose bounding box is hit by the line {@code start + s * direction} for {@code 0 <= s <=
+     * maxScalar}. Nearer nodes are visited first, and nodes that are entered after the scalar returned by the visitor
+     * are skipped. Hence, when searching the first hit, only a logarithmic number of elements is visited.
+     * @param start     the start of the line
+     * @param direction the direction of the line
+     * @param maxScalar the maximum scalar of the direction, or {@link Float#POSITIVE_INFINITY} for a ray
+     * @param visitor   is called for every element that may be hit
+     * @return the scalar as returned by the last call to the visitor, or maxScalar if it was never called
+     */
+    public float traceLine(Vector3fc start, Vector3fc direction, float maxScalar, LineVisitor<? super T> visitor) {
+        return traceLine(start, direction, maxScalar, visitor, new int[getStackSize()]);
+    }
+
+    /**
+     * performs {@link #traceLine(Vector3fc, Vector3fc, float, LineVisitor)} using the given array for the traversal,
+     * such that no objects are created by this method
+     * @param stack an array of at least {@link #getStackSize()} elements, of which the contents are overwritten
+     */
+    @SuppressWarnings("unchecked")
+    public float traceLine(
+            Vector3fc start, Vector3fc direction, float maxScalar, LineVisitor<? super T> visitor, int[] stack
+    ) {
+        if (items.length == 0) return maxScalar;
+
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            if (entryScalar(nodeBounds, 6 * node, start, direction, maxScalar) > maxScalar) continue;
+
+            int count = nodeCount[node];
+            if (count > 0) {
+                int first = nodeIndex[node];
+                for (int i = first; i < first + count; i++) {
+                    if (entryScalar(itemBounds, 6 * i, start, direction, maxScalar) > maxScalar) continue;
+                    maxScalar = visitor.visit((T) items[i], maxScalar);
+                }
+
+            } else {
+                int near = node + 1;
+                int far = nodeIndex[node];
+                float nearEntry = entryScalar(nodeBounds, 6 * near, start, direction, maxScalar);
+                float farEntry = entryScalar(nodeBounds, 6 * far, start, direction, maxScalar);
+
+                if (nearEntry > farEntry) {
+                    int temp = near;
+                    near = far;
+                    far = temp;
+                }
+
+                // the stack is LIFO, thus the near node is visited first
+                stack[stackSize++] = far;
+                stack[stackSize++] = near;
+            }
+        }
+
+        return maxScalar;
+    }
+
+    /**
+     * @return the least scalar s in [0, maxScalar] such that {@code start + s * direction} lies in the box at the given
+     *         offset of bounds, or {@link Float#POSITIVE_INFINITY} if no such scalar exists
+     */
+    private static float entryScalar(float[] bounds, int nb, Vector3fc start, Vector3fc direction, float maxScalar) {
+        float tMin = 0;
+        float tMax = maxScalar;
+
+        for (int a = 0; a < 3; a++) {
+            float s = start.get(a);
+            float d = direction.get(a);
+            float lower = bounds[nb + a];
+            float upper = bounds[nb + 3 + a];
+
+            if (d == 0) {
+                if (s < lower || s > upper) return Float.POSITIVE_INFINITY;
+
+            } else {
+                float t1 = (lower - s) / d;
+                float t2 = (upper - s) / d;
+                if (t1 > t2) {
+                    float temp = t1;
+                    t1 = t2;
+                    t2 = temp;
+                }
+                if (t1 > tMin) tMin = t1;
+                if (t2 < tMax) tMax = t2;
+                if (tMin > tMax) return Float.POSITIVE_INFINITY;
+            }
+        }
+
+        return tMin;
+    }
+
+    /**
+     * @author Geert van Ieperen created on 17-10-2026.
+     */
+    public interface BoxMapping<T> {
+        /**
+         * writes the bounding box of the given element to dest
+         * @param element an element of the tree
+         * @param dest    the array to write {xMin, yMin, zMin, xMax, yMax, zMax} to
+         * @param offset  the index in dest of xMin
+         */
+        void getBounds(T element, float[] dest, int offset);
+    }
+
+    /**
+     * a region of space, as used by {@link #forEachIn(Region, Consumer, int[])}
+     * @author Geert van Ieperen created on 17-10-2026.
+     */
+    public interface Region {
+        int OUTSIDE = 0;
+        int INTERSECTS = 1;
+        int INSIDE = 2;
+
+        /**
+         * determines how a box relates to this region. It is allowed to return INTERSECTS for a box that is outside or
+         * inside this region.
+         * @param bounds an array containing {xMin, yMin, zMin, xMax, yMax, zMax}
+         * @param offset the index in bounds of xMin
+         * @return OUTSIDE if the box is entirely outside this region, INSIDE if it is entirely inside this region and
+         *         INTERSECTS otherwise.
+         */
+        int classify(float[] bounds, int offset);
+    }
+
+    /**
+     * @author Geert van Ieperen created on 17-10-2026.
+     */
+    public interface LineVisitor<T> {
+        /**
+         * @param element   an element whose bounding box is hit by the line
+         * @param maxScalar the current maximum scalar of the line
+         * @return the new maximum scalar, which is maxScalar itself if the element was not hit earlier
+         */
+        float visit(T element, float maxScalar);
+    }
+}
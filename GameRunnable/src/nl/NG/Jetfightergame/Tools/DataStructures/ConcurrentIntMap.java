@@ -0,0 +1,143 @@
+package nl.NG.Jetfightergame.Tools.DataStructures;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * a map from primitive ints to objects, using open addressing with linear probing. Modifications are synchronized,
+ * while {@link #get(int)} never locks, and runs in expected constant time.
+ * <p>
+ * A slot is claimed by a key for the lifetime of its table: removing a key only clears its value, such that a reader
+ * never misses a key that was moved. The table is rebuilt when too many slots are claimed, after which the new table
+ * is published at once.
+ * @param <V> the type of the values
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class ConcurrentIntMap<V> {
+    /** the one key that can not be stored */
+    public static final int EMPTY = Integer.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile Table<V> table = new Table<>(MIN_CAPACITY);
+    /** the number of slots claimed by a key in the current table */
+    private int nOfClaimed = 0;
+    private volatile int size = 0;
+
+    /**
+     * @param key any key except {@link #EMPTY}
+     * @return the value associated with the key, or null if there is none
+     */
+    public V get(int key) {
+        Table<V> t = table;
+        int mask = t.keys.length() - 1;
+
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            // pairs with the release in put, such that the value of a key that is found is visible
+            int k = t.keys.getAcquire(i);
+            if (k == key) return t.values.get(i);
+            if (k == EMPTY) return null;
+        }
+    }
+
+    /**
+     * associates the value with the key, replacing any previous value
+     * @param key   any key except {@link #EMPTY}
+     * @param value the new value, not null
+     * @return the previous value associated with the key, or null if there was none
+     */
+    public synchronized V put(int key, V value) {
+        if (key == EMPTY) throw new IllegalArgumentException("Key " + key + " can not be stored");
+        if (value == null) throw new IllegalArgumentException("Value of key " + key + " is null");
+
+        if (2 * (nOfClaimed + 1) > table.keys.length()) rebuild();
+
+        Table<V> t = table;
+        int slot = find(t, key);
+        if (t.keys.get(slot) == EMPTY) nOfClaimed++;
+
+        // the key is released after the value is set, such that a reader acquiring the key also finds the value
+        V previous = t.values.getAndSet(slot, value);
+        t.keys.setRelease(slot, key);
+
+        if (previous == null) size++;
+        return previous;
+    }
+
+    /**
+     * removes the value associated with the key
+     * @return the value that was associated with the key, or null if there was none
+     */
+    public synchronized V remove(int key) {
+        Table<V> t = table;
+        int slot = find(t, key);
+        if (t.keys.get(slot) == EMPTY) return null;
+
+        V previous = t.values.getAndSet(slot, null);
+        if (previous != null) size--;
+        return previous;
+    }
+
+    /** removes all values */
+    public synchronized void clear() {
+        table = new Table<>(MIN_CAPACITY);
+        nOfClaimed = 0;
+        size = 0;
+    }
+
+    /** @return the number of keys with a value */
+    public int size() {
+        return size;
+    }
+
+    /** @return the slot of the key in the table, or the empty slot where it should be inserted */
+    private static int find(Table<?> t, int key) {
+        int mask = t.keys.length() - 1;
+        int i = hash(key) & mask;
+        while (t.keys.get(i) != key && t.keys.get(i) != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /** copies the values into a new table that is at most a quarter full */
+    private void rebuild() {
+        Table<V> old = table;
+        int capacity = MIN_CAPACITY;
+        while (capacity < 4 * (size + 1)) capacity *= 2;
+
+        Table<V> t = new Table<>(capacity);
+        int claimed = 0;
+        for (int i = 0; i < old.keys.length(); i++) {
+            V value = old.values.get(i);
+            if (value == null) continue;
+
+            // the new table is published through the volatile field
+            int slot = find(t, old.keys.get(i));
+            t.keys.setPlain(slot, old.keys.get(i));
+            t.values.setPlain(slot, value);
+            claimed++;
+        }
+
+        nOfClaimed = claimed;
+        table = t;
+    }
+
+    /** spreads consecutive keys over the table */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static class Table<V> {
+        final AtomicIntegerArray keys;
+        final AtomicReferenceArray<V> values;
+
+        Table(int capacity) {
+            keys = new AtomicIntegerArray(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < capacity; i++) {
+                keys.setPlain(i, EMPTY);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package nl.NG.Jetfightergame.Tools.DataStructures;
+
+import java.util.Arrays;
+
+/**
+ * a histogram of non-negative long values with buckets of exponentially increasing width. Each power of two is split
+ * into {@link #SUB_BUCKETS} buckets, such that a percentile is at most 1/{@value #SUB_BUCKETS} of its value off.
+ * Recording a value runs in constant time and never allocates. This class is not thread-safe.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class LogHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    /**
+     * adds a value to the histogram
+     * @param value a non-negative value, negative values are counted as 0
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        if (value > max) max = value;
+    }
+
+    /** @return the number of recorded values */
+    public long count() {
+        return count;
+    }
+
+    /** @return the largest recorded value, or 0 if none is recorded */
+    public long max() {
+        return max;
+    }
+
+    /** @return the average of the recorded values, or 0 if none is recorded */
+    public double mean() {
+        return (count == 0) ? 0 : ((double) sum / count);
+    }
+
+    /**
+     * @param fraction the fraction of values that should be at most the result, in the range [0, 1]
+     * @return the upper bound of the bucket containing the given percentile, but at most {@link #max()}
+     */
+    public long percentile(double fraction) {
+        if (count == 0) return 0;
+        long target = (long) Math.ceil(fraction * count);
+        if (target < 1) target = 1;
+
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(upperBoundOf(i), max);
+        }
+        return max;
+    }
+
+    /**
+     * adds all values of the other histogram to this histogram
+     * @param other another histogram, which is not changed
+     */
+    public void add(LogHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        if (other.max > max) max = other.max;
+    }
+
+    /** removes all values */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + mantissa;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int exponent = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long mantissa = bucket & (SUB_BUCKETS - 1);
+        long lower = (SUB_BUCKETS + mantissa) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
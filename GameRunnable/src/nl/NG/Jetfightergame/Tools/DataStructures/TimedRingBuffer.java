@@ -0,0 +1,186 @@
+package nl.NG.Jetfightergame.Tools.DataStructures;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * A timedQueue backed by a fixed-size ring of primitive timestamps and elements. When the ring is full, adding an
+ * element overwrites the oldest one. Items added to the queue with a timestamp less than the previous addition will
+ * cause the previous value to be removed.
+ * <p>
+ * Adding is synchronized between writers, but reading never locks. Readers do not consume elements: every read looks
+ * up the elements around the requested time with a binary search. A read that overlaps with a write is retried, using
+ * a version number that is odd while a write is in progress (a seqlock). Subclasses read multiple values consistently
+ * by calling {@link #beginRead()}, reading, and retrying until {@link #endRead(int)} returns true.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class TimedRingBuffer<T> implements TimedQueue<T> {
+    private final float[] timeStamps;
+    private final Object[] elements;
+    private final int mask;
+
+    /** odd while an element is being added */
+    private volatile int version = 0;
+    /** the position of the oldest element and one past the newest element. Positions are indices modulo the capacity */
+    private long first = 0;
+    private long end = 0;
+
+    /** the time given to the last call of {@link #updateTime(float)} */
+    private volatile float currentTime = Float.NEGATIVE_INFINITY;
+
+    /**
+     * @param capacity the maximum number of entries, which is rounded up to a power of 2
+     */
+    public TimedRingBuffer(int capacity) {
+        int size = 2;
+        while (size < capacity) size *= 2;
+
+        timeStamps = new float[size];
+        elements = new Object[size];
+        mask = size - 1;
+    }
+
+    @Override
+    public synchronized void add(T element, float timeStamp) {
+        int v = version;
+        version = v + 1;
+        VarHandle.storeStoreFence();
+
+        // act as refinement
+        while (end > first && timeStamps[index(end - 1)] > timeStamp) {
+            end--;
+            elements[index(end)] = null;
+        }
+
+        if (end - first == timeStamps.length) {
+            elements[index(first)] = null;
+            first++;
+        }
+
+        timeStamps[index(end)] = timeStamp;
+        elements[index(end)] = element;
+        end++;
+
+        version = v + 2;
+    }
+
+    @Override
+    public T getActive(float timeStamp) {
+        T element;
+        float time;
+        int stamp;
+
+        do {
+            stamp = beginRead();
+            long next = positionOfNext(timeStamp);
+            time = (next < 0) ? Float.NaN : timeAt(next);
+            element = (next < 0) ? null : elementAt(next);
+        } while (!endRead(stamp));
+
+        // if the next element is before timeStamp, there is no element available
+        return (time >= timeStamp) ? element : null;
+    }
+
+    @Override
+    public float timeUntilNext(float timeStamp) {
+        float time;
+        int stamp;
+
+        do {
+            stamp = beginRead();
+            long next = positionOfNext(timeStamp);
+            time = (next < 0) ? Float.NaN : timeAt(next);
+        } while (!endRead(stamp));
+
+        return time - timeStamp;
+    }
+
+    /**
+     * sets the time of {@link #currentTime()}. Elements are not removed, as reading does not consume elements.
+     */
+    @Override
+    public void updateTime(float timeStamp) {
+        currentTime = timeStamp;
+    }
+
+    /** @return the time given to the last call of {@link #updateTime(float)} */
+    public float currentTime() {
+        return currentTime;
+    }
+
+    /**
+     * starts a consistent read of multiple values. Spins while an element is being added.
+     * @return a stamp to pass to {@link #endRead(int)}
+     */
+    protected final int beginRead() {
+        int v;
+        while (((v = version) & 1) != 0) {
+            Thread.onSpinWait();
+        }
+        return v;
+    }
+
+    /**
+     * @param stamp the value returned by the corresponding call to {@link #beginRead()}
+     * @return true if the values read since the call to {@link #beginRead()} are consistent, false if they must be read
+     *         again
+     */
+    protected final boolean endRead(int stamp) {
+        VarHandle.acquireFence();
+        return version == stamp;
+    }
+
+    /**
+     * must be called between {@link #beginRead()} and {@link #endRead(int)}
+     * @return the position of the first element with a timestamp of at least the given timestamp, the position of the
+     *         newest element if no such element exists, or -1 if the queue is empty
+     */
+    protected final long positionOfNext(float timeStamp) {
+        long low = first;
+        long high = end - 1;
+        if (high < low) return -1;
+
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (timeStamps[index(mid)] < timeStamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** must be called between {@link #beginRead()} and {@link #endRead(int)} */
+    protected final long firstPosition() {
+        return first;
+    }
+
+    /** must be called between {@link #beginRead()} and {@link #endRead(int)} */
+    protected final float timeAt(long position) {
+        return timeStamps[index(position)];
+    }
+
+    /** must be called between {@link #beginRead()} and {@link #endRead(int)} */
+    @SuppressWarnings("unchecked")
+    protected final T elementAt(long position) {
+        return (T) elements[index(position)];
+    }
+
+    private int index(long position) {
+        return (int) (position & mask);
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("TimedRing:");
+        for (long i = first; i < end; i++) {
+            s.append("\n");
+            s.append(String.format("%1.04f", timeAt(i)));
+            s.append(" > ");
+            s.append(elementAt(i));
+        }
+
+        return s.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package nl.NG.Jetfightergame.Tools.DataStructures;
+
+/**
+ * a disjoint-set forest over the integers [0, size), with union by size and path halving. Both {@link #find(int)} and
+ * {@link #union(int, int)} run in amortized near-constant time.
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class UnionFind {
+    private int[] parent;
+    private int[] setSize;
+    private int size;
+
+    /** creates a forest of {@code size} singleton sets */
+    public UnionFind(int size) {
+        parent = new int[size];
+        setSize = new int[size];
+        reset(size);
+    }
+
+    /**
+     * makes every element a singleton set again, allowing reuse of this object
+     * @param size the new number of elements
+     */
+    public void reset(int size) {
+        if (parent.length < size) {
+            parent = new int[size];
+            setSize = new int[size];
+        }
+
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+            setSize[i] = 1;
+        }
+        this.size = size;
+    }
+
+    /** @return the representative of the set of the given element */
+    public int find(int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * merges the sets of a and b
+     * @return the representative of the merged set
+     */
+    public int union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) return rootA;
+
+        if (setSize[rootA] < setSize[rootB]) {
+            int temp = rootA;
+            rootA = rootB;
+            rootB = temp;
+        }
+
+        parent[rootB] = rootA;
+        setSize[rootA] += setSize[rootB];
+        return rootA;
+    }
+
+    /** @return the number of elements in this forest */
+    public int size() {
+        return size;
+    }
+}
@@ -15,6 +15,7 @@ public enum Directory {
     fonts("res", "fonts"),
     shaders("res", "shaders"),
     meshes("res", "models"),
+    meshCache("cache", "models"),
     pictures("res", "pictures"),
     recordings("Recordings"),
     screenShots("ScreenShots"),
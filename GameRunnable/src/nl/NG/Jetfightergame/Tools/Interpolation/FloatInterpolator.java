@@ -11,15 +11,15 @@ public class FloatInterpolator extends LinearInterpolator<Float> {
     }
 
     @Override
-    protected Float interpolate(Float firstElt, Float secondElt, float fraction) {
+    protected Float interpolate(Float firstElt, Float secondElt, float fraction, Float dest) {
+        // floats are immutable, so dest is ignored
         float difference = secondElt - firstElt;
 
         return firstElt + (difference * fraction);
     }
 
     @Override
-    public Float getDerivative() {
-        float dx = nextElement() - activeElement;
-        return dx / getTimeDifference();
+    protected Float derivative(Float firstElt, Float secondElt, float timeDifference, Float dest) {
+        return (secondElt - firstElt) / timeDifference;
     }
 }
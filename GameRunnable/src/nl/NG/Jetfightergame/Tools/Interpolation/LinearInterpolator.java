@@ -1,30 +1,26 @@
 package nl.NG.Jetfightergame.Tools.Interpolation;
 
-import nl.NG.Jetfightergame.Tools.DataStructures.BlockingTimedArrayQueue;
+import nl.NG.Jetfightergame.Tools.DataStructures.TimedRingBuffer;
 
 /**
  * @author Geert van Ieperen
  * created on 15-12-2017.
  */
-public abstract class LinearInterpolator<T> extends BlockingTimedArrayQueue<T> {
-    private double activeTime;
-    protected T activeElement;
+public abstract class LinearInterpolator<T> extends TimedRingBuffer<T> {
 
     /**
-     * @param capacity the expected maximum number of entries
-     * @param initialElement this item will initially be placed in the queue twice.
+     * @param capacity the maximum number of entries
+     * @param initialElement this item will initially be placed in the queue.
      * @param initialTime the time of starting
      */
     public LinearInterpolator(int capacity, T initialElement, float initialTime) {
         super(capacity);
-        activeTime = initialTime;
-        activeElement = initialElement;
         add(initialElement, initialTime - 1);
     }
 
     /**
      * crates an interpolator with the first two values already given
-     * @param capacity      the expected maximum number of entries
+     * @param capacity      the maximum number of entries
      * @param firstElement  the item that occurs first
      * @param firstTime     the time of occurence
      * @param secondElement the item that occurs second
@@ -32,8 +28,7 @@ public abstract class LinearInterpolator<T> extends BlockingTimedArrayQueue<T> {
      */
     public LinearInterpolator(int capacity, T firstElement, float firstTime, T secondElement, float secondTime) {
         super(capacity);
-        activeTime = firstTime;
-        activeElement = firstElement;
+        add(firstElement, firstTime);
         add(secondElement, secondTime);
     }
 
@@ -41,46 +36,82 @@ public abstract class LinearInterpolator<T> extends BlockingTimedArrayQueue<T> {
      * @return the interpolated object defined by implementation
      */
     public T getInterpolated(float timeStamp){
-        double firstTime = activeTime;
-        T firstElt = activeElement;
-        double secondTime = nextTimeStamp();
-        T secondElt = nextElement();
+        return compute(timeStamp, false, null);
+    }
 
-        if (firstElt == null) {
-            firstElt = secondElt;
-        }
+    /**
+     * writes the interpolated object into dest, if the implementation allows mutation
+     * @param dest the object to write the result into
+     * @return the result, which is dest unless the type is immutable
+     */
+    public T getInterpolated(float timeStamp, T dest){
+        return compute(timeStamp, false, dest);
+    }
 
-        Float fraction = (float) ((timeStamp - firstTime) / (secondTime - firstTime));
-        if (fraction.isNaN()) return firstElt;
+    /**
+     * @return the derivative at the time of the last call to {@link #updateTime(float)}
+     */
+    public T getDerivative() {
+        return compute(currentTime(), true, null);
+    }
 
-        return interpolate(firstElt, secondElt, fraction);
+    /**
+     * writes the derivative at the time of the last call to {@link #updateTime(float)} into dest, if the
+     * implementation allows mutation
+     * @param dest the object to write the result into
+     * @return the result, which is dest unless the type is immutable
+     */
+    public T getDerivative(T dest) {
+        return compute(currentTime(), true, dest);
     }
 
     /**
-     * interpolate using linear interpolation
-     * @return firstElt + (secondElt - firstElt) * fraction
+     * reads the elements around the given time without locking, and combines them
+     * @param isDerivative if true, computes the derivative, otherwise interpolates
+     * @param dest         the object to write the result into, or null to create a new one
      */
-    protected abstract T interpolate(T firstElt, T secondElt, float fraction);
+    private T compute(float timeStamp, boolean isDerivative, T dest) {
+        float firstTime, secondTime;
+        T firstElt, secondElt;
+        int stamp;
 
-    @Override
-    protected void progress() {
-        activeTime = nextTimeStamp();
-        activeElement = nextElement();
-        super.progress();
-    }
+        do {
+            stamp = beginRead();
+            long second = positionOfNext(timeStamp);
+            long first = Math.max(second - 1, firstPosition());
+
+            firstTime = timeAt(first);
+            firstElt = elementAt(first);
+            secondTime = timeAt(second);
+            secondElt = elementAt(second);
+        } while (!endRead(stamp));
+
+        float timeDifference = secondTime - firstTime;
+
+        if (isDerivative) {
+            // a single element has no change
+            return derivative(firstElt, secondElt, (timeDifference == 0) ? 1 : timeDifference, dest);
+        }
+
+        float fraction = (timeStamp - firstTime) / timeDifference;
+        if (Float.isNaN(fraction) || Float.isInfinite(fraction)) {
+            // copies secondElt into dest
+            return (dest == null) ? secondElt : interpolate(secondElt, secondElt, 0, dest);
+        }
 
-    @Override
-    public String toString() {
-        final String backend = super.toString();
-        return backend.replaceFirst("\n", "\n" + String.format("%1.04f", activeTime) + " > " + activeElement + "\n");
+        return interpolate(firstElt, secondElt, fraction, dest);
     }
 
     /**
-     * @return the derivative of the most recent returned value of getInterpolated()
+     * interpolate using linear interpolation
+     * @param dest the object to write the result into, or null to create a new one
+     * @return firstElt + (secondElt - firstElt) * fraction
      */
-    public abstract T getDerivative();
+    protected abstract T interpolate(T firstElt, T secondElt, float fraction, T dest);
 
-    protected float getTimeDifference() {
-        return (float) (nextTimeStamp() - activeTime);
-    }
+    /**
+     * @param dest the object to write the result into, or null to create a new one
+     * @return (secondElt - firstElt) / timeDifference
+     */
+    protected abstract T derivative(T firstElt, T secondElt, float timeDifference, T dest);
 }
@@ -20,8 +20,8 @@ public class QuaternionInterpolator extends LinearInterpolator<Quaternionf> {
     }
 
     @Override
-    protected Quaternionf interpolate(Quaternionf firstElt, Quaternionf secondElt, float fraction) {
-        final Quaternionf result = new Quaternionf();
+    protected Quaternionf interpolate(Quaternionf firstElt, Quaternionf secondElt, float fraction, Quaternionf dest) {
+        final Quaternionf result = (dest == null) ? new Quaternionf() : dest;
 
         if (true && firstElt.dot(secondElt) > DOT_THRESHOLD) {
             firstElt.nlerpIterative(secondElt, fraction, DOT_THRESHOLD, result);
@@ -32,9 +32,8 @@ public class QuaternionInterpolator extends LinearInterpolator<Quaternionf> {
     }
 
     @Override
-    public Quaternionf getDerivative() {
-        Quaternionf dx = activeElement.difference(nextElement(), new Quaternionf());
-        float dy = getTimeDifference();
-        return dx.scale(1 / dy);
+    protected Quaternionf derivative(Quaternionf firstElt, Quaternionf secondElt, float timeDifference, Quaternionf dest) {
+        Quaternionf dx = firstElt.difference(secondElt, (dest == null) ? new Quaternionf() : dest);
+        return dx.scale(1 / timeDifference);
     }
 }
@@ -20,15 +20,35 @@ public class VectorInterpolator extends LinearInterpolator<Vector> {
         super(capacity, firstElement, firstTime, secondElement, secondTime);
     }
 
-    protected Vector interpolate(Vector firstElt, Vector secondElt, float fraction) {
-        return firstElt.interpolateTo(secondElt, fraction);
+    @Override
+    protected Vector interpolate(Vector firstElt, Vector secondElt, float fraction, Vector dest) {
+        if (dest == null) return firstElt.interpolateTo(secondElt, fraction);
+
+        firstElt.lerp(secondElt, fraction, dest);
+        return dest;
+    }
+
+    @Override
+    protected Vector derivative(Vector firstElt, Vector secondElt, float timeDifference, Vector dest) {
+        if (dest == null) dest = new DirVector();
+
+        secondElt.sub(firstElt, dest);
+        dest.mul(1 / timeDifference);
+        return dest;
     }
 
     @Override
     public DirVector getDerivative() {
-        DirVector dx = activeElement.to(nextElement(), new DirVector());
-        float dy = getTimeDifference();
-        return dx.scale(1 / dy);
+        return (DirVector) super.getDerivative();
+    }
+
+    /**
+     * @param dest the vector to write the derivative into
+     * @return dest
+     */
+    public DirVector getDerivative(DirVector dest) {
+        super.getDerivative(dest);
+        return dest;
     }
 
 }
@@ -0,0 +1,153 @@
+package nl.NG.Jetfightergame.Engine;
+
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.Collision;
+import nl.NG.Jetfightergame.EntityGeneral.Hitbox.CollisionContext;
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.EntityGeneral.Touchable;
+import nl.NG.Jetfightergame.Primitives.Plane;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.GL2;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.MatrixStack;
+import nl.NG.Jetfightergame.ShapeCreation.CustomShape;
+import nl.NG.Jetfightergame.ShapeCreation.Shape;
+import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class CollisionContextTest {
+    private static final int GRID_SIZE = 10;
+    private static final int NOF_LINES = 1000;
+    private static final PosVector OFFSET = new PosVector(100, -50, 20);
+
+    private Shape shape;
+    private Touchable target;
+    private PosVector[] starts;
+    private PosVector[] ends;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(3039);
+
+        // a bumpy surface of 2 * GRID_SIZE^2 triangles, which is large enough to use a plane tree
+        PosVector[][] grid = new PosVector[GRID_SIZE + 1][GRID_SIZE + 1];
+        for (int x = 0; x <= GRID_SIZE; x++) {
+            for (int y = 0; y <= GRID_SIZE; y++) {
+                grid[x][y] = new PosVector(x, y, random.nextFloat());
+            }
+        }
+
+        CustomShape frame = new CustomShape();
+        DirVector up = DirVector.zVector();
+        for (int x = 0; x < GRID_SIZE; x++) {
+            for (int y = 0; y < GRID_SIZE; y++) {
+                frame.addTriangle(grid[x][y], grid[x + 1][y], grid[x + 1][y + 1], up);
+                frame.addTriangle(grid[x][y], grid[x + 1][y + 1], grid[x][y + 1], up);
+            }
+        }
+        shape = frame.wrapUp(false);
+        target = new TestTarget(shape);
+
+        starts = new PosVector[NOF_LINES];
+        ends = new PosVector[NOF_LINES];
+        for (int i = 0; i < NOF_LINES; i++) {
+            PosVector start = new PosVector(random.nextFloat() * GRID_SIZE, random.nextFloat() * GRID_SIZE, 2);
+            PosVector end = new PosVector(random.nextFloat() * GRID_SIZE, random.nextFloat() * GRID_SIZE, -1);
+            starts[i] = start.add(OFFSET, new PosVector());
+            ends[i] = end.add(OFFSET, new PosVector());
+        }
+    }
+
+    @Test
+    public void testMatchesPlaneByPlane() {
+        for (int i = 0; i < NOF_LINES; i++) {
+            PosVector localStart = starts[i].sub(OFFSET, new PosVector());
+            PosVector localEnd = ends[i].sub(OFFSET, new PosVector());
+            DirVector direction = localStart.to(localEnd, new DirVector());
+
+            Collision expected = null;
+            for (Plane plane : shape.getPlanes()) {
+                Collision c = plane.getCollisionWith(localStart, direction, localEnd);
+                if (c != null && (expected == null || c.compareTo(expected) < 0)) expected = c;
+            }
+
+            Collision result = MovingEntity.getPointCollision(null, target, starts[i], ends[i], 0);
+
+            Assert.assertNotNull(expected);
+            Assert.assertNotNull(result);
+            Assert.assertEquals(expected.timeScalar, result.timeScalar, 1e-5f);
+
+            PosVector expectedHit = expected.getShapeLocalHitPos().add(OFFSET, new PosVector());
+            Assert.assertEquals(0, expectedHit.to(result.hitPosition(), new DirVector()).length(), 1e-3f);
+        }
+    }
+
+    @Test
+    public void testNoGarbage() {
+        CollisionContext context = CollisionContext.get();
+        // warm up
+        runAll(context);
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long before = bean.getThreadAllocatedBytes(threadId);
+        for (int n = 0; n < 10; n++) {
+            runAll(context);
+        }
+        long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+
+        Assert.assertTrue(allocated + " bytes allocated for " + (10 * NOF_LINES) + " checks", allocated < NOF_LINES);
+    }
+
+    private void runAll(CollisionContext context) {
+        for (int i = 0; i < NOF_LINES; i++) {
+            context.begin(null);
+            context.checkLine(target, starts[i], ends[i], null, 0);
+            Assert.assertTrue(context.hasHit());
+        }
+    }
+
+    /** a static entity with a fixed position */
+    private static class TestTarget implements Touchable {
+        private final Shape shape;
+
+        TestTarget(Shape shape) {
+            this.shape = shape;
+        }
+
+        @Override
+        public void create(MatrixStack ms, Consumer<Shape> action) {
+            action.accept(shape);
+        }
+
+        @Override
+        public void toLocalSpace(MatrixStack ms, Runnable action) {
+            ms.pushMatrix();
+            ms.translate(OFFSET);
+            action.run();
+            ms.popMatrix();
+        }
+
+        @Override
+        public void preDraw(GL2 gl) {
+        }
+
+        @Override
+        public float getRange() {
+            return GRID_SIZE;
+        }
+
+        @Override
+        public PosVector getExpectedMiddle() {
+            return new PosVector(OFFSET);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package nl.NG.Jetfightergame.Engine;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class GameLoopPoolTest {
+
+    @Test(timeout = 5000)
+    public void testLoopsShareThreads() throws InterruptedException {
+        GameLoopPool pool = new GameLoopPool(1);
+        CountingLoop[] loops = new CountingLoop[4];
+        CountDownLatch stopped = new CountDownLatch(loops.length);
+
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new CountingLoop("Loop-" + i, Integer.MAX_VALUE);
+            pool.execute(loops[i], stopped::countDown);
+        }
+
+        Assert.assertFalse(stopped.await(200, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(loops.length, pool.size());
+        pool.shutDown();
+        Assert.assertTrue(stopped.await(1, TimeUnit.SECONDS));
+
+        for (CountingLoop loop : loops) {
+            Assert.assertTrue(loop + " was not executed", loop.updates.get() > 0);
+            Assert.assertTrue(loop.isCleanedUp);
+            Assert.assertTrue(loop.isStopping());
+        }
+        Assert.assertEquals(0, pool.size());
+    }
+
+    @Test(timeout = 5000)
+    public void testLoopStopsItself() throws InterruptedException {
+        GameLoopPool pool = new GameLoopPool(2);
+        CountingLoop loop = new CountingLoop("Loop", 3);
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        pool.execute(loop, stopped::countDown);
+        stopped.await();
+
+        Assert.assertEquals(3, loop.updates.get());
+        Assert.assertTrue(loop.isCleanedUp);
+        pool.shutDown();
+    }
+
+    @Test(timeout = 5000)
+    public void testPausedLoopIsNotUpdated() throws InterruptedException {
+        GameLoopPool pool = new GameLoopPool(1);
+        CountingLoop loop = new CountingLoop("Loop", Integer.MAX_VALUE);
+        loop.pause();
+        pool.execute(loop, () -> {});
+
+        Thread.sleep(100);
+        Assert.assertEquals(0, loop.updates.get());
+
+        loop.unPause();
+        Thread.sleep(100);
+        Assert.assertTrue(loop.updates.get() > 0);
+        pool.shutDown();
+    }
+
+    /** stops itself after a number of updates */
+    private static class CountingLoop extends AbstractGameLoop {
+        final AtomicInteger updates = new AtomicInteger();
+        final int maxUpdates;
+        volatile boolean isCleanedUp = false;
+
+        CountingLoop(String name, int maxUpdates) {
+            super(name, 100, false);
+            this.maxUpdates = maxUpdates;
+        }
+
+        @Override
+        protected void update(float deltaTime) {
+            if (updates.incrementAndGet() >= maxUpdates) stopLoop();
+        }
+
+        @Override
+        protected void cleanup() {
+            isCleanedUp = true;
+        }
+    }
+}
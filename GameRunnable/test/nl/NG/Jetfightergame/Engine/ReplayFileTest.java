@@ -0,0 +1,138 @@
+package nl.NG.Jetfightergame.Engine;
+
+import nl.NG.Jetfightergame.ServerNetwork.MessageType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Random;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class ReplayFileTest {
+    private static final float[] KEYFRAME_TIMES = {3f, 13f, 23f};
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("replay", StateWriter.EXTENSION);
+
+        try (ReplayOutput output = new ReplayOutput(file)) {
+            DataOutputStream out = new DataOutputStream(output);
+            out.writeFloat(1f);
+
+            for (int i = 0; i < KEYFRAME_TIMES.length; i++) {
+                out.write(new byte[]{1, 2, 3, 4, 5});
+                out.write(MessageType.REPLAY_KEYFRAME.ordinal());
+                out.flush();
+                output.writeKeyframe(KEYFRAME_TIMES[i], keyframe(i));
+            }
+            out.write(new byte[]{6, 7, 8});
+        }
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private static ByteArrayOutputStream keyframe(int i) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int j = 0; j <= i; j++) {
+            bytes.write(10 * i + j);
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testIndex() throws IOException {
+        Assert.assertTrue(ReplayFormat.isIndexed(file));
+
+        ReplayFile replay = new ReplayFile(file);
+        Assert.assertEquals(1f, replay.getStartTime(), 0);
+        Assert.assertEquals(KEYFRAME_TIMES.length, replay.getNumberOfKeyframes());
+        for (int i = 0; i < KEYFRAME_TIMES.length; i++) {
+            Assert.assertEquals(KEYFRAME_TIMES[i], replay.getKeyframeTime(i), 0);
+        }
+    }
+
+    @Test
+    public void testKeyframeBefore() throws IOException {
+        ReplayFile replay = new ReplayFile(file);
+        Assert.assertEquals(-1, replay.keyframeBefore(2f));
+        Assert.assertEquals(0, replay.keyframeBefore(3f));
+        Assert.assertEquals(0, replay.keyframeBefore(12.9f));
+        Assert.assertEquals(1, replay.keyframeBefore(13f));
+        Assert.assertEquals(2, replay.keyframeBefore(100f));
+    }
+
+    @Test
+    public void testSeekKeyframe() throws IOException {
+        ReplayFile replay = new ReplayFile(file);
+        DataInputStream in = new DataInputStream(replay.getInput());
+
+        for (int i = KEYFRAME_TIMES.length - 1; i >= 0; i--) {
+            replay.seekKeyframe(i);
+            byte[] expected = keyframe(i).toByteArray();
+            Assert.assertEquals(expected.length, in.readInt());
+
+            byte[] actual = new byte[expected.length];
+            in.readFully(actual);
+            Assert.assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testStreamEndsBeforeIndex() throws IOException {
+        ReplayFile replay = new ReplayFile(file);
+        DataInputStream in = new DataInputStream(replay.getInput());
+        Assert.assertEquals(1f, in.readFloat(), 0);
+
+        replay.seekKeyframe(KEYFRAME_TIMES.length - 1);
+        in.skipNBytes(in.readInt());
+        Assert.assertEquals(6, in.read());
+        Assert.assertEquals(7, in.read());
+        Assert.assertEquals(8, in.read());
+        Assert.assertEquals(-1, in.read());
+
+        replay.seekStart();
+        Assert.assertEquals(1, in.read());
+    }
+
+    @Test
+    public void testMultipleBlocks() throws IOException {
+        byte[] data = new byte[3 * ReplayFormat.BLOCK_SIZE + 17];
+        new Random(1).nextBytes(data);
+
+        try (ReplayOutput output = new ReplayOutput(file)) {
+            new DataOutputStream(output).writeFloat(1f);
+            output.write(data);
+        }
+
+        ReplayFile replay = new ReplayFile(file);
+        DataInputStream in = new DataInputStream(replay.getInput());
+        Assert.assertEquals(1f, in.readFloat(), 0);
+        byte[] actual = new byte[data.length];
+        in.readFully(actual);
+        Assert.assertArrayEquals(data, actual);
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test(expected = IOException.class)
+    public void testDamagedBlock() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // a byte of the compressed data of the first block
+            long position = ReplayFormat.HEADER_SIZE + ReplayFormat.BLOCK_HEADER_SIZE + 2;
+            raf.seek(position);
+            int b = raf.read();
+            raf.seek(position);
+            raf.write(b ^ 0x10);
+        }
+
+        ReplayFile replay = new ReplayFile(file);
+        replay.getInput().skip(Long.MAX_VALUE);
+    }
+}
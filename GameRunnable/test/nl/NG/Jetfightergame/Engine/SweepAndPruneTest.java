@@ -0,0 +1,158 @@
+package nl.NG.Jetfightergame.Engine;
+
+import nl.NG.Jetfightergame.Assets.Entities.FallingCube;
+import nl.NG.Jetfightergame.EntityGeneral.MovingEntity;
+import nl.NG.Jetfightergame.EntityGeneral.Touchable;
+import nl.NG.Jetfightergame.GameState.SweepAndPrune;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.GL2;
+import nl.NG.Jetfightergame.Rendering.MatrixStack.MatrixStack;
+import nl.NG.Jetfightergame.ShapeCreation.Shape;
+import nl.NG.Jetfightergame.Tools.DataStructures.PairList;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class SweepAndPruneTest extends SweepAndPrune {
+    private static final int GRID_SIZE = 10;
+    private static final float TILE_RANGE = 1.5f;
+    private static final int NOF_CUBES = 60;
+
+    private final List<Touchable> all = new ArrayList<>();
+
+    public SweepAndPruneTest() {
+        super(createTiles());
+        all.addAll(getStaticEntities());
+
+        Random random = new Random(42);
+        for (int i = 0; i < NOF_CUBES; i++) {
+            float x = random.nextFloat() * GRID_SIZE * 2;
+            float y = random.nextFloat() * GRID_SIZE * 2;
+            float z = random.nextFloat() * 6 - 2;
+            FallingCube cube = new FallingCube(i, new PosVector(x, y, z));
+            addEntity(cube);
+            all.add(cube);
+        }
+
+        // merges the new entities into the sorted arrays
+        preUpdateEntities((e, dest) -> {
+            dest.zero();
+            return dest;
+        });
+    }
+
+    @Test
+    public void testPairsMatchBruteForce() {
+        PairList<Touchable, MovingEntity> pairs = getIntersectingPairs();
+
+        Set<Set<Touchable>> found = new HashSet<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            Set<Touchable> pair = new HashSet<>(Arrays.asList(pairs.left(i), pairs.right(i)));
+            Assert.assertTrue("duplicate pair " + pair, found.add(pair));
+        }
+
+        Set<Set<Touchable>> expected = new HashSet<>();
+        for (int i = 0; i < all.size(); i++) {
+            for (int j = 0; j < i; j++) {
+                Touchable a = all.get(i);
+                Touchable b = all.get(j);
+                if (!(a instanceof MovingEntity) && !(b instanceof MovingEntity)) continue;
+                if (overlaps(a, b)) expected.add(new HashSet<>(Arrays.asList(a, b)));
+            }
+        }
+
+        Assert.assertEquals(expected, found);
+    }
+
+    @Test
+    public void testNoStaticPairs() {
+        PairList<Touchable, MovingEntity> pairs = getIntersectingPairs();
+
+        for (int i = 0; i < pairs.size(); i++) {
+            Assert.assertNotNull(pairs.right(i));
+        }
+    }
+
+    @Test
+    public void testEntitiesInRange() {
+        Random random = new Random(3039);
+
+        for (int n = 0; n < 50; n++) {
+            PosVector center = new PosVector(random.nextFloat() * GRID_SIZE * 2, random.nextFloat() * GRID_SIZE * 2, 0);
+            float radius = random.nextFloat() * 5;
+
+            Set<MovingEntity> found = new HashSet<>();
+            collectEntitiesInRange(center, radius, found);
+
+            for (Touchable entity : all) {
+                if (!(entity instanceof MovingEntity)) continue;
+                PosVector pos = entity.getExpectedMiddle();
+
+                boolean inside = Math.abs(pos.x - center.x) <= radius
+                        && Math.abs(pos.y - center.y) <= radius
+                        && Math.abs(pos.z - center.z) <= radius;
+                if (inside) Assert.assertTrue(entity + " missing", found.contains(entity));
+            }
+        }
+    }
+
+    private static boolean overlaps(Touchable a, Touchable b) {
+        PosVector aMid = a.getExpectedMiddle();
+        PosVector bMid = b.getExpectedMiddle();
+        float range = a.getRange() + b.getRange();
+        return Math.abs(aMid.x - bMid.x) <= range
+                && Math.abs(aMid.y - bMid.y) <= range
+                && Math.abs(aMid.z - bMid.z) <= range;
+    }
+
+    private static Collection<Touchable> createTiles() {
+        List<Touchable> tiles = new ArrayList<>();
+        for (int x = 0; x < GRID_SIZE; x++) {
+            for (int y = 0; y < GRID_SIZE; y++) {
+                tiles.add(new TestTile(new PosVector(x * 2, y * 2, 0)));
+            }
+        }
+        return tiles;
+    }
+
+    /** a static entity that only has a position and a range */
+    private static class TestTile implements Touchable {
+        private final PosVector middle;
+
+        TestTile(PosVector middle) {
+            this.middle = middle;
+        }
+
+        @Override
+        public void create(MatrixStack ms, Consumer<Shape> action) {
+        }
+
+        @Override
+        public void toLocalSpace(MatrixStack ms, Runnable action) {
+        }
+
+        @Override
+        public void preDraw(GL2 gl) {
+        }
+
+        @Override
+        public float getRange() {
+            return TILE_RANGE;
+        }
+
+        @Override
+        public PosVector getExpectedMiddle() {
+            return new PosVector(middle);
+        }
+
+        @Override
+        public String toString() {
+            return "TestTile" + middle;
+        }
+    }
+}
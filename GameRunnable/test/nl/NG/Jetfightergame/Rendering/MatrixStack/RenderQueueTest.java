@@ -0,0 +1,175 @@
+package nl.NG.Jetfightergame.Rendering.MatrixStack;
+
+import nl.NG.Jetfightergame.Rendering.Material;
+import nl.NG.Jetfightergame.Tools.Vectors.Color4f;
+import org.joml.Matrix4f;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class RenderQueueTest {
+    private RenderQueue queue;
+    private Renderable sea;
+    private Renderable jet;
+    private List<Batch> batches;
+
+    @Before
+    public void setUp() {
+        queue = new RenderQueue();
+        sea = new TestObject();
+        jet = new TestObject();
+        batches = new ArrayList<>();
+    }
+
+    @Test
+    public void testRepeatedObjectsFormOneBatch() {
+        for (int i = 0; i < 100; i++) {
+            queue.add(sea, translation(i), Material.GLASS, Color4f.BLUE);
+            queue.add(jet, translation(-i), Material.ROUGH, Color4f.RED);
+        }
+
+        collectBatches();
+        Assert.assertEquals(2, batches.size());
+        Assert.assertEquals(100, batches.get(0).count);
+        Assert.assertEquals(100, batches.get(1).count);
+        Assert.assertEquals(200, queue.size());
+    }
+
+    @Test
+    public void testBatchKeepsOrderOfAddition() {
+        for (int i = 0; i < 10; i++) {
+            queue.add(sea, translation(i), Material.GLASS, Color4f.BLUE);
+            queue.add(jet, translation(-i), Material.ROUGH, Color4f.RED);
+        }
+
+        collectBatches();
+        for (Batch batch : batches) {
+            float sign = (batch.object == sea) ? 1 : -1;
+            for (int i = 0; i < batch.count; i++) {
+                float x = queue.getMatrix(batch.first + i).m30();
+                Assert.assertEquals(sign * i, x, 0);
+            }
+        }
+    }
+
+    @Test
+    public void testDifferentColorsAreSeparateBatches() {
+        queue.add(sea, translation(0), Material.PLASTIC, Color4f.BLUE);
+        queue.add(sea, translation(1), Material.PLASTIC, Color4f.RED);
+        queue.add(sea, translation(2), Material.PLASTIC, new Color4f(0f, 0f, 1f, 1f));
+        queue.add(sea, translation(3), Material.ROUGH, Color4f.BLUE);
+
+        collectBatches();
+        Assert.assertEquals(3, batches.size());
+        Assert.assertEquals(3, queue.getNumberOfBatches());
+
+        int total = 0;
+        for (Batch batch : batches) {
+            total += batch.count;
+            if (batch.material == Material.PLASTIC && batch.color.equals(Color4f.BLUE)) {
+                Assert.assertEquals(2, batch.count);
+            }
+        }
+        Assert.assertEquals(4, total);
+    }
+
+    @Test
+    public void testTransparentAfterOpaque() {
+        Color4f seeThrough = new Color4f(1, 1, 1, 0.5f);
+        queue.add(jet, translation(0), Material.ROUGH, seeThrough);
+        queue.add(sea, translation(1), Material.ROUGH, Color4f.WHITE);
+        queue.add(jet, translation(2), Material.ROUGH, seeThrough);
+
+        collectBatches();
+        Assert.assertEquals(2, batches.size());
+        Assert.assertSame(sea, batches.get(0).object);
+        Assert.assertSame(jet, batches.get(1).object);
+        Assert.assertEquals(2, batches.get(1).count);
+    }
+
+    @Test
+    public void testTransparentKeepOrderOfAddition() {
+        Color4f seeThrough = new Color4f(1, 1, 1, 0.5f);
+        queue.add(jet, translation(0), Material.ROUGH, seeThrough);
+        queue.add(sea, translation(1), Material.GLASS, seeThrough);
+        queue.add(jet, translation(2), Material.ROUGH, seeThrough);
+        queue.add(sea, translation(3), Material.ROUGH, Color4f.WHITE);
+
+        collectBatches();
+        Assert.assertEquals(4, batches.size());
+        Assert.assertSame(sea, batches.get(0).object);
+        for (int i = 1; i < 4; i++) {
+            Assert.assertEquals(1, batches.get(i).count);
+            Assert.assertEquals(i - 1, queue.getMatrix(batches.get(i).first).m30(), 0);
+        }
+    }
+
+    @Test
+    public void testMatricesAreCopied() {
+        Matrix4f model = translation(5);
+        queue.add(sea, model, null, Color4f.WHITE);
+        model.translate(10, 0, 0);
+
+        collectBatches();
+        Assert.assertEquals(5, queue.getMatrix(0).m30(), 0);
+        Assert.assertNull(batches.get(0).material);
+    }
+
+    @Test
+    public void testClearReusesQueue() {
+        for (int i = 0; i < 100; i++) {
+            queue.add(sea, translation(i), Material.GLASS, Color4f.BLUE);
+        }
+        queue.clear();
+        Assert.assertEquals(0, queue.size());
+        Assert.assertEquals(0, queue.getNumberOfBatches());
+
+        queue.add(jet, translation(7), Material.GLASS, Color4f.BLUE);
+        collectBatches();
+        Assert.assertEquals(1, batches.size());
+        Assert.assertSame(jet, batches.get(0).object);
+        Assert.assertEquals(7, queue.getMatrix(0).m30(), 0);
+    }
+
+    private void collectBatches() {
+        queue.forEachBatch((object, material, color, first, count) ->
+                batches.add(new Batch(object, material, color, first, count))
+        );
+    }
+
+    private static Matrix4f translation(float x) {
+        return new Matrix4f().translate(x, 0, 0);
+    }
+
+    private static class Batch {
+        final Renderable object;
+        final Material material;
+        final Color4f color;
+        final int first;
+        final int count;
+
+        Batch(Renderable object, Material material, Color4f color, int first, int count) {
+            this.object = object;
+            this.material = material;
+            this.color = color;
+            this.first = first;
+            this.count = count;
+        }
+    }
+
+    private static class TestObject implements Renderable {
+        @Override
+        public void render(GL2.Painter lock) {
+        }
+
+        @Override
+        public void dispose() {
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package nl.NG.Jetfightergame.Rendering.MatrixStack;
+
+import nl.NG.Jetfightergame.Primitives.Plane;
+import nl.NG.Jetfightergame.ShapeCreation.Shape;
+import nl.NG.Jetfightergame.Tools.DataStructures.BoundingVolumeHierarchy;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class ViewFrustumTest {
+    private static final float FOG = 100;
+    private Matrix4f viewProjection;
+    private Vector3f eye;
+    private ViewFrustum frustum;
+
+    @Before
+    public void setUp() {
+        // looking from the origin in the positive x direction
+        eye = new Vector3f();
+        viewProjection = new Matrix4f()
+                .setPerspective((float) Math.toRadians(60), 1, 0.05f, 4000f)
+                .lookAt(eye, new Vector3f(1, 0, 0), new Vector3f(0, 0, 1));
+        frustum = new ViewFrustum().set(viewProjection, eye, FOG);
+    }
+
+    @Test
+    public void testSpheres() {
+        Assert.assertTrue(frustum.testSphere(50, 0, 0, 1));
+        Assert.assertFalse("behind the camera", frustum.testSphere(-50, 0, 0, 1));
+        Assert.assertFalse("beside the view", frustum.testSphere(10, 50, 0, 1));
+        Assert.assertTrue("partially in view", frustum.testSphere(10, 10, 0, 5));
+        Assert.assertFalse("in the fog", frustum.testSphere(150, 0, 0, 10));
+        Assert.assertTrue("reaching out of the fog", frustum.testSphere(105, 0, 0, 10));
+
+        frustum.set(viewProjection, eye, Float.POSITIVE_INFINITY);
+        Assert.assertTrue(frustum.testSphere(150, 0, 0, 10));
+        Assert.assertFalse("beyond the far plane", frustum.testSphere(5000, 0, 0, 10));
+    }
+
+    @Test
+    public void testShapeUsesModelMatrix() {
+        Shape cube = new TestShape(
+                new PosVector(-1, -1, -1), new PosVector(1, 1, 1), new PosVector(-1, 1, -1), new PosVector(1, -1, 1)
+        );
+
+        Assert.assertTrue(frustum.isVisible(cube, new Matrix4f().translate(20, 0, 0)));
+        Assert.assertFalse(frustum.isVisible(cube, new Matrix4f().translate(-20, 0, 0)));
+        Assert.assertFalse(frustum.isVisible(cube, new Matrix4f().translate(20, 30, 0)));
+        // scaling makes the cube reach into the view
+        Assert.assertTrue(frustum.isVisible(cube, new Matrix4f().translate(20, 30, 0).scale(20)));
+
+        Assert.assertEquals(2, frustum.getNumberOfVisible());
+        Assert.assertEquals(2, frustum.getNumberOfCulled());
+        frustum.set(viewProjection, eye, FOG);
+        Assert.assertEquals(0, frustum.getNumberOfVisible() + frustum.getNumberOfCulled());
+    }
+
+    @Test
+    public void testBoundingSphereContainsPoints() {
+        Random random = new Random(42);
+        List<PosVector> points = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            points.add(new PosVector(random.nextFloat() * 10, random.nextFloat() * 4, random.nextFloat()));
+        }
+
+        float[] sphere = new TestShape(points.toArray(new PosVector[0])).getBoundingSphere();
+        Vector3f middle = new Vector3f(sphere[0], sphere[1], sphere[2]);
+        for (PosVector p : points) {
+            Assert.assertTrue(middle.distance(p) <= sphere[3] + 1e-5f);
+        }
+
+        float[] empty = new TestShape().getBoundingSphere();
+        Assert.assertEquals(Float.POSITIVE_INFINITY, empty[3], 0);
+        Assert.assertTrue(frustum.isVisible(new TestShape(), new Matrix4f().translate(-20, 0, 0)));
+    }
+
+    @Test
+    public void testClassifyBoxes() {
+        Assert.assertEquals(ViewFrustum.INSIDE, frustum.classify(new float[]{10, -1, -1, 12, 1, 1}, 0));
+        Assert.assertEquals(ViewFrustum.INTERSECTS, frustum.classify(new float[]{-1, -1, -1, 12, 1, 1}, 0));
+        Assert.assertEquals(ViewFrustum.INTERSECTS, frustum.classify(new float[]{95, -1, -1, 105, 1, 1}, 0));
+        Assert.assertEquals(ViewFrustum.OUTSIDE, frustum.classify(new float[]{-12, -1, -1, -10, 1, 1}, 0));
+        Assert.assertEquals(ViewFrustum.OUTSIDE, frustum.classify(new float[]{105, -1, -1, 110, 1, 1}, 0));
+    }
+
+    @Test
+    public void testTreeQueryEqualsTestingEachBox() {
+        Random random = new Random(3039);
+        List<float[]> boxes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            float x = random.nextFloat() * 300 - 150;
+            float y = random.nextFloat() * 300 - 150;
+            float z = random.nextFloat() * 20 - 10;
+            float size = random.nextFloat() * 5;
+            boxes.add(new float[]{x, y, z, x + size, y + size, z + size});
+        }
+        BoundingVolumeHierarchy<float[]> tree =
+                new BoundingVolumeHierarchy<>(boxes, (box, dest, offset) -> System.arraycopy(box, 0, dest, offset, 6));
+
+        Set<float[]> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        int count = tree.forEachIn(frustum, result::add, new int[tree.getStackSize()]);
+
+        Set<float[]> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (float[] box : boxes) {
+            if (frustum.classify(box, 0) != ViewFrustum.OUTSIDE) expected.add(box);
+        }
+
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertTrue(expected.size() < boxes.size());
+        Assert.assertEquals(expected, result);
+        Assert.assertEquals(expected.size(), count);
+    }
+
+    private static class TestShape implements Shape {
+        private final List<PosVector> points;
+
+        TestShape(PosVector... points) {
+            this.points = Arrays.asList(points);
+        }
+
+        @Override
+        public Iterable<? extends Plane> getPlanes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Iterable<PosVector> getPoints() {
+            return points;
+        }
+
+        @Override
+        public void render(GL2.Painter lock) {
+        }
+
+        @Override
+        public void dispose() {
+        }
+    }
+}
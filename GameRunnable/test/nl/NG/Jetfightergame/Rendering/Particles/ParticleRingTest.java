@@ -0,0 +1,177 @@
+package nl.NG.Jetfightergame.Rendering.Particles;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class ParticleRingTest {
+    private static final float[] BOUNDS = {0, 0, 0, 1, 1, 1};
+    private ParticleRing ring;
+    private List<int[]> ranges;
+
+    @Before
+    public void setUp() {
+        ring = new ParticleRing(100);
+        ranges = new ArrayList<>();
+    }
+
+    @Test
+    public void testGroupsAreConsecutive() {
+        Assert.assertEquals(0, ring.allocate(30, 1f, BOUNDS));
+        Assert.assertEquals(30, ring.allocate(20, 2f, BOUNDS));
+        Assert.assertEquals(50, ring.allocate(10, 3f, BOUNDS));
+        Assert.assertEquals(60, ring.size());
+        Assert.assertEquals(3, ring.getNumberOfGroups());
+
+        Assert.assertEquals(1, ring.forEachRange(null, this::collect));
+        assertRange(0, 0, 60);
+    }
+
+    @Test
+    public void testReclaimInOrderOfAllocation() {
+        ring.allocate(30, 2f, BOUNDS);
+        ring.allocate(20, 1f, BOUNDS);
+        ring.allocate(10, 3f, BOUNDS);
+
+        // the second group has expired, but the first has not
+        ring.reclaim(1.5f);
+        Assert.assertEquals(60, ring.size());
+        Assert.assertEquals(40, ring.getNumberOfParticles(1.5f));
+
+        ring.reclaim(2.5f);
+        Assert.assertEquals(10, ring.size());
+        Assert.assertEquals(50, ring.getFirstSlot());
+
+        ring.reclaim(3f);
+        Assert.assertEquals(0, ring.size());
+        Assert.assertEquals(0, ring.forEachRange(null, this::collect));
+    }
+
+    @Test
+    public void testGroupWrapsAroundEnd() {
+        ring.allocate(80, 1f, BOUNDS);
+        ring.allocate(10, 2f, BOUNDS);
+        ring.reclaim(1f);
+
+        int first = ring.allocate(30, 3f, BOUNDS);
+        Assert.assertEquals(90, first);
+        Assert.assertEquals(40, ring.size());
+
+        Assert.assertEquals(2, ring.forEachRange(null, this::collect));
+        assertRange(0, 80, 20);
+        assertRange(1, 0, 20);
+    }
+
+    @Test
+    public void testFullRingDropsOldest() {
+        ring.allocate(40, 5f, BOUNDS);
+        ring.allocate(40, 5f, BOUNDS);
+        Assert.assertEquals(80, ring.allocate(50, 5f, BOUNDS));
+
+        Assert.assertEquals(40, ring.getNumberOfDropped());
+        Assert.assertEquals(90, ring.size());
+        Assert.assertEquals(40, ring.getFirstSlot());
+    }
+
+    @Test
+    public void testRetiredSlotsAreNotReused() {
+        ring.allocate(60, 1f, BOUNDS);
+        ring.allocate(30, 2f, BOUNDS);
+        ring.retire(1f);
+        long mark = ring.getNumberOfRetired();
+        Assert.assertEquals(30, ring.size());
+        Assert.assertEquals(10, ring.getNumberOfFree());
+
+        // the retired slots are only freed once released
+        ring.allocate(10, 3f, BOUNDS);
+        Assert.assertEquals(0, ring.getNumberOfFree());
+        ring.release(mark);
+        Assert.assertEquals(60, ring.getNumberOfFree());
+        Assert.assertEquals(0, ring.allocate(20, 3f, BOUNDS));
+        Assert.assertEquals(0, ring.getNumberOfDropped());
+
+        ring.clear();
+        Assert.assertEquals(60, ring.getNumberOfDropped());
+        Assert.assertEquals(100, ring.getNumberOfFree());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGroupLargerThanRing() {
+        ring.allocate(101, 1f, BOUNDS);
+    }
+
+    @Test
+    public void testFilterSplitsRanges() {
+        float[] hidden = {10, 10, 10, 11, 11, 11};
+        ring.allocate(10, 1f, BOUNDS);
+        ring.allocate(10, 1f, BOUNDS);
+        ring.allocate(10, 1f, hidden);
+        ring.allocate(10, 1f, BOUNDS);
+        ring.allocate(10, 1f, hidden);
+
+        int nOfRanges = ring.forEachRange((bounds, offset) -> bounds[offset] < 5, this::collect);
+        Assert.assertEquals(2, nOfRanges);
+        assertRange(0, 0, 20);
+        assertRange(1, 30, 10);
+    }
+
+    @Test
+    public void testManyGroups() {
+        // more groups than the initial size of the group arrays, while wrapping around
+        float time = 0;
+        for (int i = 0; i < 500; i++) {
+            ring.allocate(3, time + 10, BOUNDS);
+            time += 1;
+            ring.reclaim(time);
+        }
+
+        // the groups of the last 9 seconds remain
+        Assert.assertEquals(27, ring.size());
+        Assert.assertEquals(9, ring.getNumberOfGroups());
+        Assert.assertEquals(0, ring.getNumberOfDropped());
+        Assert.assertEquals((500 * 3 - 27) % 100, ring.getFirstSlot());
+
+        int total = 0;
+        ring.forEachRange(null, this::collect);
+        for (int[] range : ranges) {
+            Assert.assertTrue(range[0] + range[1] <= ring.getCapacity());
+            total += range[1];
+        }
+        Assert.assertEquals(27, total);
+    }
+
+    @Test
+    public void testGrowingKeepsGroups() {
+        // groups with an odd index are hidden
+        for (int i = 0; i < 10; i++) {
+            ring.allocate(2, i, new float[]{i % 2, 0, 0, 1, 1, 1});
+        }
+        ring.reclaim(4);
+        for (int i = 10; i < 40; i++) {
+            ring.allocate(2, i, new float[]{i % 2, 0, 0, 1, 1, 1});
+        }
+
+        Assert.assertEquals(35, ring.getNumberOfGroups());
+        Assert.assertEquals(10, ring.getFirstSlot());
+
+        ring.forEachRange((bounds, offset) -> bounds[offset] == 0, this::collect);
+        Assert.assertEquals(17, ranges.size());
+        // group 5 is the first, and is hidden
+        assertRange(0, 12, 2);
+        assertRange(16, 76, 2);
+    }
+
+    private void collect(int first, int count) {
+        ranges.add(new int[]{first, count});
+    }
+
+    private void assertRange(int index, int first, int count) {
+        Assert.assertArrayEquals(new int[]{first, count}, ranges.get(index));
+    }
+}
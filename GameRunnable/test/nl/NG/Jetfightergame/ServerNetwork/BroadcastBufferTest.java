@@ -0,0 +1,124 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class BroadcastBufferTest {
+    private BroadcastBuffer broadcast;
+
+    @Before
+    public void setUp() {
+        broadcast = new BroadcastBuffer();
+    }
+
+    @Test
+    public void testSameBytesForAll() throws IOException {
+        BroadcastBuffer.Subscription first = broadcast.subscribe();
+        BroadcastBuffer.Subscription second = broadcast.subscribe();
+        broadcast.send(MessageType.RACE_PROGRESS, p -> p.raceProgressSend(42, 0, 0));
+
+        ByteArrayOutputStream a = new ByteArrayOutputStream();
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        first.writeTo(a);
+        second.writeTo(b);
+
+        Assert.assertEquals(1 + 12, a.size());
+        Assert.assertArrayEquals(a.toByteArray(), b.toByteArray());
+        Assert.assertEquals(MessageType.RACE_PROGRESS.ordinal(), a.toByteArray()[0]);
+    }
+
+    @Test
+    public void testLateSubscriberMissesEarlierMessages() throws IOException {
+        broadcast.send(MessageType.RACE_PROGRESS, p -> p.raceProgressSend(1, 0, 0));
+        BroadcastBuffer.Subscription late = broadcast.subscribe();
+        broadcast.send(MessageType.RACE_PROGRESS, p -> p.raceProgressSend(2, 0, 0));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        late.writeTo(out);
+        Assert.assertEquals(1 + 12, out.size());
+        Assert.assertEquals(2, out.toByteArray()[4]);
+    }
+
+    @Test
+    public void testCompactKeepsUnwrittenBytes() throws IOException {
+        BroadcastBuffer.Subscription fast = broadcast.subscribe();
+        BroadcastBuffer.Subscription slow = broadcast.subscribe();
+        ByteArrayOutputStream fastOut = new ByteArrayOutputStream();
+        ByteArrayOutputStream slowOut = new ByteArrayOutputStream();
+
+        // more than the initial capacity, such that the buffer must grow
+        for (int i = 0; i < 2000; i++) {
+            final int value = i;
+            broadcast.send(MessageType.RACE_PROGRESS, p -> p.raceProgressSend(value, 0, 0));
+            fast.writeTo(fastOut);
+            broadcast.compact();
+        }
+        Assert.assertEquals(2000 * 13, broadcast.size());
+
+        slow.writeTo(slowOut);
+        Assert.assertArrayEquals(fastOut.toByteArray(), slowOut.toByteArray());
+
+        broadcast.compact();
+        Assert.assertEquals(0, broadcast.size());
+
+        // cancelled subscriptions do not hold bytes
+        slow.cancel();
+        broadcast.send(MessageType.RACE_PROGRESS, p -> p.raceProgressSend(0, 0, 0));
+        fast.writeTo(fastOut);
+        broadcast.compact();
+        Assert.assertEquals(0, broadcast.size());
+    }
+
+    @Test(timeout = 10000)
+    public void testBlockedWriterDoesNotBlockOthers() throws Exception {
+        BroadcastBuffer.Subscription blocked = broadcast.subscribe();
+        BroadcastBuffer.Subscription other = broadcast.subscribe();
+        broadcast.send(MessageType.RACE_PROGRESS, p -> p.raceProgressSend(1, 0, 0));
+
+        CountDownLatch isWriting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ByteArrayOutputStream blockedOut = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                isWriting.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new AssertionError(ex);
+                }
+                super.write(b, off, len);
+            }
+        };
+        Thread writer = new Thread(() -> {
+            try {
+                blocked.writeTo(blockedOut);
+            } catch (IOException ex) {
+                throw new AssertionError(ex);
+            }
+        });
+        writer.start();
+        isWriting.await();
+
+        // the other subscription keeps receiving messages, and its bytes can be released
+        ByteArrayOutputStream otherOut = new ByteArrayOutputStream();
+        for (int i = 2; i < 1000; i++) {
+            final int value = i;
+            broadcast.send(MessageType.RACE_PROGRESS, p -> p.raceProgressSend(value, 0, 0));
+            other.writeTo(otherOut);
+            broadcast.compact();
+        }
+
+        release.countDown();
+        writer.join();
+        blocked.writeTo(blockedOut);
+        Assert.assertArrayEquals(otherOut.toByteArray(), blockedOut.toByteArray());
+    }
+}
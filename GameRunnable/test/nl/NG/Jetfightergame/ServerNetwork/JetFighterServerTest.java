@@ -34,6 +34,7 @@ public class JetFighterServerTest {
     private Exception tryConnect(Socket client) {
         try {
             client.connect(new InetSocketAddress(ServerSettings.SERVER_PORT));
+            RoomManager.joinRoom(client.getInputStream(), client.getOutputStream(), RoomManager.ROOM_ANY);
             ClientConnection cc = new ClientConnection("TheLegend27",
                     client.getOutputStream(), client.getInputStream(), EntityClass.JET_SPITZ, JET_COLOR
             );
@@ -0,0 +1,117 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Assets.Shapes.GeneralShapes;
+import nl.NG.Jetfightergame.Settings.ServerSettings;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * connects many loopback clients to a server, where each connection is read by a listener on both sides, or on the
+ * server by a single {@link SelectorTransport}
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class ListenerScopeTest {
+    private static final int NOF_CLIENTS = 200;
+
+    @BeforeClass
+    public static void loadShapes() {
+        GeneralShapes.init(false);
+    }
+
+    @Test(timeout = 180000)
+    public void testVirtualThreadListeners() throws IOException, InterruptedException {
+        runClients(true, false);
+    }
+
+    @Test(timeout = 240000)
+    public void testPlatformThreadListeners() throws IOException, InterruptedException {
+        // threads of the first run that are still stopping only make the second run look cheaper
+        int nonBlocking = runClients(false, true);
+        int blocking = runClients(false, false);
+
+        // the blocking server reads every connection on its own thread, the non-blocking server uses one in total
+        Assert.assertTrue(blocking + " against " + nonBlocking, blocking - nonBlocking > NOF_CLIENTS / 2);
+    }
+
+    /**
+     * connects {@link #NOF_CLIENTS} bots to a new server, and disconnects them again
+     * @param useVirtualThreads if true, the listeners of both sides are started on virtual threads, if available
+     * @param nonBlocking       if true, the server handles all connections with one {@link SelectorTransport}
+     * @return the number of platform threads that were started while the clients were connected
+     */
+    private static int runClients(boolean useVirtualThreads, boolean nonBlocking) throws IOException, InterruptedException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        int threadsBefore = threadBean.getThreadCount();
+        long memoryBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        boolean setting = ServerSettings.VIRTUAL_THREAD_LISTENERS;
+        ServerSettings.VIRTUAL_THREAD_LISTENERS = useVirtualThreads;
+        JetFighterServer server = new JetFighterServer(EnvironmentClass.LOBBY, false, 0, nonBlocking);
+        ServerSettings.VIRTUAL_THREAD_LISTENERS = setting;
+
+        ServerLoop loop = server.getRunnable();
+        ListenerScope serverListeners = loop.getListeners();
+        ListenerScope clientListeners = new ListenerScope(useVirtualThreads);
+        List<BotClient> bots = new ArrayList<>(NOF_CLIENTS);
+
+        try {
+            server.listenInThread(true);
+            loop.setDaemon(true);
+            loop.start();
+
+            String host = InetAddress.getLoopbackAddress().getHostAddress();
+            for (int i = 0; i < NOF_CLIENTS; i++) {
+                bots.add(BotClient.connect(host, server.getPort(), "Bot-" + i, clientListeners));
+            }
+
+            if (nonBlocking) {
+                // the transport and the listener for new connections
+                Assert.assertEquals(2, serverListeners.size());
+
+            } else {
+                // the server starts the listener of a connection after the client is connected
+                while (serverListeners.size() < NOF_CLIENTS + 1) Thread.sleep(10);
+                // the server also listens for new connections
+                Assert.assertEquals(NOF_CLIENTS + 1, serverListeners.size());
+            }
+            Assert.assertEquals(NOF_CLIENTS, clientListeners.size());
+            for (BotClient bot : bots) {
+                Assert.assertFalse(bot.playerName(), bot.isDisconnected());
+            }
+
+            int threads = threadBean.getThreadCount() - threadsBefore;
+            long memory = runtime.totalMemory() - runtime.freeMemory() - memoryBefore;
+            System.out.printf("%d clients with listeners on %s threads%s: %d new platform threads, %d kB heap%n",
+                    NOF_CLIENTS, clientListeners.isVirtual() ? "virtual" : "platform",
+                    nonBlocking ? " and a non-blocking server" : "", threads, memory / 1024
+            );
+            // each bot runs its own loop, but no listener needs a platform thread
+            if (clientListeners.isVirtual() && serverListeners.isVirtual()) {
+                Assert.assertTrue(threads < 2 * NOF_CLIENTS);
+            }
+
+            clientListeners.close();
+            Assert.assertEquals(0, clientListeners.size());
+            for (BotClient bot : bots) {
+                Assert.assertTrue(bot.playerName(), bot.isDisconnected());
+            }
+
+            return threads;
+
+        } finally {
+            clientListeners.close();
+            loop.stopLoop();
+            server.close();
+        }
+    }
+}
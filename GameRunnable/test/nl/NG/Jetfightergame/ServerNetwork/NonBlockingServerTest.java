@@ -0,0 +1,71 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Assets.Shapes.GeneralShapes;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+
+/**
+ * runs a client against a server of which all connections are handled by a {@link SelectorTransport}
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class NonBlockingServerTest {
+    private JetFighterServer server;
+    private ServerLoop loop;
+    private ListenerScope clientListeners;
+
+    @BeforeClass
+    public static void loadShapes() {
+        GeneralShapes.init(false);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new JetFighterServer(EnvironmentClass.LOBBY, false, 0, true);
+        loop = server.getRunnable();
+        loop.setDaemon(true);
+        loop.start();
+        clientListeners = new ListenerScope(false);
+    }
+
+    @After
+    public void tearDown() {
+        clientListeners.close();
+        loop.stopLoop();
+        server.close();
+    }
+
+    @Test(timeout = 20000)
+    public void testPauseAndUnpause() throws IOException, InterruptedException {
+        // the host of the server may pause the game
+        Thread acceptHost = new Thread(server::listenForHost);
+        acceptHost.start();
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        BotClient bot = BotClient.connect(host, server.getPort(), "Host", clientListeners);
+        acceptHost.join();
+
+        for (int i = 0; i < 3; i++) {
+            bot.sendCommand(MessageType.PAUSE_GAME);
+            while (!bot.getTimer().isPaused()) Thread.sleep(10);
+
+            // every unpause makes the client synchronize its timer with the server. The client can not send another
+            // command until the synchronisation is complete
+            bot.sendCommand(MessageType.UNPAUSE_GAME);
+            while (bot.getTimer().isPaused()) Thread.sleep(10);
+        }
+
+        // the server keeps sending snapshots that the client can read
+        EntitySnapshot snapshot = bot.getLastSnapshot();
+        while (bot.getLastSnapshot() == snapshot) Thread.sleep(10);
+        bot.sendCommand(MessageType.PAUSE_GAME);
+        while (!bot.getTimer().isPaused()) Thread.sleep(10);
+
+        Assert.assertFalse(bot.isDisconnected());
+        Assert.assertEquals(0, bot.getTimer().time() - loop.getTimer().time(), 0.5f);
+    }
+}
@@ -0,0 +1,110 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import nl.NG.Jetfightergame.Settings.ServerSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+
+/**
+ * tests the selector transport over loopback
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class SelectorTransportTest {
+    private ServerSocketChannel serverChannel;
+    private SelectorTransport transport;
+    private Socket client;
+    private ChannelConnection connection;
+
+    @Before
+    public void setUp() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        transport = new SelectorTransport();
+        transport.listenInThread(true);
+
+        client = new Socket(InetAddress.getLoopbackAddress(), serverChannel.socket().getLocalPort());
+        client.setSoTimeout(5000);
+        connection = transport.register(serverChannel.accept());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+        transport.close();
+        serverChannel.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testFragmentedMessagesAreEchoed() throws IOException, InterruptedException {
+        DataOutputStream clientOut = new DataOutputStream(client.getOutputStream());
+        DataInputStream clientIn = new DataInputStream(client.getInputStream());
+
+        // handshake: reading blocks until the data arrives
+        clientOut.writeInt(3039);
+        clientOut.flush();
+        DataInputStream serverIn = new DataInputStream(connection.getInput());
+        Assert.assertEquals(3039, serverIn.readInt());
+
+        // echoes messages of a length byte followed by that many bytes
+        DataOutputStream serverOut = new DataOutputStream(connection.getOutput());
+        connection.dispatchTo(() -> {
+            int length = serverIn.read();
+            if (length < 0) return false;
+            byte[] message = new byte[length];
+            serverIn.readFully(message);
+
+            serverOut.write(length);
+            serverOut.write(message);
+            serverOut.flush();
+            return true;
+        });
+
+        for (int i = 1; i < 50; i++) {
+            byte[] message = new byte[i];
+            for (int j = 0; j < i; j++) message[j] = (byte) (i * j);
+
+            // send the message in two parts, with a delay in between
+            clientOut.write(i);
+            clientOut.write(message, 0, i / 2);
+            clientOut.flush();
+            if (i % 10 == 0) Thread.sleep(20);
+            clientOut.write(message, i / 2, i - i / 2);
+            clientOut.flush();
+
+            Assert.assertEquals(i, clientIn.read());
+            byte[] echo = new byte[i];
+            clientIn.readFully(echo);
+            Assert.assertArrayEquals(message, echo);
+        }
+
+        client.shutdownOutput();
+        while (!connection.isClosed()) Thread.sleep(10);
+    }
+
+    @Test(timeout = 10000)
+    public void testSlowClientDoesNotBlockWriter() {
+        OutputStream out = connection.getOutput();
+        byte[] chunk = new byte[1 << 16];
+        long written = 0;
+
+        // the client never reads, so the connection must be dropped instead of blocking
+        try {
+            while (written < 8L * ServerSettings.SEND_BUFFER_LIMIT) {
+                out.write(chunk);
+                out.flush();
+                written += chunk.length;
+            }
+            Assert.fail("Wrote " + written + " bytes to a client that does not read");
+
+        } catch (IOException expected) {
+            Assert.assertTrue(written >= ServerSettings.SEND_BUFFER_LIMIT - chunk.length);
+        }
+    }
+}
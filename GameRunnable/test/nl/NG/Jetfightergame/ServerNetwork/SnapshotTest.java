@@ -0,0 +1,176 @@
+package nl.NG.Jetfightergame.ServerNetwork;
+
+import org.joml.Quaternionf;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class SnapshotTest {
+    private static final int NOF_ENTITIES = 50;
+    private Random random;
+    private SnapshotEncoder encoder;
+    private SnapshotDecoder decoder;
+
+    @Before
+    public void setUp() {
+        random = new Random(3039);
+        encoder = new SnapshotEncoder();
+        decoder = new SnapshotDecoder();
+    }
+
+    @Test
+    public void testRotationPacking() {
+        for (int i = 0; i < 1000; i++) {
+            Quaternionf rotation = new Quaternionf().rotateXYZ(
+                    random.nextFloat() * 7, random.nextFloat() * 7, random.nextFloat() * 7
+            );
+            Quaternionf result = EntitySnapshot.unpackRotation(EntitySnapshot.packRotation(rotation), new Quaternionf());
+
+            // q and -q are the same rotation
+            float dot = Math.abs(rotation.dot(result));
+            Assert.assertEquals(1, dot, 1e-5f);
+        }
+    }
+
+    @Test
+    public void testDeltasWithLaggingAcknowledgements() throws IOException {
+        EntitySnapshot state = randomSnapshot(1);
+        int lastSize = Integer.MAX_VALUE;
+
+        for (int sequence = 1; sequence < 100; sequence++) {
+            byte[] message = encode(state);
+            EntitySnapshot result = decoder.read(new DataInputStream(new ByteArrayInputStream(message)));
+            assertEqual(state, result);
+
+            // the client acknowledges with a delay of 3 snapshots
+            if (sequence > 3) encoder.acknowledge(sequence - 3);
+            if (sequence > 3) lastSize = Math.min(lastSize, message.length);
+
+            state = moveSome(state, sequence + 1);
+        }
+
+        // only a few entities move each tick
+        Assert.assertTrue("smallest message has " + lastSize + " bytes", lastSize < NOF_ENTITIES * 4);
+    }
+
+    @Test
+    public void testUnchangedIsSkipped() throws IOException {
+        EntitySnapshot first = randomSnapshot(1);
+        decoder.read(new DataInputStream(new ByteArrayInputStream(encode(first))));
+        encoder.acknowledge(1);
+
+        EntitySnapshot second = new EntitySnapshot(2, 1f, first.ids, first.positions, first.rotations);
+        byte[] message = encode(second);
+        // sequence, baseline, time and count
+        Assert.assertEquals(1 + 1 + 4 + 1, message.length);
+        assertEqual(second, decoder.read(new DataInputStream(new ByteArrayInputStream(message))));
+        // the skipped entities are still at rest at the time of the second snapshot
+        Assert.assertEquals(NOF_ENTITIES, decoder.getNumberUpdated());
+    }
+
+    @Test
+    public void testIrrelevantIsSkipped() throws IOException {
+        EntitySnapshot state = randomSnapshot(1);
+
+        for (int sequence = 1; sequence < 50; sequence++) {
+            boolean[] relevant = new boolean[state.size()];
+            for (int i = 0; i < relevant.length; i++) {
+                relevant[i] = random.nextBoolean();
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            encoder.write(new DataOutputStream(bytes), state, relevant);
+            EntitySnapshot result = decoder.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+            // every relevant entity has its current state, and the next delta must be decoded correctly
+            int nOfRelevant = 0;
+            for (int n = 0; n < decoder.getNumberUpdated(); n++) {
+                int index = decoder.getUpdated(n);
+                Assert.assertTrue(relevant[state.indexOf(result.getId(index))]);
+            }
+            for (int i = 0; i < state.size(); i++) {
+                if (!relevant[i]) continue;
+                nOfRelevant++;
+                int index = result.indexOf(state.getId(i));
+                Assert.assertTrue(index >= 0);
+                Assert.assertEquals(state.rotations[i], result.rotations[index]);
+                Assert.assertEquals(state.positions[3 * i], result.positions[3 * index]);
+            }
+            // including the relevant entities that did not change
+            Assert.assertEquals(nOfRelevant, decoder.getNumberUpdated());
+
+            encoder.acknowledge(sequence);
+            state = moveSome(state, sequence + 1);
+        }
+    }
+
+    @Test
+    public void testRemovedEntity() throws IOException {
+        EntitySnapshot first = randomSnapshot(1);
+        decoder.read(new DataInputStream(new ByteArrayInputStream(encode(first))));
+        encoder.acknowledge(1);
+
+        int removed = first.getId(NOF_ENTITIES / 2);
+        decoder.remove(removed);
+        EntitySnapshot second = moveSome(first, 2).without(removed);
+
+        EntitySnapshot result = decoder.read(new DataInputStream(new ByteArrayInputStream(encode(second))));
+        assertEqual(second, result);
+        Assert.assertTrue(result.indexOf(removed) < 0);
+    }
+
+    private byte[] encode(EntitySnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        encoder.write(new DataOutputStream(bytes), snapshot);
+        return bytes.toByteArray();
+    }
+
+    private EntitySnapshot randomSnapshot(int sequence) {
+        int[] ids = new int[NOF_ENTITIES];
+        int[] positions = new int[3 * NOF_ENTITIES];
+        int[] rotations = new int[NOF_ENTITIES];
+
+        int id = 0;
+        for (int i = 0; i < NOF_ENTITIES; i++) {
+            id += 1 + random.nextInt(20);
+            ids[i] = id;
+            for (int c = 0; c < 3; c++) {
+                positions[3 * i + c] = EntitySnapshot.quantize((random.nextFloat() - 0.5f) * 2000);
+            }
+            rotations[i] = EntitySnapshot.packRotation(new Quaternionf().rotateZ(random.nextFloat() * 6));
+        }
+
+        return new EntitySnapshot(sequence, 0, ids, positions, rotations);
+    }
+
+    /** moves a tenth of the entities a small distance */
+    private EntitySnapshot moveSome(EntitySnapshot source, int sequence) {
+        int[] positions = Arrays.copyOf(source.positions, source.positions.length);
+        int[] rotations = Arrays.copyOf(source.rotations, source.rotations.length);
+
+        for (int i = 0; i < source.size(); i++) {
+            if (random.nextInt(10) != 0) continue;
+            for (int c = 0; c < 3; c++) {
+                positions[3 * i + c] += random.nextInt(200) - 100;
+            }
+            rotations[i] = EntitySnapshot.packRotation(new Quaternionf().rotateZ(random.nextFloat() * 6));
+        }
+
+        return new EntitySnapshot(sequence, sequence * 0.02f, source.ids, positions, rotations);
+    }
+
+    private static void assertEqual(EntitySnapshot expected, EntitySnapshot result) {
+        Assert.assertEquals(expected.sequence, result.sequence);
+        Assert.assertEquals(expected.time, result.time, 0f);
+        Assert.assertArrayEquals(expected.ids, result.ids);
+        Assert.assertArrayEquals(expected.positions, result.positions);
+        Assert.assertArrayEquals(expected.rotations, result.rotations);
+    }
+}
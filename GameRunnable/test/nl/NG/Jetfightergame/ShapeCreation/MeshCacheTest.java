@@ -0,0 +1,161 @@
+package nl.NG.Jetfightergame.ShapeCreation;
+
+import nl.NG.Jetfightergame.Tools.Logger;
+import nl.NG.Jetfightergame.Tools.Resource;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class MeshCacheTest {
+    private static final String CUBE_OBJ = String.join("\n",
+            "v 1 1 1", "v 1 1 -1", "v 1 -1 1", "v 1 -1 -1", "v -1 1 1", "v -1 1 -1", "v -1 -1 1", "v -1 -1 -1",
+            "vn 1 0 0", "vn -1 0 0",
+            "f 1//1 2//1 4//1", "f 1//1 4//1 3//1", "f 5//2 7//2 8//2", "f 5//2 8//2 6//2 "
+    );
+
+    private Path directory;
+    private Path source;
+    private int nOfParses;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("meshcache");
+        source = directory.resolve("cube.obj");
+        Files.write(source, CUBE_OBJ.getBytes());
+        nOfParses = 0;
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testCachedEqualsParsed() {
+        List<ShapeParameters> parsed = load(2f);
+        List<ShapeParameters> cached = load(2f);
+
+        Assert.assertEquals(1, nOfParses);
+        Assert.assertEquals(1, cached.size());
+        assertEqualModels(parsed.get(0), cached.get(0));
+        Assert.assertEquals("cube", cached.get(0).name);
+        Assert.assertArrayEquals(parsed.get(0).boundingSphere, cached.get(0).boundingSphere, 0);
+        // the corners of the scaled cube
+        Assert.assertEquals(Math.sqrt(12), cached.get(0).boundingSphere[3], 1e-5);
+    }
+
+    @Test
+    public void testRebuildWhenSourceChanges() throws IOException {
+        load(1f);
+        Files.write(source, (CUBE_OBJ + "\nf 1//1 3//1 7//1").getBytes());
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 2000));
+
+        List<ShapeParameters> result = load(1f);
+        Assert.assertEquals(2, nOfParses);
+        Assert.assertEquals(5, result.get(0).faces.size());
+
+        load(1f);
+        Assert.assertEquals(2, nOfParses);
+    }
+
+    @Test
+    public void testParametersHaveSeparateFiles() {
+        load(1f);
+        load(2f);
+        Assert.assertEquals(2, nOfParses);
+
+        Assert.assertEquals(1, load(1f).get(0).vertices.get(0).x(), 0);
+        Assert.assertEquals(2, load(2f).get(0).vertices.get(0).x(), 0);
+        Assert.assertEquals(2, nOfParses);
+    }
+
+    @Test
+    public void testDamagedFileIsRebuilt() throws IOException {
+        ShapeParameters parsed = load(1f).get(0);
+        Path cacheFile = getCacheFile();
+        long size = Files.size(cacheFile);
+
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 10);
+        }
+        assertEqualModels(parsed, load(1f).get(0));
+        Assert.assertEquals(2, nOfParses);
+        Assert.assertEquals(size, Files.size(cacheFile));
+
+        // a different version
+        byte[] data = Files.readAllBytes(cacheFile);
+        data[7]++;
+        Files.write(cacheFile, data);
+        assertEqualModels(parsed, load(1f).get(0));
+        Assert.assertEquals(3, nOfParses);
+    }
+
+    @Test
+    public void testBundledMap() throws IOException {
+        Path map = Resource.GLITCHMAP.getPathAs(".obj");
+        Supplier<List<ShapeParameters>> parser = () -> {
+            nOfParses++;
+            List<ShapeParameters> parts = new ArrayList<>();
+            // no splitting, as the split of BasicShape is not accessible
+            parts.add(new ShapeParameters(PosVector.zeroVector(), 50f, map, "map"));
+            return parts;
+        };
+
+        long start = System.nanoTime();
+        List<ShapeParameters> parsed = MeshCache.load(directory, map, "map", new float[]{50f}, parser);
+        long parseTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<ShapeParameters> cached = MeshCache.load(directory, map, "map", new float[]{50f}, parser);
+        long cacheTime = System.nanoTime() - start;
+
+        Assert.assertEquals(1, nOfParses);
+        assertEqualModels(parsed.get(0), cached.get(0));
+        Logger.DEBUG.print(String.format("GlitchIsland: %d bytes of text parsed in %1.01f ms, cache of %d bytes read in %1.01f ms",
+                Files.size(map), parseTime / 1e6, Files.size(getCacheFile()), cacheTime / 1e6));
+    }
+
+    private List<ShapeParameters> load(float scale) {
+        return MeshCache.load(directory, source, "cube", new float[]{scale}, () -> {
+            nOfParses++;
+            List<ShapeParameters> parts = new ArrayList<>();
+            parts.add(new ShapeParameters(PosVector.zeroVector(), scale, source, "cube"));
+            return parts;
+        });
+    }
+
+    private Path getCacheFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.toString().endsWith(MeshCache.EXTENSION)).findAny().orElseThrow(AssertionError::new);
+        }
+    }
+
+    private static void assertEqualModels(ShapeParameters expected, ShapeParameters actual) {
+        Assert.assertEquals(expected.vertices, actual.vertices);
+        Assert.assertEquals(expected.normals, actual.normals);
+        Assert.assertEquals(expected.faces.size(), actual.faces.size());
+        for (int i = 0; i < expected.faces.size(); i++) {
+            Assert.assertArrayEquals(expected.faces.get(i).vert, actual.faces.get(i).vert);
+            Assert.assertArrayEquals(expected.faces.get(i).norm, actual.faces.get(i).norm);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package nl.NG.Jetfightergame.ShapeCreation;
+
+import nl.NG.Jetfightergame.Tools.Directory;
+import nl.NG.Jetfightergame.Tools.Logger;
+import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class MeshDataTest {
+    private static final int GRID_SIZE = 40;
+
+    @Test
+    public void testSharedVerticesAreStoredOnce() {
+        // a square of two triangles, where the positions and the normal are given twice
+        List<PosVector> positions = Arrays.asList(
+                new PosVector(0, 0, 0), new PosVector(1, 0, 0), new PosVector(1, 1, 0),
+                new PosVector(0, 0, 0), new PosVector(1, 1, 0), new PosVector(0, 1, 0)
+        );
+        List<DirVector> normals = Arrays.asList(DirVector.zVector(), DirVector.zVector());
+        List<Mesh.Face> faces = Arrays.asList(
+                new Mesh.Face(new int[]{0, 1, 2}, 0),
+                new Mesh.Face(new int[]{3, 4, 5}, 1)
+        );
+
+        MeshData data = MeshData.index(positions, normals, faces);
+        Assert.assertEquals(4, data.getVertexCount());
+        Assert.assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3}, data.getIndices());
+        assertSameTriangles(expand(positions, normals, faces), data);
+
+        // a different normal makes a different vertex
+        normals = Arrays.asList(DirVector.zVector(), DirVector.xVector());
+        Assert.assertEquals(6, MeshData.index(positions, normals, faces).getVertexCount());
+    }
+
+    @Test
+    public void testGridSavesMemory() {
+        List<PosVector> positions = new ArrayList<>();
+        List<DirVector> normals = new ArrayList<>();
+        List<Mesh.Face> faces = new ArrayList<>();
+        createGrid(positions, normals, faces);
+
+        MeshData data = MeshData.index(positions, normals, faces);
+        // every point of the grid is one vertex
+        Assert.assertEquals((GRID_SIZE + 1) * (GRID_SIZE + 1), data.getVertexCount());
+        Assert.assertEquals(faces.size() * 3, data.getIndexCount());
+        Assert.assertTrue(data.hasShortIndices());
+        Assert.assertTrue(data.getByteSize() * 3 < data.getExpandedByteSize());
+    }
+
+    @Test
+    public void testOptimizationKeepsTriangles() {
+        List<PosVector> positions = new ArrayList<>();
+        List<DirVector> normals = new ArrayList<>();
+        List<Mesh.Face> faces = new ArrayList<>();
+        createGrid(positions, normals, faces);
+        Collections.shuffle(faces, new Random(42));
+
+        MeshData data = MeshData.index(positions, normals, faces);
+        float before = data.getCacheMissRatio(MeshData.CACHE_SIZE);
+        data.optimizeVertexCache();
+        float after = data.getCacheMissRatio(MeshData.CACHE_SIZE);
+
+        assertSameTriangles(expand(positions, normals, faces), data);
+        // vertices are numbered in order of first use
+        int maxIndex = -1;
+        for (int index : data.getIndices()) {
+            Assert.assertTrue(index <= maxIndex + 1);
+            maxIndex = Math.max(maxIndex, index);
+        }
+
+        Logger.DEBUG.print(String.format("Shuffled grid: %1.02f vertices per triangle, optimized: %1.02f", before, after));
+        Assert.assertTrue(after < before);
+        Assert.assertTrue(after < 1f);
+    }
+
+    @Test
+    public void testBundledModels() throws IOException {
+        List<Path> models;
+        try (Stream<Path> files = Files.walk(Directory.meshes.getPath())) {
+            models = files.filter(p -> p.toString().endsWith(".obj")).sorted().collect(Collectors.toList());
+        }
+        Assert.assertFalse(models.isEmpty());
+
+        long totalExpanded = 0;
+        long totalIndexed = 0;
+        for (Path path : models) {
+            ShapeParameters model = new ShapeParameters(PosVector.zeroVector(), 1f, path, path.getFileName().toString());
+            // some unused maps have no normals, and cannot be loaded as mesh
+            if (model.faces.isEmpty() || model.normals.isEmpty()) continue;
+
+            List<Mesh.Face> triangles = model.faces.stream()
+                    .filter(f -> f.size() == 3)
+                    .collect(Collectors.toList());
+            MeshData data = MeshData.index(model.vertices, model.normals, triangles);
+            float before = data.getCacheMissRatio(MeshData.CACHE_SIZE);
+            data.optimizeVertexCache();
+            float after = data.getCacheMissRatio(MeshData.CACHE_SIZE);
+
+            assertSameTriangles(expand(model.vertices, model.normals, triangles), data);
+            Assert.assertTrue(model.name, after <= before + 1e-6f);
+
+            Logger.DEBUG.print(String.format("%-35s %7d -> %7d bytes, %1.02f -> %1.02f vertices per triangle",
+                    model.name, data.getExpandedByteSize(), data.getByteSize(), before, after));
+            totalExpanded += data.getExpandedByteSize();
+            totalIndexed += data.getByteSize();
+        }
+
+        Logger.DEBUG.print(String.format("All models: %d -> %d bytes (%1.01f%%)",
+                totalExpanded, totalIndexed, 100f * totalIndexed / totalExpanded));
+        Assert.assertTrue(totalIndexed < totalExpanded);
+    }
+
+    /** a flat grid of GRID_SIZE x GRID_SIZE quads, split in triangles, with one normal per triangle */
+    private static void createGrid(List<PosVector> positions, List<DirVector> normals, List<Mesh.Face> faces) {
+        for (int x = 0; x <= GRID_SIZE; x++) {
+            for (int y = 0; y <= GRID_SIZE; y++) {
+                positions.add(new PosVector(x, y, 0));
+            }
+        }
+
+        int row = GRID_SIZE + 1;
+        for (int x = 0; x < GRID_SIZE; x++) {
+            for (int y = 0; y < GRID_SIZE; y++) {
+                int a = x * row + y;
+                normals.add(DirVector.zVector());
+                faces.add(new Mesh.Face(new int[]{a, a + row, a + row + 1}, normals.size() - 1));
+                normals.add(DirVector.zVector());
+                faces.add(new Mesh.Face(new int[]{a, a + row + 1, a + 1}, normals.size() - 1));
+            }
+        }
+    }
+
+    /** the triangles as lists of 18 floats, rotated such that the smallest corner is first to ignore rotation */
+    private static List<List<Float>> expand(List<PosVector> positions, List<DirVector> normals, List<Mesh.Face> faces) {
+        float[] vertices = new float[faces.size() * 3 * MeshData.FLOATS_PER_VERTEX];
+        int i = 0;
+        for (Mesh.Face face : faces) {
+            for (int j = 0; j < 3; j++) {
+                PosVector p = positions.get(face.vert[j]);
+                DirVector n = normals.get(face.norm[j]);
+                vertices[i++] = p.x();
+                vertices[i++] = p.y();
+                vertices[i++] = p.z();
+                vertices[i++] = n.x();
+                vertices[i++] = n.y();
+                vertices[i++] = n.z();
+            }
+        }
+        return toTriangles(vertices);
+    }
+
+    private static void assertSameTriangles(List<List<Float>> expected, MeshData data) {
+        int[] indices = data.getIndices();
+        float[] vertices = new float[indices.length * MeshData.FLOATS_PER_VERTEX];
+        for (int i = 0; i < indices.length; i++) {
+            System.arraycopy(data.getVertices(), indices[i] * MeshData.FLOATS_PER_VERTEX,
+                    vertices, i * MeshData.FLOATS_PER_VERTEX, MeshData.FLOATS_PER_VERTEX);
+        }
+
+        List<List<Float>> actual = toTriangles(vertices);
+        Comparator<List<Float>> order = MeshDataTest::compare;
+        expected.sort(order);
+        actual.sort(order);
+        Assert.assertEquals(expected, actual);
+    }
+
+    private static List<List<Float>> toTriangles(float[] vertices) {
+        int size = 3 * MeshData.FLOATS_PER_VERTEX;
+        List<List<Float>> triangles = new ArrayList<>();
+
+        for (int t = 0; t < vertices.length; t += size) {
+            List<List<Float>> corners = new ArrayList<>();
+            for (int c = 0; c < 3; c++) {
+                List<Float> corner = new ArrayList<>();
+                for (int f = 0; f < MeshData.FLOATS_PER_VERTEX; f++) {
+                    corner.add(vertices[t + c * MeshData.FLOATS_PER_VERTEX + f]);
+                }
+                corners.add(corner);
+            }
+
+            int first = 0;
+            for (int c = 1; c < 3; c++) {
+                if (compare(corners.get(c), corners.get(first)) < 0) first = c;
+            }
+
+            List<Float> triangle = new ArrayList<>();
+            for (int c = 0; c < 3; c++) {
+                triangle.addAll(corners.get((first + c) % 3));
+            }
+            triangles.add(triangle);
+        }
+        return triangles;
+    }
+
+    private static int compare(List<Float> a, List<Float> b) {
+        for (int i = 0; i < a.size(); i++) {
+            int c = Float.compare(a.get(i), b.get(i));
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,103 @@
+package nl.NG.Jetfightergame.Tools;
+
+import nl.NG.Jetfightergame.Tools.DataStructures.BoundingVolumeHierarchy;
+import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class BoundingVolumeHierarchyTest {
+    private static final int NOF_BOXES = 500;
+    private List<float[]> boxes;
+    private BoundingVolumeHierarchy<float[]> tree;
+    private Random random;
+
+    @Before
+    public void setUp() {
+        random = new Random(3039);
+        boxes = new ArrayList<>();
+
+        for (int i = 0; i < NOF_BOXES; i++) {
+            float x = random.nextFloat() * 100;
+            float y = random.nextFloat() * 100;
+            float z = random.nextFloat() * 10;
+            float size = random.nextFloat() * 3;
+            boxes.add(new float[]{x, y, z, x + size, y + size, z + size});
+        }
+
+        tree = new BoundingVolumeHierarchy<>(boxes, (box, dest, offset) -> System.arraycopy(box, 0, dest, offset, 6));
+    }
+
+    @Test
+    public void testCollectOverlapping() {
+        for (int n = 0; n < 100; n++) {
+            float x = random.nextFloat() * 100;
+            float y = random.nextFloat() * 100;
+            float z = random.nextFloat() * 10;
+            float size = random.nextFloat() * 10;
+
+            Set<float[]> result = new HashSet<>();
+            int count = tree.collectOverlapping(x, y, z, x + size, y + size, z + size, result);
+
+            Set<float[]> expected = new HashSet<>();
+            for (float[] b : boxes) {
+                if (b[0] <= x + size && b[3] >= x && b[1] <= y + size && b[4] >= y && b[2] <= z + size && b[5] >= z) {
+                    expected.add(b);
+                }
+            }
+
+            Assert.assertEquals(expected, result);
+            Assert.assertEquals(expected.size(), count);
+        }
+    }
+
+    @Test
+    public void testTraceLineFindsFirstBox() {
+        for (int n = 0; n < 100; n++) {
+            PosVector start = new PosVector(random.nextFloat() * 100, random.nextFloat() * 100, random.nextFloat() * 10);
+            PosVector end = new PosVector(random.nextFloat() * 100, random.nextFloat() * 100, random.nextFloat() * 10);
+            DirVector direction = start.to(end, new DirVector());
+
+            float expected = 1;
+            for (float[] b : boxes) {
+                expected = Math.min(expected, entry(b, start, direction));
+            }
+
+            float result = tree.traceLine(start, direction, 1, (box, max) -> Math.min(max, entry(box, start, direction)));
+
+            Assert.assertEquals(expected, result, 1e-6f);
+        }
+    }
+
+    @Test
+    public void testEmptyTree() {
+        BoundingVolumeHierarchy<float[]> empty = new BoundingVolumeHierarchy<>(Collections.emptyList(), (b, d, o) -> {});
+        Assert.assertEquals(0, empty.collectOverlapping(0, 0, 0, 1, 1, 1, new ArrayList<>()));
+        Assert.assertEquals(1f, empty.traceLine(new PosVector(), DirVector.xVector(), 1, (b, max) -> 0), 0f);
+    }
+
+    /** brute-force slab test, returns the least scalar in [0, 1] inside the box, or 1 if there is none */
+    private static float entry(float[] box, PosVector start, DirVector direction) {
+        float tMin = 0;
+        float tMax = 1;
+        for (int a = 0; a < 3; a++) {
+            float s = start.get(a);
+            float d = direction.get(a);
+            if (d == 0) {
+                if (s < box[a] || s > box[a + 3]) return 1;
+                continue;
+            }
+            float t1 = (box[a] - s) / d;
+            float t2 = (box[a + 3] - s) / d;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        return (tMin <= tMax) ? tMin : 1;
+    }
+}
@@ -0,0 +1,69 @@
+package nl.NG.Jetfightergame.Tools;
+
+import nl.NG.Jetfightergame.Tools.DataStructures.ConcurrentIntMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class ConcurrentIntMapTest {
+
+    @Test
+    public void testMatchesHashMap() {
+        ConcurrentIntMap<Integer> map = new ConcurrentIntMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(3039);
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                Assert.assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+
+        Assert.assertEquals(expected.size(), map.size());
+        for (int key = -1000; key < 1000; key++) {
+            Assert.assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testReadersSeeStableKeys() throws InterruptedException {
+        ConcurrentIntMap<Integer> map = new ConcurrentIntMap<>();
+        // the even keys are never removed, while odd keys are added and removed concurrently
+        for (int key = 0; key < 1000; key += 2) {
+            map.put(key, key);
+        }
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        AtomicBoolean done = new AtomicBoolean(false);
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                for (int key = 0; key < 1000; key++) {
+                    Integer value = map.get(key);
+                    if ((key % 2 == 0 && value == null) || (value != null && value != key)) failed.set(true);
+                }
+            }
+        });
+        reader.start();
+
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            int key = 2 * random.nextInt(5000) + 1;
+            if (random.nextBoolean()) map.put(key, key);
+            else map.remove(key);
+        }
+
+        done.set(true);
+        reader.join();
+        Assert.assertFalse(failed.get());
+    }
+}
@@ -0,0 +1,77 @@
+package nl.NG.Jetfightergame.Tools;
+
+import nl.NG.Jetfightergame.Tools.Interpolation.QuaternionInterpolator;
+import nl.NG.Jetfightergame.Tools.Interpolation.VectorInterpolator;
+import nl.NG.Jetfightergame.Tools.Vectors.DirVector;
+import nl.NG.Jetfightergame.Tools.Vectors.PosVector;
+import org.joml.Quaternionf;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * renders frames of many entities, reading their interpolated state into reused objects
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class InterpolatorAllocationTest {
+    private static final int NOF_ENTITIES = 500;
+    private static final int NOF_FRAMES = 200;
+
+    private final VectorInterpolator[] positions = new VectorInterpolator[NOF_ENTITIES];
+    private final QuaternionInterpolator[] rotations = new QuaternionInterpolator[NOF_ENTITIES];
+    private final PosVector position = new PosVector();
+    private final DirVector velocity = new DirVector();
+    private final Quaternionf rotation = new Quaternionf();
+
+    @Test
+    public void testFramesDoNotAllocate() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < NOF_ENTITIES; i++) {
+            positions[i] = new VectorInterpolator(16, new PosVector(i, 0, 0), 0);
+            rotations[i] = new QuaternionInterpolator(16, new Quaternionf(), 0);
+            for (int t = 1; t <= 10; t++) {
+                positions[i].add(new PosVector(i, t, 0), t);
+                rotations[i].add(new Quaternionf().rotateZ(0.1f * t), t);
+            }
+        }
+
+        // warm up, such that class loading and compilation are not measured
+        float checksum = 0;
+        for (int f = 0; f < NOF_FRAMES; f++) {
+            checksum += frame(f * 0.05f);
+        }
+
+        long overhead = threads.getThreadAllocatedBytes(thread);
+        overhead = threads.getThreadAllocatedBytes(thread) - overhead;
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int f = 0; f < NOF_FRAMES; f++) {
+            checksum += frame(f * 0.05f);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before - overhead;
+
+        System.out.printf("%d frames of %d entities allocated %d bytes (checksum %.1f)%n",
+                NOF_FRAMES, NOF_ENTITIES, allocated, checksum
+        );
+        // a single vector per read would be megabytes, the remainder is measurement noise of the bean itself
+        Assert.assertTrue(allocated < 1024);
+    }
+
+    private float frame(float renderTime) {
+        float sum = 0;
+        for (int i = 0; i < NOF_ENTITIES; i++) {
+            positions[i].updateTime(renderTime);
+            positions[i].getInterpolated(renderTime, position);
+            positions[i].getDerivative(velocity);
+            rotations[i].getInterpolated(renderTime, rotation);
+
+            sum += position.y + velocity.y + rotation.z;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,63 @@
+package nl.NG.Jetfightergame.Tools;
+
+import nl.NG.Jetfightergame.Tools.DataStructures.LogHistogram;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class LogHistogramTest {
+    private LogHistogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new LogHistogram();
+    }
+
+    @Test
+    public void testEmpty() {
+        Assert.assertEquals(0, histogram.count());
+        Assert.assertEquals(0, histogram.max());
+        Assert.assertEquals(0, histogram.mean(), 0);
+        Assert.assertEquals(0, histogram.percentile(0.99));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        for (int i = 0; i < LogHistogram.SUB_BUCKETS; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(LogHistogram.SUB_BUCKETS - 1, histogram.max());
+        Assert.assertEquals(0, histogram.percentile(0));
+        Assert.assertEquals(3, histogram.percentile(0.5));
+    }
+
+    @Test
+    public void testPercentileWithinPrecision() {
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000L);
+        }
+        Assert.assertEquals(100_000, histogram.count());
+        Assert.assertEquals(50_000_500, histogram.mean(), 1);
+
+        long[] expected = {50_000_000, 90_000_000, 99_000_000};
+        double[] fractions = {0.5, 0.9, 0.99};
+        for (int i = 0; i < fractions.length; i++) {
+            long result = histogram.percentile(fractions[i]);
+            Assert.assertTrue(result + " < " + expected[i], result >= expected[i]);
+            Assert.assertTrue(result + " too large", result <= expected[i] * (1 + 1.0 / LogHistogram.SUB_BUCKETS));
+        }
+        Assert.assertEquals(100_000_000, histogram.percentile(1));
+    }
+
+    @Test
+    public void testClear() {
+        histogram.record(Long.MAX_VALUE);
+        Assert.assertEquals(Long.MAX_VALUE, histogram.percentile(1));
+        histogram.clear();
+        Assert.assertEquals(0, histogram.count());
+        Assert.assertEquals(0, histogram.percentile(1));
+    }
+}
@@ -0,0 +1,61 @@
+package nl.NG.Jetfightergame.Tools;
+
+import nl.NG.Jetfightergame.Tools.Interpolation.FloatInterpolator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class TimedRingBufferTest {
+
+    @Test
+    public void testOldestIsOverwritten() {
+        FloatInterpolator instance = new FloatInterpolator(8, 0f, 0);
+        for (int i = 1; i <= 20; i++) {
+            instance.add((float) i, i);
+        }
+
+        // only the last 8 elements remain, earlier times take the oldest remaining element
+        Assert.assertEquals(13f, instance.getActive(0), 0f);
+        Assert.assertEquals(15.5f, instance.getInterpolated(15.5f), 1e-5f);
+        Assert.assertEquals(22f, instance.getInterpolated(22f), 1e-5f);
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentReadsAreConsistent() throws InterruptedException {
+        // all elements lie on f(t) = 2t, such that extrapolating any pair of consistent elements gives f(t), while
+        // mixing the time of one element with the value of another does not
+        FloatInterpolator instance = new FloatInterpolator(16, -2f, 0);
+        instance.add(0f, 0);
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicBoolean failed = new AtomicBoolean(false);
+
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                float t = 1_000_000;
+                while (!done.get()) {
+                    float value = instance.getInterpolated(t);
+                    if (Math.abs(value - 2 * t) > 1) failed.set(true);
+                }
+            });
+            readers[r].start();
+        }
+
+        for (int i = 0; i < 200_000; i++) {
+            float time = i;
+            instance.add(2 * time, time);
+            // refinements remove the last element
+            if (i % 7 == 0) instance.add(2 * (time - 0.5f), time - 0.5f);
+        }
+
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        Assert.assertFalse(failed.get());
+    }
+}
@@ -0,0 +1,36 @@
+package nl.NG.Jetfightergame.Tools;
+
+import nl.NG.Jetfightergame.Tools.DataStructures.UnionFind;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Geert van Ieperen created on 17-10-2026.
+ */
+public class UnionFindTest {
+
+    @Test
+    public void testUnion() {
+        UnionFind forest = new UnionFind(6);
+        forest.union(0, 1);
+        forest.union(2, 3);
+        forest.union(1, 3);
+
+        Assert.assertEquals(forest.find(0), forest.find(2));
+        Assert.assertEquals(forest.find(1), forest.find(3));
+        Assert.assertNotEquals(forest.find(0), forest.find(4));
+        Assert.assertNotEquals(forest.find(4), forest.find(5));
+    }
+
+    @Test
+    public void testReset() {
+        UnionFind forest = new UnionFind(2);
+        forest.union(0, 1);
+        forest.reset(4);
+
+        Assert.assertEquals(4, forest.size());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(i, forest.find(i));
+        }
+    }
+}
@@ -2,6 +2,9 @@
 
 layout (location = 0) in vec3 position;
 layout (location = 1) in vec3 vertexNormal;
+// per-instance matrices, only read when instanced is true
+layout (location = 2) in mat4 instanceModelMatrix;
+layout (location = 6) in mat3 instanceNormalMatrix;
 
 struct Material
 {
@@ -30,6 +33,7 @@ uniform vec3 cameraPosition;
 uniform mat4 modelMatrix;
 uniform mat4 viewProjectionMatrix;
 uniform mat3 normalMatrix;
+uniform bool instanced;
 
 smooth out vec4 fragColor;
 smooth out float cameraDistance;
@@ -59,11 +63,14 @@ vec3 calculateLighting(vec3 P, vec3 N, vec3 eye, PointLight light){
 void main()
 {
     // opaque black
-    vec4 modelPosition4 = modelMatrix * vec4(position, 1.0);
+    mat4 model = instanced ? instanceModelMatrix : modelMatrix;
+    mat3 normal = instanced ? instanceNormalMatrix : normalMatrix;
+
+    vec4 modelPosition4 = model * vec4(position, 1.0);
     gl_Position = viewProjectionMatrix * modelPosition4;
 
     vec3 mPosition = modelPosition4.xyz;
-    vec3 mNormal = normalize(normalMatrix * vertexNormal);
+    vec3 mNormal = normalize(normal * vertexNormal);
 
     vec3 diffuseSpecularComponent = vec3(0.0, 0.0, 0.0);
     for (int i=0; i < MAX_POINT_LIGHTS; i++) {
@@ -1,11 +1,14 @@
 #version 330
 
-layout (location = 0) in vec3 relativePos;
-layout (location = 1) in vec3 middle; // initial position of middle
-layout (location = 2) in vec4 rotation; // (x, y, z, angle)
-layout (location = 3) in vec3 movement;
-layout (location = 4) in vec4 color;
-layout (location = 5) in vec2 beginEndTime; // (beginTime, endTime)
+// one instance per particle, of which the vertex id selects the corner
+layout (location = 0) in vec3 relativePosA;
+layout (location = 1) in vec3 relativePosB;
+layout (location = 2) in vec3 relativePosC;
+layout (location = 3) in vec3 middle; // initial position of middle
+layout (location = 4) in vec4 rotation; // (x, y, z, angle)
+layout (location = 5) in vec3 movement;
+layout (location = 6) in vec4 color;
+layout (location = 7) in vec2 beginEndTime; // (beginTime, endTime)
 
 uniform mat4 viewProjectionMatrix;
 uniform float currentTime;
@@ -13,10 +16,10 @@ uniform float currentTime;
 smooth out vec4 fragColor;
 
 void main() {
-    if (currentTime < beginEndTime.y) {
+    if (currentTime >= beginEndTime.x && currentTime < beginEndTime.y) {
         // abbreviations
         vec3 rot = rotation.xyz;
-        vec3 rel = relativePos;
+        vec3 rel = (gl_VertexID == 0) ? relativePosA : ((gl_VertexID == 1) ? relativePosB : relativePosC);
         float t = currentTime - beginEndTime.x;
 
         // rotate the relative positions by angle
@@ -4,6 +4,9 @@
 
 layout (location = 0) in vec3 position;
 layout (location = 1) in vec3 vertexNormal;
+// per-instance matrices, only read when instanced is true
+layout (location = 2) in mat4 instanceModelMatrix;
+layout (location = 6) in mat3 instanceNormalMatrix;
 
 // normal of the vertex
 out vec3 mVertexNormal;
@@ -15,13 +18,16 @@ uniform vec3 cameraPosition;
 uniform mat4 modelMatrix;
 uniform mat4 viewProjectionMatrix;
 uniform mat3 normalMatrix;
+uniform bool instanced;
 
 void main() {
+    mat4 model = instanced ? instanceModelMatrix : modelMatrix;
+    mat3 normal = instanced ? instanceNormalMatrix : normalMatrix;
 
-	vec4 mPosition = modelMatrix * vec4(position, 1.0);
+	vec4 mPosition = model * vec4(position, 1.0);
     gl_Position = viewProjectionMatrix * mPosition;
 
-	mVertexNormal = normalize(normalMatrix * vertexNormal);
+	mVertexNormal = normalize(normal * vertexNormal);
     mVertexPosition = mPosition.xyz;
 
     cameraDistance = length(mVertexPosition - cameraPosition);